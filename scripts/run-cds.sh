@@ -0,0 +1,32 @@
+#!/bin/sh
+# Starts the GUI with an AppCDS archive of the JDK (Swing/AWT) and app classes it loads,
+# so they are mapped from the archive instead of being loaded and verified one by one.
+# The archive is recorded by a --measure-startup training launch the first time, and
+# again whenever the jar is newer than the archive.
+#
+#   scripts/run-cds.sh                     run the app
+#   scripts/run-cds.sh --measure-startup   print time-to-first-window and exit
+#
+# JVM options (e.g. -Ddecision.data.dir=...) go in JAVA_OPTS. Needs JDK 13+.
+set -e
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR="$ROOT/target/decision-matrix-app-1.0-SNAPSHOT.jar"
+ARCHIVE="$ROOT/target/decision-matrix-app.jsa"
+
+if [ ! -f "$JAR" ]; then
+    echo "[ERROR] $JAR not found, run mvn package first" >&2
+    exit 1
+fi
+
+if [ ! -f "$ARCHIVE" ] || [ "$JAR" -nt "$ARCHIVE" ]; then
+    echo "[INFO] Recording class data archive $ARCHIVE" >&2
+    rm -f "$ARCHIVE"
+    # Training run: generous budget so a slow first start does not fail it
+    java $JAVA_OPTS -XX:ArchiveClassesAtExit="$ARCHIVE" -Ddecision.startup.budget.ms=600000 \
+        -jar "$JAR" --measure-startup || { echo "[ERROR] Training run failed, starting without the archive" >&2; rm -f "$ARCHIVE"; }
+fi
+
+if [ -f "$ARCHIVE" ]; then
+    exec java $JAVA_OPTS -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto -jar "$JAR" "$@"
+fi
+exec java $JAVA_OPTS -jar "$JAR" "$@"
@@ -0,0 +1,54 @@
+package decisionmatrix;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Synthetic decisions and scratch directories shared by the benchmarks
+final class BenchmarkData {
+    private static final String[] CRITERIA = { "Cost", "Risk", "Quality", "Location", "Size", "Speed" };
+
+    private BenchmarkData() {
+    }
+
+    static DecisionResult result(int seed, int options, int criteria) {
+        ArrayList<Criterion> criteriaList = new ArrayList<>();
+        for (int i = 0; i < criteria; i++) {
+            criteriaList.add(new Criterion(CRITERIA[i % CRITERIA.length] + (i / CRITERIA.length), 1 + (seed + i) % 10));
+        }
+        ArrayList<OptionScore> scores = new ArrayList<>();
+        int[] totals = new int[options];
+        for (int row = 0; row < options; row++) {
+            totals[row] = (seed * 31 + row * 17) % 500;
+            scores.add(new OptionScore("Option " + row, totals[row]));
+        }
+        ArrayList<OptionScore> ranking = new ArrayList<>();
+        for (int row : DecisionEngine.topK(totals, 0, options, DecisionEngine.DEFAULT_TOP_K)) {
+            ranking.add(scores.get(row));
+        }
+        DecisionResult result = new DecisionResult("user" + (seed % 20), criteriaList, scores, ranking);
+        result.timestamp = java.time.LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(seed).toString();
+        return result;
+    }
+
+    // Points HistoryManager at a fresh temporary directory
+    static Path useTempDataDir() throws IOException {
+        HistoryManager.close();
+        Path dir = Files.createTempDirectory("decision-bench");
+        System.setProperty("decision.data.dir", dir.toString());
+        return dir;
+    }
+
+    static void delete(Path dir) throws IOException {
+        HistoryManager.close();
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
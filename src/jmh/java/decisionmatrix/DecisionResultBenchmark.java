@@ -0,0 +1,38 @@
+package decisionmatrix;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Cost of rendering one result in the text file format
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionResultBenchmark {
+
+    @Param({"10", "1000"})
+    public int options;
+
+    @Param({"5", "50"})
+    public int criteria;
+
+    private DecisionResult result;
+
+    @Setup
+    public void setup() {
+        result = BenchmarkData.result(0, options, criteria);
+    }
+
+    @Benchmark
+    public String toFileFormat() {
+        return result.toFileFormat();
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() throws IOException {
+        return HistoryLog.encode(result);
+    }
+}
@@ -0,0 +1,103 @@
+package decisionmatrix;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Saving into, and loading, histories of different sizes.
+// The files live under a temporary -Ddecision.data.dir created per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Ddecision.history.fsync=never")
+public class HistoryBenchmark {
+
+    @Param({"1000", "100000"})
+    public int historySize;
+
+    private Path dataDir;
+    private Path textHistory;
+    private int seed;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dataDir = BenchmarkData.useTempDataDir();
+        ArrayList<DecisionResult> batch = new ArrayList<>();
+        for (int i = 0; i < historySize; i++) {
+            batch.add(BenchmarkData.result(i, 5, 4));
+            if (batch.size() == 1000) {
+                appendOnly(batch);
+                batch.clear();
+            }
+        }
+        appendOnly(batch);
+
+        // The same history in the text format, for the legacy import path
+        textHistory = dataDir.resolve("export.txt");
+        try (Writer writer = Files.newBufferedWriter(textHistory)) {
+            for (int i = 0; i < historySize; i++) {
+                writer.write(BenchmarkData.result(i, 5, 4).toFileFormat());
+            }
+        }
+        HistoryManager.close();
+        seed = historySize;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(dataDir);
+    }
+
+    @Benchmark
+    public void saveResult() {
+        HistoryManager.saveResult(BenchmarkData.result(seed++, 5, 4));
+    }
+
+    // Startup with an up-to-date index
+    @Benchmark
+    public int loadHistoryIndexed() {
+        HistoryManager.close();
+        HistoryManager.loadHistory();
+        return HistoryManager.getHistorySize();
+    }
+
+    // Startup when the index has to be rebuilt from the log
+    @Benchmark
+    public int loadHistoryReindex() throws IOException {
+        HistoryManager.close();
+        Files.deleteIfExists(HistoryManager.dataPath("decision_history.idx"));
+        HistoryManager.loadHistory();
+        return HistoryManager.getHistorySize();
+    }
+
+    @Benchmark
+    public void parseTextHistory(Blackhole bh) throws IOException {
+        try (HistoryTextParser parser = new HistoryTextParser(textHistory)) {
+            while (parser.hasNext()) {
+                bh.consume(parser.next());
+            }
+        }
+    }
+
+    private static void appendOnly(ArrayList<DecisionResult> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Straight into the store, without writing a results/ file per decision
+        HistoryStore store = HistoryStore.open(HistoryManager.dataPath("decision_history.log"),
+                                               HistoryManager.dataPath("decision_history.idx"),
+                                               HistoryLog.FsyncPolicy.NEVER);
+        try {
+            store.appendAll(batch);
+        } finally {
+            store.close();
+        }
+    }
+}
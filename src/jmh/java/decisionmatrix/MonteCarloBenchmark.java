@@ -0,0 +1,59 @@
+package decisionmatrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Monte Carlo scoring: 100k samples over matrices where some criteria carry ranges.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class MonteCarloBenchmark {
+
+    @Param({"100", "1000"})
+    public int options;
+
+    @Param({"1", "3"})
+    public int rangedCriteria;
+
+    @Param({"100000"})
+    public int samples;
+
+    private static final int CRITERIA = 10;
+
+    private int[] weights;
+    private int[][] likely;
+    private int[][] lows;
+    private int[][] highs;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        weights = new int[CRITERIA];
+        likely = new int[CRITERIA][options];
+        lows = new int[CRITERIA][];
+        highs = new int[CRITERIA][];
+        for (int i = 0; i < CRITERIA; i++) {
+            weights[i] = 1 + random.nextInt(10);
+            for (int row = 0; row < options; row++) {
+                likely[i][row] = random.nextInt(11);
+            }
+        }
+        for (int i = 0; i < rangedCriteria; i++) {
+            lows[i] = new int[options];
+            highs[i] = new int[options];
+            for (int row = 0; row < options; row++) {
+                lows[i][row] = Math.max(0, likely[i][row] - 1 - random.nextInt(3));
+                highs[i][row] = Math.min(10, likely[i][row] + 1 + random.nextInt(3));
+            }
+        }
+    }
+
+    @Benchmark
+    public MonteCarloEngine.MonteCarloResult simulate() {
+        return MonteCarloEngine.simulate(weights, likely, lows, highs, options, CRITERIA, samples, 42);
+    }
+}
@@ -0,0 +1,95 @@
+package decisionmatrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.DefaultTableModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Weighted-sum scoring: the original Calculate-button loop over a DefaultTableModel
+// versus the DecisionEngine paths the GUI uses now.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"1000", "100000"})
+    public int options;
+
+    @Param({"10", "50"})
+    public int criteria;
+
+    private int[] weights;
+    private int[] rowMajor;
+    private int[][] columns;
+    private int[] totals;
+    private DefaultTableModel tableModel;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        weights = new int[criteria];
+        for (int i = 0; i < criteria; i++) {
+            weights[i] = 1 + random.nextInt(10);
+        }
+        rowMajor = new int[options * criteria];
+        columns = new int[criteria][options];
+        tableModel = new DefaultTableModel(options, criteria + 2);
+        for (int row = 0; row < options; row++) {
+            tableModel.setValueAt("Option " + row, row, 0);
+            tableModel.setValueAt(0, row, 1);
+            for (int i = 0; i < criteria; i++) {
+                int score = random.nextInt(11);
+                rowMajor[row * criteria + i] = score;
+                columns[i][row] = score;
+                // Edited cells come back from JTable as Strings
+                tableModel.setValueAt(String.valueOf(score), row, i + 2);
+            }
+        }
+        totals = new int[options];
+    }
+
+    // The loop as it was in the calculateBtn listener, minus the debug printing
+    @Benchmark
+    public int legacyTableModelLoop() {
+        int maxScore = -1;
+        int winner = -1;
+        int rowCount = tableModel.getRowCount();
+        for (int row = 0; row < rowCount; row++) {
+            int currentTotal = 0;
+            for (int i = 0; i < criteria; i++) {
+                Object cellValue = tableModel.getValueAt(row, i + 2);
+                if (cellValue == null || cellValue.toString().trim().isEmpty()) {
+                    continue;
+                }
+                currentTotal += Integer.parseInt(cellValue.toString().trim()) * weights[i];
+            }
+            tableModel.setValueAt(currentTotal, row, 1);
+            if (currentTotal > maxScore) {
+                maxScore = currentTotal;
+                winner = row;
+            }
+        }
+        return winner;
+    }
+
+    @Benchmark
+    public int engineRowMajor() {
+        return DecisionEngine.score(weights, rowMajor, options, criteria, totals);
+    }
+
+    @Benchmark
+    public void engineRowMajorRanked(Blackhole bh) {
+        bh.consume(DecisionEngine.scoreRanked(weights, rowMajor, options, criteria, totals,
+                                              DecisionEngine.DEFAULT_TOP_K));
+    }
+
+    @Benchmark
+    public void engineColumnsRanked(Blackhole bh) {
+        bh.consume(DecisionEngine.scoreColumnsRanked(weights, columns, options, criteria, totals,
+                                                     DecisionEngine.DEFAULT_TOP_K));
+    }
+}
@@ -0,0 +1,74 @@
+package decisionmatrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Scalar vs Vector API scoring kernels on one thread, weighted sum and the normalized
+// (min-max) path as DecisionEngine runs it. The fork runs with the incubator module so
+// both kernels are available.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorKernelBenchmark {
+
+    @Param({"1000", "100000"})
+    public int options;
+
+    @Param({"10", "50"})
+    public int criteria;
+
+    private final ScoringKernel scalar = new ScoringKernel.Scalar();
+    private final ScoringKernel vector = new VectorScoringKernel();
+    private int[] weights;
+    private int[][] columns;
+    private int[] totals;
+    private double[] normalizedTotals;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        weights = new int[criteria];
+        columns = new int[criteria][options];
+        for (int i = 0; i < criteria; i++) {
+            weights[i] = 1 + random.nextInt(10);
+            for (int row = 0; row < options; row++) {
+                columns[i][row] = random.nextInt(11);
+            }
+        }
+        totals = new int[options];
+        normalizedTotals = new double[options];
+    }
+
+    @Benchmark
+    public int[] scalarWeightedSum() {
+        scalar.sumColumns(weights, columns, criteria, totals, 0, options);
+        return totals;
+    }
+
+    @Benchmark
+    public int[] vectorWeightedSum() {
+        vector.sumColumns(weights, columns, criteria, totals, 0, options);
+        return totals;
+    }
+
+    // Min-max: one range pass per column, then the FMA sum
+    @Benchmark
+    public double[] scalarMinMax() {
+        return minMax(scalar);
+    }
+
+    @Benchmark
+    public double[] vectorMinMax() {
+        return minMax(vector);
+    }
+
+    private double[] minMax(ScoringKernel kernel) {
+        DecisionEngine.scoreColumnsNormalized(kernel, weights, columns, options, criteria,
+                                              DecisionEngine.Normalization.MIN_MAX, normalizedTotals);
+        return normalizedTotals;
+    }
+}
@@ -0,0 +1,159 @@
+package decisionmatrix;
+
+import java.awt.*;
+import java.util.ArrayList;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+
+// "AHP Weights" dialog: a pairwise comparison grid for the current criteria. Cell (i, j)
+// above the diagonal says how much more important row i is than column j (1 = equal,
+// 3 = moderately, 5 = strongly, 7 = very strongly, 9 = extremely; 1/3 etc. the other way
+// round); the mirrored cell shows the reciprocal. Every edit re-solves straight away
+// and updates the derived weights, the whole 1-10 weights Apply would set, and the
+// consistency ratio.
+public class AhpDialog extends JDialog {
+    private final AhpWeights ahp;
+    private final ArrayList<Criterion> criteria;
+    private final JLabel consistencyLabel = new JLabel();
+    private double[] derived;
+    private int[] scaled;  // derived on the 1-10 scale, what Apply would set
+    private int[] applied; // set when the user clicks Apply
+
+    public AhpDialog(Frame owner, ArrayList<Criterion> criteria, AhpWeights ahp) {
+        super(owner, "AHP Weights (pairwise comparisons)", true);
+        this.ahp = ahp;
+        this.criteria = criteria;
+        setLayout(new BorderLayout(5, 5));
+
+        JLabel help = new JLabel("<html>How much more important is the row criterion than the column one? "
+                                 + "1 = equal, 3 = moderately, 5 = strongly, 7 = very strongly, 9 = extremely "
+                                 + "(1/3, 1/5 ... when the column one matters more). Weights are whole numbers "
+                                 + "from 1 to 10, so Apply scales the largest to 10 and rounds the rest: criteria "
+                                 + "under 15% of the largest all get 1 (see the Applied column).</html>");
+        help.setBorder(BorderFactory.createEmptyBorder(5, 5, 0, 5));
+        add(help, BorderLayout.NORTH);
+
+        ComparisonModel model = new ComparisonModel();
+        JTable table = new JTable(model);
+        table.setRowHeight(24);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF); // Hundreds of criteria scroll sideways
+        table.getColumnModel().getColumn(0).setPreferredWidth(140);
+        table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable t, Object value, boolean selected, boolean focus,
+                                                           int row, int col) {
+                Component c = super.getTableCellRendererComponent(t, value, selected, focus, row, col);
+                if (!selected) {
+                    c.setBackground(model.isCellEditable(row, col) ? Color.WHITE : new Color(235, 235, 235));
+                }
+                return c;
+            }
+        });
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton applyBtn = new JButton("Apply Weights");
+        applyBtn.setToolTipText("Use the derived weights (scaled to 1-10) for the criteria");
+        JButton cancelBtn = new JButton("Cancel");
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        consistencyLabel.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+        bottomPanel.add(consistencyLabel, BorderLayout.CENTER);
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(applyBtn);
+        buttonPanel.add(cancelBtn);
+        bottomPanel.add(buttonPanel, BorderLayout.SOUTH);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        applyBtn.addActionListener(e -> {
+            if (table.isEditing()) {
+                table.getCellEditor().stopCellEditing();
+            }
+            if (!ahp.isConsistent() && JOptionPane.showConfirmDialog(this,
+                    String.format("The consistency ratio is %.2f (above %.2f), so some comparisons contradict each other.%n"
+                                  + "Apply the weights anyway?", ahp.getConsistencyRatio(), AhpWeights.CONSISTENCY_LIMIT),
+                    "AHP Weights", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                return;
+            }
+            applied = scaled;
+            dispose();
+        });
+        cancelBtn.addActionListener(e -> dispose());
+
+        solve();
+        setSize(Math.min(1000, 300 + 70 * criteria.size()), Math.min(700, 200 + 24 * criteria.size()));
+        setLocationRelativeTo(owner);
+    }
+
+    // Weights to give the criteria (1-10, in criteria order), or null if cancelled
+    public int[] getAppliedWeights() {
+        return applied;
+    }
+
+    private void solve() {
+        long started = System.nanoTime();
+        derived = ahp.solve();
+        scaled = ahp.toIntWeights(SensitivityAnalyzer.MIN_WEIGHT, SensitivityAnalyzer.MAX_WEIGHT);
+        double micros = (System.nanoTime() - started) / 1000.0;
+        String verdict = ahp.isConsistent() ? "consistent" : "too inconsistent, revise the comparisons";
+        consistencyLabel.setText(String.format("Consistency ratio %.3f (%s)   |   lambda max %.3f   |   "
+                                               + "solved in %d iterations, %.0f us",
+                                               ahp.getConsistencyRatio(), verdict, ahp.getLambdaMax(),
+                                               ahp.getIterations(), micros));
+        consistencyLabel.setForeground(ahp.isConsistent() ? new Color(34, 139, 34) : Color.RED);
+    }
+
+    // Column 0 the criterion, 1..n the comparisons, n + 1 the derived weight, n + 2 what Apply sets
+    private class ComparisonModel extends AbstractTableModel {
+        @Override
+        public int getRowCount() {
+            return ahp.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return ahp.size() + 3;
+        }
+
+        @Override
+        public String getColumnName(int col) {
+            if (col == 0) {
+                return "Criterion";
+            }
+            if (col == ahp.size() + 1) {
+                return "Weight";
+            }
+            return col == ahp.size() + 2 ? "Applied (1-10)" : criteria.get(col - 1).name;
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int col) {
+            return col > row + 1 && col <= ahp.size(); // Upper triangle; the rest follows from it
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            if (col == 0) {
+                return criteria.get(row).name;
+            }
+            if (col == ahp.size() + 1) {
+                return String.format("%.1f%%", derived[row] * 100);
+            }
+            if (col == ahp.size() + 2) {
+                return scaled[row];
+            }
+            return AhpWeights.formatJudgment(ahp.get(row, col - 1));
+        }
+
+        @Override
+        public void setValueAt(Object value, int row, int col) {
+            double judgment = AhpWeights.parseJudgment(String.valueOf(value));
+            if (Double.isNaN(judgment)) {
+                JOptionPane.showMessageDialog(AhpDialog.this, "Enter a number from 1/9 to 9, like 3 or 1/5.");
+                return;
+            }
+            ahp.set(row, col - 1, judgment);
+            solve();
+            fireTableRowsUpdated(0, ahp.size() - 1); // The mirrored cell and every weight changed too
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package decisionmatrix;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+// Criterion weights from pairwise comparisons (Analytic Hierarchy Process).
+// a[i][j] says how much more important criterion i is than j on Saaty's 1/9..9 scale,
+// with a[j][i] = 1 / a[i][j] and 1 on the diagonal. The weights are the principal
+// eigenvector of that matrix, normalized to sum to 1, and the eigenvalue tells how
+// consistent the judgments are: lambdaMax == n exactly when every a[i][j] == w[i] / w[j].
+//
+// The eigenvector comes from power iteration on a dense row-major double[] (no boxing,
+// one pass over the matrix per step), stopping as soon as no weight moves by more than
+// TOLERANCE relative to itself. Each solve starts from the previous eigenvector, so
+// after changing one comparison only a few steps are needed; the product A*w is also
+// patched in O(n) for that change instead of being recomputed.
+//
+// Judgments belong to criterion names, not positions: match() lines them up with the
+// current criteria, so removing, reordering or undoing criteria keeps every comparison
+// between the ones that are still there.
+public class AhpWeights {
+    public static final double MIN_JUDGMENT = 1.0 / 9;
+    public static final double MAX_JUDGMENT = 9;
+    public static final double CONSISTENCY_LIMIT = 0.10; // Saaty: revise judgments above this ratio
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_ITERATIONS = 10_000;
+
+    // Saaty's random consistency index for n = 0..15 criteria
+    private static final double[] RANDOM_INDEX = {
+        0, 0, 0, 0.58, 0.90, 1.12, 1.24, 1.32, 1.41, 1.45, 1.49, 1.51, 1.48, 1.56, 1.57, 1.59
+    };
+
+    private int n;
+    private String[] names;   // criterion of each row/column
+    private double[] matrix;  // a[i][j] at i * n + j
+    private double[] weights; // last eigenvector (sum 1), the next solve's starting point
+    private double[] product; // matrix * weights, kept valid across set() while productValid
+    private boolean productValid;
+    private double lambdaMax;
+    private int iterations;
+
+    // n criteria, all equal, with no names yet (match() assigns them)
+    public AhpWeights(int n) {
+        this.n = n;
+        names = new String[n];
+        Arrays.fill(names, "");
+        matrix = new double[n * n];
+        Arrays.fill(matrix, 1.0);
+        weights = new double[n];
+        Arrays.fill(weights, 1.0 / n);
+        product = new double[n];
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public String getName(int i) {
+        return names[i];
+    }
+
+    // Lines the comparisons up with these criteria by name. A pair whose criteria are both
+    // still there keeps its judgment wherever they moved; a new (or renamed) criterion
+    // starts equal to all the others. Repeated names pair up in order.
+    public void match(List<String> criteria) {
+        int newSize = criteria.size();
+        HashMap<String, ArrayDeque<Integer>> byName = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            byName.computeIfAbsent(names[i], k -> new ArrayDeque<>()).add(i);
+        }
+        int[] from = new int[newSize]; // old index of each criterion, -1 if new
+        boolean same = newSize == n;
+        for (int k = 0; k < newSize; k++) {
+            ArrayDeque<Integer> old = byName.get(criteria.get(k));
+            from[k] = old == null || old.isEmpty() ? -1 : old.poll();
+            same &= from[k] == k;
+        }
+        if (same) {
+            return;
+        }
+        double[] newMatrix = new double[newSize * newSize];
+        Arrays.fill(newMatrix, 1.0);
+        double[] newWeights = new double[newSize];
+        double sum = 0;
+        for (int a = 0; a < newSize; a++) {
+            if (from[a] >= 0) {
+                for (int b = 0; b < newSize; b++) {
+                    if (from[b] >= 0) {
+                        newMatrix[a * newSize + b] = matrix[from[a] * n + from[b]];
+                    }
+                }
+            }
+            newWeights[a] = from[a] >= 0 ? weights[from[a]] : 1.0 / newSize; // A neutral guess for the warm start
+            sum += newWeights[a];
+        }
+        for (int a = 0; a < newSize; a++) {
+            newWeights[a] /= sum;
+        }
+        n = newSize;
+        names = criteria.toArray(new String[0]);
+        matrix = newMatrix;
+        weights = newWeights;
+        product = new double[newSize];
+        productValid = false;
+    }
+
+    public double get(int i, int j) {
+        return matrix[i * n + j];
+    }
+
+    // Criterion i is value times as important as j (and j 1/value times as important as i)
+    public void set(int i, int j, double value) {
+        if (i == j) {
+            throw new IllegalArgumentException("A criterion is always equal to itself");
+        }
+        if (!(value >= MIN_JUDGMENT && value <= MAX_JUDGMENT)) {
+            throw new IllegalArgumentException("Comparison " + value + " is outside 1/9..9");
+        }
+        double oldIJ = matrix[i * n + j];
+        double oldJI = matrix[j * n + i];
+        matrix[i * n + j] = value;
+        matrix[j * n + i] = 1 / value;
+        if (productValid) {
+            // Only rows i and j of A*w change
+            product[i] += (value - oldIJ) * weights[j];
+            product[j] += (1 / value - oldJI) * weights[i];
+        }
+    }
+
+    // Principal eigenvector, summing to 1 (a copy). Power iteration from the last result.
+    public double[] solve() {
+        if (n == 0) {
+            lambdaMax = 0;
+            iterations = 0;
+            return new double[0];
+        }
+        double[] w = weights;
+        double[] next = new double[n];
+        iterations = 0;
+        while (iterations < MAX_ITERATIONS) {
+            if (!productValid) {
+                multiply(w, product);
+            }
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += product[i];
+            }
+            double change = 0;
+            for (int i = 0; i < n; i++) {
+                next[i] = product[i] / sum;
+                change = Math.max(change, Math.abs(next[i] - w[i]) / next[i]);
+            }
+            double[] t = w;
+            w = next;
+            next = t;
+            productValid = false;
+            iterations++;
+            if (change <= TOLERANCE) {
+                break;
+            }
+        }
+        weights = w;
+        multiply(w, product);
+        productValid = true;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += product[i];
+        }
+        lambdaMax = sum; // sum(A*w) / sum(w), and sum(w) == 1
+        return Arrays.copyOf(w, n);
+    }
+
+    public double getLambdaMax() {
+        return lambdaMax;
+    }
+
+    // Steps the last solve took
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getConsistencyIndex() {
+        return n <= 2 ? 0 : Math.max(0, (lambdaMax - n) / (n - 1));
+    }
+
+    // CI / RI; up to 0.10 is usually acceptable. Two criteria are always consistent.
+    public double getConsistencyRatio() {
+        return n <= 2 ? 0 : getConsistencyIndex() / randomIndex(n);
+    }
+
+    public boolean isConsistent() {
+        return getConsistencyRatio() <= CONSISTENCY_LIMIT;
+    }
+
+    // Last weights on the app's integer scale: the largest becomes max, the rest in
+    // proportion, rounded and never below min. This is lossy: with min 1 and max 10, every
+    // weight under 15% of the largest becomes 1 and nearby ones can round together.
+    public int[] toIntWeights(int min, int max) {
+        double largest = 0;
+        for (double w : weights) {
+            largest = Math.max(largest, w);
+        }
+        int[] scaled = new int[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = largest == 0 ? min : (int) Math.max(min, Math.min(max, Math.round(weights[i] / largest * max)));
+        }
+        return scaled;
+    }
+
+    // Saaty's table up to 15 criteria; beyond it the Alonso-Lamata fit, which matches the
+    // table's tail (RI 1.59 at 15) and keeps growing slowly towards 1.77
+    private static double randomIndex(int n) {
+        return n < RANDOM_INDEX.length ? RANDOM_INDEX[n] : (1.7699 * n - 4.3513) / (n - 1);
+    }
+
+    private void multiply(double[] w, double[] out) {
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += matrix[row + j] * w[j];
+            }
+            out[i] = sum;
+        }
+    }
+
+    // --- Text form, as typed in the comparison table ---
+
+    // "3", "1/3", "0.25" -> value in 1/9..9, or NaN if it isn't one
+    public static double parseJudgment(String text) {
+        String s = text.trim();
+        try {
+            int slash = s.indexOf('/');
+            double value = slash < 0 ? Double.parseDouble(s)
+                                     : Double.parseDouble(s.substring(0, slash).trim())
+                                       / Double.parseDouble(s.substring(slash + 1).trim());
+            return value >= MIN_JUDGMENT - 1e-12 && value <= MAX_JUDGMENT ? Math.max(MIN_JUDGMENT, value) : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // Whole numbers as "3", their reciprocals as "1/3", anything else with two decimals
+    public static String formatJudgment(double value) {
+        long whole = Math.round(value);
+        if (Math.abs(value - whole) < 1e-9) {
+            return String.valueOf(whole);
+        }
+        long inverse = Math.round(1 / value);
+        if (Math.abs(1 / value - inverse) < 1e-9) {
+            return "1/" + inverse;
+        }
+        return String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,196 @@
+package decisionmatrix;
+
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+// "Analytics" dialog: statistics over every saved decision (see HistoryAnalytics).
+// The scan runs on a SwingWorker; after each round the worker turns the aggregates into
+// table rows and publishes them, so the tables fill in while a large history is read.
+// Closing the dialog stops the scan after the current round; the rounds already done
+// are kept for next time.
+public class AnalyticsDialog extends JDialog {
+    private static final int TOP_ROWS = 500; // per table, largest first
+
+    private final JLabel statusLabel = new JLabel("Reading history...");
+    private final DefaultTableModel options = readOnlyModel("Option", "Wins", "Share");
+    private final DefaultTableModel users = readOnlyModel("User", "Decisions", "Most chosen", "Its wins");
+    private final DefaultTableModel criteria = readOnlyModel("Criterion", "Used in", "Share", "Avg weight");
+    private final DefaultTableModel scores = readOnlyModel("Score", "Winners", "All options");
+    private final DefaultTableModel months = readOnlyModel("Month", "Decisions", "Avg winning score");
+    private final SwingWorker<HistoryAnalytics.Aggregates, Report> worker;
+
+    // Rows for every table, built on the worker thread
+    private static class Report {
+        String status;
+        Object[][] options, users, criteria, scores, months;
+    }
+
+    public AnalyticsDialog(Frame owner) {
+        super(owner, "History Analytics", false);
+        setLayout(new BorderLayout(5, 5));
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 0, 5));
+        add(statusLabel, BorderLayout.NORTH);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Winners", new JScrollPane(table(options)));
+        tabs.addTab("Users", new JScrollPane(table(users)));
+        tabs.addTab("Criteria", new JScrollPane(table(criteria)));
+        tabs.addTab("Score Distribution", new JScrollPane(table(scores)));
+        tabs.addTab("Trend", new JScrollPane(table(months)));
+        add(tabs, BorderLayout.CENTER);
+
+        JButton closeBtn = new JButton("Close");
+        closeBtn.addActionListener(e -> dispose());
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(closeBtn);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        long started = System.nanoTime();
+        worker = new SwingWorker<HistoryAnalytics.Aggregates, Report>() {
+            @Override
+            protected HistoryAnalytics.Aggregates doInBackground() throws Exception {
+                int total = HistoryManager.getHistorySize();
+                return HistoryManager.analyzeHistory(a -> {
+                    if (isCancelled()) {
+                        throw new CancellationException(); // Stops after this round; see HistoryAnalytics.update
+                    }
+                    publish(report(a, total));
+                });
+            }
+
+            @Override
+            protected void process(List<Report> reports) {
+                show(reports.get(reports.size() - 1)); // Only the newest matters
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    HistoryAnalytics.Aggregates a = get();
+                    String normalized = a.normalized == 0 ? ""
+                        : String.format(", %,d normalized left out of the scores", a.normalized);
+                    statusLabel.setText(String.format("%,d decisions%s, %,d options scored, %,d users (%.1f s)",
+                                                      a.decisions, normalized, a.options, a.winsByUser.size(),
+                                                      (System.nanoTime() - started) / 1e9));
+                } catch (InterruptedException | ExecutionException ex) {
+                    String reason = ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
+                    statusLabel.setText("Analytics failed: " + reason);
+                }
+            }
+        };
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                worker.cancel(false); // Not true: interrupting a read would close the history log
+            }
+        });
+        worker.execute();
+
+        setSize(700, 500);
+        setLocationRelativeTo(owner);
+    }
+
+    private void show(Report report) {
+        statusLabel.setText(report.status);
+        fill(options, report.options);
+        fill(users, report.users);
+        fill(criteria, report.criteria);
+        fill(scores, report.scores);
+        fill(months, report.months);
+    }
+
+    private static Report report(HistoryAnalytics.Aggregates a, int total) {
+        Report report = new Report();
+        report.status = String.format("Analyzed %,d of %,d decisions...", a.processed, Math.max(total, a.processed));
+
+        List<Map.Entry<String, long[]>> wins = HistoryAnalytics.top(a.winsByOption, 0, TOP_ROWS);
+        report.options = new Object[wins.size()][];
+        for (int k = 0; k < wins.size(); k++) {
+            long n = wins.get(k).getValue()[0];
+            report.options[k] = new Object[] {wins.get(k).getKey(), n, percent(n, a.decisions)};
+        }
+
+        // Users by number of decisions, each with the option they picked most
+        HashMap<String, long[]> perUser = new HashMap<>();
+        for (String user : a.winsByUser.keySet()) {
+            perUser.put(user, new long[] {a.decisionsOf(user)});
+        }
+        List<Map.Entry<String, long[]>> topUsers = HistoryAnalytics.top(perUser, 0, TOP_ROWS);
+        report.users = new Object[topUsers.size()][];
+        for (int k = 0; k < topUsers.size(); k++) {
+            String user = topUsers.get(k).getKey();
+            List<Map.Entry<String, long[]>> favourite = HistoryAnalytics.top(a.winsByUser.get(user), 0, 1);
+            report.users[k] = new Object[] {user, topUsers.get(k).getValue()[0],
+                                            favourite.isEmpty() ? "" : favourite.get(0).getKey(),
+                                            favourite.isEmpty() ? 0L : favourite.get(0).getValue()[0]};
+        }
+
+        List<Map.Entry<String, long[]>> used = HistoryAnalytics.top(a.criteria, 0, TOP_ROWS);
+        report.criteria = new Object[used.size()][];
+        for (int k = 0; k < used.size(); k++) {
+            long[] c = used.get(k).getValue();
+            report.criteria[k] = new Object[] {used.get(k).getKey(), c[0], percent(c[0], a.decisions),
+                                               String.format("%.2f", c[1] / (double) c[0])};
+        }
+
+        int first = 0;
+        int last = HistoryAnalytics.SCORE_BUCKETS - 1;
+        while (first < last && a.winnerScores[first] == 0 && a.optionScores[first] == 0) {
+            first++;
+        }
+        while (last > first && a.winnerScores[last] == 0 && a.optionScores[last] == 0) {
+            last--;
+        }
+        report.scores = new Object[a.options == 0 ? 0 : last - first + 1][];
+        for (int b = first; b < first + report.scores.length; b++) {
+            report.scores[b - first] = new Object[] {HistoryAnalytics.bucketLabel(b), a.winnerScores[b], a.optionScores[b]};
+        }
+
+        report.months = new Object[a.months.size()][];
+        int k = 0;
+        for (Map.Entry<Integer, long[]> month : a.months.descendingMap().entrySet()) {
+            long[] m = month.getValue();
+            report.months[k++] = new Object[] {String.format("%d-%02d", month.getKey() / 100, month.getKey() % 100),
+                                               m[0], m[2] == 0 ? "-" : String.format("%.1f", m[1] / (double) m[2])};
+        }
+        return report;
+    }
+
+    private static String percent(long part, long whole) {
+        return whole == 0 ? "-" : String.format("%.1f%%", 100.0 * part / whole);
+    }
+
+    private static void fill(DefaultTableModel model, Object[][] rows) {
+        model.setRowCount(0);
+        for (Object[] row : rows) {
+            model.addRow(row);
+        }
+    }
+
+    private static JTable table(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setRowHeight(24);
+        return table;
+    }
+
+    private static DefaultTableModel readOnlyModel(String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+}
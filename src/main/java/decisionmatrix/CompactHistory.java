@@ -0,0 +1,327 @@
+package decisionmatrix;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+// Columnar, dictionary-encoded copy of the decision history for whole-history work
+// (analytics, exports) where decoding a DecisionResult per entry would not fit the heap.
+//
+// User, criterion and option names are interned once in NameDictionary instances and
+// stored as int ids. Timestamps are longs (local date-time as nanos since 1970-01-01T00:00,
+// so the original string comes back exactly). A decision's criteria, options and ranking
+// are runs in shared packed pools, located by per-decision start offsets:
+//
+//   decision d: criteria [criteriaStart[d], criteriaStart[d + 1]) in criterionNames / criterionWeights
+//               options  [optionsStart[d],  optionsStart[d + 1])  in optionNames / optionScores
+//               ranking  [rankingStart[d],  rankingStart[d + 1])  in rankingNames / rankingScores
+//
+// A typical decision (5 criteria, 5 options) takes ~130 bytes instead of a few KB of
+// objects. Entries are read through DecisionRecord flyweights.
+//
+// Not thread-safe: fill it on one thread, then hand it off (or guard it externally).
+public class CompactHistory {
+    private static final int INITIAL_DECISIONS = 1024;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE; // string kept in oddTimestamps instead
+
+    private final NameDictionary users = new NameDictionary();
+    private final NameDictionary names = new NameDictionary(); // criteria, options and winners
+
+    // One entry per decision
+    private int size;
+    private long[] timestamps = new long[INITIAL_DECISIONS];
+    private int[] userIds = new int[INITIAL_DECISIONS];
+    private int[] winnerIds = new int[INITIAL_DECISIONS];
+    private int[] winnerScores = new int[INITIAL_DECISIONS];
+    private int[] criteriaStart = new int[INITIAL_DECISIONS + 1];
+    private int[] optionsStart = new int[INITIAL_DECISIONS + 1];
+    private int[] rankingStart = new int[INITIAL_DECISIONS + 1];
+
+    // Pools shared by all decisions
+    private int[] criterionNames = new int[INITIAL_DECISIONS * 4];
+    private int[] criterionWeights = new int[INITIAL_DECISIONS * 4];
+    private int[] optionNames = new int[INITIAL_DECISIONS * 4];
+    private int[] optionScores = new int[INITIAL_DECISIONS * 4];
+    private int[] rankingNames = new int[INITIAL_DECISIONS * 4];
+    private int[] rankingScores = new int[INITIAL_DECISIONS * 4];
+
+    // Rare extras, by decision
+    private final HashMap<Integer, String> oddTimestamps = new HashMap<>(); // legacy text that doesn't round-trip
+    private final HashMap<Integer, MonteCarloEngine.MonteCarloResult> monteCarlo = new HashMap<>();
+    private final HashMap<Integer, DecisionEngine.Normalization> normalized = new HashMap<>(); // NONE is not stored
+
+    public int size() {
+        return size;
+    }
+
+    public void add(DecisionRecord record) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            winnerIds = Arrays.copyOf(winnerIds, capacity);
+            winnerScores = Arrays.copyOf(winnerScores, capacity);
+            criteriaStart = Arrays.copyOf(criteriaStart, capacity + 1);
+            optionsStart = Arrays.copyOf(optionsStart, capacity + 1);
+            rankingStart = Arrays.copyOf(rankingStart, capacity + 1);
+        }
+        int d = size;
+
+        String timestamp = record.getTimestamp();
+        long encoded = encodeTimestamp(timestamp);
+        timestamps[d] = encoded;
+        if (encoded == NO_TIMESTAMP) {
+            oddTimestamps.put(d, timestamp);
+        }
+        userIds[d] = users.intern(record.getUserName());
+        winnerIds[d] = names.intern(record.getWinner());
+        winnerScores[d] = record.getWinnerScore();
+
+        int criteria = record.getCriterionCount();
+        int c = criteriaStart[d];
+        if (c + criteria > criterionNames.length) {
+            int capacity = Math.max(c + criteria, criterionNames.length * 2);
+            criterionNames = Arrays.copyOf(criterionNames, capacity);
+            criterionWeights = Arrays.copyOf(criterionWeights, capacity);
+        }
+        for (int i = 0; i < criteria; i++) {
+            criterionNames[c + i] = names.intern(record.getCriterionName(i));
+            criterionWeights[c + i] = record.getCriterionWeight(i);
+        }
+        criteriaStart[d + 1] = c + criteria;
+
+        int options = record.getOptionCount();
+        int o = optionsStart[d];
+        if (o + options > optionNames.length) {
+            int capacity = Math.max(o + options, optionNames.length * 2);
+            optionNames = Arrays.copyOf(optionNames, capacity);
+            optionScores = Arrays.copyOf(optionScores, capacity);
+        }
+        for (int i = 0; i < options; i++) {
+            optionNames[o + i] = names.intern(record.getOptionName(i));
+            optionScores[o + i] = record.getOptionScore(i);
+        }
+        optionsStart[d + 1] = o + options;
+
+        int ranked = record.getRankingSize();
+        int r = rankingStart[d];
+        if (r + ranked > rankingNames.length) {
+            int capacity = Math.max(r + ranked, rankingNames.length * 2);
+            rankingNames = Arrays.copyOf(rankingNames, capacity);
+            rankingScores = Arrays.copyOf(rankingScores, capacity);
+        }
+        for (int i = 0; i < ranked; i++) {
+            rankingNames[r + i] = names.intern(record.getRankedName(i));
+            rankingScores[r + i] = record.getRankedScore(i);
+        }
+        rankingStart[d + 1] = r + ranked;
+
+        if (record instanceof DecisionResult && ((DecisionResult) record).monteCarlo != null) {
+            monteCarlo.put(d, ((DecisionResult) record).monteCarlo);
+        }
+        if (record.getNormalization() != DecisionEngine.Normalization.NONE) {
+            normalized.put(d, record.getNormalization());
+        }
+        size++;
+    }
+
+    // Flyweight over decision d (0 = oldest)
+    public Record get(int d) {
+        return new Record().moveTo(d);
+    }
+
+    // Visits every decision, oldest first, through one reused flyweight.
+    // Copy what you need (or call toDecisionResult) before the next call.
+    public void forEach(Consumer<? super DecisionRecord> action) {
+        Record record = new Record();
+        for (int d = 0; d < size; d++) {
+            action.accept(record.moveTo(d));
+        }
+    }
+
+    // --- Column access for scans that want to skip the flyweight ---
+
+    public NameDictionary getUserDictionary() {
+        return users;
+    }
+
+    public NameDictionary getNameDictionary() {
+        return names;
+    }
+
+    public int getUserId(int d) {
+        return userIds[d];
+    }
+
+    public int getWinnerId(int d) {
+        return winnerIds[d];
+    }
+
+    public long getEpochMillis(int d) {
+        long encoded = timestamps[d];
+        if (encoded == NO_TIMESTAMP) {
+            return HistoryIndex.epochMillis(oddTimestamps.get(d)); // Often just "...T10:00:00", still a date
+        }
+        return toLocalDateTime(encoded).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Rough heap footprint of the columns, pools and dictionaries
+    public long estimateBytes() {
+        long bytes = (long) timestamps.length * 8
+                   + (long) (userIds.length + winnerIds.length + winnerScores.length) * 4
+                   + (long) (criteriaStart.length + optionsStart.length + rankingStart.length) * 4
+                   + (long) (criterionNames.length + criterionWeights.length) * 4
+                   + (long) (optionNames.length + optionScores.length) * 4
+                   + (long) (rankingNames.length + rankingScores.length) * 4;
+        for (NameDictionary dictionary : new NameDictionary[] {users, names}) {
+            for (int id = 0; id < dictionary.size(); id++) {
+                bytes += 96 + dictionary.name(id).length(); // String + map entry
+            }
+        }
+        return bytes;
+    }
+
+    // --- Timestamps ---
+
+    // Local date-time as nanos since 1970-01-01T00:00, or NO_TIMESTAMP if the text
+    // would not come back identical from LocalDateTime.toString()
+    private static long encodeTimestamp(String timestamp) {
+        try {
+            LocalDateTime time = LocalDateTime.parse(timestamp);
+            if (!time.toString().equals(timestamp)) {
+                return NO_TIMESTAMP;
+            }
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L), time.getNano());
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return NO_TIMESTAMP;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long encoded) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(encoded, 1_000_000_000L),
+                                           (int) Math.floorMod(encoded, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    // --- Flyweight ---
+
+    // DecisionRecord over one decision's slice of the columns; moveTo() repositions it
+    public class Record implements DecisionRecord {
+        private int d;
+
+        public Record moveTo(int d) {
+            if (d < 0 || d >= size) {
+                throw new IndexOutOfBoundsException("Decision " + d + " of " + size);
+            }
+            this.d = d;
+            return this;
+        }
+
+        public int getIndex() {
+            return d;
+        }
+
+        @Override
+        public String getUserName() {
+            return users.name(userIds[d]);
+        }
+
+        @Override
+        public String getTimestamp() {
+            long encoded = timestamps[d];
+            return encoded == NO_TIMESTAMP ? oddTimestamps.get(d) : toLocalDateTime(encoded).toString();
+        }
+
+        @Override
+        public long getEpochMillis() {
+            return CompactHistory.this.getEpochMillis(d);
+        }
+
+        @Override
+        public int getCriterionCount() {
+            return criteriaStart[d + 1] - criteriaStart[d];
+        }
+
+        @Override
+        public String getCriterionName(int i) {
+            return names.name(criterionNames[criteriaStart[d] + i]);
+        }
+
+        @Override
+        public int getCriterionWeight(int i) {
+            return criterionWeights[criteriaStart[d] + i];
+        }
+
+        @Override
+        public int getOptionCount() {
+            return optionsStart[d + 1] - optionsStart[d];
+        }
+
+        @Override
+        public String getOptionName(int i) {
+            return names.name(optionNames[optionsStart[d] + i]);
+        }
+
+        @Override
+        public int getOptionScore(int i) {
+            return optionScores[optionsStart[d] + i];
+        }
+
+        @Override
+        public int getRankingSize() {
+            return rankingStart[d + 1] - rankingStart[d];
+        }
+
+        @Override
+        public String getRankedName(int rank) {
+            return names.name(rankingNames[rankingStart[d] + rank]);
+        }
+
+        @Override
+        public int getRankedScore(int rank) {
+            return rankingScores[rankingStart[d] + rank];
+        }
+
+        @Override
+        public String getWinner() {
+            return names.name(winnerIds[d]);
+        }
+
+        @Override
+        public int getWinnerScore() {
+            return winnerScores[d];
+        }
+
+        @Override
+        public DecisionEngine.Normalization getNormalization() {
+            return normalized.getOrDefault(d, DecisionEngine.Normalization.NONE);
+        }
+
+        @Override
+        public DecisionResult toDecisionResult() {
+            ArrayList<Criterion> criteria = new ArrayList<>(getCriterionCount());
+            for (int i = 0; i < getCriterionCount(); i++) {
+                criteria.add(new Criterion(getCriterionName(i), getCriterionWeight(i)));
+            }
+            ArrayList<OptionScore> options = new ArrayList<>(getOptionCount());
+            for (int i = 0; i < getOptionCount(); i++) {
+                options.add(new OptionScore(getOptionName(i), getOptionScore(i)));
+            }
+            ArrayList<OptionScore> ranking = new ArrayList<>(getRankingSize());
+            for (int i = 0; i < getRankingSize(); i++) {
+                ranking.add(new OptionScore(getRankedName(i), getRankedScore(i)));
+            }
+            DecisionResult result = new DecisionResult(getUserName(), criteria, options, ranking);
+            result.winner = getWinner();
+            result.winnerScore = getWinnerScore();
+            result.timestamp = getTimestamp();
+            result.monteCarlo = monteCarlo.get(d);
+            result.normalization = getNormalization();
+            return result;
+        }
+    }
+}
@@ -1,3 +1,5 @@
+package decisionmatrix;
+
 public class Criterion {
     String name;
     int weight;
@@ -5,6 +7,5 @@ public class Criterion {
     public Criterion(String name, int weight) {
         this.name = name;
         this.weight = weight;
-        System.out.println("[DEBUG] Criterion Object Created: " + name + " (Weight: " + weight + ")");
     }
 }
\ No newline at end of file
@@ -0,0 +1,427 @@
+package decisionmatrix;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class DecisionEngine {
+    public static final int DEFAULT_TOP_K = 10;
+
+    // How criterion columns are put on a common scale before weighting
+    public enum Normalization {
+        NONE,       // raw scores
+        MIN_MAX,    // (x - min) / (max - min) per criterion, 0-1; a criterion where all options tie adds 0
+        VECTOR_NORM; // x / sqrt(sum of x^2) per criterion
+
+        // "min_max", "MIN-MAX", "vector_norm", ... as given on the command line or in a request
+        public static Normalization parse(String text) {
+            try {
+                return valueOf(text.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown normalization '" + text
+                                                   + "', expected none, min_max or vector_norm");
+            }
+        }
+
+        // Name as written to the history and in responses: "none", "min_max", "vector_norm"
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Normalized totals are reported as points, total x 100 rounded, so the table, the ranking
+    // and the history can keep int totals: a min-max criterion of weight 5 adds 0-500 points
+    public static final int NORMALIZED_POINTS = 100;
+
+    // SIMD kernel when the JVM runs with --add-modules jdk.incubator.vector, else plain loops.
+    // -Ddecision.vector=false forces the scalar kernel.
+    private static final ScoringKernel KERNEL = loadKernel();
+
+    // Below this many cells a single thread beats the fork/join overhead
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Each leaf task scores roughly this many cells
+    private static final int LEAF_CELLS = 1 << 14;
+
+    // Weighted totals for a row-major score matrix (scores[row * cols + col]).
+    // Writes one total per row into totals and returns the winning row index (-1 if no rows).
+    public static int score(int[] weights, int[] scores, int rows, int cols, int[] totals) {
+        checkShape(weights.length, scores.length, totals.length, rows, cols);
+
+        int winner = -1;
+        int maxScore = 0;
+        int base = 0;
+        for (int row = 0; row < rows; row++) {
+            int total = 0;
+            for (int col = 0; col < cols; col++) {
+                total += scores[base + col] * weights[col];
+            }
+            totals[row] = total;
+            base += cols;
+
+            // Strict comparison keeps the first option on ties, same as the GUI always did
+            if (winner < 0 || total > maxScore) {
+                maxScore = total;
+                winner = row;
+            }
+        }
+        return winner;
+    }
+
+    // Same as above for fractional weights and scores
+    public static int score(double[] weights, double[] scores, int rows, int cols, double[] totals) {
+        checkShape(weights.length, scores.length, totals.length, rows, cols);
+
+        int winner = -1;
+        double maxScore = 0;
+        int base = 0;
+        for (int row = 0; row < rows; row++) {
+            double total = 0;
+            for (int col = 0; col < cols; col++) {
+                total += scores[base + col] * weights[col];
+            }
+            totals[row] = total;
+            base += cols;
+
+            if (winner < 0 || total > maxScore) {
+                maxScore = total;
+                winner = row;
+            }
+        }
+        return winner;
+    }
+
+    // Weighted totals for column-major scores (columns[col][row]), as kept by MatrixTableModel.
+    // A null column counts as all zeros. Returns the winning row index (-1 if no rows).
+    public static int scoreColumns(int[] weights, int[][] columns, int rows, int cols, int[] totals) {
+        checkColumns(weights.length, columns, totals.length, rows, cols);
+        sumColumns(weights, columns, cols, totals, 0, rows);
+        return winner(totals, rows);
+    }
+
+    // Weighted totals after normalizing each criterion column (see Normalization).
+    // totals come out as doubles; returns the winning row index (-1 if no rows).
+    public static int scoreColumnsNormalized(int[] weights, int[][] columns, int rows, int cols,
+                                             Normalization normalization, double[] totals) {
+        return scoreColumnsNormalized(KERNEL, weights, columns, rows, cols, normalization, totals);
+    }
+
+    // Same on a given kernel, so VectorKernelBenchmark can compare them
+    static int scoreColumnsNormalized(ScoringKernel kernel, int[] weights, int[][] columns, int rows, int cols,
+                                      Normalization normalization, double[] totals) {
+        checkColumns(weights.length, columns, totals.length, rows, cols);
+        if (rows == 0) {
+            return -1;
+        }
+        // Each criterion becomes x * scale + shift; the shifts are constant per row and summed once
+        double[] scales = new double[cols];
+        double offset = 0;
+        for (int col = 0; col < cols; col++) {
+            int[] column = columns[col];
+            if (column == null || weights[col] == 0) {
+                continue;
+            }
+            switch (normalization) {
+                case MIN_MAX: {
+                    int[] range = kernel.range(column, rows);
+                    if (range[1] > range[0]) {
+                        scales[col] = weights[col] / ((double) range[1] - range[0]);
+                        offset -= range[0] * scales[col];
+                    }
+                    break;
+                }
+                case VECTOR_NORM: {
+                    double norm = Math.sqrt(kernel.sumOfSquares(column, rows));
+                    if (norm > 0) {
+                        scales[col] = weights[col] / norm;
+                    }
+                    break;
+                }
+                default:
+                    scales[col] = weights[col];
+            }
+        }
+        kernel.scaledSum(scales, columns, cols, offset, totals, 0, rows);
+
+        int winner = 0;
+        for (int row = 1; row < rows; row++) {
+            if (totals[row] > totals[winner]) {
+                winner = row;
+            }
+        }
+        return winner;
+    }
+
+    // Name of the kernel in use, e.g. "vector (512-bit)" or "scalar"
+    public static String getKernelName() {
+        return KERNEL.name();
+    }
+
+    private static ScoringKernel loadKernel() {
+        if (Boolean.parseBoolean(System.getProperty("decision.vector", "true"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Reflective so this class still loads when the module is missing
+                return (ScoringKernel) Class.forName("decisionmatrix.VectorScoringKernel")
+                                            .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("[ERROR] Vector API unavailable, using scalar scoring: " + e);
+            }
+        }
+        return new ScoringKernel.Scalar();
+    }
+
+    // Index of the highest total (first one wins ties), -1 if there are no rows
+    public static int winner(int[] totals, int rows) {
+        int winner = -1;
+        for (int row = 0; row < rows; row++) {
+            if (winner < 0 || totals[row] > totals[winner]) {
+                winner = row;
+            }
+        }
+        return winner;
+    }
+
+    // Scores the matrix and returns the best k rows, best first (ties go to the lower row index).
+    // Large matrices are split across the common ForkJoinPool; each leaf keeps a bounded heap
+    // of its own top k and the heaps are merged on the way back up.
+    public static int[] scoreRanked(int[] weights, int[] scores, int rows, int cols, int[] totals, int k) {
+        checkShape(weights.length, scores.length, totals.length, rows, cols);
+        if (k <= 0 || rows == 0) {
+            return new int[0];
+        }
+
+        if ((long) rows * cols < PARALLEL_THRESHOLD) {
+            score(weights, scores, rows, cols, totals);
+            return topK(totals, 0, rows, k);
+        }
+
+        int rowsPerLeaf = Math.max(1, LEAF_CELLS / Math.max(1, cols));
+        int[] heap = ForkJoinPool.commonPool().invoke(
+            new ScoreTask(weights, scores, null, cols, totals, 0, rows, k, rowsPerLeaf));
+        return sortHeap(heap, totals);
+    }
+
+    // Column-major variant of scoreRanked
+    public static int[] scoreColumnsRanked(int[] weights, int[][] columns, int rows, int cols, int[] totals, int k) {
+        checkColumns(weights.length, columns, totals.length, rows, cols);
+        if (k <= 0 || rows == 0) {
+            return new int[0];
+        }
+
+        if ((long) rows * cols < PARALLEL_THRESHOLD) {
+            sumColumns(weights, columns, cols, totals, 0, rows);
+            return topK(totals, 0, rows, k);
+        }
+
+        int rowsPerLeaf = Math.max(1, LEAF_CELLS / Math.max(1, cols));
+        int[] heap = ForkJoinPool.commonPool().invoke(
+            new ScoreTask(weights, null, columns, cols, totals, 0, rows, k, rowsPerLeaf));
+        return sortHeap(heap, totals);
+    }
+
+    // scoreColumnsRanked with a normalization: NONE scores raw as above, the others write
+    // NORMALIZED_POINTS totals and rank by them
+    public static int[] scoreColumnsRanked(int[] weights, int[][] columns, int rows, int cols,
+                                           Normalization normalization, int[] totals, int k) {
+        if (normalization == Normalization.NONE) {
+            return scoreColumnsRanked(weights, columns, rows, cols, totals, k);
+        }
+        checkColumns(weights.length, columns, totals.length, rows, cols);
+        if (k <= 0 || rows == 0) {
+            return new int[0];
+        }
+        double[] normalized = new double[rows];
+        scoreColumnsNormalized(weights, columns, rows, cols, normalization, normalized);
+        for (int row = 0; row < rows; row++) {
+            totals[row] = (int) Math.round(normalized[row] * NORMALIZED_POINTS);
+        }
+        return topK(totals, 0, rows, k);
+    }
+
+    // Scores every row as above but ranks only the candidate rows (ascending row indices,
+    // e.g. a Pareto front; null = all). Totals and normalization statistics still cover the
+    // whole matrix, so leaving rows out of the ranking never changes anyone's score.
+    public static int[] scoreColumnsRanked(int[] weights, int[][] columns, int rows, int cols,
+                                           Normalization normalization, int[] candidates, int[] totals, int k) {
+        if (candidates == null) {
+            return scoreColumnsRanked(weights, columns, rows, cols, normalization, totals, k);
+        }
+        scoreColumnsRanked(weights, columns, rows, cols, normalization, totals, 1);
+        int[] candidateTotals = new int[candidates.length];
+        for (int r = 0; r < candidates.length; r++) {
+            candidateTotals[r] = totals[candidates[r]];
+        }
+        int[] ranked = topK(candidateTotals, 0, candidates.length, k);
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = candidates[ranked[i]];
+        }
+        return ranked;
+    }
+
+    // Best k rows of totals[from, to), best first
+    public static int[] topK(int[] totals, int from, int to, int k) {
+        return sortHeap(collectTopK(totals, from, to, k), totals);
+    }
+
+    // --- Bounded top-k heap ---
+    // A min-heap of row indices whose root is the weakest row kept so far.
+    // heap[0] holds the size, entries live in heap[1..k].
+
+    private static int[] collectTopK(int[] totals, int from, int to, int k) {
+        int[] heap = new int[Math.min(k, to - from) + 1];
+        for (int row = from; row < to; row++) {
+            offer(heap, totals, row);
+        }
+        return heap;
+    }
+
+    private static void offer(int[] heap, int[] totals, int row) {
+        int size = heap[0];
+        int capacity = heap.length - 1;
+        if (size < capacity) {
+            heap[0] = ++size;
+            heap[size] = row;
+            siftUp(heap, totals, size);
+        } else if (capacity > 0 && better(totals, row, heap[1])) {
+            heap[1] = row;
+            siftDown(heap, totals, 1, size);
+        }
+    }
+
+    private static int[] mergeHeaps(int[] left, int[] right, int[] totals, int k) {
+        int[] merged = new int[Math.min(k, left[0] + right[0]) + 1];
+        for (int i = 1; i <= left[0]; i++) {
+            offer(merged, totals, left[i]);
+        }
+        for (int i = 1; i <= right[0]; i++) {
+            offer(merged, totals, right[i]);
+        }
+        return merged;
+    }
+
+    // Drains the heap into an array ordered best first
+    private static int[] sortHeap(int[] heap, int[] totals) {
+        int size = heap[0];
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[1];
+            heap[1] = heap[heap[0]];
+            heap[0]--;
+            siftDown(heap, totals, 1, heap[0]);
+        }
+        return ranked;
+    }
+
+    private static void siftUp(int[] heap, int[] totals, int pos) {
+        int row = heap[pos];
+        while (pos > 1) {
+            int parent = pos >>> 1;
+            if (!better(totals, heap[parent], row)) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = row;
+    }
+
+    private static void siftDown(int[] heap, int[] totals, int pos, int size) {
+        if (size == 0) {
+            return;
+        }
+        int row = heap[pos];
+        while (true) {
+            int child = pos << 1;
+            if (child > size) {
+                break;
+            }
+            if (child < size && better(totals, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!better(totals, row, heap[child])) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = row;
+    }
+
+    // True if row a ranks above row b
+    private static boolean better(int[] totals, int a, int b) {
+        return totals[a] > totals[b] || (totals[a] == totals[b] && a < b);
+    }
+
+    private static void sumColumns(int[] weights, int[][] columns, int cols, int[] totals, int from, int to) {
+        KERNEL.sumColumns(weights, columns, cols, totals, from, to);
+    }
+
+    private static class ScoreTask extends RecursiveTask<int[]> {
+        private final int[] weights, scores, totals;
+        private final int[][] columns; // set instead of scores for column-major input
+        private final int cols, from, to, k, rowsPerLeaf;
+
+        ScoreTask(int[] weights, int[] scores, int[][] columns, int cols, int[] totals,
+                  int from, int to, int k, int rowsPerLeaf) {
+            this.weights = weights;
+            this.scores = scores;
+            this.columns = columns;
+            this.cols = cols;
+            this.totals = totals;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.rowsPerLeaf = rowsPerLeaf;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= rowsPerLeaf && columns != null) {
+                sumColumns(weights, columns, cols, totals, from, to);
+                return collectTopK(totals, from, to, k);
+            }
+            if (to - from <= rowsPerLeaf) {
+                int base = from * cols;
+                for (int row = from; row < to; row++) {
+                    int total = 0;
+                    for (int col = 0; col < cols; col++) {
+                        total += scores[base + col] * weights[col];
+                    }
+                    totals[row] = total;
+                    base += cols;
+                }
+                return collectTopK(totals, from, to, k);
+            }
+
+            int mid = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(weights, scores, columns, cols, totals, from, mid, k, rowsPerLeaf);
+            ScoreTask right = new ScoreTask(weights, scores, columns, cols, totals, mid, to, k, rowsPerLeaf);
+            left.fork();
+            int[] rightHeap = right.compute();
+            return mergeHeaps(left.join(), rightHeap, totals, k);
+        }
+    }
+
+    private static void checkColumns(int weightCount, int[][] columns, int totalCount, int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Negative matrix size: " + rows + "x" + cols);
+        }
+        if (weightCount < cols || columns.length < cols || totalCount < rows) {
+            throw new IllegalArgumentException("Arrays too small for a " + rows + "x" + cols + " matrix");
+        }
+        for (int col = 0; col < cols; col++) {
+            if (columns[col] != null && columns[col].length < rows) {
+                throw new IllegalArgumentException("Column " + col + " has fewer than " + rows + " rows");
+            }
+        }
+    }
+
+    private static void checkShape(int weightCount, int scoreCount, int totalCount, int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Negative matrix size: " + rows + "x" + cols);
+        }
+        if (weightCount < cols || scoreCount < (long) rows * cols || totalCount < rows) {
+            throw new IllegalArgumentException("Arrays too small for a " + rows + "x" + cols + " matrix");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package decisionmatrix;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JDK Flight Recorder events, all under the "Decision Matrix" category. Record with
+//   java -XX:StartFlightRecording=filename=decisions.jfr ... decisionmatrix.DecisionMatrixApp
+// and open the file in JDK Mission Control, or: jfr print --categories "Decision Matrix" decisions.jfr
+//
+// Usage: create and begin with one of the factories, run the operation, fill in the
+// sizes, then finish(). The event's duration is the operation. finish() also feeds the
+// Metrics counters and histograms, which is why it is not skipped when JFR is off.
+public final class DecisionEvents {
+
+    private DecisionEvents() {
+    }
+
+    public static Scoring scoring(String kind, int rows, int columns) {
+        Scoring event = new Scoring();
+        event.kind = kind;
+        event.rows = rows;
+        event.columns = columns;
+        event.start();
+        return event;
+    }
+
+    public static Save save() {
+        Save event = new Save();
+        event.start();
+        return event;
+    }
+
+    public static HistoryLoad historyLoad() {
+        HistoryLoad event = new HistoryLoad();
+        event.start();
+        return event;
+    }
+
+    public static TableEdit tableEdit(int rows, int columns) {
+        TableEdit event = new TableEdit();
+        event.rows = rows;
+        event.columns = columns;
+        event.start();
+        return event;
+    }
+
+    // Fields every event carries. Rows and columns are the matrix size; bytes written
+    // is what went to disk (0 for in-memory work).
+    @Category("Decision Matrix")
+    @StackTrace(false)
+    public abstract static class Timed extends Event {
+        @Label("Rows")
+        public int rows;
+
+        @Label("Columns")
+        public int columns;
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytesWritten;
+
+        private transient long startNanos;
+
+        void start() {
+            startNanos = System.nanoTime();
+            begin();
+        }
+
+        public void finish() {
+            latency().record(System.nanoTime() - startNanos);
+            Metrics.BYTES_WRITTEN.addAndGet(bytesWritten);
+            end();
+            if (shouldCommit()) {
+                commit();
+            }
+        }
+
+        abstract LatencyStats latency();
+    }
+
+    @Name("decisionmatrix.Scoring")
+    @Label("Scoring Run")
+    @Description("Weighted-sum scoring of the whole matrix")
+    public static class Scoring extends Timed {
+        @Label("Kind")
+        @Description("calculate, sensitivity, monte-carlo, live or headless")
+        public String kind;
+
+        @Override
+        public void finish() {
+            Metrics.CELLS_SCORED.addAndGet((long) rows * columns);
+            super.finish();
+        }
+
+        @Override
+        LatencyStats latency() {
+            return Metrics.SCORING;
+        }
+    }
+
+    // One writer batch; rows and columns are those of the largest decision in it
+    @Name("decisionmatrix.Save")
+    @Label("Save")
+    @Description("Decisions written to the results files or archive and the history log")
+    public static class Save extends Timed {
+        @Label("Decisions")
+        public int decisions;
+
+        @Override
+        public void finish() {
+            Metrics.DECISIONS_SAVED.addAndGet(decisions);
+            super.finish();
+        }
+
+        @Override
+        LatencyStats latency() {
+            return Metrics.SAVES;
+        }
+    }
+
+    // Startup load; rows is the number of decisions, and bytes written is non-zero
+    // only when the log had to be rebuilt or imported
+    @Name("decisionmatrix.HistoryLoad")
+    @Label("History Load")
+    @Description("Opening (or rebuilding) the history log and index")
+    public static class HistoryLoad extends Timed {
+        @Label("Log Size")
+        @DataAmount
+        public long logBytes;
+
+        @Label("Rebuilt")
+        public boolean rebuilt;
+
+        @Override
+        LatencyStats latency() {
+            return Metrics.HISTORY_LOADS;
+        }
+    }
+
+    // A cell edit from the table, including every listener it fires (live scoring too)
+    @Name("decisionmatrix.TableEdit")
+    @Label("Table Edit")
+    @Description("One edit of the matrix table model")
+    public static class TableEdit extends Timed {
+        @Label("Column Edited")
+        public int column;
+
+        @Override
+        LatencyStats latency() {
+            return Metrics.TABLE_EDITS;
+        }
+    }
+}
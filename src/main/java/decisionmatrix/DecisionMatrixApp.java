@@ -0,0 +1,164 @@
+package decisionmatrix;
+
+import java.awt.GraphicsEnvironment;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import javax.swing.SwingUtilities;
+
+public class DecisionMatrixApp {
+    // Time from process start to the first window; -Ddecision.startup.budget.ms overrides
+    private static final long DEFAULT_STARTUP_BUDGET_MS = 2000;
+    private static final long MAIN_STARTED = System.currentTimeMillis();
+
+    public static void main(String[] args) {
+        // Headless modes: --cli|--serve [PORT] [--user NAME] [--normalization none|min_max|vector_norm]
+        //                 [--no-save] [--result-files]
+        if (args.length > 0 && (args[0].equals("--cli") || args[0].equals("--serve"))) {
+            System.exit(runHeadless(args));
+        }
+        if (args.length > 0 && args[0].equals("--migrate-results")) {
+            System.exit(migrateResults());
+        }
+
+        // --measure-startup: open the window, report the startup time and exit (also the AppCDS training run)
+        boolean measureStartup = args.length > 0 && args[0].equals("--measure-startup");
+
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("[ERROR] No display available; use --cli or --serve to run without the GUI");
+            System.exit(1);
+        }
+
+        Trace.debug("Program launched. Starting main method.");
+        
+        // Load history in the background; the window does not wait for it
+        HistoryManager.loadHistoryAsync();
+        Runtime.getRuntime().addShutdownHook(new Thread(HistoryManager::close));
+        
+        // Run the GUI on the standard Event Dispatch Thread (EDT)
+        SwingUtilities.invokeLater(() -> {
+            Trace.debug("Invoking GUI on Event Dispatch Thread.");
+            DecisionMatrixGUI gui = new DecisionMatrixGUI();
+            gui.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    reportStartup(measureStartup);
+                }
+            });
+            gui.setVisible(true);
+        });
+        
+        Trace.debug("Main method finished (GUI running in background).");
+    }
+
+    // Checks time-to-first-window against the budget. Over budget is reported as an error;
+    // with --measure-startup it is always printed and becomes the exit code.
+    private static void reportStartup(boolean measureStartup) {
+        long started = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli).orElse(MAIN_STARTED);
+        long elapsed = System.currentTimeMillis() - started;
+        long budget = Long.getLong("decision.startup.budget.ms", DEFAULT_STARTUP_BUDGET_MS);
+        boolean overBudget = elapsed > budget;
+        if (measureStartup || overBudget) {
+            System.err.println((overBudget ? "[ERROR] " : "[INFO] ") + "First window after " + elapsed
+                               + " ms (budget " + budget + " ms, history "
+                               + (HistoryManager.loadHistoryAsync().isDone() ? "loaded" : "still loading") + ")");
+        }
+        if (measureStartup) {
+            System.exit(overBudget ? 1 : 0);
+        }
+    }
+
+    // Packs results/*.txt into the results archive (-Ddecision.results=archive)
+    private static int migrateResults() {
+        try {
+            int moved = HistoryManager.migrateResults();
+            System.out.println("Moved " + moved + " result files into the archive.");
+            return 0;
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to migrate results: " + e.getMessage());
+            return 1;
+        } finally {
+            HistoryManager.close();
+        }
+    }
+
+    // stdout carries results only; the summary and errors go to stderr
+    private static int runHeadless(String[] args) {
+        boolean serve = args[0].equals("--serve");
+        int port = DecisionServer.DEFAULT_PORT;
+        String user = "headless";
+        boolean persist = true;
+        boolean resultFiles = false;
+        DecisionEngine.Normalization normalization = DecisionEngine.Normalization.NONE;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--user") && i + 1 < args.length) {
+                user = args[++i];
+            } else if (args[i].equals("--normalization") && i + 1 < args.length) {
+                try {
+                    normalization = DecisionEngine.Normalization.parse(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("[ERROR] " + e.getMessage());
+                    return 2;
+                }
+            } else if (args[i].equals("--no-save")) {
+                persist = false;
+            } else if (args[i].equals("--result-files")) {
+                resultFiles = true;
+            } else if (serve && args[i].matches("\\d+")) {
+                port = Integer.parseInt(args[i]);
+            } else {
+                System.err.println("[ERROR] Unknown argument: " + args[i]);
+                return 2;
+            }
+        }
+
+        // Results are the only thing on stdout; anything else printed goes to stderr
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+
+        // Decisions go to the history log; a results/ file each is opt-in, it costs far more than the log append
+        HistoryManager.setResultFilesEnabled(resultFiles);
+        if (persist) {
+            HistoryManager.loadHistory();
+        }
+        HeadlessScorer scorer = new HeadlessScorer(user, persist, normalization);
+        if (serve) {
+            try {
+                DecisionServer server = new DecisionServer(port, scorer);
+                server.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    server.stop();
+                    HistoryManager.close();
+                    System.err.println("[INFO] " + scorer.getStats().summary());
+                }));
+                System.err.println("[INFO] Listening on http://127.0.0.1:" + server.getPort() + "/decisions");
+                Thread.currentThread().join(); // Until the process is stopped
+            } catch (IOException e) {
+                System.err.println("[ERROR] Could not start server: " + e.getMessage());
+                return 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)) {
+            scorer.run(in, out);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to read input: " + e.getMessage());
+            return 1;
+        }
+        HistoryManager.close(); // Waits for queued saves
+        System.err.println("[INFO] " + scorer.getStats().summary()
+                           + (scorer.getErrorCount() > 0 ? ", " + scorer.getErrorCount() + " rejected" : "")
+                           + (scorer.getSaveFailureCount() > 0 ? ", " + scorer.getSaveFailureCount() + " not saved" : ""));
+        return scorer.getErrorCount() > 0 || scorer.getSaveFailureCount() > 0 ? 1 : 0;
+    }
+}
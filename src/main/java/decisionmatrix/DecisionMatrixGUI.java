@@ -0,0 +1,1016 @@
+package decisionmatrix;
+
+import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
+import javax.swing.table.TableRowSorter;
+
+public class DecisionMatrixGUI extends JFrame {
+    private static final int IMPORT_BATCHES_IN_FLIGHT = 4; // parsed batches waiting for the EDT
+
+    // Data Structures
+    private final ArrayList<Criterion> criteriaList = new ArrayList<>();
+    private MatrixTableModel tableModel;
+    private JTable decisionTable;
+    
+    // UI Components
+    private JTextField critNameField, critWeightField, optionNameField, userNameField;
+    private JLabel statusLabel;
+    private String currentUserName = "Guest";
+    private LiveScorer liveScorer; // non-null while live mode is on
+    private MonteCarloEngine.MonteCarloResult monteCarlo; // last simulation, dropped when the matrix changes
+    private int matrixEdits; // bumped on every change except totals
+    private JCheckBox paretoBox;
+    private boolean[] dominatedRows; // by model row, from the last Pareto pass; null when the filter is off
+    private MatrixHistory matrixHistory;
+    private JButton undoBtn, redoBtn;
+    private JComboBox<String> branchBox;
+    private boolean updatingBranches; // set while branchBox is refilled, so it isn't taken as a switch
+    private final AhpWeights ahpWeights = new AhpWeights(0); // pairwise comparisons, kept between AHP sessions
+
+    public DecisionMatrixGUI() {
+        Trace.debug("DecisionMatrixGUI constructor started.");
+
+        setTitle("System 2 Decision Helper");
+        setSize(900, 600);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null); 
+        setLayout(new BorderLayout(10, 10));
+
+        initializeComponents();
+        
+        Trace.debug("DecisionMatrixGUI components initialized.");
+    }
+
+    private void initializeComponents() {
+        Trace.debug("initializeComponents() called.");
+
+        // --- TOP PANEL ---
+        JPanel topPanel = new JPanel();
+        topPanel.setLayout(new BoxLayout(topPanel, BoxLayout.Y_AXIS));
+        
+        JLabel titleLabel = new JLabel("Rational Decision Matrix");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        topPanel.add(titleLabel);
+
+        // --- USER PANEL ---
+        JPanel userPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        userPanel.setBorder(BorderFactory.createTitledBorder("User"));
+        userNameField = new JTextField(15);
+        userNameField.setText(currentUserName);
+        JButton setUserBtn = new JButton("Set User Name");
+        JButton viewHistoryBtn = new JButton("View History");
+        JButton analyticsBtn = new JButton("Analytics");
+        userPanel.add(new JLabel("User Name:"));
+        userPanel.add(userNameField);
+        userPanel.add(setUserBtn);
+        userPanel.add(viewHistoryBtn);
+        userPanel.add(analyticsBtn);
+
+        // --- INPUT PANEL ---
+        JPanel inputPanel = new JPanel(new GridLayout(3, 1, 5, 5));
+        
+        // Row 1: Criteria
+        JPanel critPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        critPanel.setBorder(BorderFactory.createTitledBorder("Step 1: Add Criteria"));
+        critNameField = new JTextField(10);
+        critWeightField = new JTextField(3);
+        JButton addCritBtn = new JButton("Add Criterion");
+        
+        critPanel.add(new JLabel("Criterion:"));
+        critPanel.add(critNameField);
+        critPanel.add(new JLabel("Weight (1-10):"));
+        critPanel.add(critWeightField);
+        critPanel.add(addCritBtn);
+        JButton ahpBtn = new JButton("AHP Weights...");
+        ahpBtn.setToolTipText("Derive the weights from pairwise comparisons of the criteria");
+        critPanel.add(ahpBtn);
+
+        // Row 2: Options
+        JPanel optPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        optPanel.setBorder(BorderFactory.createTitledBorder("Step 2: Add Options"));
+        optionNameField = new JTextField(15);
+        JButton addOptBtn = new JButton("Add Option");
+        
+        optPanel.add(new JLabel("Option Name:"));
+        optPanel.add(optionNameField);
+        optPanel.add(addOptBtn);
+        JButton importBtn = new JButton("Import CSV...");
+        importBtn.setToolTipText("Load a whole matrix: header Option,Name:weight,... then one row per option");
+        JButton exportBtn = new JButton("Export CSV...");
+        exportBtn.setToolTipText("Save every criterion, weight and score as CSV");
+        optPanel.add(importBtn);
+        optPanel.add(exportBtn);
+
+        // Row 3: Versions (undo/redo and what-if branches)
+        JPanel versionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        versionPanel.setBorder(BorderFactory.createTitledBorder("Versions"));
+        undoBtn = new JButton("Undo");
+        undoBtn.setToolTipText("Undo the last change (Ctrl+Z)");
+        redoBtn = new JButton("Redo");
+        redoBtn.setToolTipText("Redo (Ctrl+Y)");
+        branchBox = new JComboBox<>();
+        branchBox.setToolTipText("Switch to another what-if branch");
+        JButton newBranchBtn = new JButton("New Branch...");
+        newBranchBtn.setToolTipText("Branch off the current matrix to try changes without losing it");
+        JButton saveBranchBtn = new JButton("Save Branch");
+        saveBranchBtn.setToolTipText("Save this branch's matrix to branches/ and its result to the history");
+
+        versionPanel.add(undoBtn);
+        versionPanel.add(redoBtn);
+        versionPanel.add(new JLabel("Branch:"));
+        versionPanel.add(branchBox);
+        versionPanel.add(newBranchBtn);
+        versionPanel.add(saveBranchBtn);
+
+        inputPanel.add(critPanel);
+        inputPanel.add(optPanel);
+        inputPanel.add(versionPanel);
+        topPanel.add(userPanel);
+        topPanel.add(inputPanel);
+        add(topPanel, BorderLayout.NORTH);
+
+        // --- CENTER PANEL (Table) ---
+        tableModel = new MatrixTableModel();
+
+        tableModel.addTableModelListener(e -> {
+            if (e.getColumn() != MatrixTableModel.TOTAL_COL) {
+                monteCarlo = null;
+                matrixEdits++;
+            }
+        });
+
+        matrixHistory = new MatrixHistory(tableModel, criteriaList);
+        matrixHistory.setOnChange(this::updateVersionControls);
+        matrixHistory.attach();
+        updateVersionControls();
+
+        decisionTable = new JTable(tableModel);
+        decisionTable.setRowHeight(30);
+        // Criteria added or relabelled come without a structure event (see MatrixTableModel),
+        // so only their own column is appended or relabelled here
+        tableModel.addCriteriaListener(new MatrixTableModel.CriteriaListener() {
+            @Override
+            public void criterionAdded(int i) {
+                monteCarlo = null;
+                matrixEdits++;
+                decisionTable.addColumn(new TableColumn(MatrixTableModel.FIRST_CRITERION_COL + i));
+            }
+
+            @Override
+            public void criterionRelabelled(int i) {
+                monteCarlo = null;
+                matrixEdits++;
+                int col = MatrixTableModel.FIRST_CRITERION_COL + i;
+                TableColumnModel columns = decisionTable.getColumnModel();
+                // Columns sit at their model index unless dragged; only then search for it
+                int view = col < columns.getColumnCount() && columns.getColumn(col).getModelIndex() == col
+                           ? col : decisionTable.convertColumnIndexToView(col);
+                if (view >= 0) {
+                    columns.getColumn(view).setHeaderValue(tableModel.getColumnName(col));
+                    decisionTable.getTableHeader().repaint();
+                }
+            }
+        });
+        add(new JScrollPane(decisionTable), BorderLayout.CENTER);
+
+        // --- BOTTOM PANEL ---
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton calculateBtn = new JButton("CALCULATE DECISION");
+        calculateBtn.setFont(new Font("Arial", Font.BOLD, 16));
+        calculateBtn.setBackground(new Color(70, 130, 180));
+        calculateBtn.setForeground(Color.WHITE);
+        JButton saveBtn = new JButton("Save Result");
+        saveBtn.setBackground(new Color(34, 139, 34));
+        saveBtn.setForeground(Color.WHITE);
+        JButton sensitivityBtn = new JButton("Sensitivity");
+        sensitivityBtn.setToolTipText("How far each weight can move before the winner changes");
+        JButton monteCarloBtn = new JButton("Monte Carlo");
+        monteCarloBtn.setToolTipText("Simulate scores entered as ranges (3-7, 2-4-9 or 5~2)");
+        JButton metricsBtn = new JButton("Metrics");
+        metricsBtn.setToolTipText("Counters and latency histograms for scoring, saves, loads and edits");
+        paretoBox = new JCheckBox("Pareto Filter");
+        paretoBox.setToolTipText("Hide dominated options and rank only the Pareto front");
+        // Indexed like DecisionEngine.Normalization
+        JComboBox<String> normalizationBox = new JComboBox<>(new String[] {"Raw scores", "Min-max", "Vector norm"});
+        normalizationBox.setToolTipText("Rescale each criterion before weighting: min-max to 0-1, or by its "
+                                        + "vector length. Normalized totals are shown x100");
+        JCheckBox liveBox = new JCheckBox("Live Update");
+        liveBox.setToolTipText("Update totals and the winner as you edit cells");
+        buttonPanel.add(calculateBtn);
+        buttonPanel.add(normalizationBox);
+        buttonPanel.add(saveBtn);
+        buttonPanel.add(sensitivityBtn);
+        buttonPanel.add(monteCarloBtn);
+        buttonPanel.add(metricsBtn);
+        buttonPanel.add(paretoBox);
+        buttonPanel.add(liveBox);
+        statusLabel = new JLabel("Ready.");
+        statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        
+        bottomPanel.add(buttonPanel, BorderLayout.CENTER);
+        bottomPanel.add(statusLabel, BorderLayout.SOUTH);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        // --- EVENT LISTENERS ---
+        
+        // Listener 1: Add Criterion
+        addCritBtn.addActionListener(e -> {
+            Trace.debug("'Add Criterion' button clicked.");
+            String name = critNameField.getText().trim();
+            String weightStr = critWeightField.getText().trim();
+            Trace.debug("Raw inputs - name: '{}', weight: '{}'", name, weightStr);
+
+            if (name.isEmpty() || weightStr.isEmpty()) {
+                Trace.debug("Error: empty fields detected.");
+                JOptionPane.showMessageDialog(this, "Please enter name and weight.");
+                return;
+            }
+
+            try {
+                int weight = Integer.parseInt(weightStr);
+                Trace.debug("Parsed weight integer: {}", weight);
+
+                if (weight < 1 || weight > 10) {
+                    Trace.debug("Error: weight out of range (1-10).");
+                    throw new NumberFormatException();
+                }
+
+                // Re-adding an existing criterion changes its weight
+                int existing = findCriterion(name);
+                if (existing >= 0) {
+                    updateCriterionWeight(existing, weight);
+                    critNameField.setText("");
+                    critWeightField.setText("");
+                    statusLabel.setText("Updated weight of " + name + " to " + weight);
+                    return;
+                }
+
+                criteriaList.add(new Criterion(name, weight));
+                tableModel.addCriterion(name + " (Wt:" + weight + ")");
+                Trace.debug("Column added to table model. Total columns: {}", tableModel.getColumnCount());
+                
+                critNameField.setText("");
+                critWeightField.setText("");
+                statusLabel.setText("Added criterion: " + name);
+
+            } catch (NumberFormatException ex) {
+                Trace.debug("Invalid number format for weight.");
+                JOptionPane.showMessageDialog(this, "Weight must be an integer (1-10).");
+            }
+        });
+
+        // Listener 1b: AHP weights from pairwise comparisons. Comparisons are kept for the next
+        // time by criterion name; criteria added (or renamed) since start out equal to the others.
+        ahpBtn.addActionListener(e -> {
+            if (criteriaList.size() < 2) {
+                JOptionPane.showMessageDialog(this, "Please add at least two criteria first.");
+                return;
+            }
+            ArrayList<String> names = new ArrayList<>(criteriaList.size());
+            for (Criterion criterion : criteriaList) {
+                names.add(criterion.name);
+            }
+            ahpWeights.match(names);
+            AhpDialog dialog = new AhpDialog(this, criteriaList, ahpWeights);
+            dialog.setVisible(true);
+            int[] weights = dialog.getAppliedWeights();
+            if (weights == null) {
+                return;
+            }
+            matrixHistory.beginCompound(); // One undo step for all weights
+            for (int i = 0; i < weights.length; i++) {
+                if (criteriaList.get(i).weight != weights[i]) {
+                    updateCriterionWeight(i, weights[i]);
+                }
+            }
+            matrixHistory.endCompound();
+            statusLabel.setText(String.format("Weights set from AHP (consistency ratio %.3f)",
+                                              ahpWeights.getConsistencyRatio()));
+        });
+
+        // Listener 2: Add Option
+        addOptBtn.addActionListener(e -> {
+            Trace.debug("'Add Option' button clicked.");
+            String name = optionNameField.getText().trim();
+            Trace.debug("Input name: '{}'", name);
+
+            if (name.isEmpty()) {
+                Trace.debug("Error: empty option name.");
+                JOptionPane.showMessageDialog(this, "Please enter an option name.");
+                return;
+            }
+
+            // New rows start at 0 for every criterion
+            tableModel.addRow(name);
+            Trace.debug("Row added to table. Total rows: {}", tableModel.getRowCount());
+            
+            optionNameField.setText("");
+            statusLabel.setText("Added option: " + name);
+        });
+
+        // Listener 2b/2c: CSV import and export. Matrix inputs are disabled while one runs,
+        // since the model is filled (or read) from a background thread. An import also
+        // disables everything that scores or saves, which would see a half-loaded matrix.
+        JComponent[] matrixInputs = {addCritBtn, ahpBtn, addOptBtn, importBtn, exportBtn, decisionTable,
+                                     undoBtn, redoBtn, branchBox, newBranchBtn, saveBranchBtn};
+        JComponent[] scoringInputs = {calculateBtn, normalizationBox, saveBtn, sensitivityBtn, monteCarloBtn,
+                                      paretoBox, liveBox};
+        importBtn.addActionListener(e -> {
+            JFileChooser chooser = csvChooser();
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            if ((tableModel.getRowCount() > 0 || !criteriaList.isEmpty())
+                    && JOptionPane.showConfirmDialog(this, "Replace the current matrix with the imported one?",
+                                                     "Import CSV", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                return;
+            }
+            importMatrix(chooser.getSelectedFile().toPath(), matrixInputs, scoringInputs);
+        });
+        exportBtn.addActionListener(e -> {
+            if (criteriaList.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Please add criteria and options first.");
+                return;
+            }
+            JFileChooser chooser = csvChooser();
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            File file = chooser.getSelectedFile();
+            if (!file.getName().toLowerCase().endsWith(".csv")) {
+                file = new File(file.getParentFile(), file.getName() + ".csv");
+            }
+            if (file.exists() && JOptionPane.showConfirmDialog(this, file.getName() + " exists. Replace it?",
+                                                               "Export CSV", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                return;
+            }
+            exportMatrix(file.toPath(), matrixInputs);
+        });
+
+        // Listener 2d: Undo/redo and branches. Each moves the table to another snapshot by
+        // applying only the cells that differ (see applySnapshot).
+        undoBtn.addActionListener(e -> moveTo(matrixHistory.getHead(), matrixHistory.undo(), "Undone."));
+        redoBtn.addActionListener(e -> moveTo(matrixHistory.getHead(), matrixHistory.redo(), "Redone."));
+        JRootPane root = getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+            .put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undo");
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+            .put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redo");
+        root.getActionMap().put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (undoBtn.isEnabled()) {
+                    undoBtn.doClick();
+                }
+            }
+        });
+        root.getActionMap().put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (redoBtn.isEnabled()) {
+                    redoBtn.doClick();
+                }
+            }
+        });
+        branchBox.addActionListener(e -> {
+            String name = (String) branchBox.getSelectedItem();
+            if (updatingBranches || name == null || name.equals(matrixHistory.getCurrentBranch())) {
+                return;
+            }
+            moveTo(matrixHistory.getHead(), matrixHistory.switchTo(name), "Switched to branch " + name + ".");
+        });
+        newBranchBtn.addActionListener(e -> {
+            String name = JOptionPane.showInputDialog(this, "Name of the new branch:", "New Branch",
+                                                      JOptionPane.PLAIN_MESSAGE);
+            if (name == null || name.trim().isEmpty()) {
+                return;
+            }
+            name = name.trim();
+            if (!matrixHistory.createBranch(name)) {
+                JOptionPane.showMessageDialog(this, "There is already a branch called " + name + ".");
+                return;
+            }
+            updateVersionControls();
+            statusLabel.setText("On new branch " + name + " (from the current matrix).");
+        });
+        saveBranchBtn.addActionListener(e -> {
+            PersistentMatrix head = matrixHistory.getHead();
+            if (head.getRowCount() == 0 || head.getCriterionCount() == 0) {
+                JOptionPane.showMessageDialog(this, "Please add criteria and options first.");
+                return;
+            }
+            String branch = matrixHistory.getCurrentBranch();
+            statusLabel.setText("Saving branch " + branch + "...");
+            HistoryManager.saveBranch(branch, head, currentUserName)
+                .whenComplete((file, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        statusLabel.setText("Saving branch failed: " + cause.getMessage());
+                        JOptionPane.showMessageDialog(this, "Could not save the branch:\n" + cause.getMessage());
+                        return;
+                    }
+                    statusLabel.setText("Branch " + branch + " saved to " + file + " and to the history.");
+                }));
+        });
+
+        // Listener 3: Calculate Logic
+        calculateBtn.addActionListener(e -> {
+            Trace.debug("--- CALCULATION STARTED ---");
+            int rowCount = tableModel.getRowCount();
+            int critCount = criteriaList.size();
+            Trace.debug("Processing {} rows against {} criteria.", rowCount, critCount);
+
+            if (rowCount == 0 || critCount == 0) {
+                Trace.debug("Aborting: not enough data.");
+                JOptionPane.showMessageDialog(this, "Please add criteria and options first.");
+                return;
+            }
+
+            // Score straight off the model's primitive columns, no parsing or boxing
+            int[] weights = new int[critCount];
+            int[][] columns = new int[critCount][];
+            for (int i = 0; i < critCount; i++) {
+                weights[i] = criteriaList.get(i).weight;
+                columns[i] = tableModel.getScoreColumn(i);
+            }
+
+            // Every row is scored, so normalization sees the whole matrix and dominated rows keep
+            // their real totals; with the Pareto filter on they are hidden and left out of the ranking
+            DecisionEvents.Scoring scoring = DecisionEvents.scoring("calculate", rowCount, critCount);
+            int[] front = paretoFront(columns, rowCount, critCount);
+            int[] totals = new int[rowCount];
+            DecisionEngine.Normalization normalization =
+                DecisionEngine.Normalization.values()[normalizationBox.getSelectedIndex()];
+
+            // Large matrices are scored across the ForkJoinPool; we keep the top K, not just the winner
+            int[] ranked = DecisionEngine.scoreColumnsRanked(weights, columns, rowCount, critCount, normalization,
+                                                             front, totals, DecisionEngine.DEFAULT_TOP_K);
+            scoring.finish();
+
+            tableModel.setTotals(totals); // One event for the whole "Total" column
+
+            String winnerName = tableModel.getOptionName(ranked[0]);
+            int maxScore = totals[ranked[0]];
+            
+            Trace.debug("--- CALCULATION FINISHED. Winner: {} ---", winnerName);
+            StringBuilder message = new StringBuilder("Logical Choice: " + winnerName + "\nScore: " + maxScore);
+            if (normalization != DecisionEngine.Normalization.NONE) {
+                message.append(" (").append(normalizationBox.getSelectedItem()).append(" normalized, x")
+                       .append(DecisionEngine.NORMALIZED_POINTS).append(")");
+            }
+            if (ranked.length > 1) {
+                message.append("\n\nRanking:");
+                for (int i = 0; i < ranked.length; i++) {
+                    int score = totals[ranked[i]];
+                    message.append("\n").append(i + 1).append(". ").append(tableModel.getOptionName(ranked[i]))
+                           .append(" (").append(score).append(")");
+                    if (i > 0 && score == maxScore) {
+                        message.append("  <-- TIED");
+                    }
+                }
+            }
+            statusLabel.setText("Winner: " + winnerName + " (Score: " + maxScore + ")"
+                                + (front != null ? "   |   " + front.length + " of " + rowCount
+                                                   + " options on the Pareto front"
+                                   : paretoBox.isSelected() ? "   |   Pareto filter skipped: most options are"
+                                                              + " on the front" : ""));
+            JOptionPane.showMessageDialog(this, message.toString());
+        });
+
+        // Listener 3b: Sensitivity analysis
+        sensitivityBtn.addActionListener(e -> {
+            int rowCount = tableModel.getRowCount();
+            int critCount = criteriaList.size();
+            if (rowCount < 2 || critCount == 0) {
+                JOptionPane.showMessageDialog(this, "Please add criteria and at least two options first.");
+                return;
+            }
+
+            int[] weights = new int[critCount];
+            int[][] columns = new int[critCount][];
+            for (int i = 0; i < critCount; i++) {
+                weights[i] = criteriaList.get(i).weight;
+                columns[i] = tableModel.getScoreColumn(i);
+            }
+            DecisionEvents.Scoring scoring = DecisionEvents.scoring("sensitivity", rowCount, critCount);
+            int[] front = paretoFront(columns, rowCount, critCount);
+            int scoredRows = front == null ? rowCount : front.length;
+            int[][] scored = front == null ? columns : ParetoFilter.select(columns, critCount, front);
+            int[] totals = new int[scoredRows];
+            int winnerRow = DecisionEngine.scoreColumns(weights, scored, scoredRows, critCount, totals);
+            ArrayList<SensitivityAnalyzer.CriterionSensitivity> results =
+                SensitivityAnalyzer.analyze(weights, scored, scoredRows, critCount, totals, winnerRow);
+            scoring.finish();
+            if (front != null) {
+                // Back to table rows for the dialog
+                winnerRow = front[winnerRow];
+                for (SensitivityAnalyzer.CriterionSensitivity s : results) {
+                    s.lowerChallenger = s.lowerChallenger < 0 ? -1 : front[s.lowerChallenger];
+                    s.upperChallenger = s.upperChallenger < 0 ? -1 : front[s.upperChallenger];
+                }
+            }
+            new SensitivityDialog(this, tableModel, criteriaList, winnerRow, results).setVisible(true);
+        });
+
+        // Listener 3c: Monte Carlo over cells entered as ranges
+        monteCarloBtn.addActionListener(e -> {
+            int rowCount = tableModel.getRowCount();
+            int critCount = criteriaList.size();
+            if (rowCount == 0 || critCount == 0) {
+                JOptionPane.showMessageDialog(this, "Please add criteria and options first.");
+                return;
+            }
+            if (!tableModel.hasAnyRange()) {
+                JOptionPane.showMessageDialog(this, "No score has a range yet.\n"
+                    + "Enter a cell as 3-7 (low-high), 2-4-9 (low-likely-high) or 5~2 (likely +/- spread).");
+                return;
+            }
+
+            int[] weights = new int[critCount];
+            int[][] likely = new int[critCount][];
+            int[][] lows = new int[critCount][];
+            int[][] highs = new int[critCount][];
+            for (int i = 0; i < critCount; i++) {
+                // Copies, since the simulation runs off the EDT while the table stays editable
+                weights[i] = criteriaList.get(i).weight;
+                likely[i] = copyColumn(tableModel.getScoreColumn(i), rowCount);
+                lows[i] = copyColumn(tableModel.getRangeLowColumn(i), rowCount);
+                highs[i] = copyColumn(tableModel.getRangeHighColumn(i), rowCount);
+            }
+            String[] names = new String[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                names[row] = tableModel.getOptionName(row);
+            }
+
+            monteCarloBtn.setEnabled(false);
+            statusLabel.setText("Running " + MonteCarloEngine.DEFAULT_SAMPLES + " samples...");
+            long started = System.nanoTime();
+            int editsAtStart = matrixEdits;
+            CompletableFuture.supplyAsync(() -> {
+                DecisionEvents.Scoring scoring = DecisionEvents.scoring("monte-carlo", rowCount, critCount);
+                MonteCarloEngine.MonteCarloResult simulated = MonteCarloEngine.simulate(
+                    weights, likely, lows, highs, rowCount, critCount, MonteCarloEngine.DEFAULT_SAMPLES, System.nanoTime());
+                scoring.finish();
+                return simulated;
+            })
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    monteCarloBtn.setEnabled(true);
+                    if (error != null) {
+                        statusLabel.setText("Monte Carlo failed: " + error.getMessage());
+                        return;
+                    }
+                    if (matrixEdits == editsAtStart) {
+                        monteCarlo = result; // Saved with the next "Save Result"
+                    }
+                    showMonteCarlo(result, names, (System.nanoTime() - started) / 1_000_000);
+                }));
+        });
+
+        // Listener 3d: Metrics (non-modal, refreshes itself while open)
+        metricsBtn.addActionListener(e -> new MetricsDialog(this).setVisible(true));
+
+        // Listener 3e: Pareto filter toggle (takes effect on the next Calculate or Sensitivity)
+        paretoBox.addActionListener(e -> {
+            if (!paretoBox.isSelected() && dominatedRows != null) {
+                dominatedRows = null;
+                decisionTable.setRowSorter(null);
+                statusLabel.setText("Pareto filter off; Calculate to rank every option.");
+            }
+        });
+
+        // Listener 4: Live Update toggle
+        liveBox.addActionListener(e -> {
+            if (liveBox.isSelected()) {
+                liveScorer = new LiveScorer(tableModel, criteriaList);
+                liveScorer.setOnRankingChanged(this::showLiveWinner);
+                liveScorer.attach();
+            } else if (liveScorer != null) {
+                liveScorer.detach();
+                liveScorer = null;
+                statusLabel.setText("Live update off.");
+            }
+        });
+
+        // Listener 5: Set User Name
+        setUserBtn.addActionListener(e -> {
+            String name = userNameField.getText().trim();
+            if (name.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Please enter a user name.");
+                return;
+            }
+            currentUserName = name;
+            statusLabel.setText("User set to: " + currentUserName);
+            Trace.debug("User name set to: {}", currentUserName);
+        });
+
+        // Listener 6: View History and Analytics (enabled once the background history load is done)
+        viewHistoryBtn.setEnabled(false);
+        viewHistoryBtn.setToolTipText("Loading history...");
+        analyticsBtn.setEnabled(false);
+        analyticsBtn.setToolTipText("Loading history...");
+        HistoryManager.loadHistoryAsync().thenRun(() -> SwingUtilities.invokeLater(() -> {
+            viewHistoryBtn.setEnabled(true);
+            viewHistoryBtn.setToolTipText(null);
+            analyticsBtn.setEnabled(true);
+            analyticsBtn.setToolTipText("Wins, criteria, score distribution and trends over all saved decisions");
+        }));
+        viewHistoryBtn.addActionListener(e -> {
+            if (HistoryManager.getHistorySize() == 0) {
+                JOptionPane.showMessageDialog(this, "No history available yet.");
+                return;
+            }
+            new HistoryDialog(this).setVisible(true);
+        });
+        analyticsBtn.addActionListener(e -> {
+            if (HistoryManager.getHistorySize() == 0) {
+                JOptionPane.showMessageDialog(this, "No history available yet.");
+                return;
+            }
+            new AnalyticsDialog(this).setVisible(true); // Non-modal; fills in as the scan proceeds
+        });
+
+        // Listener 7: Save Result
+        saveBtn.addActionListener(e -> {
+            if (tableModel.getRowCount() == 0 || criteriaList.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Please calculate a decision first before saving.");
+                return;
+            }
+            
+            // Rescored rather than read off the Total column, which live edits may have mixed
+            // with an earlier Calculate; the normalization is saved with the totals
+            int rowCount = tableModel.getRowCount();
+            int critCount = criteriaList.size();
+            int[] weights = new int[critCount];
+            int[][] columns = new int[critCount][];
+            for (int i = 0; i < critCount; i++) {
+                weights[i] = criteriaList.get(i).weight;
+                columns[i] = tableModel.getScoreColumn(i);
+            }
+            DecisionEngine.Normalization normalization =
+                DecisionEngine.Normalization.values()[normalizationBox.getSelectedIndex()];
+            int[] totals = new int[rowCount];
+            int[] ranked = DecisionEngine.scoreColumnsRanked(weights, columns, rowCount, critCount, normalization,
+                                                             totals, DecisionEngine.DEFAULT_TOP_K);
+
+            ArrayList<OptionScore> optionScores = new ArrayList<>();
+            for (int row = 0; row < rowCount; row++) {
+                optionScores.add(new OptionScore(tableModel.getOptionName(row), totals[row]));
+            }
+            ArrayList<OptionScore> ranking = new ArrayList<>();
+            for (int row : ranked) {
+                ranking.add(optionScores.get(row));
+            }
+            
+            // Create and save result
+            DecisionResult result = new DecisionResult(currentUserName, criteriaList, optionScores, ranking);
+            result.normalization = normalization;
+            if (monteCarlo != null && monteCarlo.size() == optionScores.size()) {
+                result.monteCarlo = monteCarlo;
+            }
+            String savedFor = currentUserName;
+            statusLabel.setText("Saving result for user: " + savedFor + "...");
+
+            // Written in the background; the EDT only hears back when it's done
+            HistoryWriter writer = HistoryManager.getWriter();
+            HistoryManager.saveResultAsync(result).whenComplete((path, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    statusLabel.setText("Save failed: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(this, "Could not save the result:\n" + cause.getMessage());
+                    return;
+                }
+                statusLabel.setText(String.format("Result saved for user: %s (write %.1f ms, %d queued)",
+                                    savedFor, writer.getLastWriteMillis(), writer.getQueueDepth()));
+            }));
+        });
+    }
+
+    private static JFileChooser csvChooser() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        return chooser;
+    }
+
+    // Streams a CSV into an emptied matrix. Parsing runs on a SwingWorker thread and each
+    // batch is added on the EDT with one rowsInserted event; the parser stays at most
+    // IMPORT_BATCHES_IN_FLIGHT batches ahead, so a huge file never piles up in memory.
+    private void importMatrix(Path file, JComponent[] matrixInputs, JComponent[] scoringInputs) {
+        matrixHistory.beginCompound(); // The whole import is one undo step
+        clearMatrix();
+        setEnabled(matrixInputs, false);
+        setEnabled(scoringInputs, false);
+        statusLabel.setText("Importing " + file.getFileName() + "...");
+        Semaphore inFlight = new Semaphore(IMPORT_BATCHES_IN_FLIGHT);
+        long started = System.nanoTime();
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws IOException {
+                return MatrixCsv.read(file, MatrixCsv.DEFAULT_BATCH_ROWS, new MatrixCsv.Sink() {
+                    @Override
+                    public void criteria(List<Criterion> criteria) {
+                        SwingUtilities.invokeLater(() -> {
+                            for (Criterion criterion : criteria) {
+                                criteriaList.add(criterion);
+                                tableModel.addCriterion(criterion.name + " (Wt:" + criterion.weight + ")");
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void rows(MatrixCsv.Batch batch) throws IOException {
+                        try {
+                            inFlight.acquire();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Import interrupted");
+                        }
+                        SwingUtilities.invokeLater(() -> {
+                            tableModel.addRows(batch.names, batch.size, batch.scores, batch.rangeLows, batch.rangeHighs);
+                            inFlight.release();
+                            statusLabel.setText(String.format("Importing %s... %,d options", file.getFileName(),
+                                                              tableModel.getRowCount()));
+                        });
+                    }
+                });
+            }
+
+            @Override
+            protected void done() {
+                matrixHistory.endCompound();
+                setEnabled(matrixInputs, true);
+                setEnabled(scoringInputs, true);
+                updateVersionControls();
+                try {
+                    long rows = get();
+                    statusLabel.setText(String.format("Imported %,d options and %d criteria from %s (%.1f s)",
+                                        rows, criteriaList.size(), file.getFileName(),
+                                        (System.nanoTime() - started) / 1e9));
+                } catch (InterruptedException | ExecutionException ex) {
+                    String reason = ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
+                    statusLabel.setText("Import failed: " + reason);
+                    JOptionPane.showMessageDialog(DecisionMatrixGUI.this, "Could not import " + file.getFileName()
+                                                  + ":\n" + reason + "\nRows before the error were kept.");
+                }
+            }
+        }.execute();
+    }
+
+    // Writes the matrix from a SwingWorker thread; the inputs stay disabled so it can't change meanwhile
+    private void exportMatrix(Path file, JComponent[] matrixInputs) {
+        setEnabled(matrixInputs, false);
+        statusLabel.setText("Exporting to " + file.getFileName() + "...");
+        ArrayList<Criterion> criteria = new ArrayList<>(criteriaList);
+        int rows = tableModel.getRowCount();
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws IOException {
+                return MatrixCsv.write(file, tableModel, criteria);
+            }
+
+            @Override
+            protected void done() {
+                setEnabled(matrixInputs, true);
+                updateVersionControls();
+                try {
+                    statusLabel.setText(String.format("Exported %,d options to %s (%,d KB)", rows, file.getFileName(),
+                                                      get() >> 10));
+                } catch (InterruptedException | ExecutionException ex) {
+                    String reason = ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
+                    statusLabel.setText("Export failed: " + reason);
+                    JOptionPane.showMessageDialog(DecisionMatrixGUI.this, "Could not export the matrix:\n" + reason);
+                }
+            }
+        }.execute();
+    }
+
+    // Empties the matrix (criteria, options and everything derived from them)
+    private void clearMatrix() {
+        criteriaList.clear();
+        tableModel.clear();
+        monteCarlo = null;
+        dominatedRows = null;
+        decisionTable.setRowSorter(null);
+        if (liveScorer != null) {
+            liveScorer.rebuild();
+        }
+    }
+
+    // Applies the move to target (from undo, redo or a branch switch) and refreshes the controls
+    private void moveTo(PersistentMatrix from, PersistentMatrix target, String status) {
+        if (target == null) {
+            return;
+        }
+        if (decisionTable.isEditing()) {
+            decisionTable.getCellEditor().cancelCellEditing();
+        }
+        long changed = applySnapshot(from, target);
+        updateVersionControls();
+        statusLabel.setText(status + " " + changed + " cell(s) changed"
+                            + (liveScorer == null ? "; Calculate to update the totals." : "."));
+    }
+
+    // Turns the table (which holds from) into target through the model's normal edit calls,
+    // so live scoring applies each cell as a delta instead of rescoring the matrix.
+    // Recording is off meanwhile: the history already points at target.
+    private long applySnapshot(PersistentMatrix from, PersistentMatrix target) {
+        matrixHistory.setRecording(false);
+        try {
+            return from.diff(target, new PersistentMatrix.DiffVisitor() {
+                @Override
+                public void truncate(int rows, int criteria) {
+                    while (criteriaList.size() > criteria) {
+                        criteriaList.remove(criteriaList.size() - 1);
+                    }
+                    tableModel.truncate(rows, criteria);
+                }
+
+                @Override
+                public void criterion(int i, String name, int weight) {
+                    if (i < criteriaList.size()) {
+                        setCriterion(i, name, weight);
+                    } else {
+                        criteriaList.add(new Criterion(name, weight));
+                        tableModel.addCriterion(name + " (Wt:" + weight + ")");
+                    }
+                }
+
+                @Override
+                public void optionName(int row, String name) {
+                    tableModel.setOptionName(row, name);
+                }
+
+                @Override
+                public void cell(int row, int i, int low, int likely, int high) {
+                    if (low < high) {
+                        tableModel.setScoreRange(row, i, low, likely, high);
+                    } else {
+                        tableModel.setScore(row, i, likely);
+                    }
+                }
+
+                @Override
+                public void appendRows(PersistentMatrix target, int from, int to) {
+                    int cols = target.getCriterionCount();
+                    String[] names = new String[to - from];
+                    for (int row = from; row < to; row++) {
+                        names[row - from] = target.getOptionName(row);
+                    }
+                    int[][] scores = new int[cols][];
+                    int[][] lows = new int[cols][];
+                    int[][] highs = new int[cols][];
+                    for (int i = 0; i < cols; i++) {
+                        scores[i] = target.scoreSlice(i, from, to);
+                        lows[i] = target.rangeLowSlice(i, from, to);
+                        highs[i] = target.rangeHighSlice(i, from, to);
+                    }
+                    tableModel.addRows(names, to - from, scores, lows, highs);
+                }
+            });
+        } finally {
+            matrixHistory.setRecording(true);
+            dominatedRows = null; // The front is stale; the next Calculate finds it again
+            decisionTable.setRowSorter(null);
+        }
+    }
+
+    private void updateVersionControls() {
+        undoBtn.setEnabled(matrixHistory.canUndo());
+        redoBtn.setEnabled(matrixHistory.canRedo());
+        ArrayList<String> branches = matrixHistory.getBranchNames();
+        updatingBranches = true;
+        if (branchBox.getItemCount() != branches.size()) {
+            branchBox.removeAllItems();
+            for (String name : branches) {
+                branchBox.addItem(name);
+            }
+        }
+        branchBox.setSelectedItem(matrixHistory.getCurrentBranch());
+        updatingBranches = false;
+    }
+
+    private static void setEnabled(JComponent[] components, boolean enabled) {
+        for (JComponent component : components) {
+            component.setEnabled(enabled);
+        }
+    }
+
+    // Pareto front of the matrix when the filter is on (null when off). Hides the dominated
+    // rows from the table until the next pass; rows added since then are shown.
+    private int[] paretoFront(int[][] columns, int rowCount, int critCount) {
+        if (!paretoBox.isSelected()) {
+            return null;
+        }
+        int[] front = ParetoFilter.front(columns, rowCount, critCount, ParetoFilter.DEFAULT_MAX_CHECKS);
+        if (front == null) {
+            // Most rows are on the front; finding it would cost more than scoring them all
+            dominatedRows = null;
+            decisionTable.setRowSorter(null);
+            Trace.debug("Pareto front: skipped, over the check budget for {} rows.", rowCount);
+            return null;
+        }
+        boolean[] dominated = new boolean[rowCount];
+        Arrays.fill(dominated, true);
+        for (int row : front) {
+            dominated[row] = false;
+        }
+        dominatedRows = dominated;
+
+        TableRowSorter<MatrixTableModel> sorter = new TableRowSorter<MatrixTableModel>(tableModel) {
+            @Override
+            public boolean isSortable(int column) {
+                return false; // Filtering only; rows keep their order
+            }
+        };
+        sorter.setRowFilter(new RowFilter<MatrixTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends MatrixTableModel, ? extends Integer> entry) {
+                return !isDominated(entry.getIdentifier());
+            }
+        });
+        decisionTable.setRowSorter(sorter);
+        Trace.debug("Pareto front: {} of {} rows.", front.length, rowCount);
+        return front;
+    }
+
+    private boolean isDominated(int row) {
+        boolean[] dominated = dominatedRows;
+        return dominated != null && row < dominated.length && dominated[row];
+    }
+
+    private int findCriterion(String name) {
+        for (int i = 0; i < criteriaList.size(); i++) {
+            if (criteriaList.get(i).name.equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Gives criterion i a new weight; in live mode only that column is re-applied
+    private void updateCriterionWeight(int i, int weight) {
+        setCriterion(i, criteriaList.get(i).name, weight);
+    }
+
+    // Renames and/or reweights criterion i. The entry is replaced, not edited, so results
+    // and snapshots holding the old Criterion never see the change.
+    private void setCriterion(int i, String name, int weight) {
+        Criterion c = new Criterion(name, weight);
+        criteriaList.set(i, c);
+        tableModel.setCriterionLabel(i, c.name + " (Wt:" + weight + ")");
+        if (liveScorer != null) {
+            liveScorer.updateWeight(i, weight);
+        }
+    }
+
+    private static int[] copyColumn(int[] column, int rows) {
+        return column == null ? null : Arrays.copyOf(column, rows);
+    }
+
+    // Lists the likeliest winners with their score percentiles
+    private void showMonteCarlo(MonteCarloEngine.MonteCarloResult result, String[] names, long millis) {
+        int rows = result.size();
+        int[] chance = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            chance[row] = (int) Math.round(result.winProbability[row] * 1_000_000);
+        }
+        int[] ranked = DecisionEngine.topK(chance, 0, rows, DecisionEngine.DEFAULT_TOP_K);
+
+        StringBuilder message = new StringBuilder("Win probability over " + result.samples + " samples ("
+                                                  + millis + " ms):\n");
+        for (int i = 0; i < ranked.length; i++) {
+            int row = ranked[i];
+            message.append(String.format("%n%d. %s: %.1f%%   (total p5 %.1f / p50 %.1f / p95 %.1f)", i + 1, names[row],
+                           result.winProbability[row] * 100, result.p5[row], result.p50[row], result.p95[row]));
+        }
+        statusLabel.setText(String.format("Most likely winner: %s (%.1f%%)", names[ranked[0]],
+                            result.winProbability[ranked[0]] * 100));
+        JOptionPane.showMessageDialog(this, message.toString());
+    }
+
+    private void showLiveWinner() {
+        int winnerRow = liveScorer.getWinnerRow();
+        if (winnerRow < 0) {
+            statusLabel.setText("Live update on.");
+            return;
+        }
+        statusLabel.setText("Live winner: " + tableModel.getOptionName(winnerRow)
+                            + " (Score: " + liveScorer.getTotal(winnerRow) + ")");
+    }
+}
\ No newline at end of file
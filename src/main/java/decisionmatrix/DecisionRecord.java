@@ -0,0 +1,56 @@
+package decisionmatrix;
+
+// Read-only view of one decision. DecisionResult implements it directly; CompactHistory
+// hands out flyweight implementations over its packed columns, so code that only reads
+// a decision can work on either without materializing objects.
+public interface DecisionRecord {
+    String getUserName();
+
+    String getTimestamp();
+
+    // Timestamp as epoch millis in the system zone (0 if it does not parse)
+    long getEpochMillis();
+
+    int getCriterionCount();
+
+    String getCriterionName(int i);
+
+    int getCriterionWeight(int i);
+
+    int getOptionCount();
+
+    String getOptionName(int i);
+
+    int getOptionScore(int i);
+
+    // Ranking, best first (may be a top-K subset of the options)
+    int getRankingSize();
+
+    String getRankedName(int rank);
+
+    int getRankedScore(int rank);
+
+    String getWinner();
+
+    int getWinnerScore();
+
+    // How the totals were scored; anything but NONE means NORMALIZED_POINTS, not raw sums
+    default DecisionEngine.Normalization getNormalization() {
+        return DecisionEngine.Normalization.NONE;
+    }
+
+    // Options sharing the top score with the winner (the winner itself included)
+    default int getTieCount() {
+        int ties = 0;
+        for (int i = 0; i < getRankingSize(); i++) {
+            if (getRankedScore(i) != getWinnerScore()) {
+                break;
+            }
+            ties++;
+        }
+        return ties;
+    }
+
+    // A standalone DecisionResult with the same contents
+    DecisionResult toDecisionResult();
+}
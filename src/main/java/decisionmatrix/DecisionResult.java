@@ -0,0 +1,200 @@
+package decisionmatrix;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+public class DecisionResult implements DecisionRecord {
+    public String userName;
+    public String timestamp;
+    public ArrayList<Criterion> criteria;
+    public ArrayList<OptionScore> optionScores;
+    public ArrayList<OptionScore> ranking; // best first, may be a top-K subset of optionScores
+    public String winner;
+    public int winnerScore;
+    public MonteCarloEngine.MonteCarloResult monteCarlo; // indexed like optionScores, null if not run
+    public DecisionEngine.Normalization normalization = DecisionEngine.Normalization.NONE; // how the totals were scored
+
+    public DecisionResult(String userName, ArrayList<Criterion> criteria, 
+                         ArrayList<OptionScore> optionScores, ArrayList<OptionScore> ranking) {
+        this.userName = userName;
+        this.criteria = copyOf(criteria);
+        this.optionScores = new ArrayList<>(optionScores);
+        this.ranking = new ArrayList<>(ranking);
+        this.winner = ranking.isEmpty() ? "" : ranking.get(0).optionName;
+        this.winnerScore = ranking.isEmpty() ? -1 : ranking.get(0).totalScore;
+        this.timestamp = java.time.LocalDateTime.now().toString();
+    }
+
+    // Used when only the winner is known (e.g. entries read back from the history file);
+    // the ranking is rebuilt from the option totals.
+    public DecisionResult(String userName, ArrayList<Criterion> criteria, 
+                         ArrayList<OptionScore> optionScores, String winner, int winnerScore) {
+        this.userName = userName;
+        this.criteria = copyOf(criteria);
+        this.optionScores = new ArrayList<>(optionScores);
+        this.ranking = new ArrayList<>(optionScores);
+        this.ranking.sort((a, b) -> Integer.compare(b.totalScore, a.totalScore));
+        this.winner = winner;
+        this.winnerScore = winnerScore;
+        this.timestamp = java.time.LocalDateTime.now().toString();
+    }
+
+    // Own Criterion objects: the GUI's list is edited (weights, undo) while a save is still queued
+    private static ArrayList<Criterion> copyOf(ArrayList<Criterion> criteria) {
+        ArrayList<Criterion> copy = new ArrayList<>(criteria.size());
+        for (Criterion c : criteria) {
+            copy.add(new Criterion(c.name, c.weight));
+        }
+        return copy;
+    }
+
+    // Options sharing the top score with the winner (the winner itself included)
+    @Override
+    public int getTieCount() {
+        int ties = 0;
+        for (OptionScore os : ranking) {
+            if (os.totalScore != winnerScore) {
+                break;
+            }
+            ties++;
+        }
+        return ties;
+    }
+
+    // --- DecisionRecord ---
+
+    @Override
+    public String getUserName() {
+        return userName;
+    }
+
+    @Override
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public long getEpochMillis() {
+        return HistoryIndex.epochMillis(timestamp);
+    }
+
+    @Override
+    public int getCriterionCount() {
+        return criteria.size();
+    }
+
+    @Override
+    public String getCriterionName(int i) {
+        return criteria.get(i).name;
+    }
+
+    @Override
+    public int getCriterionWeight(int i) {
+        return criteria.get(i).weight;
+    }
+
+    @Override
+    public int getOptionCount() {
+        return optionScores.size();
+    }
+
+    @Override
+    public String getOptionName(int i) {
+        return optionScores.get(i).optionName;
+    }
+
+    @Override
+    public int getOptionScore(int i) {
+        return optionScores.get(i).totalScore;
+    }
+
+    @Override
+    public int getRankingSize() {
+        return ranking.size();
+    }
+
+    @Override
+    public String getRankedName(int rank) {
+        return ranking.get(rank).optionName;
+    }
+
+    @Override
+    public int getRankedScore(int rank) {
+        return ranking.get(rank).totalScore;
+    }
+
+    @Override
+    public String getWinner() {
+        return winner;
+    }
+
+    @Override
+    public int getWinnerScore() {
+        return winnerScore;
+    }
+
+    @Override
+    public DecisionEngine.Normalization getNormalization() {
+        return normalization;
+    }
+
+    @Override
+    public DecisionResult toDecisionResult() {
+        return this;
+    }
+
+    // Convert to file format (structured text)
+    public String toFileFormat() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Decision Matrix Result ===\n");
+        sb.append("User: ").append(userName).append("\n");
+        sb.append("Date: ").append(timestamp).append("\n");
+        if (normalization != DecisionEngine.Normalization.NONE) {
+            sb.append("Normalization: ").append(normalization.key()).append("\n"); // Raw-score entries have no line
+        }
+        sb.append("\n");
+        
+        sb.append("Criteria:\n");
+        for (Criterion c : criteria) {
+            sb.append("  - ").append(c.name).append(" (Weight: ").append(c.weight).append(")\n");
+        }
+        
+        sb.append("\nOptions and Scores:\n");
+        for (OptionScore os : optionScores) {
+            sb.append("  ").append(os.optionName).append(": ").append(os.totalScore);
+            if (os.optionName.equals(winner)) {
+                sb.append(" <-- WINNER");
+            }
+            sb.append("\n");
+        }
+        
+        if (ranking.size() > 1) {
+            sb.append("\nRanking:\n");
+            for (int i = 0; i < ranking.size(); i++) {
+                OptionScore os = ranking.get(i);
+                sb.append("  #").append(i + 1).append(" ").append(os.optionName)
+                  .append(" (Score: ").append(os.totalScore).append(")");
+                if (i > 0 && os.totalScore == winnerScore) {
+                    sb.append(" <-- TIED");
+                }
+                sb.append("\n");
+            }
+        }
+
+        if (monteCarlo != null) {
+            sb.append("\nMonte Carlo (").append(monteCarlo.samples).append(" samples):\n");
+            for (int i = 0; i < optionScores.size() && i < monteCarlo.size(); i++) {
+                // Locale.ROOT and \n like the rest of the format, whatever the platform defaults are
+                sb.append(String.format(Locale.ROOT, "  %s: %.2f%% win, p5 %.1f, p50 %.1f, p95 %.1f\n",
+                          optionScores.get(i).optionName,
+                          monteCarlo.winProbability[i] * 100, monteCarlo.p5[i], monteCarlo.p50[i], monteCarlo.p95[i]));
+            }
+        }
+
+        sb.append("\nWINNER: ").append(winner).append(" (Score: ").append(winnerScore).append(")\n");
+        sb.append("================================\n\n");
+        
+        return sb.toString();
+    }
+}
+
@@ -0,0 +1,101 @@
+package decisionmatrix;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Local HTTP endpoint for the headless mode (--serve). Bound to the loopback address.
+//   POST /decisions  body: JSON lines or CSV blocks, as for --cli; response: one JSON line each
+//   GET  /stats      throughput, latency percentiles and the save queue
+// Each exchange runs on its own virtual thread where the JDK has them (21+),
+// otherwise on a cached thread pool.
+public class DecisionServer {
+    public static final int DEFAULT_PORT = 8080;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final HeadlessScorer scorer;
+
+    public DecisionServer(int port, HeadlessScorer scorer) throws IOException {
+        this.scorer = scorer;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/decisions", this::handleDecisions);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively so the
+    // build can keep targeting Java 17
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleDecisions(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"Use POST\"}\n");
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+            try (BufferedReader in = new BufferedReader(
+                     new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+                 PrintStream out = new PrintStream(body, false, StandardCharsets.UTF_8)) {
+                scorer.run(in, out);
+            }
+            respond(exchange, 200, body.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            LatencyStats stats = scorer.getStats();
+            HistoryWriter writer = HistoryManager.getWriter();
+            String json = String.format(Locale.ROOT, "{\"decisions\":%d,\"errors\":%d,\"saveFailures\":%d,\"perSecond\":%.1f,"
+                                        + "\"meanMicros\":%.1f,\"p50Micros\":%.1f,\"p99Micros\":%.1f,"
+                                        + "\"saveQueueDepth\":%d,\"savesWritten\":%d}\n",
+                                        stats.getCount(), scorer.getErrorCount(), scorer.getSaveFailureCount(),
+                                        stats.getThroughput(), stats.getMeanMicros(),
+                                        stats.getPercentileMicros(0.50), stats.getPercentileMicros(0.99),
+                                        writer.getQueueDepth(), writer.getSavesWritten());
+            respond(exchange, 200, json);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
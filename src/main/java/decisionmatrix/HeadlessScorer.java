@@ -0,0 +1,302 @@
+package decisionmatrix;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Scores decisions without the GUI, for the --cli and --serve modes.
+// A decision comes in as one JSON object per line:
+//   {"user":"ci","criteria":[{"name":"Cost","weight":5}],"options":[{"name":"A","scores":[7]}]}
+// with an optional "normalization":"min_max" (or "vector_norm", "none"; default from --normalization)
+// or as a CSV block, a header row "Option,Cost:5,Speed:3" followed by one row per
+// option and ended by a blank line. CSV cells are parsed by MatrixCsv, as in an import:
+// quoted cells may hold commas, quotes and line breaks, and a range cell (3-7) scores its
+// likely value. Each result goes out as one JSON line.
+// Scoring is DecisionEngine's, and results are persisted through HistoryManager's
+// write-behind queue, so a caller never waits on the disk unless the queue is full.
+public class HeadlessScorer {
+    private final String defaultUser;
+    private final boolean persist;
+    private final DecisionEngine.Normalization defaultNormalization;
+    private final LatencyStats stats = new LatencyStats();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong saveFailures = new AtomicLong();
+
+    public HeadlessScorer(String defaultUser, boolean persist) {
+        this(defaultUser, persist, DecisionEngine.Normalization.NONE);
+    }
+
+    public HeadlessScorer(String defaultUser, boolean persist, DecisionEngine.Normalization defaultNormalization) {
+        this.defaultUser = defaultUser;
+        this.persist = persist;
+        this.defaultNormalization = defaultNormalization;
+    }
+
+    public LatencyStats getStats() {
+        return stats;
+    }
+
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    public long getSaveFailureCount() {
+        return saveFailures.get();
+    }
+
+    // Reads decisions until end of input and writes one JSON line per decision.
+    // The format is picked from the first line: '{' means JSON lines, anything else CSV.
+    public void run(BufferedReader in, PrintStream out) throws IOException {
+        String line;
+        Boolean json = null;
+        ArrayList<String> csvBlock = new ArrayList<>();
+        boolean inQuotes = false; // A blank line inside a quoted cell does not end the block
+        while ((line = in.readLine()) != null) {
+            String trimmed = line.trim();
+            if (json == null) {
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                json = trimmed.startsWith("{");
+            }
+            if (json) {
+                if (!trimmed.isEmpty()) {
+                    out.println(handleJson(trimmed));
+                }
+            } else if (trimmed.isEmpty() && !inQuotes) {
+                if (!csvBlock.isEmpty()) {
+                    out.println(handleCsv(csvBlock));
+                    csvBlock.clear();
+                }
+            } else {
+                csvBlock.add(line);
+                inQuotes ^= hasOddQuotes(line); // "" escapes come in pairs, so parity is enough
+            }
+            if (!in.ready()) {
+                out.flush(); // Keep interactive pipes moving, batch when input is queued up
+            }
+        }
+        if (!csvBlock.isEmpty()) {
+            out.println(handleCsv(csvBlock));
+        }
+        out.flush();
+    }
+
+    public String handleJson(String line) {
+        long start = System.nanoTime();
+        try {
+            return finish(parseJson(line), start);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return fail(e);
+        }
+    }
+
+    public String handleCsv(List<String> lines) {
+        long start = System.nanoTime();
+        try {
+            return finish(parseCsv(lines), start);
+        } catch (IllegalArgumentException e) {
+            return fail(e);
+        }
+    }
+
+    private String finish(DecisionResult result, long start) {
+        if (persist) {
+            try {
+                HistoryManager.queueResult(result).whenComplete((path, error) -> {
+                    if (error != null) {
+                        saveFailures.incrementAndGet();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                saveFailures.incrementAndGet();
+            }
+        }
+        String json = toJson(result);
+        stats.record(System.nanoTime() - start);
+        return json;
+    }
+
+    private String fail(RuntimeException e) {
+        errors.incrementAndGet();
+        return Json.quote(new StringBuilder("{\"error\":"), String.valueOf(e.getMessage())).append('}').toString();
+    }
+
+    // --- Parsing ---
+
+    DecisionResult parseJson(String line) {
+        Object parsed = Json.parse(line);
+        if (!(parsed instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        Map<?, ?> decision = (Map<?, ?>) parsed;
+        Object user = decision.get("user");
+        Object normalization = decision.get("normalization");
+
+        ArrayList<Criterion> criteria = new ArrayList<>();
+        for (Object c : list(decision, "criteria")) {
+            Map<?, ?> criterion = (Map<?, ?>) c;
+            criteria.add(new Criterion(String.valueOf(criterion.get("name")), weight(criterion.get("weight"))));
+        }
+
+        List<?> options = list(decision, "options");
+        ArrayList<String> names = new ArrayList<>(options.size());
+        int[][] columns = new int[criteria.size()][options.size()];
+        for (int row = 0; row < options.size(); row++) {
+            Map<?, ?> option = (Map<?, ?>) options.get(row);
+            names.add(String.valueOf(option.get("name")));
+            List<?> scores = list(option, "scores");
+            if (scores.size() != criteria.size()) {
+                throw new IllegalArgumentException("Option " + names.get(row) + " has " + scores.size()
+                                                   + " scores for " + criteria.size() + " criteria");
+            }
+            for (int i = 0; i < scores.size(); i++) {
+                columns[i][row] = toInt(scores.get(i), "Option " + names.get(row) + " score for "
+                                                       + criteria.get(i).name);
+            }
+        }
+        return score(user == null ? defaultUser : String.valueOf(user), criteria, names, columns,
+                     normalization == null ? defaultNormalization
+                                           : DecisionEngine.Normalization.parse(String.valueOf(normalization)));
+    }
+
+    // "Option,Cost:5,Speed:3" then "A,7,4" ...; MatrixCsv checks the header, weights and cells
+    DecisionResult parseCsv(List<String> lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        ArrayList<Criterion> criteria = new ArrayList<>();
+        MatrixCsv.Batch[] parsed = new MatrixCsv.Batch[1];
+        try {
+            // One batch can hold every row, since a block has no more rows than lines
+            MatrixCsv.read(text, Math.max(1, lines.size()), new MatrixCsv.Sink() {
+                @Override
+                public void criteria(List<Criterion> header) {
+                    criteria.addAll(header);
+                }
+
+                @Override
+                public void rows(MatrixCsv.Batch batch) {
+                    parsed[0] = batch;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Neither the text nor the sink does I/O
+        }
+
+        MatrixCsv.Batch batch = parsed[0];
+        int rows = batch == null ? 0 : batch.size;
+        ArrayList<String> names = new ArrayList<>(Arrays.asList(batch == null ? new String[0] : batch.names)
+                                                        .subList(0, rows));
+        int[][] columns = new int[criteria.size()][];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = batch == null ? new int[0] : Arrays.copyOf(batch.scores[i], rows);
+        }
+        return score(defaultUser, criteria, names, columns, defaultNormalization);
+    }
+
+    private static boolean hasOddQuotes(String line) {
+        boolean odd = false;
+        for (int k = 0; k < line.length(); k++) {
+            if (line.charAt(k) == '"') {
+                odd = !odd;
+            }
+        }
+        return odd;
+    }
+
+    private static List<?> list(Map<?, ?> map, String field) {
+        Object value = map.get(field);
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Missing array '" + field + "'");
+        }
+        return (List<?>) value;
+    }
+
+    // Same 1-10 rule as the GUI
+    private static int weight(Object value) {
+        int weight = toInt(value, "Weight");
+        if (weight < 1 || weight > 10) {
+            throw new IllegalArgumentException("Weight must be 1-10, got " + weight);
+        }
+        return weight;
+    }
+
+    // Json gives Long for integers and Double otherwise; 7.0 is taken as 7, but 7.5 or a
+    // number outside int range is an error rather than being truncated or wrapped
+    private static int toInt(Object value, String what) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(what + " must be a number");
+        }
+        double number = ((Number) value).doubleValue();
+        if (value instanceof Double && number != Math.rint(number)) {
+            throw new IllegalArgumentException(what + " must be a whole number, got " + value);
+        }
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(what + " is out of range, got " + value);
+        }
+        return ((Number) value).intValue();
+    }
+
+    // --- Scoring ---
+
+    // Normalized totals come out as DecisionEngine.NORMALIZED_POINTS
+    static DecisionResult score(String user, ArrayList<Criterion> criteria, ArrayList<String> names, int[][] columns,
+                                DecisionEngine.Normalization normalization) {
+        int rows = names.size();
+        int cols = criteria.size();
+        if (rows == 0 || cols == 0) {
+            throw new IllegalArgumentException("A decision needs at least one criterion and one option");
+        }
+        int[] weights = new int[cols];
+        for (int i = 0; i < cols; i++) {
+            weights[i] = criteria.get(i).weight;
+        }
+        int[] totals = new int[rows];
+        DecisionEvents.Scoring scoring = DecisionEvents.scoring("headless", rows, cols);
+        int[] ranked = DecisionEngine.scoreColumnsRanked(weights, columns, rows, cols, normalization, totals,
+                                                         DecisionEngine.DEFAULT_TOP_K);
+        scoring.finish();
+
+        ArrayList<OptionScore> optionScores = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            optionScores.add(new OptionScore(names.get(row), totals[row]));
+        }
+        ArrayList<OptionScore> ranking = new ArrayList<>(ranked.length);
+        for (int row : ranked) {
+            ranking.add(optionScores.get(row));
+        }
+        DecisionResult result = new DecisionResult(user, criteria, optionScores, ranking);
+        result.normalization = normalization;
+        return result;
+    }
+
+    // {"user":..,"timestamp":..,"winner":..,"winnerScore":..,"ties":..,"ranking":[{"name":..,"score":..}]},
+    // with "normalization":"min_max" (or "vector_norm") after "ties" when the scores are normalized
+    static String toJson(DecisionResult result) {
+        StringBuilder sb = new StringBuilder(128);
+        Json.quote(sb.append("{\"user\":"), result.userName);
+        Json.quote(sb.append(",\"timestamp\":"), result.timestamp);
+        Json.quote(sb.append(",\"winner\":"), result.winner);
+        sb.append(",\"winnerScore\":").append(result.winnerScore);
+        sb.append(",\"ties\":").append(result.getTieCount());
+        if (result.normalization != DecisionEngine.Normalization.NONE) {
+            Json.quote(sb.append(",\"normalization\":"), result.normalization.key());
+        }
+        sb.append(",\"ranking\":[");
+        for (int i = 0; i < result.ranking.size(); i++) {
+            OptionScore os = result.ranking.get(i);
+            Json.quote(sb.append(i == 0 ? "{\"name\":" : ",{\"name\":"), os.optionName);
+            sb.append(",\"score\":").append(os.totalScore).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+}
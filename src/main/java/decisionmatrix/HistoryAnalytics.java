@@ -0,0 +1,370 @@
+package decisionmatrix;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+// Whole-history statistics: wins per option and per user, how often each criterion is
+// used and with what weight, winner/option score distributions and a monthly trend.
+// Decisions saved with normalized totals (points out of 100 per criterion) are counted
+// but kept out of the score statistics, which stay in raw weight x score units.
+//
+// Map-reduce over the history store: the entries not covered yet are split across the
+// common ForkJoinPool, each leaf folds its slice into its own Aggregates (map) and the
+// partial results are merged pairwise (reduce). Work is done in rounds of
+// ENTRIES_PER_ROUND so the caller sees progress while a large history is scanned.
+//
+// The aggregates are materialized in decision_analytics.dat together with a watermark
+// (entries folded in so far). The log is append-only, so the next run starts at the
+// watermark and only reads decisions saved since. If the log was rebuilt underneath
+// (the watermark entry is gone or moved), everything is recomputed.
+public class HistoryAnalytics {
+    private static final int MAGIC = 0x444d4132; // "DMA2"
+    private static final int MIN_ENTRIES_PER_TASK = 2048;
+    private static final int ENTRIES_PER_ROUND = 1 << 16;
+    private static final int MAX_STRING_BYTES = 1 << 20;
+    public static final int SCORE_BUCKETS = 33; // <= 0, then [1, 2), [2, 4) ... [2^31, ...)
+
+    private static Aggregates latest; // last result, so reopening the dialog skips the file
+    private static Path latestFile;
+
+    // Everything the statistics are built from. All counters are sums, so two partial
+    // aggregates over different entries merge by adding.
+    public static class Aggregates {
+        public int processed;  // history entries folded in: the watermark
+        long lastOffset = -1;  // log offset of the last one, to notice a rebuilt log
+        public long decisions;
+        public long options;   // option rows over all decisions
+        public long normalized; // decisions whose scores are normalized, left out of the score stats
+        public final HashMap<String, long[]> winsByOption = new HashMap<>(); // {wins}
+        public final HashMap<String, HashMap<String, long[]>> winsByUser = new HashMap<>(); // user -> option -> {wins}
+        public final HashMap<String, long[]> criteria = new HashMap<>(); // {uses, weight sum}
+        public final long[] winnerScores = new long[SCORE_BUCKETS];
+        public final long[] optionScores = new long[SCORE_BUCKETS];
+        public final TreeMap<Integer, long[]> months = new TreeMap<>(); // yyyymm -> {decisions, raw winner score sum, raw decisions}
+
+        void add(DecisionRecord record, ZoneId zone) {
+            decisions++;
+            boolean raw = record.getNormalization() == DecisionEngine.Normalization.NONE;
+            if (!raw) {
+                normalized++;
+            }
+            String winner = record.getWinner();
+            if (!winner.isEmpty()) {
+                count(winsByOption, winner, 0, 1);
+                count(winsByUser.computeIfAbsent(record.getUserName(), k -> new HashMap<>()), winner, 0, 1);
+                if (raw) {
+                    winnerScores[bucket(record.getWinnerScore())]++;
+                }
+            } else {
+                winsByUser.computeIfAbsent(record.getUserName(), k -> new HashMap<>());
+            }
+            for (int i = 0; i < record.getCriterionCount(); i++) {
+                long[] c = count(criteria, record.getCriterionName(i), 0, 1);
+                c[1] += record.getCriterionWeight(i);
+            }
+            options += record.getOptionCount();
+            for (int i = 0; raw && i < record.getOptionCount(); i++) {
+                optionScores[bucket(record.getOptionScore(i))]++;
+            }
+            long millis = record.getEpochMillis();
+            if (millis > 0) {
+                LocalDate date = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+                long[] month = months.computeIfAbsent(date.getYear() * 100 + date.getMonthValue(), k -> new long[3]);
+                month[0]++;
+                if (raw) {
+                    month[1] += record.getWinnerScore();
+                    month[2]++;
+                }
+            }
+        }
+
+        void merge(Aggregates other) {
+            decisions += other.decisions;
+            options += other.options;
+            normalized += other.normalized;
+            mergeCounts(winsByOption, other.winsByOption);
+            for (Map.Entry<String, HashMap<String, long[]>> user : other.winsByUser.entrySet()) {
+                mergeCounts(winsByUser.computeIfAbsent(user.getKey(), k -> new HashMap<>()), user.getValue());
+            }
+            mergeCounts(criteria, other.criteria);
+            for (int b = 0; b < SCORE_BUCKETS; b++) {
+                winnerScores[b] += other.winnerScores[b];
+                optionScores[b] += other.optionScores[b];
+            }
+            for (Map.Entry<Integer, long[]> month : other.months.entrySet()) {
+                long[] into = months.computeIfAbsent(month.getKey(), k -> new long[3]);
+                for (int f = 0; f < into.length; f++) {
+                    into[f] += month.getValue()[f];
+                }
+            }
+        }
+
+        // Decisions this user saved (wins of all their winners)
+        public long decisionsOf(String user) {
+            long total = 0;
+            for (long[] wins : winsByUser.get(user).values()) {
+                total += wins[0];
+            }
+            return total;
+        }
+
+        boolean covers(HistoryIndex.Snapshot snapshot) {
+            return processed <= snapshot.size() && (processed == 0 || snapshot.getLogOffset(processed - 1) == lastOffset);
+        }
+    }
+
+    // Brings the materialized aggregates up to date with the store and returns them.
+    // progress gets the aggregates after the cached part and after every round, on this
+    // thread; read what you need there rather than keeping them, since they keep changing.
+    // To stop early, throw from progress (not an interrupt: that would close the log's
+    // channel mid-read); the rounds done so far are kept and saved.
+    public static synchronized Aggregates update(HistoryStore store, Path cacheFile, Consumer<Aggregates> progress)
+            throws IOException {
+        HistoryIndex.Snapshot snapshot = store.snapshot();
+        Aggregates total = cacheFile.equals(latestFile) ? latest : load(cacheFile);
+        if (total == null || !total.covers(snapshot)) {
+            Trace.info("Computing history analytics from scratch over {} decisions.", snapshot.size());
+            total = new Aggregates();
+        }
+        latest = total;
+        latestFile = cacheFile;
+        int saved = total.processed;
+        progress.accept(total);
+
+        ZoneId zone = ZoneId.systemDefault();
+        // A few leaves per worker: every leaf costs a set of maps to build and merge
+        int leafEntries = Math.max(MIN_ENTRIES_PER_TASK, ENTRIES_PER_ROUND / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        try {
+            while (total.processed < snapshot.size()) {
+                int from = total.processed;
+                int to = Math.min(snapshot.size(), from + ENTRIES_PER_ROUND);
+                Aggregates round;
+                try {
+                    round = ForkJoinPool.commonPool().invoke(new ScanTask(store, snapshot, zone, from, to, leafEntries));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                total.merge(round);
+                total.processed = to;
+                total.lastOffset = snapshot.getLogOffset(to - 1);
+                Trace.debug("History analytics: {} of {} decisions.", to, snapshot.size());
+                progress.accept(total);
+            }
+        } finally {
+            if (total.processed != saved) {
+                save(cacheFile, total);
+            }
+        }
+        return total;
+    }
+
+    // Biggest entries of a count map by counter field, largest first
+    public static List<Map.Entry<String, long[]>> top(HashMap<String, long[]> counts, int field, int n) {
+        PriorityQueue<Map.Entry<String, long[]>> heap =
+            new PriorityQueue<>((a, b) -> Long.compare(a.getValue()[field], b.getValue()[field]));
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            if (heap.size() < n) {
+                heap.add(entry);
+            } else if (entry.getValue()[field] > heap.peek().getValue()[field]) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        ArrayList<Map.Entry<String, long[]>> sorted = new ArrayList<>(heap);
+        sorted.sort((a, b) -> Long.compare(b.getValue()[field], a.getValue()[field]));
+        return sorted;
+    }
+
+    // Histogram bucket of a score: 0 for <= 0, else 1 + floor(log2(score))
+    public static int bucket(int score) {
+        return score <= 0 ? 0 : 32 - Integer.numberOfLeadingZeros(score);
+    }
+
+    // Scores that fall in bucket b, as text: "<= 0", "1", "2-3", "4-7" ...
+    public static String bucketLabel(int b) {
+        if (b == 0) {
+            return "<= 0";
+        }
+        long low = 1L << (b - 1);
+        long high = (1L << b) - 1;
+        return low == high ? String.valueOf(low) : low + "-" + high;
+    }
+
+    // --- Map and reduce ---
+
+    private static class ScanTask extends RecursiveTask<Aggregates> {
+        private final HistoryStore store;
+        private final HistoryIndex.Snapshot snapshot;
+        private final ZoneId zone;
+        private final int from, to, leafEntries;
+
+        ScanTask(HistoryStore store, HistoryIndex.Snapshot snapshot, ZoneId zone, int from, int to, int leafEntries) {
+            this.store = store;
+            this.snapshot = snapshot;
+            this.zone = zone;
+            this.from = from;
+            this.to = to;
+            this.leafEntries = leafEntries;
+        }
+
+        @Override
+        protected Aggregates compute() {
+            if (to - from <= leafEntries) {
+                Aggregates part = new Aggregates();
+                try {
+                    for (int entry = from; entry < to; entry++) {
+                        part.add(store.read(snapshot, entry), zone);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return part;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask right = new ScanTask(store, snapshot, zone, mid, to, leafEntries);
+            right.fork();
+            Aggregates left = new ScanTask(store, snapshot, zone, from, mid, leafEntries).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+
+    private static long[] count(HashMap<String, long[]> counts, String key, int field, long n) {
+        long[] c = counts.computeIfAbsent(key, k -> new long[2]);
+        c[field] += n;
+        return c;
+    }
+
+    private static void mergeCounts(HashMap<String, long[]> into, HashMap<String, long[]> from) {
+        for (Map.Entry<String, long[]> entry : from.entrySet()) {
+            long[] c = into.computeIfAbsent(entry.getKey(), k -> new long[2]);
+            c[0] += entry.getValue()[0];
+            c[1] += entry.getValue()[1];
+        }
+    }
+
+    // --- Materialized file ---
+
+    // Null if missing or unreadable (it is only a cache)
+    private static Aggregates load(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            Aggregates a = new Aggregates();
+            a.processed = in.readInt();
+            a.lastOffset = in.readLong();
+            a.decisions = in.readLong();
+            a.options = in.readLong();
+            a.normalized = in.readLong();
+            readCounts(in, a.winsByOption);
+            int users = in.readInt();
+            for (int u = 0; u < users; u++) {
+                HashMap<String, long[]> wins = new HashMap<>();
+                a.winsByUser.put(readString(in), wins);
+                readCounts(in, wins);
+            }
+            readCounts(in, a.criteria);
+            for (int b = 0; b < SCORE_BUCKETS; b++) {
+                a.winnerScores[b] = in.readLong();
+                a.optionScores[b] = in.readLong();
+            }
+            int months = in.readInt();
+            for (int m = 0; m < months; m++) {
+                a.months.put(in.readInt(), new long[] {in.readLong(), in.readLong(), in.readLong()});
+            }
+            return a;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("[ERROR] Ignoring unreadable analytics file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Written to a temporary file and moved into place, so a crash leaves the old one
+    private static void save(Path file, Aggregates a) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(a.processed);
+            out.writeLong(a.lastOffset);
+            out.writeLong(a.decisions);
+            out.writeLong(a.options);
+            out.writeLong(a.normalized);
+            writeCounts(out, a.winsByOption);
+            out.writeInt(a.winsByUser.size());
+            for (Map.Entry<String, HashMap<String, long[]>> user : a.winsByUser.entrySet()) {
+                writeString(out, user.getKey());
+                writeCounts(out, user.getValue());
+            }
+            writeCounts(out, a.criteria);
+            for (int b = 0; b < SCORE_BUCKETS; b++) {
+                out.writeLong(a.winnerScores[b]);
+                out.writeLong(a.optionScores[b]);
+            }
+            out.writeInt(a.months.size());
+            for (Map.Entry<Integer, long[]> month : a.months.entrySet()) {
+                out.writeInt(month.getKey());
+                out.writeLong(month.getValue()[0]);
+                out.writeLong(month.getValue()[1]);
+                out.writeLong(month.getValue()[2]);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeCounts(DataOutputStream out, HashMap<String, long[]> counts) throws IOException {
+        out.writeInt(counts.size());
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeLong(entry.getValue()[0]);
+            out.writeLong(entry.getValue()[1]);
+        }
+    }
+
+    private static void readCounts(DataInputStream in, HashMap<String, long[]> counts) throws IOException {
+        int size = in.readInt();
+        for (int k = 0; k < size; k++) {
+            counts.put(readString(in), new long[] {in.readLong(), in.readLong()});
+        }
+    }
+
+    // Length-prefixed UTF-8 (writeUTF stops at 64 KB)
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
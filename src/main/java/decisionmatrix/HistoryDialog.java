@@ -0,0 +1,151 @@
+package decisionmatrix;
+
+import java.awt.*;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import javax.swing.*;
+
+// "View History" dialog. Pages through HistoryManager.queryHistory one page at a
+// time, so only the decisions on screen are ever loaded.
+public class HistoryDialog extends JDialog {
+    private static final int PAGE_SIZE = 50;
+
+    private final JTextField userField = new JTextField(8);
+    private final JTextField winnerField = new JTextField(8);
+    private final JTextField criterionField = new JTextField(8);
+    private final JTextField fromField = new JTextField(8);
+    private final JTextField toField = new JTextField(8);
+    private final DefaultListModel<String> listModel = new DefaultListModel<>();
+    private final JList<String> resultList = new JList<>(listModel);
+    private final JTextArea detailArea = new JTextArea(10, 50);
+    private final JButton newerBtn = new JButton("< Newer");
+    private final JButton olderBtn = new JButton("Older >");
+    private final JLabel pageLabel = new JLabel();
+
+    // Cursor for the start of each page visited so far; the last one is the current page
+    private final ArrayList<Integer> pageCursors = new ArrayList<>();
+    private HistoryQuery baseQuery = new HistoryQuery();
+    private HistoryPage currentPage;
+
+    public HistoryDialog(Frame owner) {
+        super(owner, "Decision History", true);
+        setLayout(new BorderLayout(5, 5));
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.setBorder(BorderFactory.createTitledBorder("Filter"));
+        filterPanel.add(new JLabel("User:"));
+        filterPanel.add(userField);
+        filterPanel.add(new JLabel("Winner:"));
+        filterPanel.add(winnerField);
+        filterPanel.add(new JLabel("Criterion:"));
+        filterPanel.add(criterionField);
+        filterPanel.add(new JLabel("From (yyyy-mm-dd):"));
+        filterPanel.add(fromField);
+        filterPanel.add(new JLabel("To:"));
+        filterPanel.add(toField);
+        JButton searchBtn = new JButton("Search");
+        filterPanel.add(searchBtn);
+        add(filterPanel, BorderLayout.NORTH);
+
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        detailArea.setEditable(false);
+        detailArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                                          new JScrollPane(resultList), new JScrollPane(detailArea));
+        split.setResizeWeight(0.6);
+        add(split, BorderLayout.CENTER);
+
+        JPanel navPanel = new JPanel(new FlowLayout());
+        navPanel.add(newerBtn);
+        navPanel.add(pageLabel);
+        navPanel.add(olderBtn);
+        add(navPanel, BorderLayout.SOUTH);
+
+        searchBtn.addActionListener(e -> search());
+        newerBtn.addActionListener(e -> {
+            pageCursors.remove(pageCursors.size() - 1);
+            loadPage();
+        });
+        olderBtn.addActionListener(e -> {
+            pageCursors.add(currentPage.nextCursor);
+            loadPage();
+        });
+        resultList.addListSelectionListener(e -> {
+            int i = resultList.getSelectedIndex();
+            detailArea.setText(i < 0 || i >= currentPage.results.size() ? "" : currentPage.results.get(i).toFileFormat());
+            detailArea.setCaretPosition(0);
+        });
+
+        pageCursors.add(-1);
+        loadPage();
+        setSize(900, 550);
+        setLocationRelativeTo(owner);
+    }
+
+    private void search() {
+        HistoryQuery query = new HistoryQuery();
+        query.userName = blankToNull(userField.getText());
+        query.winner = blankToNull(winnerField.getText());
+        query.criterion = blankToNull(criterionField.getText());
+        try {
+            String from = blankToNull(fromField.getText());
+            if (from != null) {
+                query.fromMillis = startOfDay(LocalDate.parse(from));
+            }
+            String to = blankToNull(toField.getText());
+            if (to != null) {
+                query.toMillis = startOfDay(LocalDate.parse(to).plusDays(1)); // "To" day is inclusive
+            }
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Dates must look like 2024-01-31.");
+            return;
+        }
+        baseQuery = query;
+        pageCursors.clear();
+        pageCursors.add(-1);
+        loadPage();
+    }
+
+    private void loadPage() {
+        HistoryQuery query = new HistoryQuery();
+        query.userName = baseQuery.userName;
+        query.winner = baseQuery.winner;
+        query.criterion = baseQuery.criterion;
+        query.fromMillis = baseQuery.fromMillis;
+        query.toMillis = baseQuery.toMillis;
+        query.limit = PAGE_SIZE;
+        query.cursor = pageCursors.get(pageCursors.size() - 1);
+
+        try {
+            currentPage = HistoryManager.queryHistory(query);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not read history: " + ex.getMessage());
+            currentPage = new HistoryPage(new ArrayList<>(), -1);
+        }
+
+        listModel.clear();
+        int first = (pageCursors.size() - 1) * PAGE_SIZE;
+        for (int i = 0; i < currentPage.results.size(); i++) {
+            listModel.addElement((first + i + 1) + ". " + HistoryManager.summarize(currentPage.results.get(i)));
+        }
+        if (currentPage.results.isEmpty()) {
+            listModel.addElement("No matching decisions.");
+        }
+        detailArea.setText("");
+        pageLabel.setText("Page " + pageCursors.size() + " (" + HistoryManager.getHistorySize() + " decisions in history)");
+        newerBtn.setEnabled(pageCursors.size() > 1);
+        olderBtn.setEnabled(currentPage.hasMore());
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String blankToNull(String text) {
+        text = text.trim();
+        return text.isEmpty() ? null : text;
+    }
+}
@@ -0,0 +1,253 @@
+package decisionmatrix;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+// Memory-mapped secondary index over the history log.
+// One fixed 32-byte entry per decision, in log order:
+//   [long logOffset][long epochMillis][int userHash][int winnerHash][long criteriaBloom]
+// Lookups by user, winner and criterion compare hashes here and only touch the log
+// for candidates; date ranges binary-search the timestamps. The file can always be
+// thrown away and rebuilt from the log (or from results/).
+//
+// Entries are never changed once written, so readers work from an immutable Snapshot
+// (mapping, entry count, flags) that the writer republishes after each batch. Readers
+// take no locks and never see a half-written batch.
+public class HistoryIndex implements AutoCloseable {
+    private static final int MAGIC = 0x44484958; // "DHIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    static final int ENTRY_BYTES = 32;
+    private static final int INITIAL_ENTRIES = 1024;
+    private static final int FLAG_UNSORTED = 1; // timestamps went backwards at some point
+
+    // Header layout
+    private static final int MAGIC_POS = 0;
+    private static final int VERSION_POS = 4;
+    private static final int COUNT_POS = 8;
+    private static final int LOG_END_POS = 16;
+    private static final int FLAGS_POS = 24;
+
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+    private int count;
+    private long logEnd;
+    private int flags;
+    private volatile Snapshot snapshot;
+
+    // Read-only view of the first count entries
+    public static final class Snapshot {
+        private final MappedByteBuffer map;
+        private final int count;
+        private final long logEnd;
+        private final int flags;
+
+        private Snapshot(MappedByteBuffer map, int count, long logEnd, int flags) {
+            this.map = map;
+            this.count = count;
+            this.logEnd = logEnd;
+            this.flags = flags;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        // End of the log data these entries cover
+        public long getLogEnd() {
+            return logEnd;
+        }
+
+        public long getLogOffset(int entry) {
+            return map.getLong(HEADER_BYTES + entry * ENTRY_BYTES);
+        }
+
+        public long getTimestamp(int entry) {
+            return map.getLong(HEADER_BYTES + entry * ENTRY_BYTES + 8);
+        }
+
+        // Cheap pre-filter; a true result still has to be confirmed against the record
+        public boolean mayMatch(int entry, int userHash, int winnerHash, long criterionBit) {
+            int pos = HEADER_BYTES + entry * ENTRY_BYTES;
+            return (userHash == 0 || map.getInt(pos + 16) == userHash)
+                && (winnerHash == 0 || map.getInt(pos + 20) == winnerHash)
+                && (criterionBit == 0 || (map.getLong(pos + 24) & criterionBit) != 0);
+        }
+
+        public boolean isSortedByTime() {
+            return (flags & FLAG_UNSORTED) == 0;
+        }
+
+        // First entry with timestamp >= millis (count if none); requires isSortedByTime()
+        public int lowerBound(long millis) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (getTimestamp(mid) < millis) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private HistoryIndex(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // Opens the index file. If it is missing or unreadable, it starts out empty
+    // (logEnd 0) and the caller re-indexes the log from the beginning.
+    public static HistoryIndex open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        HistoryIndex index = new HistoryIndex(channel);
+        long size = channel.size();
+        index.remap(Math.max(size, HEADER_BYTES + (long) INITIAL_ENTRIES * ENTRY_BYTES));
+
+        MappedByteBuffer map = index.map;
+        long entryBytes = size - HEADER_BYTES;
+        if (size < HEADER_BYTES || map.getInt(MAGIC_POS) != MAGIC || map.getInt(VERSION_POS) != VERSION
+                || map.getLong(COUNT_POS) < 0 || map.getLong(COUNT_POS) * ENTRY_BYTES > entryBytes) {
+            index.reset();
+        } else {
+            index.count = (int) map.getLong(COUNT_POS);
+            index.logEnd = map.getLong(LOG_END_POS);
+            index.flags = map.getInt(FLAGS_POS);
+            index.publish();
+        }
+        return index;
+    }
+
+    // What readers should use; covers everything up to the last setLogEnd()
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // End of the log data this index covers; records after it still need indexing
+    public long getLogEnd() {
+        return logEnd;
+    }
+
+    // Drops every entry (used before a full rebuild)
+    public void reset() {
+        count = 0;
+        logEnd = 0;
+        flags = 0;
+        map.putInt(MAGIC_POS, MAGIC);
+        map.putInt(VERSION_POS, VERSION);
+        writeHeader();
+        publish();
+    }
+
+    // Picks up entries another process added to the shared file since we last looked.
+    // Only call with the store's file lock held.
+    public void reload() throws IOException {
+        long size = channel.size();
+        if (size > map.capacity()) {
+            remap(size);
+        }
+        long headerCount = map.getLong(COUNT_POS);
+        long headerLogEnd = map.getLong(LOG_END_POS);
+        if (headerLogEnd > logEnd && headerCount >= count
+                && HEADER_BYTES + headerCount * ENTRY_BYTES <= map.capacity()) {
+            count = (int) headerCount;
+            logEnd = headerLogEnd;
+            flags = map.getInt(FLAGS_POS);
+        }
+    }
+
+    public void add(long logOffset, DecisionResult result) throws IOException {
+        long needed = HEADER_BYTES + (long) (count + 1) * ENTRY_BYTES;
+        if (needed > map.capacity()) {
+            remap(Math.max(needed, HEADER_BYTES + (long) map.capacity() * 2));
+        }
+        long millis = epochMillis(result.timestamp);
+        if (count > 0 && millis < map.getLong(HEADER_BYTES + (count - 1) * ENTRY_BYTES + 8)) {
+            flags |= FLAG_UNSORTED;
+        }
+
+        int pos = HEADER_BYTES + count * ENTRY_BYTES;
+        map.putLong(pos, logOffset);
+        map.putLong(pos + 8, millis);
+        map.putInt(pos + 16, hash(result.userName));
+        map.putInt(pos + 20, hash(result.winner));
+        long bloom = 0;
+        for (Criterion c : result.criteria) {
+            bloom |= bloomBit(c.name);
+        }
+        map.putLong(pos + 24, bloom);
+
+        count++;
+        writeHeader();
+    }
+
+    // Records how far into the log the entries now reach and publishes them to readers
+    public void setLogEnd(long logEnd) {
+        this.logEnd = logEnd;
+        writeHeader();
+        publish();
+    }
+
+    public void force() {
+        map.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    private void writeHeader() {
+        map.putLong(COUNT_POS, count);
+        map.putLong(LOG_END_POS, logEnd);
+        map.putInt(FLAGS_POS, flags);
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(map, count, logEnd, flags);
+    }
+
+    private void remap(long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("History index is full (" + count + " entries)");
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+    }
+
+    // --- Keys ---
+
+    // Case-insensitive hash of a user, winner or criterion name; 0 is reserved for "any"
+    static int hash(String name) {
+        int h = name.trim().toLowerCase(Locale.ROOT).hashCode();
+        return h == 0 ? 1 : h;
+    }
+
+    static long bloomBit(String criterionName) {
+        int h = hash(criterionName);
+        h ^= (h >>> 16);
+        return 1L << (h & 63);
+    }
+
+    static long epochMillis(String timestamp) {
+        try {
+            return LocalDateTime.parse(timestamp.trim()).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
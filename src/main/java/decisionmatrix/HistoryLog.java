@@ -0,0 +1,395 @@
+package decisionmatrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only binary history segment.
+// Each record is [int length][int crc32][payload], written with one channel write,
+// so saving never rewrites earlier entries. On open, a torn or corrupt tail
+// (e.g. from a crash mid-write) is detected by the length/checksum and cut off.
+// A record that is intact but can't be decoded (say, written by a newer version)
+// fails the open instead: cutting there would drop good history.
+// Reads are positional and unsynchronized, so they can run alongside an append.
+public class HistoryLog implements AutoCloseable {
+    public enum FsyncPolicy {
+        ALWAYS, // force after every append
+        BATCH,  // force every BATCH_SIZE appends or BATCH_INTERVAL_MS, whichever comes first
+        NEVER   // leave it to the OS
+    }
+
+    static final int HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 64 * 1024 * 1024; // larger lengths are read as a torn tail
+    private static final byte FORMAT_VERSION = 3; // 2 adds the optional Monte Carlo block, 3 the normalization
+    private static final int MAX_WRITE_BYTES = MAX_RECORD_BYTES + HEADER_BYTES; // appendAll buffer cap
+    private static final int BATCH_SIZE = 32;
+    private static final long BATCH_INTERVAL_MS = 1000;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private volatile long end; // records before this are complete
+    private int unsyncedAppends;
+    private long lastSyncMillis = System.currentTimeMillis();
+
+    // Called for every intact record found by open(): (offset, result)
+    public interface RecordVisitor {
+        void visit(long offset, DecisionResult result) throws IOException;
+    }
+
+    private HistoryLog(Path path, FileChannel channel, FsyncPolicy fsyncPolicy) {
+        this.path = path;
+        this.channel = channel;
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    // Opens (or creates) the log, scanning every record and truncating any bad tail.
+    // visitor may be null.
+    public static HistoryLog open(Path path, FsyncPolicy fsyncPolicy, RecordVisitor visitor) throws IOException {
+        return open(path, fsyncPolicy, 0, visitor);
+    }
+
+    // Same, but trusts everything before knownGoodEnd (e.g. what an index already covers)
+    // and only scans from there. Falls back to a full scan if the file is now shorter.
+    public static HistoryLog open(Path path, FsyncPolicy fsyncPolicy, long knownGoodEnd,
+                                  RecordVisitor visitor) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        HistoryLog log = new HistoryLog(path, channel, fsyncPolicy);
+        try {
+            log.recover(knownGoodEnd <= channel.size() ? knownGoodEnd : 0, visitor);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    // Fsync policy from -Ddecision.history.fsync=always|batch|never (default: always)
+    public static FsyncPolicy configuredFsyncPolicy() {
+        String value = System.getProperty("decision.history.fsync", "always");
+        try {
+            return FsyncPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("[ERROR] Unknown fsync policy '" + value + "', using ALWAYS");
+            return FsyncPolicy.ALWAYS;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Size of the valid part of the log
+    public long size() {
+        return end;
+    }
+
+    // Appends one result and returns its record offset
+    public synchronized long append(DecisionResult result) throws IOException {
+        byte[] payload = encode(result);
+        checkRecordSize(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt(checksum(payload));
+        record.put(payload);
+        record.flip();
+
+        long offset = end;
+        while (record.hasRemaining()) {
+            channel.write(record, end + record.position());
+        }
+        end += HEADER_BYTES + payload.length;
+        unsyncedAppends++;
+        maybeSync();
+        return offset;
+    }
+
+    // Appends several results with one channel write (one per MAX_WRITE_BYTES for huge
+    // batches) and at most one fsync. Returns each record's offset, in order.
+    // Nothing is written if any result is too large.
+    public synchronized long[] appendAll(List<DecisionResult> results) throws IOException {
+        byte[][] payloads = new byte[results.size()][];
+        long total = 0;
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = encode(results.get(i));
+            checkRecordSize(payloads[i]);
+            total += HEADER_BYTES + payloads[i].length;
+        }
+        ByteBuffer records = ByteBuffer.allocate((int) Math.min(total, MAX_WRITE_BYTES));
+        long[] offsets = new long[payloads.length];
+        long position = end;
+        for (int i = 0; i < payloads.length; i++) {
+            if (records.remaining() < HEADER_BYTES + payloads[i].length) {
+                position = write(records, position);
+            }
+            offsets[i] = position + records.position();
+            records.putInt(payloads[i].length);
+            records.putInt(checksum(payloads[i]));
+            records.put(payloads[i]);
+        }
+        write(records, position);
+        end += total;
+        unsyncedAppends += payloads.length;
+        maybeSync();
+        return offsets;
+    }
+
+    // Writes out and clears the buffer at position; returns the position after it
+    private long write(ByteBuffer records, long position) throws IOException {
+        records.flip();
+        while (records.hasRemaining()) {
+            channel.write(records, position + records.position());
+        }
+        position += records.limit();
+        records.clear();
+        return position;
+    }
+
+    private static void checkRecordSize(byte[] payload) throws IOException {
+        if (payload.length > MAX_RECORD_BYTES) {
+            throw new IOException("Decision too large for the history log: " + payload.length
+                                  + " bytes (limit " + MAX_RECORD_BYTES + ")");
+        }
+    }
+
+    // Reads the record at a known offset (as returned by append or passed to a visitor)
+    public DecisionResult read(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, offset);
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        if (length < 0 || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > end) {
+            throw new IOException("Bad history record length at offset " + offset);
+        }
+        byte[] payload = new byte[length];
+        readFully(ByteBuffer.wrap(payload), offset + HEADER_BYTES);
+        if (checksum(payload) != crc) {
+            throw new IOException("History record checksum mismatch at offset " + offset);
+        }
+        return decode(payload);
+    }
+
+    // Indexing catch-up: everything before knownGoodEnd is already indexed, and any records
+    // after it (appended by another process) are handed to the visitor.
+    // Only call with the store's file lock held, or a write in progress looks like a torn tail.
+    public synchronized void catchUp(long knownGoodEnd, RecordVisitor visitor) throws IOException {
+        long fileSize = channel.size();
+        if (knownGoodEnd > fileSize) {
+            throw new IOException("History log " + path + " is shorter than its index");
+        }
+        if (fileSize > knownGoodEnd) {
+            recover(knownGoodEnd, visitor);
+        } else {
+            end = knownGoodEnd;
+        }
+    }
+
+    // Current length of the file, including anything another process appended
+    public long fileSize() throws IOException {
+        return channel.size();
+    }
+
+    public synchronized void sync() throws IOException {
+        if (unsyncedAppends > 0) {
+            channel.force(false);
+            unsyncedAppends = 0;
+        }
+        lastSyncMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                sync();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void maybeSync() throws IOException {
+        switch (fsyncPolicy) {
+            case ALWAYS:
+                sync();
+                break;
+            case BATCH:
+                if (unsyncedAppends >= BATCH_SIZE
+                        || System.currentTimeMillis() - lastSyncMillis >= BATCH_INTERVAL_MS) {
+                    sync();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Walks the records from the start; the first one that is short, oversized or fails
+    // its checksum marks the end of the good data and everything after it is dropped.
+    // An intact record that doesn't decode throws, leaving the file as it is.
+    private void recover(long startOffset, RecordVisitor visitor) throws IOException {
+        long fileSize = channel.size();
+        long offset = startOffset;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+        while (offset + HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(header, offset);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length < 0 || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            readFully(ByteBuffer.wrap(payload), offset + HEADER_BYTES);
+            if (checksum(payload) != crc) {
+                break;
+            }
+            if (visitor != null) {
+                DecisionResult result;
+                try {
+                    result = decode(payload);
+                } catch (IOException e) {
+                    throw new IOException("History log " + path + " has an unreadable record at offset "
+                                          + offset + " (" + e.getMessage() + "); not opening it, so no history is lost", e);
+                }
+                visitor.visit(offset, result);
+            }
+            offset += HEADER_BYTES + length;
+        }
+
+        if (offset < fileSize) {
+            System.err.println("[ERROR] History log " + path + " has a damaged tail; dropping "
+                               + (fileSize - offset) + " bytes after offset " + offset);
+            channel.truncate(offset);
+            channel.force(true);
+        }
+        end = offset;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of history log at " + position);
+            }
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    // --- Record payload ---
+
+    static byte[] encode(DecisionResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(result.userName);
+        out.writeUTF(result.timestamp);
+        out.writeInt(result.criteria.size());
+        for (Criterion c : result.criteria) {
+            out.writeUTF(c.name);
+            out.writeInt(c.weight);
+        }
+        out.writeInt(result.optionScores.size());
+        for (OptionScore os : result.optionScores) {
+            out.writeUTF(os.optionName);
+            out.writeInt(os.totalScore);
+        }
+        out.writeInt(result.ranking.size());
+        for (OptionScore os : result.ranking) {
+            out.writeUTF(os.optionName);
+            out.writeInt(os.totalScore);
+        }
+        out.writeUTF(result.winner);
+        out.writeInt(result.winnerScore);
+        MonteCarloEngine.MonteCarloResult mc = result.monteCarlo;
+        out.writeBoolean(mc != null);
+        if (mc != null) {
+            out.writeInt(mc.samples);
+            out.writeInt(mc.size());
+            for (int i = 0; i < mc.size(); i++) {
+                out.writeDouble(mc.winProbability[i]);
+                out.writeDouble(mc.p5[i]);
+                out.writeDouble(mc.p50[i]);
+                out.writeDouble(mc.p95[i]);
+            }
+        }
+        out.writeByte(result.normalization.ordinal());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static DecisionResult decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte version = in.readByte();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported history record version " + version);
+        }
+        String userName = in.readUTF();
+        String timestamp = in.readUTF();
+        int critCount = in.readInt();
+        ArrayList<Criterion> criteria = new ArrayList<>(critCount);
+        for (int i = 0; i < critCount; i++) {
+            criteria.add(new Criterion(in.readUTF(), in.readInt()));
+        }
+        ArrayList<OptionScore> optionScores = readOptions(in);
+        ArrayList<OptionScore> ranking = readOptions(in);
+        String winner = in.readUTF();
+        int winnerScore = in.readInt();
+        MonteCarloEngine.MonteCarloResult mc = null;
+        if (version >= 2 && in.readBoolean()) {
+            int samples = in.readInt();
+            int count = in.readInt();
+            mc = new MonteCarloEngine.MonteCarloResult(samples, count);
+            for (int i = 0; i < count; i++) {
+                mc.winProbability[i] = in.readDouble();
+                mc.p5[i] = in.readDouble();
+                mc.p50[i] = in.readDouble();
+                mc.p95[i] = in.readDouble();
+            }
+        }
+        DecisionEngine.Normalization normalization = DecisionEngine.Normalization.NONE; // Older records: raw
+        if (version >= 3) {
+            int ordinal = in.readByte();
+            if (ordinal < 0 || ordinal >= DecisionEngine.Normalization.values().length) {
+                throw new IOException("Unknown normalization " + ordinal + " in history record");
+            }
+            normalization = DecisionEngine.Normalization.values()[ordinal];
+        }
+
+        DecisionResult result = new DecisionResult(userName, criteria, optionScores, ranking);
+        result.winner = winner;
+        result.winnerScore = winnerScore;
+        result.timestamp = timestamp;
+        result.monteCarlo = mc;
+        result.normalization = normalization;
+        return result;
+    }
+
+    private static ArrayList<OptionScore> readOptions(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ArrayList<OptionScore> options = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            options.add(new OptionScore(in.readUTF(), in.readInt()));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,425 @@
+package decisionmatrix;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// All writes from this process go through one HistoryWriter thread; history reads
+// go straight to the store's lock-free snapshot. Other app instances using the same
+// data directory are coordinated by HistoryStore's file lock.
+public class HistoryManager {
+    private static final String HISTORY_FILE = "decision_history.txt"; // legacy text history, imported once
+    private static final String HISTORY_LOG = "decision_history.log";
+    private static final String HISTORY_INDEX = "decision_history.idx";
+    private static final String RESULTS_DIR = "results";
+    private static final String RESULTS_ARCHIVE_DIR = "results_archive";
+    private static final String BRANCHES_DIR = "branches";
+    private static final String ANALYTICS_FILE = "decision_analytics.dat";
+    private static final int RECENT_HISTORY = 5; // entries shown by getHistorySummary
+    private static volatile HistoryStore historyStore;
+    private static HistoryWriter historyWriter;
+    private static ResultArchive resultArchive;
+    private static volatile boolean resultFilesEnabled = true; // one results/ file per save
+    private static final AtomicBoolean refreshPending = new AtomicBoolean();
+    private static volatile CompletableFuture<Void> historyLoad; // set once loadHistoryAsync starts
+
+    // Save a decision result to file (blocks until written; the GUI uses saveResultAsync).
+    // Still goes through the writer thread so saves from this process never interleave.
+    public static void saveResult(DecisionResult result) {
+        try {
+            getWriter().submitWaiting(result).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Already reported by the writer
+        }
+    }
+
+    // Queue a result for the background writer. The future completes with the
+    // results/ file once the result is on disk, or exceptionally if saving failed.
+    public static CompletableFuture<Path> saveResultAsync(DecisionResult result) {
+        return getWriter().submit(result);
+    }
+
+    // Saves a what-if branch: the whole matrix to branches/<name>.csv (replacing an earlier
+    // save of that branch), then its scored result to the history like any other decision.
+    // The snapshot is immutable, so both happen off the calling thread. The future completes
+    // with the CSV file once both are on disk.
+    public static CompletableFuture<Path> saveBranch(String branch, PersistentMatrix matrix, String userName) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Path dir = dataPath(BRANCHES_DIR);
+                Files.createDirectories(dir);
+                Path file = dir.resolve(branch.replaceAll("[^a-zA-Z0-9]", "_") + ".csv");
+                DecisionEvents.Save event = DecisionEvents.save();
+                event.rows = matrix.getRowCount();
+                event.columns = matrix.getCriterionCount();
+                event.bytesWritten = MatrixCsv.write(file, matrix, matrix.criteria());
+                event.finish();
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).thenCompose(file -> saveResultAsync(matrix.toDecisionResult(userName)).thenApply(saved -> file));
+    }
+
+    // Like saveResultAsync, but waits for room in the queue instead of failing when it is full
+    public static CompletableFuture<Path> queueResult(DecisionResult result) throws InterruptedException {
+        return getWriter().submitWaiting(result);
+    }
+
+    // Headless batch scoring turns the per-decision results/ files off; the log still gets
+    // everything. Archive mode is cheap enough that it stays on either way.
+    public static void setResultFilesEnabled(boolean enabled) {
+        resultFilesEnabled = enabled;
+    }
+
+    // Background writer behind saveResultAsync (started on first use)
+    public static synchronized HistoryWriter getWriter() {
+        if (historyWriter == null) {
+            historyWriter = new HistoryWriter(HistoryManager::saveResults);
+        }
+        return historyWriter;
+    }
+
+    // Writes one results/ file per decision (or appends them to the results archive),
+    // then appends the whole batch to the history store in a single write. Returns the
+    // results/ files or archive segments in order (null entries when files are turned off).
+    static ArrayList<Path> saveResults(List<DecisionResult> results) throws IOException {
+        awaitHistoryLoad(); // A startup rebuild would otherwise replace the log under us
+        DecisionEvents.Save event = DecisionEvents.save();
+        event.decisions = results.size();
+        for (DecisionResult result : results) {
+            event.rows = Math.max(event.rows, result.getOptionCount());
+            event.columns = Math.max(event.columns, result.getCriterionCount());
+        }
+        ArrayList<Path> saved;
+        if (isArchiveMode()) {
+            ResultArchive archive = openArchive();
+            long archived = archive.getBytesWritten();
+            saved = new ArrayList<>(archive.appendAll(results));
+            event.bytesWritten = archive.getBytesWritten() - archived;
+        } else if (!resultFilesEnabled) {
+            saved = new ArrayList<>(Collections.nCopies(results.size(), (Path) null));
+        } else {
+            saved = writeResultFiles(results, event);
+        }
+
+        // Append to the history store (earlier entries are never rewritten)
+        event.bytesWritten += openStore().appendAll(results);
+        event.finish();
+        return saved;
+    }
+
+    private static ArrayList<Path> writeResultFiles(List<DecisionResult> results, DecisionEvents.Save event)
+            throws IOException {
+        // Create results directory if it doesn't exist
+        Path resultsPath = dataPath(RESULTS_DIR);
+        if (!Files.exists(resultsPath)) {
+            Files.createDirectories(resultsPath);
+        }
+
+        ArrayList<Path> files = new ArrayList<>();
+        for (DecisionResult result : results) {
+            // Create filename with timestamp and user name
+            String sanitizedUser = result.userName.replaceAll("[^a-zA-Z0-9]", "_");
+            String filename = sanitizedUser + "_" + 
+                            result.timestamp.replaceAll("[:.]", "-").replaceAll("T", "_");
+            byte[] text = result.toFileFormat().getBytes(StandardCharsets.UTF_8);
+            Path filePath = writeResultFile(resultsPath, filename, text);
+            event.bytesWritten += text.length;
+            files.add(filePath);
+            Trace.debug("Result saved to: {}", filePath);
+        }
+        return files;
+    }
+
+    // Creates name.txt, or name_1.txt, name_2.txt ... if a save in the same millisecond got there first
+    private static Path writeResultFile(Path dir, String name, byte[] text) throws IOException {
+        for (int n = 0; ; n++) {
+            Path file = dir.resolve(n == 0 ? name + ".txt" : name + "_" + n + ".txt");
+            try {
+                return Files.write(file, text, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                // Try the next suffix
+            }
+        }
+    }
+
+    // -Ddecision.results=archive packs results into rolling, compressed segments instead of
+    // one results/ file each (segment limits: decision.results.segment.mb / .days)
+    public static boolean isArchiveMode() {
+        return "archive".equalsIgnoreCase(System.getProperty("decision.results", "files").trim());
+    }
+
+    static synchronized ResultArchive openArchive() throws IOException {
+        if (resultArchive == null) {
+            long segmentBytes = Long.getLong("decision.results.segment.mb",
+                                             ResultArchive.DEFAULT_SEGMENT_BYTES >> 20) << 20;
+            long segmentMillis = TimeUnit.DAYS.toMillis(Long.getLong("decision.results.segment.days",
+                                 TimeUnit.MILLISECONDS.toDays(ResultArchive.DEFAULT_SEGMENT_MILLIS)));
+            resultArchive = ResultArchive.open(dataPath(RESULTS_ARCHIVE_DIR), segmentBytes, segmentMillis,
+                                               HistoryLog.configuredFsyncPolicy());
+        }
+        return resultArchive;
+    }
+
+    // Moves existing results/*.txt files into the archive; returns how many were moved
+    public static int migrateResults() throws IOException {
+        return openArchive().migrate(dataPath(RESULTS_DIR));
+    }
+
+    // Where history and results live: -Ddecision.data.dir=<dir>, default the working directory
+    static Path dataPath(String name) {
+        return Paths.get(System.getProperty("decision.data.dir", "")).resolve(name);
+    }
+
+    // Opens the history store, recovering a damaged log tail and indexing anything new
+    private static synchronized HistoryStore openStore() throws IOException {
+        if (historyStore == null) {
+            historyStore = HistoryStore.open(dataPath(HISTORY_LOG), dataPath(HISTORY_INDEX),
+                                             HistoryLog.configuredFsyncPolicy());
+        }
+        return historyStore;
+    }
+
+    // Finish queued saves, then flush and close the history store (called on exit).
+    // The writer is drained without holding the class lock, since its saves need openStore().
+    public static void close() {
+        HistoryWriter writer;
+        synchronized (HistoryManager.class) {
+            writer = historyWriter;
+            historyWriter = null;
+        }
+        if (writer != null) {
+            writer.shutdown();
+        }
+        closeStore();
+        closeArchive();
+    }
+
+    private static synchronized void closeArchive() {
+        if (resultArchive == null) {
+            return;
+        }
+        try {
+            resultArchive.close();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to close results archive: " + e.getMessage());
+        }
+        resultArchive = null;
+    }
+
+    private static synchronized void closeStore() {
+        if (historyStore == null) {
+            return;
+        }
+        try {
+            historyStore.close();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to close history: " + e.getMessage());
+        }
+        historyStore = null;
+    }
+
+    // Runs loadHistory() once on a background thread so the window does not wait for it.
+    // Saves queued in the meantime are written after it finishes. The future completes
+    // normally even if loading failed (the error has been reported by then).
+    public static synchronized CompletableFuture<Void> loadHistoryAsync() {
+        if (historyLoad == null) {
+            CompletableFuture<Void> load = new CompletableFuture<>();
+            Thread loader = new Thread(() -> {
+                try {
+                    loadHistory();
+                } finally {
+                    load.complete(null);
+                }
+            }, "history-loader");
+            loader.setDaemon(true);
+            historyLoad = load;
+            loader.start();
+        }
+        return historyLoad;
+    }
+
+    private static void awaitHistoryLoad() {
+        CompletableFuture<Void> load = historyLoad;
+        if (load != null) {
+            load.join();
+        }
+    }
+
+    // Load history on startup. The binary log is the source of truth. Without one we
+    // rebuild it from results/, or failing that import an old decision_history.txt.
+    public static void loadHistory() {
+        DecisionEvents.HistoryLoad event = DecisionEvents.historyLoad();
+        boolean logExists = Files.exists(dataPath(HISTORY_LOG));
+        try {
+            openOrRebuild(logExists);
+        } finally {
+            HistoryStore store = historyStore;
+            event.rows = store != null ? store.size() : 0;
+            try {
+                event.logBytes = Files.exists(dataPath(HISTORY_LOG)) ? Files.size(dataPath(HISTORY_LOG)) : 0;
+            } catch (IOException e) {
+                // Size is only informational
+            }
+            event.rebuilt = !logExists && event.logBytes > 0;
+            event.bytesWritten = event.rebuilt ? event.logBytes : 0;
+            event.finish();
+        }
+    }
+
+    private static void openOrRebuild(boolean logExists) {
+        try {
+            if (isArchiveMode() && hasResultFiles()) {
+                Trace.info("results/ still holds per-decision files; "
+                           + "run with --migrate-results to move them into the archive");
+            }
+            if (!logExists && (isArchiveMode() ? openArchive().getResultCount() > 0 : hasResultFiles())) {
+                rebuildStore(); // Saves wait in awaitHistoryLoad, so the writer can keep running
+                return;
+            }
+            openStore();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to load history: " + e.getMessage());
+            return;
+        }
+        if (!logExists) {
+            importLegacyHistory();
+        }
+    }
+
+    // Recreate the history log and its index from the files in results/ (or the archive)
+    public static void rebuildHistory() throws IOException {
+        close();
+        rebuildStore();
+    }
+
+    private static synchronized void rebuildStore() throws IOException {
+        closeStore();
+        if (isArchiveMode()) {
+            historyStore = HistoryStore.rebuildFromArchive(openArchive(), dataPath(HISTORY_LOG),
+                                                           dataPath(HISTORY_INDEX), HistoryLog.configuredFsyncPolicy());
+            return;
+        }
+        historyStore = HistoryStore.rebuildFromResults(dataPath(RESULTS_DIR), dataPath(HISTORY_LOG),
+                                                       dataPath(HISTORY_INDEX), HistoryLog.configuredFsyncPolicy());
+    }
+
+    private static boolean hasResultFiles() throws IOException {
+        Path resultsPath = dataPath(RESULTS_DIR);
+        if (!Files.isDirectory(resultsPath)) {
+            return false;
+        }
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(resultsPath, "*.txt")) {
+            return dir.iterator().hasNext();
+        }
+    }
+
+    // Parse the old text history file and append its entries to the store
+    private static void importLegacyHistory() {
+        File historyFile = dataPath(HISTORY_FILE).toFile();
+        if (!historyFile.exists()) {
+            return;
+        }
+
+        try (HistoryTextParser parser = new HistoryTextParser(historyFile.toPath())) {
+            HistoryStore store = openStore();
+            while (parser.hasNext()) {
+                store.append(parser.next());
+            }
+            store.sync();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("[ERROR] Failed to load history: " + e.getMessage());
+        }
+    }
+
+    // Store for readers: no class lock once it is open
+    private static HistoryStore readStore() throws IOException {
+        HistoryStore store = historyStore;
+        return store != null ? store : openStore();
+    }
+
+    // One page of past decisions matching the query, newest first. Never waits on a save;
+    // decisions saved by another instance are indexed in the background and show up in
+    // the next query.
+    public static HistoryPage queryHistory(HistoryQuery query) throws IOException {
+        HistoryStore store = readStore();
+        if (store.hasExternalAppends() && refreshPending.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    store.refresh();
+                } catch (IOException e) {
+                    System.err.println("[ERROR] Failed to refresh history: " + e.getMessage());
+                } finally {
+                    refreshPending.set(false);
+                }
+            });
+        }
+        return store.query(query);
+    }
+
+    // Every past decision in compact columnar form, for whole-history work
+    public static CompactHistory loadCompactHistory() throws IOException {
+        return readStore().loadCompact();
+    }
+
+    // Whole-history statistics, updated with only the decisions saved since the last run.
+    // The store holds every result in results/ too (it is rebuilt from them), so it is the
+    // only thing scanned. Blocks; progress is called between rounds on this thread.
+    public static HistoryAnalytics.Aggregates analyzeHistory(Consumer<HistoryAnalytics.Aggregates> progress)
+            throws IOException {
+        awaitHistoryLoad();
+        HistoryStore store = readStore();
+        if (store.hasExternalAppends()) {
+            store.refresh(); // Include what other instances saved
+        }
+        return HistoryAnalytics.update(store, dataPath(ANALYTICS_FILE), progress);
+    }
+
+    public static int getHistorySize() {
+        try {
+            return readStore().size();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to load history: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // Summary line for one decision, as shown in the history dialog
+    public static String summarize(DecisionResult result) {
+        return String.format("%s: %s won with score %d (%s)", 
+            result.userName, result.winner, result.winnerScore, 
+            result.timestamp.length() > 19 ? result.timestamp.substring(0, 19) : result.timestamp);
+    }
+
+    // Get history summary for display (most recent first)
+    public static ArrayList<String> getHistorySummary() {
+        ArrayList<String> summary = new ArrayList<>();
+        HistoryQuery query = new HistoryQuery();
+        query.limit = RECENT_HISTORY;
+        try {
+            for (DecisionResult result : queryHistory(query).results) {
+                summary.add(summarize(result));
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Failed to load history: " + e.getMessage());
+        }
+        
+        return summary;
+    }
+}
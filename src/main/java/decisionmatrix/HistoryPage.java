@@ -0,0 +1,18 @@
+package decisionmatrix;
+
+import java.util.ArrayList;
+
+// One page of history query results, newest first
+public class HistoryPage {
+    public final ArrayList<DecisionResult> results;
+    public final int nextCursor; // -1 when there is nothing older
+
+    public HistoryPage(ArrayList<DecisionResult> results, int nextCursor) {
+        this.results = results;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor >= 0;
+    }
+}
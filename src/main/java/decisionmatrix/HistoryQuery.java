@@ -0,0 +1,32 @@
+package decisionmatrix;
+
+// Filter for HistoryManager.queryHistory. Unset (null / 0) fields match everything.
+// Results come back newest first, limit at a time; pass the previous page's
+// nextCursor as cursor to continue.
+public class HistoryQuery {
+    public String userName;
+    public String winner;
+    public String criterion;
+    public long fromMillis;            // inclusive, epoch millis
+    public long toMillis = Long.MAX_VALUE; // exclusive, epoch millis
+    public int limit = 50;
+    public int cursor = -1;            // -1 = start from the newest entry
+
+    public boolean matches(DecisionResult result) {
+        if (userName != null && !result.userName.equalsIgnoreCase(userName.trim())) {
+            return false;
+        }
+        if (winner != null && !result.winner.equalsIgnoreCase(winner.trim())) {
+            return false;
+        }
+        if (criterion != null) {
+            for (Criterion c : result.criteria) {
+                if (c.name.equalsIgnoreCase(criterion.trim())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,303 @@
+package decisionmatrix;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+// Unbounded decision history: the append-only HistoryLog holds the records and a
+// memory-mapped HistoryIndex answers queries, so only the requested page is ever
+// decoded into the heap.
+//
+// Concurrency: queries read an immutable index snapshot and take no locks, so a
+// save never holds up the history dialog. Writes (and opening, catch-up and rebuild)
+// hold an exclusive FileChannel lock on decision_history.log.lock, which is what keeps
+// several app instances sharing one data directory from overwriting each other.
+// Before appending, a writer indexes whatever other processes added since its last
+// write; refresh() does the same on demand.
+public class HistoryStore implements AutoCloseable {
+    private final HistoryLog log;
+    private final HistoryIndex index;
+    private final FileChannel lockChannel;
+
+    private HistoryStore(HistoryLog log, HistoryIndex index, FileChannel lockChannel) {
+        this.log = log;
+        this.index = index;
+        this.lockChannel = lockChannel;
+    }
+
+    // Opens the store; any log records the index does not cover yet are indexed now
+    public static HistoryStore open(Path logPath, Path indexPath, HistoryLog.FsyncPolicy fsyncPolicy)
+            throws IOException {
+        FileChannel lockChannel = openLockChannel(logPath);
+        try {
+            FileLock lock = lockChannel.lock();
+            try {
+                return openLocked(logPath, indexPath, fsyncPolicy, lockChannel);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    private static FileChannel openLockChannel(Path logPath) throws IOException {
+        return FileChannel.open(logPath.resolveSibling(logPath.getFileName() + ".lock"),
+                                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static HistoryStore openLocked(Path logPath, Path indexPath, HistoryLog.FsyncPolicy fsyncPolicy,
+                                           FileChannel lockChannel) throws IOException {
+        HistoryIndex index = HistoryIndex.open(indexPath);
+        long logSize = Files.exists(logPath) ? Files.size(logPath) : 0;
+        if (index.getLogEnd() > logSize) {
+            index.reset(); // Log was replaced or cut short; index from scratch
+        }
+        HistoryLog log;
+        try {
+            log = HistoryLog.open(logPath, fsyncPolicy, index.getLogEnd(), index::add);
+        } catch (IOException e) {
+            index.close();
+            throw e;
+        }
+        index.setLogEnd(log.size());
+        return new HistoryStore(log, index, lockChannel);
+    }
+
+    // Recreates the log and index from the per-decision text files in resultsDir,
+    // oldest first, then opens the result. Existing log/index files are replaced.
+    public static HistoryStore rebuildFromResults(Path resultsDir, Path logPath, Path indexPath,
+                                                  HistoryLog.FsyncPolicy fsyncPolicy) throws IOException {
+        // First pass only reads each file's Date line so we can order them without holding results
+        ArrayList<Path> files = new ArrayList<>();
+        HashMap<Path, Long> dates = new HashMap<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(resultsDir, "*.txt")) {
+            for (Path file : dir) {
+                files.add(file);
+                dates.put(file, readDateMillis(file));
+            }
+        }
+        files.sort(Comparator.comparingLong(dates::get));
+
+        return rebuild(rebuilt -> {
+            for (Path file : files) {
+                appendParsed(new HistoryTextParser(file), rebuilt);
+            }
+        }, logPath, indexPath, fsyncPolicy);
+    }
+
+    // Same, from the results archive (already in save order)
+    public static HistoryStore rebuildFromArchive(ResultArchive archive, Path logPath, Path indexPath,
+                                                  HistoryLog.FsyncPolicy fsyncPolicy) throws IOException {
+        return rebuild(rebuilt -> archive.scan((text, millis) ->
+            appendParsed(new HistoryTextParser(Channels.newChannel(new ByteArrayInputStream(text))), rebuilt)),
+            logPath, indexPath, fsyncPolicy);
+    }
+
+    private interface RebuildSource {
+        void appendTo(HistoryLog rebuilt) throws IOException;
+    }
+
+    // Writes a fresh log next to the real one, then swaps it in and re-indexes
+    private static HistoryStore rebuild(RebuildSource source, Path logPath, Path indexPath,
+                                        HistoryLog.FsyncPolicy fsyncPolicy) throws IOException {
+        FileChannel lockChannel = openLockChannel(logPath);
+        try {
+            FileLock lock = lockChannel.lock();
+            try {
+                Path tmpLog = logPath.resolveSibling(logPath.getFileName() + ".rebuild");
+                Files.deleteIfExists(tmpLog);
+                try (HistoryLog rebuilt = HistoryLog.open(tmpLog, HistoryLog.FsyncPolicy.NEVER, null)) {
+                    source.appendTo(rebuilt);
+                    rebuilt.sync();
+                }
+                Files.deleteIfExists(indexPath);
+                Files.move(tmpLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return openLocked(logPath, indexPath, fsyncPolicy, lockChannel);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    public synchronized void append(DecisionResult result) throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            catchUp();
+            long offset = log.append(result);
+            index.add(offset, result);
+            index.setLogEnd(log.size());
+        } finally {
+            lock.release();
+        }
+    }
+
+    // Appends a batch with a single log write (and a single fsync); returns the bytes added to the log
+    public synchronized long appendAll(List<DecisionResult> results) throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            catchUp();
+            long start = log.size();
+            long[] offsets = log.appendAll(results);
+            for (int i = 0; i < offsets.length; i++) {
+                index.add(offsets[i], results.get(i));
+            }
+            index.setLogEnd(log.size());
+            return log.size() - start;
+        } finally {
+            lock.release();
+        }
+    }
+
+    // True if the log has grown past what readers can see, i.e. another process saved something
+    public boolean hasExternalAppends() throws IOException {
+        return log.fileSize() > index.snapshot().getLogEnd();
+    }
+
+    // Indexes and publishes decisions other processes have saved
+    public synchronized void refresh() throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            catchUp();
+            index.setLogEnd(log.size());
+        } finally {
+            lock.release();
+        }
+    }
+
+    // Adopts index entries other processes wrote, then indexes log records nobody has yet
+    // (e.g. from a process that died between the two). Needs the file lock.
+    private void catchUp() throws IOException {
+        index.reload();
+        log.catchUp(index.getLogEnd(), index::add);
+    }
+
+    public int size() {
+        return index.snapshot().size();
+    }
+
+    // One page of matching decisions, newest first. Lock-free: works on the index
+    // snapshot taken at the start, so concurrent saves only show up in later queries.
+    public HistoryPage query(HistoryQuery query) throws IOException {
+        HistoryIndex.Snapshot snapshot = index.snapshot();
+        ArrayList<DecisionResult> results = new ArrayList<>();
+        int hi = snapshot.size() - 1;
+        if (query.cursor >= 0) {
+            hi = Math.min(hi, query.cursor);
+        }
+        int lo = 0;
+        boolean sorted = snapshot.isSortedByTime();
+        if (sorted) {
+            if (query.toMillis != Long.MAX_VALUE) {
+                hi = Math.min(hi, snapshot.lowerBound(query.toMillis) - 1);
+            }
+            if (query.fromMillis > 0) {
+                lo = snapshot.lowerBound(query.fromMillis);
+            }
+        }
+
+        int userHash = query.userName == null ? 0 : HistoryIndex.hash(query.userName);
+        int winnerHash = query.winner == null ? 0 : HistoryIndex.hash(query.winner);
+        long criterionBit = query.criterion == null ? 0 : HistoryIndex.bloomBit(query.criterion);
+
+        for (int entry = hi; entry >= lo; entry--) {
+            if (!snapshot.mayMatch(entry, userHash, winnerHash, criterionBit)) {
+                continue;
+            }
+            if (!sorted) {
+                long millis = snapshot.getTimestamp(entry);
+                if (millis < query.fromMillis || millis >= query.toMillis) {
+                    continue;
+                }
+            }
+            DecisionResult result = log.read(snapshot.getLogOffset(entry));
+            if (!query.matches(result)) {
+                continue; // Hash or bloom filter false positive
+            }
+            if (results.size() == query.limit) {
+                return new HistoryPage(results, entry);
+            }
+            results.add(result);
+        }
+        return new HistoryPage(results, -1);
+    }
+
+    // The whole history (as of now) in columnar form, oldest first. Lock-free like query().
+    public CompactHistory loadCompact() throws IOException {
+        HistoryIndex.Snapshot snapshot = index.snapshot();
+        CompactHistory history = new CompactHistory();
+        for (int entry = 0; entry < snapshot.size(); entry++) {
+            history.add(log.read(snapshot.getLogOffset(entry)));
+        }
+        return history;
+    }
+
+    // Index snapshot for callers that read entries themselves (see read). Lock-free.
+    public HistoryIndex.Snapshot snapshot() {
+        return index.snapshot();
+    }
+
+    // Decodes one entry of a snapshot; safe to call from several threads at once
+    public DecisionResult read(HistoryIndex.Snapshot snapshot, int entry) throws IOException {
+        return log.read(snapshot.getLogOffset(entry));
+    }
+
+    public synchronized void sync() throws IOException {
+        log.sync();
+        index.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            log.close();
+        } finally {
+            try {
+                index.close();
+            } finally {
+                lockChannel.close();
+            }
+        }
+    }
+
+    private static void appendParsed(HistoryTextParser parser, HistoryLog rebuilt) throws IOException {
+        try (parser) {
+            while (parser.hasNext()) {
+                rebuilt.append(parser.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Date line of a result file as epoch millis (0 if missing), for ordering by save time
+    static long readDateMillis(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Date: ")) {
+                    return HistoryIndex.epochMillis(line.substring(6));
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,312 @@
+package decisionmatrix;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Streaming parser for files in DecisionResult.toFileFormat() layout
+// (decision_history.txt exports, results/*.txt and archived results).
+// Reads the file through a FileChannel a chunk at a time and scans lines as raw bytes:
+// no regexes, no per-line Strings, numbers parsed in place. Only names are decoded.
+// Entries are handed out one at a time, so a file of any size needs constant memory.
+public class HistoryTextParser implements Iterator<DecisionResult>, Closeable {
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private static final byte[] ENTRY_START = ascii("=== Decision Matrix Result ===");
+    private static final byte[] ENTRY_END = ascii("================================");
+    private static final byte[] USER = ascii("User: ");
+    private static final byte[] DATE = ascii("Date: ");
+    private static final byte[] NORMALIZATION = ascii("Normalization: ");
+    private static final byte[] CRITERION = ascii("- ");
+    private static final byte[] WEIGHT = ascii("(Weight:");
+    private static final byte[] WINNER = ascii("WINNER: ");
+    private static final byte[] SCORE = ascii("(Score:");
+    private static final byte[] WINNER_MARK = ascii(" <-- WINNER");
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+    private boolean eof;
+    private DecisionResult next;
+
+    // Bounds of the current line in buffer.array()
+    private int lineStart;
+    private int lineEnd;
+    private boolean numberOk;
+
+    // State of the entry being read; the lists are reused since DecisionResult copies them
+    private String currentUser = "";
+    private String currentTimestamp = "";
+    private String currentWinner = "";
+    private int currentWinnerScore;
+    private DecisionEngine.Normalization currentNormalization = DecisionEngine.Normalization.NONE;
+    private final ArrayList<Criterion> currentCriteria = new ArrayList<>();
+    private final ArrayList<OptionScore> currentOptions = new ArrayList<>();
+    private boolean inEntry;
+
+    public HistoryTextParser(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    // Parses from any channel (e.g. a decompressed archive record); closing the parser closes it
+    public HistoryTextParser(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip(); // Start empty, in read mode
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = parseNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public DecisionResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DecisionResult result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private DecisionResult parseNext() throws IOException {
+        byte[] b = buffer.array();
+        while (nextLine()) {
+            b = buffer.array(); // May have grown for a very long line
+            int start = lineStart;
+            int end = lineEnd;
+            int trimStart = skipBlanks(b, start, end);
+            int trimEnd = trimEnd(b, trimStart, end);
+
+            if (startsWith(b, start, end, ENTRY_START)) {
+                inEntry = true;
+                currentCriteria.clear();
+                currentOptions.clear();
+                currentNormalization = DecisionEngine.Normalization.NONE;
+            } else if (startsWith(b, start, end, USER)) {
+                currentUser = decodeTrimmed(b, start + USER.length, end);
+            } else if (startsWith(b, start, end, DATE)) {
+                currentTimestamp = decodeTrimmed(b, start + DATE.length, end);
+            } else if (startsWith(b, start, end, NORMALIZATION)) {
+                try {
+                    currentNormalization = DecisionEngine.Normalization.parse(
+                        decodeTrimmed(b, start + NORMALIZATION.length, end));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("[ERROR] " + e.getMessage() + " in history entry of " + currentTimestamp);
+                }
+            } else if (startsWith(b, trimStart, trimEnd, CRITERION) && indexOf(b, start, end, WEIGHT) >= 0) {
+                // "  - Name (Weight: X)"
+                int nameStart = trimStart + CRITERION.length;
+                int weightAt = indexOf(b, nameStart, trimEnd, WEIGHT);
+                int close = indexOf(b, weightAt, trimEnd, (byte) ')');
+                if (weightAt > nameStart && close > 0) {
+                    int weight = parseInt(b, weightAt + WEIGHT.length, close);
+                    if (numberOk) {
+                        currentCriteria.add(new Criterion(decodeTrimmed(b, nameStart, weightAt), weight));
+                    }
+                }
+            } else if (startsWith(b, trimStart, trimEnd, WINNER)) {
+                // "WINNER: Name (Score: X)"
+                int nameStart = trimStart + WINNER.length;
+                int scoreAt = indexOf(b, nameStart, trimEnd, SCORE);
+                int close = scoreAt < 0 ? -1 : indexOf(b, scoreAt, trimEnd, (byte) ')');
+                if (scoreAt > nameStart && close > 0) {
+                    currentWinner = decodeTrimmed(b, nameStart, scoreAt);
+                    int score = parseInt(b, scoreAt + SCORE.length, close);
+                    if (numberOk) {
+                        currentWinnerScore = score;
+                    }
+                }
+            } else if (inEntry && end - start == ENTRY_END.length && startsWith(b, start, end, ENTRY_END)) {
+                inEntry = false;
+                if (!currentUser.isEmpty() && !currentWinner.isEmpty()) {
+                    DecisionResult result = new DecisionResult(currentUser, currentCriteria,
+                                                               currentOptions, currentWinner, currentWinnerScore);
+                    result.timestamp = currentTimestamp;
+                    result.normalization = currentNormalization;
+                    return result;
+                }
+            } else {
+                parseOptionLine(b, trimStart, trimEnd);
+            }
+        }
+        return null;
+    }
+
+    // "OptionName: Score" or "OptionName: Score <-- WINNER", where the name has no colon
+    private void parseOptionLine(byte[] b, int start, int end) {
+        int colon = indexOf(b, start, end, (byte) ':');
+        if (colon <= start || colon + 2 >= end || b[colon + 1] != ' ') {
+            return;
+        }
+        int digitsEnd = colon + 2;
+        while (digitsEnd < end && b[digitsEnd] >= '0' && b[digitsEnd] <= '9') {
+            digitsEnd++;
+        }
+        if (digitsEnd == colon + 2) {
+            return;
+        }
+        if (digitsEnd != end && !(end - digitsEnd == WINNER_MARK.length && startsWith(b, digitsEnd, end, WINNER_MARK))) {
+            return;
+        }
+        int score = parseInt(b, colon + 2, digitsEnd);
+        if (numberOk) {
+            currentOptions.add(new OptionScore(decodeTrimmed(b, start, colon), score));
+        }
+    }
+
+    // Advances to the next line, refilling the buffer as needed. Strips a trailing '\r'.
+    private boolean nextLine() throws IOException {
+        while (true) {
+            byte[] b = buffer.array();
+            int pos = buffer.position();
+            int limit = buffer.limit();
+            for (int i = pos; i < limit; i++) {
+                if (b[i] == '\n') {
+                    setLine(b, pos, i);
+                    buffer.position(i + 1);
+                    return true;
+                }
+            }
+            if (eof) {
+                if (pos < limit) {
+                    setLine(b, pos, limit);
+                    buffer.position(limit);
+                    return true;
+                }
+                return false;
+            }
+            fill();
+        }
+    }
+
+    private void setLine(byte[] b, int start, int end) {
+        lineStart = start;
+        lineEnd = end > start && b[end - 1] == '\r' ? end - 1 : end;
+    }
+
+    // Keeps the unfinished line at the front of the buffer and reads more after it
+    private void fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        if (channel.read(buffer) < 0) {
+            eof = true;
+        }
+        buffer.flip();
+    }
+
+    // --- Byte helpers ---
+
+    private int parseInt(byte[] b, int start, int end) {
+        start = skipBlanks(b, start, end);
+        end = trimEnd(b, start, end);
+        numberOk = false;
+        if (start == end) {
+            return 0;
+        }
+        boolean negative = b[start] == '-';
+        if (negative || b[start] == '+') {
+            start++;
+        }
+        if (start == end) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return 0;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                return 0;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return 0;
+        }
+        numberOk = true;
+        return (int) value;
+    }
+
+    private static String decodeTrimmed(byte[] b, int start, int end) {
+        start = skipBlanks(b, start, end);
+        end = trimEnd(b, start, end);
+        return new String(b, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static int skipBlanks(byte[] b, int start, int end) {
+        while (start < end && (b[start] == ' ' || b[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(byte[] b, int start, int end) {
+        while (end > start && (b[end - 1] == ' ' || b[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean startsWith(byte[] b, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (b[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] b, int start, int end, byte[] pattern) {
+        int last = end - pattern.length;
+        for (int i = start; i <= last; i++) {
+            if (startsWith(b, i, end, pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] b, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (b[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
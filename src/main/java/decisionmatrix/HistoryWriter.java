@@ -0,0 +1,239 @@
+package decisionmatrix;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write-behind persistence for saved decisions.
+// Saves are queued (bounded) and written by one background thread, so the caller
+// (usually the EDT) never touches the disk. Whatever has queued up while a write
+// was in progress goes out as a single batch, and repeat saves of the same decision
+// in one batch (same user, criteria, scores and ranking; the timestamp may differ,
+// as each Save click builds a new result) are only written once.
+public class HistoryWriter {
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int MAX_BATCH = 64;
+
+    // Does the actual writing of a batch; returns one path per result, in order
+    public interface BatchSink {
+        List<Path> write(List<DecisionResult> batch) throws IOException;
+    }
+
+    private static class PendingSave {
+        final DecisionResult result;
+        final CompletableFuture<Path> future = new CompletableFuture<>();
+
+        PendingSave(DecisionResult result) {
+            this.result = result;
+        }
+    }
+
+    private static final PendingSave STOP = new PendingSave(null);
+
+    // A result compared by what it decided, not by identity or save time
+    private static final class Content {
+        final DecisionResult result;
+        final int hash;
+
+        Content(DecisionResult result) {
+            this.result = result;
+            int h = Objects.hash(result.userName, result.winner, result.winnerScore);
+            for (Criterion c : result.criteria) {
+                h = 31 * h + Objects.hash(c.name, c.weight);
+            }
+            for (OptionScore os : result.optionScores) {
+                h = 31 * h + Objects.hash(os.optionName, os.totalScore);
+            }
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Content)) {
+                return false;
+            }
+            DecisionResult a = result;
+            DecisionResult b = ((Content) o).result;
+            if (a == b) {
+                return true;
+            }
+            if (hash != o.hashCode() || !a.userName.equals(b.userName) || !a.winner.equals(b.winner)
+                    || a.winnerScore != b.winnerScore || a.criteria.size() != b.criteria.size()) {
+                return false;
+            }
+            for (int i = 0; i < a.criteria.size(); i++) {
+                Criterion ca = a.criteria.get(i);
+                Criterion cb = b.criteria.get(i);
+                if (!ca.name.equals(cb.name) || ca.weight != cb.weight) {
+                    return false;
+                }
+            }
+            return sameScores(a.optionScores, b.optionScores) && sameScores(a.ranking, b.ranking)
+                && sameMonteCarlo(a.monteCarlo, b.monteCarlo);
+        }
+
+        private static boolean sameScores(List<OptionScore> a, List<OptionScore> b) {
+            if (a.size() != b.size()) {
+                return false;
+            }
+            for (int i = 0; i < a.size(); i++) {
+                if (!a.get(i).optionName.equals(b.get(i).optionName) || a.get(i).totalScore != b.get(i).totalScore) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean sameMonteCarlo(MonteCarloEngine.MonteCarloResult a, MonteCarloEngine.MonteCarloResult b) {
+            if (a == b) {
+                return true;
+            }
+            return a != null && b != null && a.samples == b.samples
+                && Arrays.equals(a.winProbability, b.winProbability) && Arrays.equals(a.p5, b.p5)
+                && Arrays.equals(a.p50, b.p50) && Arrays.equals(a.p95, b.p95);
+        }
+    }
+
+    private final ArrayBlockingQueue<PendingSave> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BatchSink sink;
+    private final Thread thread;
+
+    // Metrics
+    private final AtomicLong savesWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong totalWriteNanos = new AtomicLong();
+    private volatile long lastWriteNanos;
+
+    public HistoryWriter(BatchSink sink) {
+        this.sink = sink;
+        thread = new Thread(this::run, "history-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Queues a result. If the queue is full the future fails right away instead of blocking.
+    public CompletableFuture<Path> submit(DecisionResult result) {
+        PendingSave save = new PendingSave(result);
+        if (!queue.offer(save)) {
+            save.future.completeExceptionally(
+                new IOException("Too many saves pending (" + QUEUE_CAPACITY + "), try again shortly"));
+        }
+        return save.future;
+    }
+
+    // Queues a result, waiting for room instead of failing (for batch callers that want backpressure)
+    public CompletableFuture<Path> submitWaiting(DecisionResult result) throws InterruptedException {
+        PendingSave save = new PendingSave(result);
+        queue.put(save);
+        return save.future;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSavesWritten() {
+        return savesWritten.get();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public double getLastWriteMillis() {
+        return lastWriteNanos / 1_000_000.0;
+    }
+
+    public double getAverageWriteMillis() {
+        long batches = batchesWritten.get();
+        return batches == 0 ? 0 : totalWriteNanos.get() / 1_000_000.0 / batches;
+    }
+
+    // Writes everything already queued, then stops the thread (waits up to 10 s)
+    public void shutdown() {
+        try {
+            queue.put(STOP);
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        ArrayList<PendingSave> drained = new ArrayList<>();
+        while (true) {
+            try {
+                drained.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(drained, MAX_BATCH - 1);
+
+            boolean stop = drained.remove(STOP);
+            if (!drained.isEmpty()) {
+                writeBatch(drained);
+            }
+            drained.clear();
+            if (stop) {
+                // Anything queued behind the stop marker still gets written
+                queue.drainTo(drained);
+                drained.remove(STOP);
+                if (!drained.isEmpty()) {
+                    writeBatch(drained);
+                }
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingSave> saves) {
+        // Coalesce repeat saves of the same decision into one write; the first one's timestamp is kept
+        HashMap<Content, List<PendingSave>> byContent = new HashMap<>();
+        ArrayList<Content> batchKeys = new ArrayList<>();
+        ArrayList<DecisionResult> batch = new ArrayList<>();
+        for (PendingSave save : saves) {
+            Content key = new Content(save.result);
+            List<PendingSave> same = byContent.get(key);
+            if (same == null) {
+                same = new ArrayList<>();
+                byContent.put(key, same);
+                batchKeys.add(key);
+                batch.add(save.result);
+            }
+            same.add(save);
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<Path> paths = sink.write(batch);
+            long elapsed = System.nanoTime() - start;
+            lastWriteNanos = elapsed;
+            totalWriteNanos.addAndGet(elapsed);
+            batchesWritten.incrementAndGet();
+            savesWritten.addAndGet(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                for (PendingSave save : byContent.get(batchKeys.get(i))) {
+                    save.future.complete(paths.get(i));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[ERROR] Failed to save result: " + e.getMessage());
+            for (PendingSave save : saves) {
+                save.future.completeExceptionally(e);
+            }
+        }
+    }
+}
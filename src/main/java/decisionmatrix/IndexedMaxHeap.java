@@ -0,0 +1,121 @@
+package decisionmatrix;
+
+import java.util.Arrays;
+
+// Max-heap of row indices keyed by an int score, with a position index so that
+// any row's key can be changed in O(log n). Ties go to the lower row index.
+public class IndexedMaxHeap {
+    private int[] heap = new int[16];  // heap slot -> row
+    private int[] pos = new int[16];   // row -> heap slot, -1 if absent
+    private int[] keys = new int[16];  // row -> key
+    private int size;
+
+    public IndexedMaxHeap() {
+        Arrays.fill(pos, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Row with the highest key, -1 if empty
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    public int key(int row) {
+        return keys[row];
+    }
+
+    public void clear() {
+        Arrays.fill(pos, -1);
+        size = 0;
+    }
+
+    // Replaces the contents with rows 0..count-1 keyed by keys[row], in O(n)
+    public void rebuild(int[] newKeys, int count) {
+        ensureRowCapacity(count);
+        Arrays.fill(pos, -1);
+        System.arraycopy(newKeys, 0, keys, 0, count);
+        for (int row = 0; row < count; row++) {
+            heap[row] = row;
+            pos[row] = row;
+        }
+        size = count;
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    // Inserts the row, or updates its key if it is already present
+    public void set(int row, int key) {
+        ensureRowCapacity(row + 1);
+        int slot = pos[row];
+        if (slot < 0) {
+            heap[size] = row;
+            pos[row] = size;
+            keys[row] = key;
+            siftUp(size++);
+            return;
+        }
+        int old = keys[row];
+        keys[row] = key;
+        if (key > old) {
+            siftUp(slot);
+        } else if (key < old) {
+            siftDown(slot);
+        }
+    }
+
+    private void ensureRowCapacity(int rows) {
+        if (rows <= pos.length) {
+            return;
+        }
+        int capacity = Math.max(rows, pos.length * 2);
+        int oldLength = pos.length;
+        pos = Arrays.copyOf(pos, capacity);
+        Arrays.fill(pos, oldLength, capacity, -1);
+        keys = Arrays.copyOf(keys, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+    }
+
+    private boolean above(int a, int b) {
+        return keys[a] > keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void siftUp(int slot) {
+        int row = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!above(row, heap[parent])) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            pos[heap[slot]] = slot;
+            slot = parent;
+        }
+        heap[slot] = row;
+        pos[row] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int row = heap[slot];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && above(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!above(heap[child], row)) {
+                break;
+            }
+            heap[slot] = heap[child];
+            pos[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = row;
+        pos[row] = slot;
+    }
+}
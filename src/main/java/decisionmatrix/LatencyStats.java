@@ -0,0 +1,90 @@
+package decisionmatrix;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Thread-safe latency histogram (headless mode stats and the Metrics panel).
+// Buckets are log-linear (16 per power of two, about 6% wide), so recording is a
+// couple of bit operations and an atomic increment, and memory stays fixed no
+// matter how many decisions go through.
+public class LatencyStats {
+    private static final int SUB_BUCKETS = 16;
+    private static final int BUCKETS = 2 * SUB_BUCKETS + 60 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(2); // [count, sum of nanos]
+    private final long startNanos = System.nanoTime();
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(0, nanos)));
+        totals.incrementAndGet(0);
+        totals.addAndGet(1, nanos);
+    }
+
+    public long getCount() {
+        return totals.get(0);
+    }
+
+    // Decisions per second since this was created
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : getCount() / seconds;
+    }
+
+    public double getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0 : totals.get(1) / 1000.0 / count;
+    }
+
+    // Upper edge of the bucket holding the q-quantile, in microseconds
+    public double getPercentileMicros(double q) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(q * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return upperEdge(i) / 1000.0;
+            }
+        }
+        return upperEdge(BUCKETS - 1) / 1000.0;
+    }
+
+    // Counts by power of two: index k holds latencies in [2^k, 2^(k+1)) nanos (0 and 1 ns in index 0)
+    public long[] getOctaveCounts() {
+        long[] octaves = new long[64];
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                octaves[63 - Long.numberOfLeadingZeros(Math.max(1, upperEdge(i)))] += count;
+            }
+        }
+        return octaves;
+    }
+
+    public String summary() {
+        return String.format("%d decisions, %.0f/s, mean %.1f us, p50 %.1f us, p99 %.1f us",
+                             getCount(), getThroughput(), getMeanMicros(),
+                             getPercentileMicros(0.50), getPercentileMicros(0.99));
+    }
+
+    // Values below 32 get their own bucket; above that, the top 5 bits pick one of 16 per octave
+    private static int bucket(long v) {
+        if (v < 2 * SUB_BUCKETS) {
+            return (int) v;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(v) - 5;
+        return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) ((v >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long upperEdge(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+        long top = (bucket - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,182 @@
+package decisionmatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+// Keeps option totals up to date while the user edits the matrix.
+// A single cell edit applies (new - old) * weight to that row's total, and a
+// weight change only re-applies that one column, instead of rescanning everything.
+//
+// The raw totals live in this class, not in the model's Total column: Calculate may
+// overwrite that column (e.g. with normalized points), and deltas applied on top of those
+// would drift from the real weighted sums. When that happens the next edit republishes
+// the live totals to the column in one event.
+public class LiveScorer implements TableModelListener, MatrixTableModel.CriteriaListener {
+    private final MatrixTableModel tableModel;
+    private final ArrayList<Criterion> criteriaList;
+    private final IndexedMaxHeap winnerHeap = new IndexedMaxHeap();
+
+    // Weights the current totals were computed with, for the first criterionCount criteria
+    // (grown by doubling, so adding criteria one at a time stays linear)
+    private int[] weights = new int[0];
+    private int criterionCount;
+    private int[] totals = new int[0]; // raw weighted sum per row, capacity may exceed the row count
+    private boolean publishing;        // our own writes to the Total column
+    private boolean columnStale;       // someone else wrote the Total column since
+    private Runnable onRankingChanged;
+
+    public LiveScorer(MatrixTableModel tableModel, ArrayList<Criterion> criteriaList) {
+        this.tableModel = tableModel;
+        this.criteriaList = criteriaList;
+    }
+
+    public void setOnRankingChanged(Runnable onRankingChanged) {
+        this.onRankingChanged = onRankingChanged;
+    }
+
+    public void attach() {
+        rebuild();
+        tableModel.addTableModelListener(this);
+        tableModel.addCriteriaListener(this);
+    }
+
+    public void detach() {
+        tableModel.removeTableModelListener(this);
+        tableModel.removeCriteriaListener(this);
+    }
+
+    // Row currently in first place, -1 if there are no options
+    public int getWinnerRow() {
+        return winnerHeap.peek();
+    }
+
+    public int getTotal(int row) {
+        return totals[row];
+    }
+
+    // Full scan; only used when live mode is switched on
+    public void rebuild() {
+        int rowCount = tableModel.getRowCount();
+        int critCount = tableModel.getCriterionCount();
+        weights = new int[critCount];
+        criterionCount = critCount;
+        int[][] columns = new int[critCount][];
+        for (int i = 0; i < critCount; i++) {
+            weights[i] = criteriaList.get(i).weight;
+            columns[i] = tableModel.getScoreColumn(i);
+        }
+        totals = new int[Math.max(16, rowCount)];
+        DecisionEvents.Scoring scoring = DecisionEvents.scoring("live", rowCount, critCount);
+        DecisionEngine.scoreColumns(weights, columns, rowCount, critCount, totals);
+        scoring.finish();
+        publishAll();
+        winnerHeap.rebuild(totals, rowCount);
+        fireRankingChanged();
+    }
+
+    // Re-applies only column i after its criterion's weight changed
+    public void updateWeight(int i, int newWeight) {
+        int delta = newWeight - weights[i];
+        weights[i] = newWeight;
+        int[] column = tableModel.getScoreColumn(i);
+        if (delta == 0 || column == null) {
+            return;
+        }
+        int rowCount = tableModel.getRowCount();
+        for (int row = 0; row < rowCount; row++) {
+            totals[row] += column[row] * delta;
+        }
+        publishAll();
+        winnerHeap.rebuild(totals, rowCount);
+        fireRankingChanged();
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (e instanceof MatrixTableModel.CellEditEvent) {
+            MatrixTableModel.CellEditEvent edit = (MatrixTableModel.CellEditEvent) e;
+            int row = edit.getFirstRow();
+            totals[row] += (edit.newValue - edit.oldValue) * weights[edit.criterion];
+            publish(row);
+            winnerHeap.set(row, totals[row]);
+            fireRankingChanged();
+            return;
+        }
+        if (e.getFirstRow() == TableModelEvent.HEADER_ROW) {
+            rebuild(); // clear(), or criteria dropped by undo or a branch switch
+            return;
+        }
+
+        switch (e.getType()) {
+            case TableModelEvent.INSERT:
+                if (e.getLastRow() >= totals.length) {
+                    totals = Arrays.copyOf(totals, Math.max(e.getLastRow() + 1, totals.length * 2));
+                }
+                for (int row = e.getFirstRow(); row <= e.getLastRow(); row++) {
+                    appendRow(row);
+                }
+                fireRankingChanged();
+                break;
+            case TableModelEvent.UPDATE:
+                // Names and totals don't move the ranking; our own setTotal calls land here too
+                if (e.getColumn() == MatrixTableModel.TOTAL_COL && !publishing) {
+                    columnStale = true;
+                }
+                break;
+            default:
+                rebuild();
+        }
+    }
+
+    private void appendRow(int row) {
+        int total = 0;
+        for (int i = 0; i < criterionCount; i++) {
+            total += tableModel.getScore(row, i) * weights[i];
+        }
+        totals[row] = total;
+        publish(row);
+        winnerHeap.set(row, total);
+    }
+
+    // Shows row's live total, or all of them if the column was overwritten since
+    private void publish(int row) {
+        if (columnStale) {
+            publishAll();
+            return;
+        }
+        publishing = true;
+        try {
+            tableModel.setTotal(row, totals[row]);
+        } finally {
+            publishing = false;
+        }
+    }
+
+    private void publishAll() {
+        publishing = true;
+        try {
+            tableModel.setTotals(totals);
+        } finally {
+            publishing = false;
+        }
+        columnStale = false;
+    }
+
+    // A new criterion column starts out empty, so it adds nothing to any total
+    @Override
+    public void criterionAdded(int i) {
+        if (i >= weights.length) {
+            weights = Arrays.copyOf(weights, Math.max(i + 1, weights.length * 2));
+        }
+        weights[i] = criteriaList.get(i).weight;
+        criterionCount = i + 1;
+    }
+
+    private void fireRankingChanged() {
+        if (onRankingChanged != null) {
+            onRankingChanged.run();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package decisionmatrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk import/export of a whole matrix as CSV, in the same layout as the headless CSV block:
+//   Option,Cost:5,Speed:3
+//   Laptop A,7,4
+//   "Laptop B, refurbished",3-7,9
+// A header of Name:weight criteria, then one row per option with every cell score
+// (ranges as low-high or low-likely-high). Cells with commas, quotes or line breaks are
+// quoted, with "" for a quote. Empty cells are 0, as in the table.
+//
+// Both directions stream through a FileChannel in fixed-size chunks. The reader decodes
+// and parses one buffer at a time and hands rows over in batches, so a file of any size
+// is never held in memory as a whole; the writer encodes a chunk of rows at a time.
+public class MatrixCsv {
+    public static final int DEFAULT_BATCH_ROWS = 4096;
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    // Rows parsed since the previous batch, column-major like MatrixTableModel
+    public static class Batch {
+        public final String[] names;
+        public final int[][] scores;  // [criterion][row]
+        public final int[][] rangeLows; // [criterion] stays null until that column has a range
+        public final int[][] rangeHighs;
+        public int size;
+
+        Batch(int rows, int cols) {
+            names = new String[rows];
+            scores = new int[cols][rows];
+            rangeLows = new int[cols][];
+            rangeHighs = new int[cols][];
+        }
+    }
+
+    // What the writer reads: the table model, or a saved snapshot of it
+    public interface Rows {
+        int getRowCount();
+
+        String getOptionName(int row);
+
+        // Cell text as typed in the table ("7", "3-7")
+        void appendCellText(StringBuilder out, int row, int i);
+    }
+
+    public interface Sink {
+        // Called once, with the criteria from the header, before any rows
+        void criteria(List<Criterion> criteria) throws IOException;
+
+        // A full (or the final) batch; the sink may keep it
+        void rows(Batch batch) throws IOException;
+    }
+
+    // --- Import ---
+
+    // Streams the file into the sink; returns the number of option rows.
+    // Malformed content fails with an IllegalArgumentException naming the line.
+    public static long read(Path file, int batchRows, Sink sink) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                                                       .onMalformedInput(CodingErrorAction.REPORT)
+                                                       .onUnmappableCharacter(CodingErrorAction.REPORT);
+        Parser parser = new Parser(batchRows, sink);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(CHUNK_BYTES);
+            CharBuffer chars = CharBuffer.allocate(CHUNK_BYTES); // UTF-8 never decodes to more chars than bytes
+            boolean eof = false;
+            while (!eof) {
+                eof = channel.read(bytes) < 0;
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, eof);
+                if (result.isError()) {
+                    throw parser.error("is not valid UTF-8");
+                }
+                bytes.compact(); // An incomplete sequence at the end waits for the next read
+                chars.flip();
+                parser.parse(chars);
+                chars.clear();
+            }
+            decoder.flush(chars);
+            chars.flip();
+            parser.parse(chars);
+        }
+        return parser.finish();
+    }
+
+    // Same parser over text already in memory, e.g. a headless CSV block
+    public static long read(CharSequence text, int batchRows, Sink sink) throws IOException {
+        Parser parser = new Parser(batchRows, sink);
+        parser.parse(CharBuffer.wrap(text));
+        return parser.finish();
+    }
+
+    // Character-at-a-time CSV state machine; fields are built in one reused StringBuilder
+    private static class Parser {
+        private final int batchRows;
+        private final Sink sink;
+        private final StringBuilder field = new StringBuilder();
+        private final ArrayList<String> header = new ArrayList<>();
+        private boolean inHeader = true;
+        private boolean inQuotes;
+        private boolean quotePending; // saw a quote inside quotes: either "" or the closing one
+        private boolean fieldQuoted;
+        private int fieldIndex;
+        private int cols;
+        private long line = 1;
+        private long recordLine = 1;
+        private long rows;
+        private Batch batch;
+
+        Parser(int batchRows, Sink sink) {
+            this.batchRows = batchRows;
+            this.sink = sink;
+        }
+
+        void parse(CharBuffer chars) throws IOException {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (quotePending) {
+                    quotePending = false;
+                    if (c == '"') {
+                        field.append('"');
+                        continue;
+                    }
+                    inQuotes = false; // The quote closed the field; c is handled below
+                }
+                if (inQuotes) {
+                    if (c == '"') {
+                        quotePending = true;
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append(c);
+                    }
+                    continue;
+                }
+                switch (c) {
+                    case ',':
+                        endField();
+                        break;
+                    case '\n':
+                        endRecord();
+                        line++;
+                        recordLine = line;
+                        break;
+                    case '\r':
+                        break;
+                    case '"':
+                        if (field.length() == 0 && !fieldQuoted) {
+                            inQuotes = true;
+                            fieldQuoted = true;
+                        } else {
+                            field.append(c);
+                        }
+                        break;
+                    case '\uFEFF':
+                        if (line == 1 && fieldIndex == 0 && field.length() == 0) {
+                            break; // Byte order mark
+                        }
+                        field.append(c);
+                        break;
+                    default:
+                        field.append(c);
+                }
+            }
+        }
+
+        long finish() throws IOException {
+            if (inQuotes && !quotePending) {
+                throw error("has an unterminated quoted cell");
+            }
+            endRecord();
+            if (inHeader) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            flush();
+            return rows;
+        }
+
+        private void endRecord() throws IOException {
+            if (fieldIndex == 0 && field.length() == 0 && !fieldQuoted) {
+                return; // Blank line
+            }
+            endField();
+            if (inHeader) {
+                sink.criteria(parseHeader());
+                inHeader = false;
+            } else {
+                if (fieldIndex != cols + 1) {
+                    throw error("has " + fieldIndex + " cells, expected " + (cols + 1));
+                }
+                batch.size++;
+                rows++;
+                if (batch.size == batchRows) {
+                    flush();
+                }
+            }
+            fieldIndex = 0;
+        }
+
+        private void endField() {
+            if (inHeader) {
+                header.add(field.toString().trim());
+            } else {
+                if (batch == null) {
+                    batch = new Batch(batchRows, cols);
+                }
+                int row = batch.size;
+                if (fieldIndex == 0) {
+                    batch.names[row] = field.toString().trim();
+                } else if (fieldIndex <= cols) {
+                    setCell(row, fieldIndex - 1);
+                } else if (fieldIndex == cols + 1) {
+                    throw error("has more than " + (cols + 1) + " cells");
+                }
+            }
+            field.setLength(0);
+            fieldQuoted = false;
+            fieldIndex++;
+        }
+
+        private void setCell(int row, int i) {
+            int score = parseInt(field);
+            if (score != Integer.MIN_VALUE) {
+                batch.scores[i][row] = score;
+                return;
+            }
+            int[] range = MatrixTableModel.parseRange(field.toString());
+            if (range == null) {
+                throw error("has a bad score '" + field.toString().trim() + "' for " + header.get(i + 1));
+            }
+            if (batch.rangeLows[i] == null) {
+                batch.rangeLows[i] = new int[batchRows];
+                batch.rangeHighs[i] = new int[batchRows];
+            }
+            batch.rangeLows[i][row] = range[0];
+            batch.scores[i][row] = range[1];
+            batch.rangeHighs[i][row] = range[2];
+        }
+
+        private ArrayList<Criterion> parseHeader() {
+            ArrayList<Criterion> criteria = new ArrayList<>();
+            for (int i = 1; i < header.size(); i++) {
+                String cell = header.get(i);
+                int colon = cell.lastIndexOf(':');
+                if (colon <= 0) {
+                    throw error("has criterion '" + cell + "', expected Name:weight");
+                }
+                int weight;
+                try {
+                    weight = Integer.parseInt(cell.substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw error("has a bad weight in '" + cell + "'");
+                }
+                if (weight < 1 || weight > 10) {
+                    throw error("has weight " + weight + " in '" + cell + "', expected 1-10");
+                }
+                criteria.add(new Criterion(cell.substring(0, colon).trim(), weight));
+            }
+            if (criteria.isEmpty()) {
+                throw error("needs at least one Name:weight criterion after the option column");
+            }
+            cols = criteria.size();
+            return criteria;
+        }
+
+        private void flush() throws IOException {
+            if (batch != null && batch.size > 0) {
+                sink.rows(batch);
+            }
+            batch = null;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Line " + recordLine + " " + message);
+        }
+    }
+
+    // Plain integer (surrounding spaces allowed, empty = 0) without making a String;
+    // Integer.MIN_VALUE if it is anything else
+    private static int parseInt(CharSequence s) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return 0;
+        }
+        boolean negative = s.charAt(start) == '-';
+        if (negative || s.charAt(start) == '+') {
+            start++;
+        }
+        if (start == end || end - start > 9) {
+            return Integer.MIN_VALUE; // Longer numbers go through parseRange's Integer.parseInt
+        }
+        int value = 0;
+        for (int k = start; k < end; k++) {
+            char c = s.charAt(k);
+            if (c < '0' || c > '9') {
+                return Integer.MIN_VALUE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    // --- Export ---
+
+    // Writes every criterion, weight and cell; returns the bytes written
+    public static long write(Path file, Rows model, List<Criterion> criteria) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder chunk = new StringBuilder(CHUNK_BYTES / 2);
+            long written = 0;
+            chunk.append("Option");
+            for (Criterion criterion : criteria) {
+                chunk.append(',');
+                appendCell(chunk, criterion.name + ":" + criterion.weight);
+            }
+            chunk.append('\n');
+
+            int cols = criteria.size();
+            int rows = model.getRowCount();
+            for (int row = 0; row < rows; row++) {
+                appendCell(chunk, model.getOptionName(row));
+                for (int i = 0; i < cols; i++) {
+                    chunk.append(',');
+                    model.appendCellText(chunk, row, i);
+                }
+                chunk.append('\n');
+                if (chunk.length() >= CHUNK_BYTES / 2) {
+                    written += writeChunk(channel, encoder, chunk);
+                }
+            }
+            return written + writeChunk(channel, encoder, chunk);
+        }
+    }
+
+    private static long writeChunk(FileChannel channel, CharsetEncoder encoder, StringBuilder chunk) throws IOException {
+        ByteBuffer bytes = encoder.encode(CharBuffer.wrap(chunk));
+        long length = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        chunk.setLength(0);
+        return length;
+    }
+
+    private static void appendCell(StringBuilder out, String text) {
+        boolean quote = false;
+        for (int k = 0; k < text.length() && !quote; k++) {
+            char c = text.charAt(k);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(text);
+            return;
+        }
+        out.append('"');
+        for (int k = 0; k < text.length(); k++) {
+            char c = text.charAt(k);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
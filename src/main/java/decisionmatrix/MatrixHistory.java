@@ -0,0 +1,241 @@
+package decisionmatrix;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+// Undo/redo and named what-if branches for the matrix. Listens to the table model like
+// LiveScorer and turns every edit into a new PersistentMatrix version, so a step costs
+// the chunks it touched rather than a copy of the matrix. Each branch has its own head
+// and undo/redo stacks; branches created from the current head share all of its chunks.
+//
+// Moving to another version (undo, redo, switching branch) does not touch the table
+// itself: it returns the snapshot to move to, and the caller applies the difference
+// with recording off (see setRecording), so listeners like LiveScorer see only the
+// cells that actually changed.
+public class MatrixHistory implements TableModelListener, MatrixTableModel.CriteriaListener {
+    public static final String MAIN_BRANCH = "main";
+
+    private final int maxUndo; // per branch; 0 keeps every step
+
+    private final MatrixTableModel tableModel;
+    private final ArrayList<Criterion> criteriaList;
+    private final LinkedHashMap<String, Branch> branches = new LinkedHashMap<>();
+    private Branch current;
+    private boolean recording = true;
+    private int compoundDepth;
+    private PersistentMatrix compoundStart; // head before the outermost beginCompound()
+    private Runnable onChange;
+
+    private static class Branch {
+        final String name;
+        PersistentMatrix head;
+        final ArrayDeque<PersistentMatrix> undo = new ArrayDeque<>();
+        final ArrayDeque<PersistentMatrix> redo = new ArrayDeque<>();
+
+        Branch(String name, PersistentMatrix head) {
+            this.name = name;
+            this.head = head;
+        }
+    }
+
+    // Undo depth from -Ddecision.undo.limit=; unlimited by default, since old versions share
+    // their chunks and a step costs only what it changed
+    public MatrixHistory(MatrixTableModel tableModel, ArrayList<Criterion> criteriaList) {
+        this(tableModel, criteriaList, Integer.getInteger("decision.undo.limit", 0));
+    }
+
+    MatrixHistory(MatrixTableModel tableModel, ArrayList<Criterion> criteriaList, int maxUndo) {
+        this.maxUndo = Math.max(0, maxUndo);
+        this.tableModel = tableModel;
+        this.criteriaList = criteriaList;
+        current = new Branch(MAIN_BRANCH, PersistentMatrix.of(tableModel, criteriaList));
+        branches.put(MAIN_BRANCH, current);
+    }
+
+    // Called after each recorded step (not inside a compound one), e.g. to enable Undo
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    public void attach() {
+        tableModel.addTableModelListener(this);
+        tableModel.addCriteriaListener(this);
+    }
+
+    public PersistentMatrix getHead() {
+        return current.head;
+    }
+
+    public String getCurrentBranch() {
+        return current.name;
+    }
+
+    public ArrayList<String> getBranchNames() {
+        return new ArrayList<>(branches.keySet());
+    }
+
+    public boolean canUndo() {
+        return !current.undo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !current.redo.isEmpty();
+    }
+
+    // Off while the caller applies a snapshot to the table
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    // Everything between begin and end (an import, a bulk change) is one undo step
+    public void beginCompound() {
+        if (compoundDepth++ == 0) {
+            compoundStart = current.head;
+        }
+    }
+
+    public void endCompound() {
+        if (--compoundDepth == 0 && current.head != compoundStart) {
+            pushUndo(compoundStart);
+            fireChange();
+        }
+        if (compoundDepth == 0) {
+            compoundStart = null;
+        }
+    }
+
+    // Snapshot to apply, or null if there is nothing to undo
+    public PersistentMatrix undo() {
+        if (current.undo.isEmpty()) {
+            return null;
+        }
+        current.redo.push(current.head);
+        current.head = current.undo.pop();
+        return current.head;
+    }
+
+    public PersistentMatrix redo() {
+        if (current.redo.isEmpty()) {
+            return null;
+        }
+        current.undo.push(current.head);
+        current.head = current.redo.pop();
+        return current.head;
+    }
+
+    // New branch starting at the current head; false if the name is taken
+    public boolean createBranch(String name) {
+        if (branches.containsKey(name)) {
+            return false;
+        }
+        current = new Branch(name, current.head);
+        branches.put(name, current);
+        return true;
+    }
+
+    // Head of the branch to apply, or null if there is no such branch
+    public PersistentMatrix switchTo(String name) {
+        Branch branch = branches.get(name);
+        if (branch == null) {
+            return null;
+        }
+        current = branch;
+        return branch.head;
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (!recording) {
+            return;
+        }
+        PersistentMatrix head = current.head;
+        if (e instanceof MatrixTableModel.CellEditEvent) {
+            MatrixTableModel.CellEditEvent edit = (MatrixTableModel.CellEditEvent) e;
+            int row = edit.getFirstRow();
+            int i = edit.criterion;
+            if (tableModel.hasRange(row, i)) {
+                commit(head.withRange(row, i, tableModel.getRangeLowColumn(i)[row], tableModel.getScore(row, i),
+                                      tableModel.getRangeHighColumn(i)[row]));
+            } else {
+                commit(head.withScore(row, i, tableModel.getScore(row, i)));
+            }
+            return;
+        }
+        if (e.getFirstRow() == TableModelEvent.HEADER_ROW) {
+            commit(dropCriteria(head));
+            return;
+        }
+        switch (e.getType()) {
+            case TableModelEvent.INSERT:
+                commit(head.withRowsFrom(tableModel, e.getFirstRow(), e.getLastRow() + 1));
+                break;
+            case TableModelEvent.DELETE:
+                commit(head.truncate(tableModel.getRowCount(), head.getCriterionCount()));
+                break;
+            case TableModelEvent.UPDATE:
+                if (e.getColumn() == MatrixTableModel.NAME_COL) {
+                    for (int row = e.getFirstRow(); row <= e.getLastRow(); row++) {
+                        head = head.withOptionName(row, tableModel.getOptionName(row));
+                    }
+                    commit(head);
+                }
+                // Totals are derived, not history
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void criterionAdded(int i) {
+        if (recording) {
+            commit(current.head.withCriterion(criteriaList.get(i).name, criteriaList.get(i).weight));
+        }
+    }
+
+    // A weight change; the criteria list already holds the new weight by then
+    @Override
+    public void criterionRelabelled(int i) {
+        if (recording) {
+            commit(current.head.withCriterion(i, criteriaList.get(i).name, criteriaList.get(i).weight));
+        }
+    }
+
+    // The only structure changes left: clear(), or truncate() dropping criteria
+    private PersistentMatrix dropCriteria(PersistentMatrix head) {
+        int critCount = tableModel.getCriterionCount();
+        if (tableModel.getRowCount() == 0 && critCount == 0) {
+            return PersistentMatrix.EMPTY; // clear()
+        }
+        return head.truncate(tableModel.getRowCount(), critCount);
+    }
+
+    private void commit(PersistentMatrix next) {
+        PersistentMatrix previous = current.head;
+        if (next == previous) {
+            return;
+        }
+        current.head = next;
+        if (compoundDepth == 0) {
+            pushUndo(previous);
+            fireChange();
+        }
+    }
+
+    private void fireChange() {
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+
+    private void pushUndo(PersistentMatrix previous) {
+        current.undo.push(previous);
+        if (maxUndo > 0 && current.undo.size() > maxUndo) {
+            current.undo.removeLast();
+        }
+        current.redo.clear();
+    }
+}
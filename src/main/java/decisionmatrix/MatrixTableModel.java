@@ -0,0 +1,458 @@
+package decisionmatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+
+// Table model for the decision matrix backed by primitive column arrays.
+// Col 0 is the option name, Col 1 the total, Col 2+ one int column per criterion.
+// Option names are interned, criterion columns are allocated on first write
+// (so adding a criterion is O(1)), and events only cover the cells that changed.
+// A cell may also hold an uncertain score entered as "3-7" (low-high), "2-4-9"
+// (low-likely-high) or "5~2" (likely +/- spread); the likely value is the cell's
+// score and the low/high bounds live in two more lazily allocated column sets.
+// Adding or relabelling a criterion fires no TableModelEvent (see CriteriaListener), so
+// the table never rebuilds every column for one more criterion; only clear() and dropping
+// criteria in truncate() are structure changes.
+public class MatrixTableModel extends AbstractTableModel implements MatrixCsv.Rows {
+    public static final int NAME_COL = 0;
+    public static final int TOTAL_COL = 1;
+    public static final int FIRST_CRITERION_COL = 2;
+
+    private NameDictionary optionNames = new NameDictionary();
+    private int[] nameIds = new int[16];
+    private int[] totals = new int[16];
+    private int[][] columns = new int[4][]; // null column = all zeros
+    private int[][] rangeLows = new int[4][];  // null column = no ranges in it
+    private int[][] rangeHighs = new int[4][];
+    private String[] criterionLabels = new String[4];
+    private int rowCount;
+    private int criterionCount;
+    private final ArrayList<CriteriaListener> criteriaListeners = new ArrayList<>();
+
+    // Fired for a single criterion cell edit so listeners can apply a delta
+    public static class CellEditEvent extends TableModelEvent {
+        public final int criterion;
+        public final int oldValue;
+        public final int newValue;
+
+        CellEditEvent(MatrixTableModel source, int row, int criterion, int oldValue, int newValue) {
+            super(source, row, row, criterion + FIRST_CRITERION_COL);
+            this.criterion = criterion;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+    }
+
+    // Told when criterion i is added or relabelled (its weight changed). A JTable showing
+    // this model appends or relabels that one TableColumn itself, where a structure change
+    // would have it rebuild all of them.
+    public interface CriteriaListener {
+        void criterionAdded(int i);
+
+        default void criterionRelabelled(int i) {
+        }
+    }
+
+    public void addCriteriaListener(CriteriaListener listener) {
+        criteriaListeners.add(listener);
+    }
+
+    public void removeCriteriaListener(CriteriaListener listener) {
+        criteriaListeners.remove(listener);
+    }
+
+    // --- Structure ---
+
+    public int addRow(String optionName) {
+        ensureRowCapacity(rowCount + 1);
+        nameIds[rowCount] = optionNames.intern(optionName);
+        totals[rowCount] = 0;
+        for (int i = 0; i < criterionCount; i++) {
+            if (columns[i] != null) {
+                columns[i][rowCount] = 0;
+            }
+            if (rangeLows[i] != null) {
+                rangeLows[i][rowCount] = 0;
+                rangeHighs[i][rowCount] = 0;
+            }
+        }
+        int row = rowCount++;
+        fireTableRowsInserted(row, row);
+        return row;
+    }
+
+    // Appends count rows with one rowsInserted event. scores[i] holds criterion i's values
+    // for the new rows (null = all 0); lows[i]/highs[i] their range bounds (null = no ranges).
+    public void addRows(String[] names, int count, int[][] scores, int[][] lows, int[][] highs) {
+        if (count == 0) {
+            return;
+        }
+        int first = rowCount;
+        ensureRowCapacity(rowCount + count);
+        for (int r = 0; r < count; r++) {
+            nameIds[first + r] = optionNames.intern(names[r]);
+        }
+        Arrays.fill(totals, first, first + count, 0);
+        for (int i = 0; i < criterionCount; i++) {
+            if (scores[i] != null) {
+                if (columns[i] == null) {
+                    columns[i] = new int[nameIds.length];
+                }
+                System.arraycopy(scores[i], 0, columns[i], first, count);
+            } else if (columns[i] != null) {
+                Arrays.fill(columns[i], first, first + count, 0);
+            }
+            if (lows[i] != null) {
+                if (rangeLows[i] == null) {
+                    rangeLows[i] = new int[nameIds.length];
+                    rangeHighs[i] = new int[nameIds.length];
+                }
+                System.arraycopy(lows[i], 0, rangeLows[i], first, count);
+                System.arraycopy(highs[i], 0, rangeHighs[i], first, count);
+            } else if (rangeLows[i] != null) {
+                Arrays.fill(rangeLows[i], first, first + count, 0);
+                Arrays.fill(rangeHighs[i], first, first + count, 0);
+            }
+        }
+        rowCount += count;
+        fireTableRowsInserted(first, rowCount - 1);
+    }
+
+    // Drops every option and criterion
+    public void clear() {
+        optionNames = new NameDictionary();
+        nameIds = new int[16];
+        totals = new int[16];
+        columns = new int[4][];
+        rangeLows = new int[4][];
+        rangeHighs = new int[4][];
+        criterionLabels = new String[4];
+        rowCount = 0;
+        criterionCount = 0;
+        fireTableStructureChanged();
+    }
+
+    // Keeps the first rows options and criteria criteria. Dropping only rows fires
+    // rowsDeleted; dropping criteria changes the structure.
+    public void truncate(int rows, int criteria) {
+        if (rows >= rowCount && criteria >= criterionCount) {
+            return;
+        }
+        int oldRows = rowCount;
+        for (int i = Math.min(criteria, criterionCount); i < criterionCount; i++) {
+            columns[i] = null;
+            rangeLows[i] = null;
+            rangeHighs[i] = null;
+            criterionLabels[i] = null;
+        }
+        boolean dropsCriteria = criteria < criterionCount;
+        criterionCount = Math.min(criteria, criterionCount);
+        rowCount = Math.min(rows, rowCount);
+        if (dropsCriteria) {
+            fireTableStructureChanged();
+        } else {
+            fireTableRowsDeleted(rowCount, oldRows - 1);
+        }
+    }
+
+    public int addCriterion(String label) {
+        if (criterionCount == columns.length) {
+            columns = Arrays.copyOf(columns, criterionCount * 2);
+            rangeLows = Arrays.copyOf(rangeLows, criterionCount * 2);
+            rangeHighs = Arrays.copyOf(rangeHighs, criterionCount * 2);
+            criterionLabels = Arrays.copyOf(criterionLabels, criterionCount * 2);
+        }
+        columns[criterionCount] = null;
+        rangeLows[criterionCount] = null;
+        rangeHighs[criterionCount] = null;
+        criterionLabels[criterionCount] = label;
+        int i = criterionCount++;
+        for (CriteriaListener listener : new ArrayList<>(criteriaListeners)) {
+            listener.criterionAdded(i);
+        }
+        return i;
+    }
+
+    public void setCriterionLabel(int i, String label) {
+        criterionLabels[i] = label;
+        for (CriteriaListener listener : new ArrayList<>(criteriaListeners)) {
+            listener.criterionRelabelled(i);
+        }
+    }
+
+    // --- Primitive access (no boxing) ---
+
+    public int getCriterionCount() {
+        return criterionCount;
+    }
+
+    public String getOptionName(int row) {
+        return optionNames.name(nameIds[row]);
+    }
+
+    public int getScore(int row, int i) {
+        int[] column = columns[i];
+        return column == null ? 0 : column[row];
+    }
+
+    // Backing array for criterion i, or null if every cell is still 0.
+    // Only the first getRowCount() entries are meaningful.
+    public int[] getScoreColumn(int i) {
+        return columns[i];
+    }
+
+    // Range bounds for criterion i, or null if no cell in it ever had a range.
+    // Cells without a range have low == high (a real range always has low < high).
+    public int[] getRangeLowColumn(int i) {
+        return rangeLows[i];
+    }
+
+    public int[] getRangeHighColumn(int i) {
+        return rangeHighs[i];
+    }
+
+    public boolean hasRange(int row, int i) {
+        int[] lows = rangeLows[i];
+        return lows != null && lows[row] < rangeHighs[i][row];
+    }
+
+    public boolean hasAnyRange() {
+        for (int i = 0; i < criterionCount; i++) {
+            if (rangeLows[i] != null) {
+                for (int row = 0; row < rowCount; row++) {
+                    if (hasRange(row, i)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getTotal(int row) {
+        return totals[row];
+    }
+
+    public void setScore(int row, int i, int score) {
+        int old = getScore(row, i);
+        boolean hadRange = hasRange(row, i);
+        if (old == score && !hadRange) {
+            return;
+        }
+        if (hadRange) {
+            rangeLows[i][row] = 0;
+            rangeHighs[i][row] = 0;
+        }
+        if (columns[i] == null) {
+            columns[i] = new int[nameIds.length];
+        }
+        columns[i][row] = score;
+        fireTableChanged(new CellEditEvent(this, row, i, old, score));
+    }
+
+    // Uncertain score: likely is what the weighted sum uses, low/high bound the Monte Carlo samples
+    public void setScoreRange(int row, int i, int low, int likely, int high) {
+        if (low >= high) {
+            setScore(row, i, likely);
+            return;
+        }
+        int old = getScore(row, i);
+        if (columns[i] == null) {
+            columns[i] = new int[nameIds.length];
+        }
+        if (rangeLows[i] == null) {
+            rangeLows[i] = new int[nameIds.length];
+            rangeHighs[i] = new int[nameIds.length];
+        }
+        columns[i][row] = likely;
+        rangeLows[i][row] = low;
+        rangeHighs[i][row] = high;
+        fireTableChanged(new CellEditEvent(this, row, i, old, likely));
+    }
+
+    public void setOptionName(int row, String name) {
+        nameIds[row] = optionNames.intern(name);
+        fireTableCellUpdated(row, NAME_COL);
+    }
+
+    public void setTotal(int row, int total) {
+        if (totals[row] != total) {
+            totals[row] = total;
+            fireTableCellUpdated(row, TOTAL_COL);
+        }
+    }
+
+    // Copies all totals in and fires one event for the whole Total column
+    public void setTotals(int[] newTotals) {
+        System.arraycopy(newTotals, 0, totals, 0, rowCount);
+        if (rowCount > 0) {
+            fireTableChanged(new TableModelEvent(this, 0, rowCount - 1, TOTAL_COL));
+        }
+    }
+
+    // Cell text as shown and typed in the table ("7", "3-7"), appended without boxing
+    public void appendCellText(StringBuilder out, int row, int i) {
+        if (hasRange(row, i)) {
+            out.append(formatRange(rangeLows[i][row], getScore(row, i), rangeHighs[i][row]));
+        } else {
+            out.append(getScore(row, i));
+        }
+    }
+
+    // --- AbstractTableModel ---
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return FIRST_CRITERION_COL + criterionCount;
+    }
+
+    @Override
+    public String getColumnName(int col) {
+        if (col == NAME_COL) {
+            return "Option Name";
+        }
+        if (col == TOTAL_COL) {
+            return "Total Score";
+        }
+        return criterionLabels[col - FIRST_CRITERION_COL];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int col) {
+        if (col == NAME_COL) {
+            return String.class;
+        }
+        return col == TOTAL_COL ? Integer.class : Object.class; // Object so "3-7" can be typed in
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int col) {
+        return col != TOTAL_COL; // Totals are computed
+    }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        if (col == NAME_COL) {
+            return getOptionName(row);
+        }
+        if (col == TOTAL_COL) {
+            return totals[row];
+        }
+        int i = col - FIRST_CRITERION_COL;
+        if (hasRange(row, i)) {
+            return formatRange(rangeLows[i][row], getScore(row, i), rangeHighs[i][row]);
+        }
+        return getScore(row, i);
+    }
+
+    // Edits from the table, timed (with their listeners) as a TableEdit event
+    @Override
+    public void setValueAt(Object value, int row, int col) {
+        DecisionEvents.TableEdit edit = DecisionEvents.tableEdit(rowCount, criterionCount);
+        edit.column = col;
+        applyValue(value, row, col);
+        edit.finish();
+    }
+
+    private void applyValue(Object value, int row, int col) {
+        if (col == NAME_COL) {
+            setOptionName(row, String.valueOf(value).trim());
+            return;
+        }
+        if (col == TOTAL_COL) {
+            setTotal(row, toInt(value));
+            return;
+        }
+        int i = col - FIRST_CRITERION_COL;
+        int[] range = value instanceof String ? parseRange((String) value) : null;
+        if (range != null) {
+            setScoreRange(row, i, range[0], range[1], range[2]);
+        } else {
+            setScore(row, i, toInt(value));
+        }
+    }
+
+    // "low-high", "low-likely-high" or "likely~spread" -> {low, likely, high}, else null.
+    // A leading '-' is a negative number, not a range.
+    static int[] parseRange(String text) {
+        String s = text.trim();
+        try {
+            int tilde = s.indexOf('~');
+            if (tilde > 0) {
+                int likely = Integer.parseInt(s.substring(0, tilde).trim());
+                int spread = Math.abs(Integer.parseInt(s.substring(tilde + 1).trim()));
+                return new int[] {likely - spread, likely, likely + spread};
+            }
+            int dash = s.indexOf('-', 1);
+            if (dash < 0) {
+                return null;
+            }
+            int low = Integer.parseInt(s.substring(0, dash).trim());
+            int dash2 = s.indexOf('-', dash + 2);
+            int likely;
+            int high;
+            if (dash2 < 0) {
+                high = Integer.parseInt(s.substring(dash + 1).trim());
+                likely = Math.floorDiv(low + high, 2);
+            } else {
+                likely = Integer.parseInt(s.substring(dash + 1, dash2).trim());
+                high = Integer.parseInt(s.substring(dash2 + 1).trim());
+            }
+            if (low > high) {
+                int t = low;
+                low = high;
+                high = t;
+            }
+            return new int[] {low, Math.max(low, Math.min(likely, high)), high};
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    static String formatRange(int low, int likely, int high) {
+        if (likely == Math.floorDiv(low + high, 2)) {
+            return low + "-" + high;
+        }
+        return low + "-" + likely + "-" + high;
+    }
+
+    // Empty or non-numeric input counts as 0, as it always has
+    private static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private void ensureRowCapacity(int rows) {
+        if (rows <= nameIds.length) {
+            return;
+        }
+        int capacity = Math.max(rows, nameIds.length * 2);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+        for (int i = 0; i < criterionCount; i++) {
+            if (columns[i] != null) {
+                columns[i] = Arrays.copyOf(columns[i], capacity);
+            }
+            if (rangeLows[i] != null) {
+                rangeLows[i] = Arrays.copyOf(rangeLows[i], capacity);
+                rangeHighs[i] = Arrays.copyOf(rangeHighs[i], capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package decisionmatrix;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide counters and latency histograms, fed by DecisionEvents.finish() whether
+// or not a flight recording is running. Shown live in the Metrics dialog.
+public final class Metrics {
+    public static final LatencyStats SCORING = new LatencyStats();
+    public static final LatencyStats SAVES = new LatencyStats();
+    public static final LatencyStats HISTORY_LOADS = new LatencyStats();
+    public static final LatencyStats TABLE_EDITS = new LatencyStats();
+
+    public static final AtomicLong DECISIONS_SAVED = new AtomicLong();
+    public static final AtomicLong BYTES_WRITTEN = new AtomicLong();
+    public static final AtomicLong CELLS_SCORED = new AtomicLong(); // rows x columns over all scoring runs
+
+    private Metrics() {
+    }
+}
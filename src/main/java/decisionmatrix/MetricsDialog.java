@@ -0,0 +1,161 @@
+package decisionmatrix;
+
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+// "Metrics" dialog: the Metrics counters, one latency row per operation, and a
+// histogram (powers of two) of the selected operation. Refreshes every second while open.
+public class MetricsDialog extends JDialog {
+    private static final String[] COLUMNS = {"Operation", "Count", "Mean", "p50", "p90", "p99"};
+    private static final String[] OPERATIONS = {"Scoring runs", "Saves", "History loads", "Table edits"};
+    private static final LatencyStats[] STATS = {Metrics.SCORING, Metrics.SAVES, Metrics.HISTORY_LOADS, Metrics.TABLE_EDITS};
+    private static final int REFRESH_MS = 1000;
+
+    private final DefaultTableModel rows;
+    private final JTable table;
+    private final JLabel counters = new JLabel();
+    private final HistogramPanel histogram = new HistogramPanel();
+
+    public MetricsDialog(Frame owner) {
+        super(owner, "Metrics", false);
+        setLayout(new BorderLayout(5, 5));
+
+        counters.setBorder(BorderFactory.createEmptyBorder(5, 5, 0, 5));
+        add(counters, BorderLayout.NORTH);
+
+        rows = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (String operation : OPERATIONS) {
+            rows.addRow(new Object[] {operation, 0L, "-", "-", "-", "-"});
+        }
+        table = new JTable(rows);
+        table.setRowHeight(24);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setRowSelectionInterval(0, 0);
+        table.getSelectionModel().addListSelectionListener(e -> refresh());
+
+        JScrollPane tableScroll = new JScrollPane(table);
+        tableScroll.setPreferredSize(new Dimension(600, 130));
+        histogram.setBorder(BorderFactory.createTitledBorder("Latency histogram (selected operation)"));
+        JPanel center = new JPanel(new BorderLayout(5, 5));
+        center.add(tableScroll, BorderLayout.NORTH);
+        center.add(histogram, BorderLayout.CENTER);
+        add(center, BorderLayout.CENTER);
+
+        JButton closeBtn = new JButton("Close");
+        closeBtn.addActionListener(e -> dispose());
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(closeBtn);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        Timer timer = new Timer(REFRESH_MS, e -> refresh());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                timer.stop();
+            }
+        });
+        timer.start();
+        refresh();
+
+        setSize(650, 450);
+        setLocationRelativeTo(owner);
+    }
+
+    private void refresh() {
+        counters.setText(String.format("Decisions saved: %,d   |   Written: %s   |   Cells scored: %,d   |   Kernel: %s",
+                                       Metrics.DECISIONS_SAVED.get(), formatBytes(Metrics.BYTES_WRITTEN.get()),
+                                       Metrics.CELLS_SCORED.get(), DecisionEngine.getKernelName()));
+        for (int i = 0; i < STATS.length; i++) {
+            LatencyStats stats = STATS[i];
+            long count = stats.getCount();
+            rows.setValueAt(count, i, 1);
+            rows.setValueAt(count == 0 ? "-" : formatMicros(stats.getMeanMicros()), i, 2);
+            rows.setValueAt(count == 0 ? "-" : formatMicros(stats.getPercentileMicros(0.50)), i, 3);
+            rows.setValueAt(count == 0 ? "-" : formatMicros(stats.getPercentileMicros(0.90)), i, 4);
+            rows.setValueAt(count == 0 ? "-" : formatMicros(stats.getPercentileMicros(0.99)), i, 5);
+        }
+        int selected = table.getSelectedRow();
+        histogram.setCounts(STATS[selected < 0 ? 0 : selected].getOctaveCounts());
+    }
+
+    private static String formatMicros(double micros) {
+        if (micros >= 1_000_000) {
+            return String.format("%.2f s", micros / 1_000_000);
+        }
+        if (micros >= 1000) {
+            return String.format("%.1f ms", micros / 1000);
+        }
+        if (micros >= 1) {
+            return String.format("%.1f us", micros);
+        }
+        return String.format("%.0f ns", micros * 1000);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1 << 20) {
+            return String.format("%.1f MB", bytes / (double) (1 << 20));
+        }
+        if (bytes >= 1 << 10) {
+            return String.format("%.1f KB", bytes / (double) (1 << 10));
+        }
+        return bytes + " B";
+    }
+
+    // One horizontal bar per power-of-two latency range, from the fastest to the slowest seen
+    private static class HistogramPanel extends JPanel {
+        private static final int BAR_HEIGHT = 16;
+        private long[] counts = new long[64];
+
+        void setCounts(long[] counts) {
+            this.counts = counts;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            int first = 0;
+            int last = counts.length - 1;
+            while (first < counts.length && counts[first] == 0) {
+                first++;
+            }
+            Insets insets = getInsets();
+            if (first == counts.length) {
+                g.drawString("No samples yet.", insets.left + 10, insets.top + 20);
+                return;
+            }
+            while (counts[last] == 0) {
+                last--;
+            }
+            long max = 0;
+            for (int k = first; k <= last; k++) {
+                max = Math.max(max, counts[k]);
+            }
+
+            FontMetrics fm = g.getFontMetrics();
+            int labelWidth = fm.stringWidth("< 999.9 ms") + 10;
+            int countWidth = fm.stringWidth("99,999,999") + 10;
+            int barSpace = Math.max(10, getWidth() - insets.left - insets.right - labelWidth - countWidth - 20);
+            int y = insets.top + 5;
+            for (int k = first; k <= last && y + BAR_HEIGHT <= getHeight() - insets.bottom; k++) {
+                int x = insets.left + 10;
+                g.setColor(Color.DARK_GRAY);
+                g.drawString("< " + formatMicros((2L << k) / 1000.0), x, y + BAR_HEIGHT - 4);
+                int width = (int) Math.round(barSpace * (double) counts[k] / max);
+                g.setColor(new Color(70, 130, 180));
+                g.fillRect(x + labelWidth, y + 2, width, BAR_HEIGHT - 4);
+                g.setColor(Color.DARK_GRAY);
+                g.drawString(String.format("%,d", counts[k]), x + labelWidth + width + 5, y + BAR_HEIGHT - 4);
+                y += BAR_HEIGHT + 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package decisionmatrix;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Monte Carlo scoring for matrices whose cells carry ranges.
+// Each sample draws every uncertain cell from a triangular(low, likely, high)
+// distribution, re-adds the weighted sum and counts the winner. Exact cells never
+// change, so their weighted sum is computed once per option and each sample only
+// touches the uncertain cells (kept in flat CSR-style arrays).
+//
+// Samples are split across the ForkJoinPool; every task gets its own
+// SplittableRandom split and its own primitive counters (wins per option and a
+// fixed-width histogram of totals per option), merged on join. The split tree
+// only depends on the seed, so a given seed always gives the same result.
+public class MonteCarloEngine {
+    public static final int DEFAULT_SAMPLES = 100_000;
+    private static final int MAX_BINS = 256;
+    private static final int MIN_BINS = 16;
+    private static final int HISTOGRAM_BUDGET = 1 << 20; // counters per task, rows * bins
+    private static final int MIN_LEAF_SAMPLES = 1024;
+    private static final double UNIT = 1.0 / (1L << 32);
+
+    // Per-option results, indexed by row
+    public static class MonteCarloResult {
+        public int samples;
+        public double[] winProbability;
+        public double[] p5;
+        public double[] p50;
+        public double[] p95;
+
+        public MonteCarloResult(int samples, int rows) {
+            this.samples = samples;
+            this.winProbability = new double[rows];
+            this.p5 = new double[rows];
+            this.p50 = new double[rows];
+            this.p95 = new double[rows];
+        }
+
+        public int size() {
+            return winProbability.length;
+        }
+    }
+
+    // Column-major like DecisionEngine.scoreColumns: likely[i] is the score column of
+    // criterion i (null = zeros), lows[i]/highs[i] its range bounds (null = no ranges,
+    // low == high = exact cell).
+    public static MonteCarloResult simulate(int[] weights, int[][] likely, int[][] lows, int[][] highs,
+                                            int rows, int cols, int samples, long seed) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("samples must be positive");
+        }
+        Model model = new Model(weights, likely, lows, highs, rows, cols);
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int leafSamples = Math.max(MIN_LEAF_SAMPLES, samples / (parallelism * 2));
+        Counters counters = ForkJoinPool.commonPool().invoke(
+            new SampleTask(model, new SplittableRandom(seed), samples, leafSamples));
+
+        MonteCarloResult result = new MonteCarloResult(samples, rows);
+        for (int row = 0; row < rows; row++) {
+            result.winProbability[row] = (double) counters.wins[row] / samples;
+            result.p5[row] = model.percentile(counters.histogram, row, 0.05, samples);
+            result.p50[row] = model.percentile(counters.histogram, row, 0.50, samples);
+            result.p95[row] = model.percentile(counters.histogram, row, 0.95, samples);
+        }
+        return result;
+    }
+
+    // Flattened, read-only view of the matrix shared by all tasks
+    private static class Model {
+        final int rows;
+        final int bins;
+        final double[] fixed;     // weighted sum of the exact cells
+        final int[] cellStart;    // uncertain cells of row r are cellStart[r] .. cellStart[r + 1] - 1
+        // Triangular(a, c, b) is a + (c - a) * max(U1, U2) + (b - c) * min(U1, U2)
+        // for independent uniforms U1, U2: no sqrt, no branch. Already multiplied by the weight.
+        final double[] cellLow;   // a
+        final double[] cellLeft;  // c - a
+        final double[] cellRight; // b - c
+        final double[] minTotal;  // histogram range per row
+        final double[] binScale;  // bins / (max - min), 0 for a constant row
+
+        Model(int[] weights, int[][] likely, int[][] lows, int[][] highs, int rows, int cols) {
+            this.rows = rows;
+            this.bins = Math.max(MIN_BINS, Math.min(MAX_BINS, HISTOGRAM_BUDGET / Math.max(1, rows)));
+            fixed = new double[rows];
+            cellStart = new int[rows + 1];
+            minTotal = new double[rows];
+            binScale = new double[rows];
+
+            int uncertain = 0;
+            for (int row = 0; row < rows; row++) {
+                for (int i = 0; i < cols; i++) {
+                    if (isRange(lows[i], highs[i], row) && weights[i] != 0) {
+                        uncertain++;
+                    }
+                }
+            }
+            cellLow = new double[uncertain];
+            cellLeft = new double[uncertain];
+            cellRight = new double[uncertain];
+
+            int cell = 0;
+            for (int row = 0; row < rows; row++) {
+                cellStart[row] = cell;
+                double min = 0;
+                double max = 0;
+                for (int i = 0; i < cols; i++) {
+                    int w = weights[i];
+                    if (isRange(lows[i], highs[i], row) && w != 0) {
+                        // A triangular variable times a constant is triangular with scaled points
+                        double a = (double) w * lows[i][row];
+                        double b = (double) w * highs[i][row];
+                        double c = (double) w * likely[i][row];
+                        if (a > b) { // Negative weight
+                            double t = a;
+                            a = b;
+                            b = t;
+                        }
+                        cellLow[cell] = a;
+                        cellLeft[cell] = c - a;
+                        cellRight[cell] = b - c;
+                        min += a;
+                        max += b;
+                        cell++;
+                    } else if (likely[i] != null) {
+                        fixed[row] += (double) w * likely[i][row];
+                    }
+                }
+                minTotal[row] = fixed[row] + min;
+                binScale[row] = max > min ? bins / (max - min) : 0;
+            }
+            cellStart[rows] = cell;
+        }
+
+        private static boolean isRange(int[] lows, int[] highs, int row) {
+            return lows != null && lows[row] < highs[row];
+        }
+
+        // Interpolates the q-quantile of one row's histogram
+        double percentile(int[] histogram, int row, double q, int samples) {
+            if (binScale[row] == 0) {
+                return minTotal[row];
+            }
+            double target = q * samples;
+            int base = row * bins;
+            long seen = 0;
+            for (int bin = 0; bin < bins; bin++) {
+                int count = histogram[base + bin];
+                if (count > 0 && seen + count >= target) {
+                    double within = (target - seen) / count;
+                    return minTotal[row] + (bin + within) / binScale[row];
+                }
+                seen += count;
+            }
+            return minTotal[row] + bins / binScale[row];
+        }
+    }
+
+    private static class Counters {
+        final int[] wins;
+        final int[] histogram;
+
+        Counters(Model model) {
+            wins = new int[model.rows];
+            histogram = new int[model.rows * model.bins];
+        }
+
+        void add(Counters other) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+    }
+
+    private static class SampleTask extends RecursiveTask<Counters> {
+        private final Model model;
+        private final SplittableRandom random;
+        private final int samples;
+        private final int leafSamples;
+
+        SampleTask(Model model, SplittableRandom random, int samples, int leafSamples) {
+            this.model = model;
+            this.random = random;
+            this.samples = samples;
+            this.leafSamples = leafSamples;
+        }
+
+        @Override
+        protected Counters compute() {
+            if (samples <= leafSamples) {
+                return run();
+            }
+            int half = samples >>> 1;
+            SampleTask left = new SampleTask(model, random.split(), half, leafSamples);
+            left.fork();
+            Counters counters = new SampleTask(model, random, samples - half, leafSamples).compute();
+            counters.add(left.join());
+            return counters;
+        }
+
+        private Counters run() {
+            Model m = model;
+            Counters counters = new Counters(m);
+            int[] wins = counters.wins;
+            int[] histogram = counters.histogram;
+            SplittableRandom rng = random;
+            int rows = m.rows;
+            int bins = m.bins;
+            int maxBin = bins - 1;
+            double[] fixed = m.fixed;
+            int[] cellStart = m.cellStart;
+            double[] cellLow = m.cellLow;
+            double[] cellLeft = m.cellLeft;
+            double[] cellRight = m.cellRight;
+            double[] minTotal = m.minTotal;
+            double[] binScale = m.binScale;
+            for (int s = 0; s < samples; s++) {
+                int best = -1;
+                double bestTotal = Double.NEGATIVE_INFINITY;
+                for (int row = 0; row < rows; row++) {
+                    double total = fixed[row];
+                    for (int c = cellStart[row], end = cellStart[row + 1]; c < end; c++) {
+                        // Two 32-bit uniforms from one draw
+                        long bits = rng.nextLong();
+                        double u1 = (bits >>> 32) * UNIT;
+                        double u2 = (bits & 0xFFFFFFFFL) * UNIT;
+                        total += cellLow[c] + cellLeft[c] * Math.max(u1, u2) + cellRight[c] * Math.min(u1, u2);
+                    }
+                    double scale = binScale[row];
+                    if (scale != 0) {
+                        int bin = (int) ((total - minTotal[row]) * scale);
+                        histogram[row * bins + Math.min(bin, maxBin)]++;
+                    }
+                    if (total > bestTotal) { // First row wins ties, like DecisionEngine
+                        bestTotal = total;
+                        best = row;
+                    }
+                }
+                if (best >= 0) {
+                    wins[best]++;
+                }
+            }
+            return counters;
+        }
+    }
+
+}
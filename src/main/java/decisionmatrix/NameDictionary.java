@@ -0,0 +1,40 @@
+package decisionmatrix;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Interns names to dense int ids so repeated names are stored once and
+// callers can keep an int per row instead of a String reference.
+public class NameDictionary {
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[16];
+    private int size;
+
+    // Id for the name, adding it if it has not been seen before
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        names[size] = name;
+        ids.put(name, size);
+        return size++;
+    }
+
+    // Id for the name, -1 if it is not in the dictionary
+    public int lookup(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+}
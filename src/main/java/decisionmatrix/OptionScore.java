@@ -1,3 +1,5 @@
+package decisionmatrix;
+
 public class OptionScore {
     public String optionName;
     public int totalScore;
@@ -0,0 +1,279 @@
+package decisionmatrix;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Pareto front (skyline) of a column-major score matrix: the rows no other row dominates.
+// Row a dominates row b if a scores at least as high on every criterion and higher on
+// at least one. With positive weights a dominated row can never win, and can never
+// overtake the winner before the row dominating it does, so ranking and sensitivity
+// analysis can be limited to the front. Every row is still scored (and normalized over
+// the whole matrix), so dominated rows keep their real totals.
+//
+// All cases first sort the rows lexicographically, best first, so no row can dominate one
+// sorted before it. One criterion is a max; two and three criteria are exact O(n log n)
+// sweeps (Kung's staircase). With four or more, each row in that order is checked against
+// the front found so far, which only ever grows (sort-filter-skyline). That costs
+// O(n * h * d) for a front of h rows: close to linear when few options survive, but
+// O(n^2 * d) when most do, as is common with many criteria. The bounded variant gives up
+// after a number of dominance checks instead.
+public class ParetoFilter {
+    // About a second of dominance checks; past that the filter would cost more than it saves
+    public static final long DEFAULT_MAX_CHECKS = 200_000_000L;
+
+    // Rows on the front, ascending. A null column counts as all zeros.
+    public static int[] front(int[][] columns, int rows, int cols) {
+        return front(columns, rows, cols, Long.MAX_VALUE);
+    }
+
+    // Same, but null if four or more criteria need more than maxChecks row-vs-row
+    // dominance checks, i.e. most rows are on the front and filtering would not pay off
+    public static int[] front(int[][] columns, int rows, int cols, long maxChecks) {
+        int[][] used = nonNullColumns(columns, cols);
+        if (rows == 0) {
+            return new int[0];
+        }
+        if (used.length == 0) {
+            return identity(rows); // All rows equal: nobody dominates anybody
+        }
+        if (used.length == 1) {
+            return maxRows(used[0], rows);
+        }
+
+        int[] order = identity(rows);
+        sortBestFirst(order, used);
+        int[] front;
+        if (used.length == 2) {
+            front = sweep(order, used[0], used[1]);
+        } else if (used.length == 3) {
+            front = staircase(order, used[0], used[1], used[2]);
+        } else {
+            front = filter(order, used, maxChecks);
+            if (front == null) {
+                return null;
+            }
+        }
+        Arrays.sort(front);
+        return front;
+    }
+
+    // The given rows of every column, as a smaller column-major matrix (null stays null)
+    public static int[][] select(int[][] columns, int cols, int[] rows) {
+        int[][] selected = new int[cols][];
+        for (int i = 0; i < cols; i++) {
+            int[] column = columns[i];
+            if (column == null) {
+                continue;
+            }
+            int[] values = new int[rows.length];
+            for (int r = 0; r < rows.length; r++) {
+                values[r] = column[rows[r]];
+            }
+            selected[i] = values;
+        }
+        return selected;
+    }
+
+    // Replaces indices into the front with the matrix rows they stand for
+    public static void toMatrixRows(int[] front, int[] indices) {
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] >= 0) {
+                indices[i] = front[indices[i]];
+            }
+        }
+    }
+
+    // --- Four or more criteria ---
+
+    // A dominated row is also dominated by some front row, so the front is all it is checked against
+    private static int[] filter(int[] order, int[][] columns, long maxChecks) {
+        int[] front = new int[order.length];
+        int size = 0;
+        long checks = 0;
+        for (int row : order) {
+            checks += size; // Worst case; early exits are not counted back
+            if (checks > maxChecks) {
+                return null;
+            }
+            if (!dominatedByAny(row, front, size, columns)) {
+                front[size++] = row;
+            }
+        }
+        return Arrays.copyOf(front, size);
+    }
+
+    // Candidates all sort before row, so any of them that is >= on every column and not
+    // identical dominates it
+    private static boolean dominatedByAny(int row, int[] candidates, int count, int[][] columns) {
+        for (int k = 0; k < count; k++) {
+            int candidate = candidates[k];
+            boolean atLeast = true;
+            boolean better = false;
+            for (int[] column : columns) {
+                int c = column[candidate];
+                int r = column[row];
+                if (c < r) {
+                    atLeast = false;
+                    break;
+                }
+                better |= c > r;
+            }
+            if (atLeast && better) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --- Two criteria ---
+
+    // Rows come sorted by first column, then second, descending. A row is dominated if an
+    // earlier row has a higher second score, or the same one with a higher first score.
+    private static int[] sweep(int[] order, int[] first, int[] second) {
+        int[] front = new int[order.length];
+        int size = 0;
+        int best = Integer.MIN_VALUE; // highest second score so far
+        int bestFirst = Integer.MIN_VALUE; // first score of the earliest row reaching it
+        for (int row : order) {
+            int s = second[row];
+            if (s > best) {
+                best = s;
+                bestFirst = first[row];
+                front[size++] = row;
+            } else if (s == best && bestFirst == first[row]) {
+                front[size++] = row; // Identical to a front row
+            }
+        }
+        return Arrays.copyOf(front, size);
+    }
+
+    // --- Three criteria ---
+
+    // Rows come sorted best first, so an earlier row that is >= on the second and third
+    // columns is >= on all three. The front rows seen so far are kept as a staircase of
+    // (second, third) points: second ascending, third descending, none covering another.
+    // The point with the smallest second score >= the row's has the highest third score
+    // among those, so one ceiling lookup decides the row. O(n log n).
+    private static int[] staircase(int[] order, int[] first, int[] second, int[] third) {
+        TreeMap<Integer, Integer> steps = new TreeMap<>();
+        int[] front = new int[order.length];
+        int size = 0;
+        boolean previousOnFront = false;
+        for (int k = 0; k < order.length; k++) {
+            int row = order[k];
+            int b = second[row];
+            int c = third[row];
+            boolean onFront;
+            if (k > 0 && first[order[k - 1]] == first[row] && second[order[k - 1]] == b && third[order[k - 1]] == c) {
+                onFront = previousOnFront; // Identical rows share a fate and never dominate each other
+            } else {
+                Map.Entry<Integer, Integer> cover = steps.ceilingEntry(b);
+                onFront = cover == null || cover.getValue() < c;
+                if (onFront) {
+                    // Drop the steps the new point covers, then add it
+                    for (Map.Entry<Integer, Integer> lower = steps.floorEntry(b);
+                         lower != null && lower.getValue() <= c; lower = steps.lowerEntry(lower.getKey())) {
+                        steps.remove(lower.getKey());
+                    }
+                    steps.put(b, c);
+                }
+            }
+            if (onFront) {
+                front[size++] = row;
+            }
+            previousOnFront = onFront;
+        }
+        return Arrays.copyOf(front, size);
+    }
+
+    // --- One criterion ---
+
+    private static int[] maxRows(int[] column, int rows) {
+        int max = column[0];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (column[row] > max) {
+                max = column[row];
+                count = 0;
+            }
+            if (column[row] == max) {
+                count++;
+            }
+        }
+        int[] front = new int[count];
+        int size = 0;
+        for (int row = 0; row < rows && size < count; row++) {
+            if (column[row] == max) {
+                front[size++] = row;
+            }
+        }
+        return front;
+    }
+
+    // --- Helpers ---
+
+    private static int[][] nonNullColumns(int[][] columns, int cols) {
+        int count = 0;
+        for (int i = 0; i < cols; i++) {
+            if (columns[i] != null) {
+                count++;
+            }
+        }
+        int[][] used = new int[count][];
+        count = 0;
+        for (int i = 0; i < cols; i++) {
+            if (columns[i] != null) {
+                used[count++] = columns[i];
+            }
+        }
+        return used;
+    }
+
+    private static int[] identity(int rows) {
+        int[] rowIds = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            rowIds[row] = row;
+        }
+        return rowIds;
+    }
+
+    // Bottom-up merge sort of row ids, lexicographically descending by column (no boxing)
+    private static void sortBestFirst(int[] order, int[][] columns) {
+        int[] buffer = new int[order.length];
+        int[] src = order;
+        int[] dst = buffer;
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int from = 0; from < order.length; from += 2 * width) {
+                int mid = Math.min(from + width, order.length);
+                int to = Math.min(from + 2 * width, order.length);
+                int a = from;
+                int b = mid;
+                for (int k = from; k < to; k++) {
+                    if (b >= to || (a < mid && compare(src[a], src[b], columns) <= 0)) {
+                        dst[k] = src[a++];
+                    } else {
+                        dst[k] = src[b++];
+                    }
+                }
+            }
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if (src != order) {
+            System.arraycopy(src, 0, order, 0, order.length);
+        }
+    }
+
+    // Negative if row a sorts first, i.e. is lexicographically greater
+    private static int compare(int a, int b, int[][] columns) {
+        for (int[] column : columns) {
+            int c = Integer.compare(column[b], column[a]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+}
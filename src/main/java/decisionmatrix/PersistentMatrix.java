@@ -0,0 +1,446 @@
+package decisionmatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Immutable snapshot of a decision matrix: criteria with weights, option names and every
+// cell (ranges included). Every with...() returns a new snapshot and leaves this one as is.
+//
+// Columns are split into CHUNK-row chunks behind a small spine array, and a new version
+// copies only the spine and the chunks it changes; everything else is shared with the
+// version it came from. A cell edit therefore costs one chunk plus one spine per column
+// touched, not a copy of the matrix, which keeps unlimited undo and many what-if branches
+// cheap. Because unchanged chunks are the same objects, diff() can skip them by reference
+// and only compare cells inside chunks that actually differ.
+//
+//   scores[i][row >> CHUNK_BITS][row & CHUNK_MASK]   criterion i, null column/chunk = all 0
+//   lows[i], highs[i]                                range bounds, null column/chunk = no ranges
+public final class PersistentMatrix implements MatrixCsv.Rows {
+    static final int CHUNK_BITS = 9;
+    static final int CHUNK = 1 << CHUNK_BITS;
+    static final int CHUNK_MASK = CHUNK - 1;
+
+    public static final PersistentMatrix EMPTY = new PersistentMatrix(0, new String[0], new int[0], new String[0][],
+                                                                      new int[0][][], new int[0][][], new int[0][][]);
+
+    private final int rows;
+    private final String[] criterionNames; // per criterion, copied on change (there are few)
+    private final int[] weights;
+    private final String[][] names;
+    private final int[][][] scores;
+    private final int[][][] lows;
+    private final int[][][] highs;
+
+    private PersistentMatrix(int rows, String[] criterionNames, int[] weights, String[][] names,
+                             int[][][] scores, int[][][] lows, int[][][] highs) {
+        this.rows = rows;
+        this.criterionNames = criterionNames;
+        this.weights = weights;
+        this.names = names;
+        this.scores = scores;
+        this.lows = lows;
+        this.highs = highs;
+    }
+
+    // Snapshot of what the table shows now (weights come from the criteria list)
+    public static PersistentMatrix of(MatrixTableModel model, ArrayList<Criterion> criteria) {
+        PersistentMatrix matrix = EMPTY;
+        for (int i = 0; i < model.getCriterionCount(); i++) {
+            matrix = matrix.withCriterion(criteria.get(i).name, criteria.get(i).weight);
+        }
+        return matrix.withRowsFrom(model, 0, model.getRowCount());
+    }
+
+    // --- Reading ---
+
+    @Override
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getCriterionCount() {
+        return weights.length;
+    }
+
+    public String getCriterionName(int i) {
+        return criterionNames[i];
+    }
+
+    public int getWeight(int i) {
+        return weights[i];
+    }
+
+    @Override
+    public String getOptionName(int row) {
+        return names[row >> CHUNK_BITS][row & CHUNK_MASK];
+    }
+
+    public int getScore(int row, int i) {
+        return get(scores[i], row);
+    }
+
+    public boolean hasRange(int row, int i) {
+        return get(lows[i], row) < get(highs[i], row);
+    }
+
+    public int getRangeLow(int row, int i) {
+        return get(lows[i], row);
+    }
+
+    public int getRangeHigh(int row, int i) {
+        return get(highs[i], row);
+    }
+
+    @Override
+    public void appendCellText(StringBuilder out, int row, int i) {
+        if (hasRange(row, i)) {
+            out.append(MatrixTableModel.formatRange(getRangeLow(row, i), getScore(row, i), getRangeHigh(row, i)));
+        } else {
+            out.append(getScore(row, i));
+        }
+    }
+
+    // Criterion i as one contiguous array, for scoring
+    public int[] column(int i) {
+        return flatten(scores[i], 0, rows);
+    }
+
+    public ArrayList<Criterion> criteria() {
+        ArrayList<Criterion> criteria = new ArrayList<>(weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            criteria.add(new Criterion(criterionNames[i], weights[i]));
+        }
+        return criteria;
+    }
+
+    // Scores this snapshot and packages it like a GUI save
+    public DecisionResult toDecisionResult(String userName) {
+        int cols = weights.length;
+        int[][] columns = new int[cols][];
+        for (int i = 0; i < cols; i++) {
+            columns[i] = column(i);
+        }
+        int[] totals = new int[rows];
+        int[] ranked = DecisionEngine.scoreColumnsRanked(weights, columns, rows, cols, totals, DecisionEngine.DEFAULT_TOP_K);
+        ArrayList<OptionScore> optionScores = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            optionScores.add(new OptionScore(getOptionName(row), totals[row]));
+        }
+        ArrayList<OptionScore> ranking = new ArrayList<>(ranked.length);
+        for (int row : ranked) {
+            ranking.add(optionScores.get(row));
+        }
+        return new DecisionResult(userName, criteria(), optionScores, ranking);
+    }
+
+    // --- New versions ---
+
+    public PersistentMatrix withScore(int row, int i, int score) {
+        checkCell(row, i);
+        if (getScore(row, i) == score && !hasRange(row, i)) {
+            return this;
+        }
+        int[][][] newLows = lows;
+        int[][][] newHighs = highs;
+        if (hasRange(row, i)) {
+            newLows = with(lows, i, set(lows[i], row, 0));
+            newHighs = with(highs, i, set(highs[i], row, 0));
+        }
+        return new PersistentMatrix(rows, criterionNames, weights, names,
+                                    with(scores, i, set(scores[i], row, score)), newLows, newHighs);
+    }
+
+    public PersistentMatrix withRange(int row, int i, int low, int likely, int high) {
+        if (low >= high) {
+            return withScore(row, i, likely);
+        }
+        checkCell(row, i);
+        return new PersistentMatrix(rows, criterionNames, weights, names,
+                                    with(scores, i, set(scores[i], row, likely)),
+                                    with(lows, i, set(lows[i], row, low)),
+                                    with(highs, i, set(highs[i], row, high)));
+    }
+
+    public PersistentMatrix withOptionName(int row, String name) {
+        if (name.equals(getOptionName(row))) {
+            return this;
+        }
+        String[][] newNames = names.clone();
+        newNames[row >> CHUNK_BITS] = newNames[row >> CHUNK_BITS].clone();
+        newNames[row >> CHUNK_BITS][row & CHUNK_MASK] = name;
+        return new PersistentMatrix(rows, criterionNames, weights, newNames, scores, lows, highs);
+    }
+
+    public PersistentMatrix withCriterion(int i, String name, int weight) {
+        if (name.equals(criterionNames[i]) && weight == weights[i]) {
+            return this;
+        }
+        String[] newCriterionNames = criterionNames.clone();
+        int[] newWeights = weights.clone();
+        newCriterionNames[i] = name;
+        newWeights[i] = weight;
+        return new PersistentMatrix(rows, newCriterionNames, newWeights, names, scores, lows, highs);
+    }
+
+    // Appends an empty (all 0) criterion
+    public PersistentMatrix withCriterion(String name, int weight) {
+        int cols = weights.length;
+        String[] newCriterionNames = Arrays.copyOf(criterionNames, cols + 1);
+        int[] newWeights = Arrays.copyOf(weights, cols + 1);
+        newCriterionNames[cols] = name;
+        newWeights[cols] = weight;
+        return new PersistentMatrix(rows, newCriterionNames, newWeights, names,
+                                    Arrays.copyOf(scores, cols + 1), Arrays.copyOf(lows, cols + 1),
+                                    Arrays.copyOf(highs, cols + 1));
+    }
+
+    // Appends the model's rows [from, to); the model must have the same criteria count
+    public PersistentMatrix withRowsFrom(MatrixTableModel model, int from, int to) {
+        int cols = weights.length;
+        int newRows = rows + (to - from);
+        String[][] newNames = grow(names, newRows);
+        int[][][] newScores = scores.clone();
+        int[][][] newLows = lows.clone();
+        int[][][] newHighs = highs.clone();
+        for (int i = 0; i < cols; i++) {
+            newScores[i] = grow(newScores[i], newRows);
+            newLows[i] = grow(newLows[i], newRows);
+            newHighs[i] = grow(newHighs[i], newRows);
+        }
+        for (int r = from; r < to; r++) {
+            int row = rows + (r - from);
+            int chunk = row >> CHUNK_BITS;
+            newNames[chunk] = ownChunk(newNames[chunk], names, chunk);
+            newNames[chunk][row & CHUNK_MASK] = model.getOptionName(r);
+            for (int i = 0; i < cols; i++) {
+                int score = model.getScore(r, i);
+                if (score != 0) {
+                    newScores[i] = spine(newScores[i], newRows);
+                    newScores[i][chunk] = ownChunk(newScores[i][chunk], scores[i], chunk);
+                    newScores[i][chunk][row & CHUNK_MASK] = score;
+                }
+                if (model.hasRange(r, i)) {
+                    newLows[i] = spine(newLows[i], newRows);
+                    newHighs[i] = spine(newHighs[i], newRows);
+                    newLows[i][chunk] = ownChunk(newLows[i][chunk], lows[i], chunk);
+                    newHighs[i][chunk] = ownChunk(newHighs[i][chunk], highs[i], chunk);
+                    newLows[i][chunk][row & CHUNK_MASK] = model.getRangeLowColumn(i)[r];
+                    newHighs[i][chunk][row & CHUNK_MASK] = model.getRangeHighColumn(i)[r];
+                }
+            }
+        }
+        return new PersistentMatrix(newRows, criterionNames, weights, newNames, newScores, newLows, newHighs);
+    }
+
+    // Keeps the first rows options and cols criteria
+    public PersistentMatrix truncate(int newRows, int cols) {
+        if (newRows >= rows && cols >= weights.length) {
+            return this;
+        }
+        newRows = Math.min(newRows, rows);
+        cols = Math.min(cols, weights.length);
+        int chunks = chunkCount(newRows);
+        String[][] newNames = Arrays.copyOf(names, chunks);
+        int[][][] newScores = new int[cols][][];
+        int[][][] newLows = new int[cols][][];
+        int[][][] newHighs = new int[cols][][];
+        for (int i = 0; i < cols; i++) {
+            newScores[i] = scores[i] == null ? null : Arrays.copyOf(scores[i], chunks);
+            newLows[i] = lows[i] == null ? null : Arrays.copyOf(lows[i], chunks);
+            newHighs[i] = highs[i] == null ? null : Arrays.copyOf(highs[i], chunks);
+        }
+        // The last kept chunk may hold rows past the end; clear them so a later append starts from 0
+        int tail = newRows & CHUNK_MASK;
+        if (tail != 0) {
+            int last = chunks - 1;
+            newNames[last] = Arrays.copyOf(newNames[last], CHUNK);
+            Arrays.fill(newNames[last], tail, CHUNK, null);
+            for (int i = 0; i < cols; i++) {
+                clearTail(newScores[i], last, tail);
+                clearTail(newLows[i], last, tail);
+                clearTail(newHighs[i], last, tail);
+            }
+        }
+        return new PersistentMatrix(newRows, Arrays.copyOf(criterionNames, cols), Arrays.copyOf(weights, cols),
+                                    newNames, newScores, newLows, newHighs);
+    }
+
+    // --- Diff ---
+
+    // Changes that turn one snapshot into another, in the order they should be applied
+    public interface DiffVisitor {
+        // Drop trailing criteria and/or options (only called when the target has fewer)
+        void truncate(int rows, int criteria);
+
+        // Criterion i was renamed or reweighted, or is new if i >= the current criterion count
+        void criterion(int i, String name, int weight);
+
+        // Option row was renamed (row < current row count)
+        void optionName(int row, String name);
+
+        // Cell changed; low == high means a plain score
+        void cell(int row, int i, int low, int likely, int high);
+
+        // Options [from, to) of the target are new; read them from the target
+        void appendRows(PersistentMatrix target, int from, int to);
+    }
+
+    // Visits everything that differs from this snapshot to target and returns the number of
+    // changed cells. Shared chunks are skipped without looking at them.
+    public long diff(PersistentMatrix target, DiffVisitor visitor) {
+        int commonRows = Math.min(rows, target.rows);
+        int commonCols = Math.min(weights.length, target.weights.length);
+        if (target.rows < rows || target.weights.length < weights.length) {
+            visitor.truncate(commonRows, commonCols);
+        }
+        for (int i = 0; i < target.weights.length; i++) {
+            if (i >= commonCols || !criterionNames[i].equals(target.criterionNames[i]) || weights[i] != target.weights[i]) {
+                visitor.criterion(i, target.criterionNames[i], target.weights[i]);
+            }
+        }
+
+        long changed = 0;
+        for (int chunk = 0; chunk < chunkCount(commonRows); chunk++) {
+            if (names[chunk] == target.names[chunk]) {
+                continue;
+            }
+            int end = Math.min(commonRows, (chunk + 1) << CHUNK_BITS);
+            for (int row = chunk << CHUNK_BITS; row < end; row++) {
+                if (!getOptionName(row).equals(target.getOptionName(row))) {
+                    visitor.optionName(row, target.getOptionName(row));
+                }
+            }
+        }
+        for (int i = 0; i < target.weights.length; i++) {
+            boolean existing = i < commonCols;
+            for (int chunk = 0; chunk < chunkCount(commonRows); chunk++) {
+                if (existing && chunk(scores[i], chunk) == chunk(target.scores[i], chunk)
+                        && chunk(lows[i], chunk) == chunk(target.lows[i], chunk)
+                        && chunk(highs[i], chunk) == chunk(target.highs[i], chunk)) {
+                    continue;
+                }
+                int end = Math.min(commonRows, (chunk + 1) << CHUNK_BITS);
+                for (int row = chunk << CHUNK_BITS; row < end; row++) {
+                    int likely = target.getScore(row, i);
+                    int low = target.getRangeLow(row, i);
+                    int high = target.getRangeHigh(row, i);
+                    if (low >= high) {
+                        low = likely;
+                        high = likely;
+                    }
+                    boolean same = existing ? getScore(row, i) == likely && hasRange(row, i) == (low < high)
+                                              && (low == high || (getRangeLow(row, i) == low && getRangeHigh(row, i) == high))
+                                            : likely == 0 && low == high; // a new criterion starts at 0
+                    if (!same) {
+                        visitor.cell(row, i, low, likely, high);
+                        changed++;
+                    }
+                }
+            }
+        }
+        if (target.rows > commonRows) {
+            visitor.appendRows(target, commonRows, target.rows);
+            changed += (long) (target.rows - commonRows) * target.weights.length;
+        }
+        return changed;
+    }
+
+    // --- Chunk helpers ---
+
+    private void checkCell(int row, int i) {
+        if (row < 0 || row >= rows || i < 0 || i >= weights.length) {
+            throw new IndexOutOfBoundsException("Cell " + row + "," + i + " of " + rows + "x" + weights.length);
+        }
+    }
+
+    private static int chunkCount(int rows) {
+        return (rows + CHUNK_MASK) >> CHUNK_BITS;
+    }
+
+    private static int[] chunk(int[][] column, int chunk) {
+        return column == null || chunk >= column.length ? null : column[chunk];
+    }
+
+    private static int get(int[][] column, int row) {
+        int[] chunk = chunk(column, row >> CHUNK_BITS);
+        return chunk == null ? 0 : chunk[row & CHUNK_MASK];
+    }
+
+    // Copy of column with one cell changed: a new spine and a new chunk, the rest shared
+    private int[][] set(int[][] column, int row, int value) {
+        int[][] spine = column == null ? new int[chunkCount(rows)][] : column.clone();
+        int c = row >> CHUNK_BITS;
+        spine[c] = spine[c] == null ? new int[CHUNK] : spine[c].clone();
+        spine[c][row & CHUNK_MASK] = value;
+        return spine;
+    }
+
+    private static int[][][] with(int[][][] columns, int i, int[][] column) {
+        int[][][] copy = columns.clone();
+        copy[i] = column;
+        return copy;
+    }
+
+    private static int[][] grow(int[][] column, int rows) {
+        return column == null ? null : Arrays.copyOf(column, chunkCount(rows));
+    }
+
+    private static int[][] spine(int[][] column, int rows) {
+        return column == null ? new int[chunkCount(rows)][] : column;
+    }
+
+    private static String[][] grow(String[][] spine, int rows) {
+        return Arrays.copyOf(spine, chunkCount(rows));
+    }
+
+    // A chunk this version may write to: fresh if missing, copied if still shared with old
+    private static int[] ownChunk(int[] chunk, int[][] old, int c) {
+        if (chunk == null) {
+            return new int[CHUNK];
+        }
+        return chunk == chunk(old, c) ? chunk.clone() : chunk;
+    }
+
+    private static String[] ownChunk(String[] chunk, String[][] old, int c) {
+        if (chunk == null) {
+            return new String[CHUNK];
+        }
+        return c < old.length && chunk == old[c] ? chunk.clone() : chunk;
+    }
+
+    private static void clearTail(int[][] column, int last, int tail) {
+        if (column != null && column[last] != null) {
+            column[last] = Arrays.copyOf(column[last], CHUNK);
+            Arrays.fill(column[last], tail, CHUNK, 0);
+        }
+    }
+
+    private static int[] flatten(int[][] column, int from, int to) {
+        int[] flat = new int[to - from];
+        if (column == null) {
+            return flat;
+        }
+        for (int row = from; row < to; ) {
+            int c = row >> CHUNK_BITS;
+            int end = Math.min(to, (c + 1) << CHUNK_BITS);
+            if (c < column.length && column[c] != null) {
+                System.arraycopy(column[c], row & CHUNK_MASK, flat, row - from, end - row);
+            }
+            row = end;
+        }
+        return flat;
+    }
+
+    // Rows [from, to) of criterion i as arrays for MatrixTableModel.addRows (null = all 0 / no ranges)
+    public int[] scoreSlice(int i, int from, int to) {
+        return scores[i] == null ? null : flatten(scores[i], from, to);
+    }
+
+    public int[] rangeLowSlice(int i, int from, int to) {
+        return lows[i] == null ? null : flatten(lows[i], from, to);
+    }
+
+    public int[] rangeHighSlice(int i, int from, int to) {
+        return highs[i] == null ? null : flatten(highs[i], from, to);
+    }
+}
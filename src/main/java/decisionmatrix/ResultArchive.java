@@ -0,0 +1,601 @@
+package decisionmatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Segmented archive for saved results, replacing one results/ file per decision.
+// Results are appended (in the usual text format) to the active segment,
+// segment-NNNNNN.txt, which rolls over once it reaches a size or age limit. Each
+// segment has an offset index (segment-NNNNNN.idx, one fixed-size entry per
+// result), so any result can be read back without scanning.
+//
+// Sealed segments are compressed in the background into segment-NNNNNN.txt.gz
+// (with segment-NNNNNN.zidx). The .gz file is a series of gzip members of about
+// BLOCK_BYTES each: zcat reads it as plain text, and the index points at the
+// member holding a result plus its offset inside it, so a read inflates one block.
+//
+// The plain files are only deleted after the compressed ones are complete and
+// renamed into place, and on open a segment is taken as compressed only if its
+// .zidx exists. An active segment is cut back to the last indexed result.
+//
+// One process owns the archive at a time (archive.lock); a second instance pointed
+// at the same directory fails to open it rather than interleaving segment writes.
+public class ResultArchive implements Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 16L << 20;
+    public static final long DEFAULT_SEGMENT_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final int BLOCK_BYTES = 256 << 10;
+    private static final int ENTRY_BYTES = 24; // long position, int offsetInBlock, int length, long epochMillis
+    private static final int MIGRATE_BATCH = 256;
+    private static final String LOCK_FILE = "archive.lock";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{6})\\.(txt|txt\\.gz|idx|zidx)");
+
+    private static class Segment {
+        final int number;
+        boolean compressed;
+        int records;
+        long bytes;          // uncompressed size
+        long firstMillis;    // date of the first result, for age-based rolling
+
+        Segment(int number) {
+            this.number = number;
+        }
+    }
+
+    // Called for each archived result, in save order
+    public interface ResultVisitor {
+        void visit(byte[] text, long epochMillis) throws IOException;
+    }
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final long maxSegmentMillis;
+    private final HistoryLog.FsyncPolicy fsyncPolicy;
+    private final ArrayList<Segment> segments = new ArrayList<>();
+    private final ExecutorService compressor;
+    private final FileChannel lockChannel; // holds the owner lock until close()
+    private FileChannel activeData;
+    private FileChannel activeIndex;
+    private long bytesWritten; // data and index bytes appended since open
+
+    private ResultArchive(Path dir, long maxSegmentBytes, long maxSegmentMillis, HistoryLog.FsyncPolicy fsyncPolicy,
+                          FileChannel lockChannel) {
+        this.dir = dir;
+        this.lockChannel = lockChannel;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentMillis = maxSegmentMillis;
+        this.fsyncPolicy = fsyncPolicy;
+        compressor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "results-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ResultArchive open(Path dir, long maxSegmentBytes, long maxSegmentMillis,
+                                     HistoryLog.FsyncPolicy fsyncPolicy) throws IOException {
+        Files.createDirectories(dir);
+        FileChannel lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                                                   StandardOpenOption.WRITE);
+        ResultArchive archive;
+        try {
+            if (lockChannel.tryLock() == null) {
+                throw new IOException("Results archive " + dir + " is in use by another instance");
+            }
+            archive = new ResultArchive(dir, maxSegmentBytes, maxSegmentMillis, fsyncPolicy, lockChannel);
+            archive.recover();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    // --- Writing ---
+
+    // Appends each result's text and returns the segment file it went into, in order
+    public synchronized List<Path> appendAll(List<DecisionResult> results) throws IOException {
+        ArrayList<byte[]> texts = new ArrayList<>(results.size());
+        long[] millis = new long[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            texts.add(results.get(i).toFileFormat().getBytes(StandardCharsets.UTF_8));
+            millis[i] = HistoryIndex.epochMillis(results.get(i).timestamp);
+        }
+        return appendTexts(texts, millis);
+    }
+
+    private List<Path> appendTexts(List<byte[]> texts, long[] millis) throws IOException {
+        ArrayList<Path> paths = new ArrayList<>(texts.size());
+        int i = 0;
+        while (i < texts.size()) {
+            rollIfNeeded(texts.get(i).length, millis[i]);
+            Segment active = segments.get(segments.size() - 1);
+
+            // As many results as fit in the active segment go out in one data write and one index write
+            int end = i;
+            long bytes = active.bytes;
+            do {
+                bytes += texts.get(end).length;
+                end++;
+            } while (end < texts.size() && bytes + texts.get(end).length <= maxSegmentBytes);
+
+            ByteBuffer data = ByteBuffer.allocate((int) (bytes - active.bytes));
+            ByteBuffer entries = ByteBuffer.allocate((end - i) * ENTRY_BYTES);
+            long position = active.bytes;
+            for (int r = i; r < end; r++) {
+                byte[] text = texts.get(r);
+                entries.putLong(position).putInt(0).putInt(text.length).putLong(millis[r]);
+                data.put(text);
+                position += text.length;
+            }
+            data.flip();
+            entries.flip();
+            writeFully(activeData, data, active.bytes);
+            writeFully(activeIndex, entries, (long) active.records * ENTRY_BYTES);
+            if (fsyncPolicy == HistoryLog.FsyncPolicy.ALWAYS) {
+                activeData.force(false);
+                activeIndex.force(false);
+            }
+            if (active.records == 0) {
+                active.firstMillis = millis[i];
+            }
+            active.records += end - i;
+            bytesWritten += (position - active.bytes) + (long) (end - i) * ENTRY_BYTES;
+            active.bytes = position;
+            Path path = dataFile(active.number, false);
+            for (int r = i; r < end; r++) {
+                paths.add(path);
+            }
+            i = end;
+        }
+        return paths;
+    }
+
+    private void rollIfNeeded(int nextBytes, long nextMillis) throws IOException {
+        Segment active = activeData == null ? null : segments.get(segments.size() - 1);
+        if (active != null && active.records > 0
+                && (active.bytes + nextBytes > maxSegmentBytes || nextMillis - active.firstMillis > maxSegmentMillis)) {
+            sealActive();
+            active = null;
+        }
+        if (active == null) {
+            Segment segment = new Segment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1).number + 1);
+            segments.add(segment);
+            openActive(segment);
+        }
+    }
+
+    private void sealActive() throws IOException {
+        Segment sealed = segments.get(segments.size() - 1);
+        closeActive();
+        scheduleCompression(sealed);
+    }
+
+    // Moves results/*.txt files into the archive, oldest first, deleting each batch once it is
+    // on disk. Returns how many files were moved.
+    public int migrate(Path resultsDir) throws IOException {
+        if (!Files.isDirectory(resultsDir)) {
+            return 0;
+        }
+        ArrayList<Path> files = new ArrayList<>();
+        HashMap<Path, Long> dates = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(resultsDir, "*.txt")) {
+            for (Path file : stream) {
+                files.add(file);
+                dates.put(file, HistoryStore.readDateMillis(file));
+            }
+        }
+        files.sort(Comparator.comparingLong(dates::get));
+
+        int moved = 0;
+        for (int start = 0; start < files.size(); start += MIGRATE_BATCH) {
+            List<Path> batch = files.subList(start, Math.min(files.size(), start + MIGRATE_BATCH));
+            ArrayList<byte[]> texts = new ArrayList<>(batch.size());
+            long[] millis = new long[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                texts.add(Files.readAllBytes(batch.get(i)));
+                millis[i] = dates.get(batch.get(i));
+            }
+            synchronized (this) {
+                appendTexts(texts, millis);
+                activeData.force(false);
+                activeIndex.force(false);
+            }
+            for (Path file : batch) {
+                Files.delete(file);
+            }
+            moved += batch.size();
+        }
+        return moved;
+    }
+
+    // --- Reading ---
+
+    public synchronized long getResultCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.records;
+        }
+        return count;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    // Text of the n-th result (0-based, save order)
+    public synchronized byte[] read(long n) throws IOException {
+        for (Segment segment : segments) {
+            if (n < segment.records) {
+                return readRecord(segment, (int) n);
+            }
+            n -= segment.records;
+        }
+        throw new IndexOutOfBoundsException("No archived result " + n);
+    }
+
+    // Visits every archived result in save order. Holds the archive lock one segment at a
+    // time, so a background compression cannot swap files out mid-segment.
+    public void scan(ResultVisitor visitor) throws IOException {
+        for (int s = 0; ; s++) {
+            synchronized (this) {
+                if (s >= segments.size()) {
+                    return;
+                }
+                scanSegment(segments.get(s), visitor);
+            }
+        }
+    }
+
+    private void scanSegment(Segment segment, ResultVisitor visitor) throws IOException {
+        ByteBuffer entries = ByteBuffer.wrap(readIndex(segment));
+        if (!segment.compressed) {
+            try (FileChannel data = FileChannel.open(dataFile(segment.number, false), StandardOpenOption.READ)) {
+                while (entries.remaining() >= ENTRY_BYTES) {
+                    long position = entries.getLong();
+                    entries.getInt();
+                    byte[] text = new byte[entries.getInt()];
+                    long millis = entries.getLong();
+                    readFully(data, ByteBuffer.wrap(text), position);
+                    visitor.visit(text, millis);
+                }
+            }
+        } else {
+            // Records are stored in order, so one pass through the concatenated members reads them all
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(dataFile(segment.number, true)), 1 << 16)) {
+                while (entries.remaining() >= ENTRY_BYTES) {
+                    entries.getLong();
+                    entries.getInt();
+                    byte[] text = in.readNBytes(entries.getInt());
+                    visitor.visit(text, entries.getLong());
+                }
+            }
+        }
+    }
+
+    private byte[] readRecord(Segment segment, int record) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+        try (FileChannel index = FileChannel.open(indexFile(segment), StandardOpenOption.READ)) {
+            readFully(index, entry, (long) record * ENTRY_BYTES);
+        }
+        entry.flip();
+        long position = entry.getLong();
+        int offsetInBlock = entry.getInt();
+        byte[] text = new byte[entry.getInt()];
+        try (FileChannel data = FileChannel.open(dataFile(segment.number, segment.compressed), StandardOpenOption.READ)) {
+            if (!segment.compressed) {
+                readFully(data, ByteBuffer.wrap(text), position);
+                return text;
+            }
+            data.position(position);
+            InputStream in = new GZIPInputStream(Channels.newInputStream(data));
+            in.skipNBytes(offsetInBlock);
+            if (in.readNBytes(text, 0, text.length) != text.length) {
+                throw new IOException("Archived result cut short in " + dataFile(segment.number, true));
+            }
+            return text;
+        }
+    }
+
+    private byte[] readIndex(Segment segment) throws IOException {
+        return Files.readAllBytes(indexFile(segment));
+    }
+
+    // --- Compression ---
+
+    private void scheduleCompression(Segment segment) {
+        compressor.execute(() -> {
+            try {
+                compress(segment);
+            } catch (IOException e) {
+                System.err.println("[ERROR] Failed to compress results segment " + segment.number + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Runs on the compressor thread. The sealed segment is never written again, so only
+    // the final swap needs the archive lock.
+    private void compress(Segment segment) throws IOException {
+        Path plainData = dataFile(segment.number, false);
+        Path plainIndex = dir.resolve(name(segment.number, "idx"));
+        Path gzData = dataFile(segment.number, true);
+        Path gzIndex = dir.resolve(name(segment.number, "zidx"));
+        Path tmpData = gzData.resolveSibling(gzData.getFileName() + ".tmp");
+        Path tmpIndex = gzIndex.resolveSibling(gzIndex.getFileName() + ".tmp");
+
+        ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(plainIndex));
+        ByteBuffer newEntries = ByteBuffer.allocate(entries.capacity());
+        try (FileChannel in = FileChannel.open(plainData, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmpData, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream file = Channels.newOutputStream(out);
+            ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_BYTES + 4096);
+            long blockStart = 0;
+            while (entries.remaining() >= ENTRY_BYTES) {
+                long position = entries.getLong();
+                entries.getInt();
+                int length = entries.getInt();
+                long millis = entries.getLong();
+                if (block.size() > 0 && block.size() + length > BLOCK_BYTES) {
+                    blockStart += writeMember(file, block);
+                }
+                newEntries.putLong(blockStart).putInt(block.size()).putInt(length).putLong(millis);
+                byte[] text = new byte[length];
+                readFully(in, ByteBuffer.wrap(text), position);
+                block.write(text);
+            }
+            if (block.size() > 0) {
+                writeMember(file, block);
+            }
+            out.force(true);
+        }
+        newEntries.flip();
+        try (FileChannel out = FileChannel.open(tmpIndex, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, newEntries, 0);
+            out.force(true);
+        }
+
+        synchronized (this) {
+            Files.move(tmpData, gzData, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tmpIndex, gzIndex, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            segment.compressed = true;
+            Files.deleteIfExists(plainData);
+            Files.deleteIfExists(plainIndex);
+        }
+    }
+
+    // Writes the block as one gzip member and empties it; returns the compressed size
+    private static long writeMember(OutputStream file, ByteArrayOutputStream block) throws IOException {
+        CountingStream counted = new CountingStream(file);
+        GZIPOutputStream gzip = new GZIPOutputStream(counted, 1 << 16);
+        block.writeTo(gzip);
+        gzip.finish();
+        gzip.flush();
+        block.reset();
+        return counted.count;
+    }
+
+    // Counts bytes and does not close the file underneath when the gzip stream finishes
+    private static class CountingStream extends FilterOutputStream {
+        long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    // Waits for the compressions queued so far
+    public void awaitCompression() throws InterruptedException {
+        try {
+            compressor.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // --- Open / close ---
+
+    private void recover() throws IOException {
+        HashMap<Integer, Segment> found = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file); // Unfinished compression
+                    continue;
+                }
+                Matcher m = SEGMENT_FILE.matcher(name);
+                if (m.matches()) {
+                    found.computeIfAbsent(Integer.parseInt(m.group(1)), Segment::new);
+                }
+            }
+        }
+        ArrayList<Segment> ordered = new ArrayList<>(found.values());
+        ordered.sort(Comparator.comparingInt(s -> s.number));
+
+        for (Segment segment : ordered) {
+            Path gzIndex = dir.resolve(name(segment.number, "zidx"));
+            Path plainIndex = dir.resolve(name(segment.number, "idx"));
+            if (Files.exists(gzIndex)) {
+                // Compression finished; plain files may be left over from a crash just after
+                segment.compressed = true;
+                Files.deleteIfExists(dataFile(segment.number, false));
+                Files.deleteIfExists(plainIndex);
+            } else {
+                Files.deleteIfExists(dataFile(segment.number, true));
+                if (!Files.exists(plainIndex) || !Files.exists(dataFile(segment.number, false))) {
+                    Files.deleteIfExists(plainIndex);
+                    Files.deleteIfExists(dataFile(segment.number, false));
+                    continue;
+                }
+            }
+            loadStats(segment);
+            segments.add(segment);
+        }
+
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+            for (Segment segment : segments) {
+                if (!segment.compressed && segment != last) {
+                    scheduleCompression(segment); // Sealed before a restart
+                }
+            }
+            if (!last.compressed) {
+                openActive(last);
+            }
+        }
+    }
+
+    // Reads record count, size and first date from the index, cutting off a torn tail
+    private void loadStats(Segment segment) throws IOException {
+        Path indexPath = indexFile(segment);
+        long indexSize = Files.size(indexPath);
+        int records = (int) (indexSize / ENTRY_BYTES);
+        if (!segment.compressed) {
+            try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                index.truncate((long) records * ENTRY_BYTES);
+                long end = 0;
+                if (records > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(ENTRY_BYTES);
+                    readFully(index, last, (long) (records - 1) * ENTRY_BYTES);
+                    last.flip();
+                    end = last.getLong() + last.getInt(12);
+                }
+                try (FileChannel data = FileChannel.open(dataFile(segment.number, false), StandardOpenOption.WRITE)) {
+                    if (data.size() > end) {
+                        data.truncate(end); // Text written but never indexed
+                    }
+                }
+                segment.bytes = end;
+            }
+        } else {
+            for (ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(indexPath)); entries.remaining() >= ENTRY_BYTES; ) {
+                entries.getLong();
+                entries.getInt();
+                segment.bytes += entries.getInt();
+                entries.getLong();
+            }
+        }
+        segment.records = records;
+        if (records > 0) {
+            ByteBuffer first = ByteBuffer.allocate(ENTRY_BYTES);
+            try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                readFully(index, first, 0);
+            }
+            segment.firstMillis = first.getLong(16);
+        }
+    }
+
+    private void openActive(Segment segment) throws IOException {
+        activeData = FileChannel.open(dataFile(segment.number, false), StandardOpenOption.CREATE,
+                                      StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeIndex = FileChannel.open(dir.resolve(name(segment.number, "idx")), StandardOpenOption.CREATE,
+                                       StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void closeActive() throws IOException {
+        if (activeData == null) {
+            return;
+        }
+        try {
+            activeData.force(false);
+            activeIndex.force(false);
+        } finally {
+            activeData.close();
+            activeIndex.close();
+            activeData = null;
+            activeIndex = null;
+        }
+    }
+
+    // Flushes the active segment and lets running compressions finish (waits up to 30 s)
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closeActive();
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    // --- Files ---
+
+    private static String name(int number, String extension) {
+        return String.format("segment-%06d.%s", number, extension);
+    }
+
+    private Path dataFile(int number, boolean compressed) {
+        return dir.resolve(name(number, compressed ? "txt.gz" : "txt"));
+    }
+
+    private Path indexFile(Segment segment) {
+        return dir.resolve(name(segment.number, segment.compressed ? "zidx" : "idx"));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of results segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
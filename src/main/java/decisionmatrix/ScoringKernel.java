@@ -0,0 +1,85 @@
+package decisionmatrix;
+
+import java.util.Arrays;
+
+// Inner loops of DecisionEngine over column-major scores (columns[col][row]).
+// DecisionEngine picks VectorScoringKernel when the JVM was started with
+// --add-modules jdk.incubator.vector, and Scalar otherwise; both give identical results
+// for the integer sums (the double sums may differ in the last bits from FMA rounding).
+// A null column or a zero weight/scale contributes nothing.
+public interface ScoringKernel {
+    // totals[row] = sum over col of columns[col][row] * weights[col], for rows [from, to)
+    void sumColumns(int[] weights, int[][] columns, int cols, int[] totals, int from, int to);
+
+    // totals[row] = offset + sum over col of columns[col][row] * scales[col], for rows [from, to)
+    void scaledSum(double[] scales, int[][] columns, int cols, double offset, double[] totals, int from, int to);
+
+    // {min, max} of column[0, rows); rows must be > 0
+    int[] range(int[] column, int rows);
+
+    // Sum of squares of column[0, rows)
+    double sumOfSquares(int[] column, int rows);
+
+    String name();
+
+    // Plain Java; C2 auto-vectorizes the column loops where it can
+    class Scalar implements ScoringKernel {
+        @Override
+        public void sumColumns(int[] weights, int[][] columns, int cols, int[] totals, int from, int to) {
+            // Column at a time so the inner loop runs over one contiguous array
+            Arrays.fill(totals, from, to, 0);
+            for (int col = 0; col < cols; col++) {
+                int[] column = columns[col];
+                int weight = weights[col];
+                if (column == null || weight == 0) {
+                    continue;
+                }
+                for (int row = from; row < to; row++) {
+                    totals[row] += column[row] * weight;
+                }
+            }
+        }
+
+        @Override
+        public void scaledSum(double[] scales, int[][] columns, int cols, double offset, double[] totals,
+                              int from, int to) {
+            Arrays.fill(totals, from, to, offset);
+            for (int col = 0; col < cols; col++) {
+                int[] column = columns[col];
+                double scale = scales[col];
+                if (column == null || scale == 0) {
+                    continue;
+                }
+                for (int row = from; row < to; row++) {
+                    totals[row] += column[row] * scale;
+                }
+            }
+        }
+
+        @Override
+        public int[] range(int[] column, int rows) {
+            int min = column[0];
+            int max = column[0];
+            for (int row = 1; row < rows; row++) {
+                min = Math.min(min, column[row]);
+                max = Math.max(max, column[row]);
+            }
+            return new int[] {min, max};
+        }
+
+        @Override
+        public double sumOfSquares(int[] column, int rows) {
+            double sum = 0;
+            for (int row = 0; row < rows; row++) {
+                double x = column[row];
+                sum += x * x;
+            }
+            return sum;
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package decisionmatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Weight sensitivity of a scored matrix.
+// For each criterion it finds how far that one weight can move before another
+// option overtakes the winner (rank reversal), and how much the winner's share
+// of all points swings across the 1-10 weight range (the tornado ranking).
+//
+// Changing weight j by d moves every total by d * score[row][j], so a what-if is a
+// single pass over one column rather than a rescore. Column sums are computed once
+// so the share swing is O(1) per criterion. Criteria are analyzed in parallel.
+public class SensitivityAnalyzer {
+    public static final int MIN_WEIGHT = 1;
+    public static final int MAX_WEIGHT = 10;
+
+    // Result for one criterion
+    public static class CriterionSensitivity {
+        public int criterion;          // index into the weights/columns passed in
+        public int weight;
+        public double lowerThreshold;  // winner holds for weights above this (-Infinity: always)
+        public double upperThreshold;  // winner holds for weights below this (+Infinity: always)
+        public int lowerChallenger = -1; // row that takes over below lowerThreshold
+        public int upperChallenger = -1; // row that takes over above upperThreshold
+        public double shareAtMin;      // winner's share of all points at MIN_WEIGHT
+        public double shareAtMax;      // ... and at MAX_WEIGHT
+        public double influence;       // |shareAtMax - shareAtMin|, the tornado bar length
+
+        // True if some weight in the allowed 1-10 range changes the winner
+        public boolean canReverse() {
+            return lowerThreshold > MIN_WEIGHT || upperThreshold < MAX_WEIGHT;
+        }
+    }
+
+    // Analyzes the column-major matrix (null column = all zeros) and returns one entry per
+    // criterion, most influential first. Thresholds are relative to the current winner.
+    public static ArrayList<CriterionSensitivity> analyze(int[] weights, int[][] columns, int rows, int cols) {
+        int[] totals = new int[rows];
+        int winner = DecisionEngine.scoreColumns(weights, columns, rows, cols, totals);
+        return analyze(weights, columns, rows, cols, totals, winner);
+    }
+
+    // Same, reusing totals and winner from a scoring pass the caller already did
+    public static ArrayList<CriterionSensitivity> analyze(int[] weights, int[][] columns, int rows, int cols,
+                                                          int[] totals, int winner) {
+        ArrayList<CriterionSensitivity> results = new ArrayList<>();
+        if (winner < 0) {
+            return results;
+        }
+
+        long[] columnSums = new long[cols];
+        long grandTotal = 0;
+        for (int row = 0; row < rows; row++) {
+            grandTotal += totals[row];
+        }
+        for (int j = 0; j < cols; j++) {
+            int[] column = columns[j];
+            if (column != null) {
+                long sum = 0;
+                for (int row = 0; row < rows; row++) {
+                    sum += column[row];
+                }
+                columnSums[j] = sum;
+            }
+        }
+
+        CriterionSensitivity[] perCriterion = new CriterionSensitivity[cols];
+        long total = grandTotal;
+        IntStream.range(0, cols).parallel().forEach(j ->
+            perCriterion[j] = analyzeCriterion(j, weights[j], columns[j], rows, totals, winner, columnSums[j], total));
+
+        results.addAll(Arrays.asList(perCriterion));
+        results.sort((a, b) -> Double.compare(b.influence, a.influence));
+        return results;
+    }
+
+    private static CriterionSensitivity analyzeCriterion(int j, int weight, int[] column, int rows, int[] totals,
+                                                         int winner, long columnSum, long grandTotal) {
+        CriterionSensitivity s = new CriterionSensitivity();
+        s.criterion = j;
+        s.weight = weight;
+
+        // Totals move linearly: total_i(d) = totals[i] + d * column[i].
+        // Option i passes the winner at d = (totals[w] - totals[i]) / (column[i] - column[w]).
+        double up = Double.POSITIVE_INFINITY;
+        double down = Double.NEGATIVE_INFINITY;
+        int winnerScore = column == null ? 0 : column[winner];
+        if (column != null) {
+            long winnerTotal = totals[winner];
+            for (int row = 0; row < rows; row++) {
+                int slope = column[row] - winnerScore;
+                if (slope == 0 || row == winner) {
+                    continue;
+                }
+                double crossing = (double) (winnerTotal - totals[row]) / slope;
+                if (slope > 0 && crossing < up) {
+                    up = crossing;
+                    s.upperChallenger = row;
+                } else if (slope < 0 && crossing > down) {
+                    down = crossing;
+                    s.lowerChallenger = row;
+                }
+            }
+        }
+        s.upperThreshold = weight + up;
+        s.lowerThreshold = weight + down;
+
+        // Winner's share of all points as this weight runs from MIN_WEIGHT to MAX_WEIGHT
+        s.shareAtMin = share(totals[winner], winnerScore, grandTotal, columnSum, MIN_WEIGHT - weight);
+        s.shareAtMax = share(totals[winner], winnerScore, grandTotal, columnSum, MAX_WEIGHT - weight);
+        s.influence = Math.abs(s.shareAtMax - s.shareAtMin);
+        return s;
+    }
+
+    private static double share(long winnerTotal, int winnerScore, long grandTotal, long columnSum, int delta) {
+        double all = grandTotal + (double) delta * columnSum;
+        return all == 0 ? 0 : (winnerTotal + (double) delta * winnerScore) / all;
+    }
+}
@@ -0,0 +1,93 @@
+package decisionmatrix;
+
+import java.awt.*;
+import java.util.ArrayList;
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+
+// "Sensitivity" dialog. One row per criterion, most influential first: the weight
+// range over which the current winner holds, who takes over outside it, and a
+// tornado bar for how much the winner's share of points swings across weights 1-10.
+public class SensitivityDialog extends JDialog {
+    private static final String[] COLUMNS = {"Criterion", "Weight", "Winner holds for weights", "Below that", "Above that", "Influence"};
+
+    public SensitivityDialog(Frame owner, MatrixTableModel model, ArrayList<Criterion> criteria,
+                             int winnerRow, ArrayList<SensitivityAnalyzer.CriterionSensitivity> results) {
+        super(owner, "Sensitivity Analysis", true);
+        setLayout(new BorderLayout(5, 5));
+
+        double maxInfluence = results.isEmpty() ? 0 : results.get(0).influence;
+        int reversible = 0;
+        DefaultTableModel rows = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (SensitivityAnalyzer.CriterionSensitivity s : results) {
+            if (s.canReverse()) {
+                reversible++;
+            }
+            rows.addRow(new Object[] {
+                criteria.get(s.criterion).name,
+                s.weight,
+                range(s),
+                s.lowerChallenger < 0 ? "-" : model.getOptionName(s.lowerChallenger),
+                s.upperChallenger < 0 ? "-" : model.getOptionName(s.upperChallenger),
+                maxInfluence == 0 ? 0.0 : s.influence / maxInfluence
+            });
+        }
+
+        JLabel summary = new JLabel("Winner: " + model.getOptionName(winnerRow) + "   |   "
+                                    + reversible + " of " + results.size()
+                                    + " criteria can change the winner within weights "
+                                    + SensitivityAnalyzer.MIN_WEIGHT + "-" + SensitivityAnalyzer.MAX_WEIGHT);
+        summary.setBorder(BorderFactory.createEmptyBorder(5, 5, 0, 5));
+        add(summary, BorderLayout.NORTH);
+
+        JTable table = new JTable(rows);
+        table.setRowHeight(24);
+        table.getColumnModel().getColumn(5).setCellRenderer(new TornadoBarRenderer());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton closeBtn = new JButton("Close");
+        closeBtn.addActionListener(e -> dispose());
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(closeBtn);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        setSize(800, 450);
+        setLocationRelativeTo(owner);
+    }
+
+    private static String range(SensitivityAnalyzer.CriterionSensitivity s) {
+        String low = Double.isInfinite(s.lowerThreshold) ? "any" : String.format("%.2f", s.lowerThreshold);
+        String high = Double.isInfinite(s.upperThreshold) ? "any" : String.format("%.2f", s.upperThreshold);
+        if (Double.isInfinite(s.lowerThreshold) && Double.isInfinite(s.upperThreshold)) {
+            return "all";
+        }
+        return low + " to " + high;
+    }
+
+    // Draws the relative influence (0-1) as a horizontal bar
+    private static class TornadoBarRenderer extends DefaultTableCellRenderer {
+        private double fraction;
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean selected,
+                                                       boolean focused, int row, int column) {
+            super.getTableCellRendererComponent(table, "", selected, focused, row, column);
+            fraction = value instanceof Double ? (Double) value : 0;
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            int width = (int) Math.round((getWidth() - 4) * fraction);
+            g.setColor(new Color(70, 130, 180));
+            g.fillRect(2, 4, width, getHeight() - 8);
+        }
+    }
+}
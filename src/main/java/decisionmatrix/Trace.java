@@ -0,0 +1,125 @@
+package decisionmatrix;
+
+// Level-gated diagnostics on stderr: -Ddecision.trace=off|info|debug (default info).
+// Messages are templates with {} placeholders and fixed-arity arguments, so a call
+// below the current level is one int compare: nothing is concatenated, boxed or
+// formatted unless the line is actually printed.
+public final class Trace {
+    public static final int OFF = 0;
+    public static final int INFO = 1;
+    public static final int DEBUG = 2;
+
+    private static volatile int level = parseLevel(System.getProperty("decision.trace", "info"));
+
+    private Trace() {
+    }
+
+    public static boolean isEnabled(int messageLevel) {
+        return messageLevel <= level;
+    }
+
+    public static void setLevel(int newLevel) {
+        level = newLevel;
+    }
+
+    static int parseLevel(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "off":
+                return OFF;
+            case "debug":
+                return DEBUG;
+            default:
+                return INFO;
+        }
+    }
+
+    // --- INFO ---
+
+    public static void info(String message) {
+        if (level >= INFO) {
+            print(start("INFO", message).append(message));
+        }
+    }
+
+    public static void info(String template, Object a) {
+        if (level >= INFO) {
+            StringBuilder line = start("INFO", template);
+            int next = upToPlaceholder(line, template, 0);
+            line.append(a);
+            print(rest(line, template, next));
+        }
+    }
+
+    // --- DEBUG ---
+
+    public static void debug(String message) {
+        if (level >= DEBUG) {
+            print(start("DEBUG", message).append(message));
+        }
+    }
+
+    public static void debug(String template, Object a) {
+        if (level >= DEBUG) {
+            StringBuilder line = start("DEBUG", template);
+            int next = upToPlaceholder(line, template, 0);
+            line.append(a);
+            print(rest(line, template, next));
+        }
+    }
+
+    public static void debug(String template, Object a, Object b) {
+        if (level >= DEBUG) {
+            StringBuilder line = start("DEBUG", template);
+            int next = upToPlaceholder(line, template, 0);
+            line.append(a);
+            next = upToPlaceholder(line, template, next);
+            line.append(b);
+            print(rest(line, template, next));
+        }
+    }
+
+    public static void debug(String template, long a) {
+        if (level >= DEBUG) {
+            StringBuilder line = start("DEBUG", template);
+            int next = upToPlaceholder(line, template, 0);
+            line.append(a);
+            print(rest(line, template, next));
+        }
+    }
+
+    public static void debug(String template, long a, long b) {
+        if (level >= DEBUG) {
+            StringBuilder line = start("DEBUG", template);
+            int next = upToPlaceholder(line, template, 0);
+            line.append(a);
+            next = upToPlaceholder(line, template, next);
+            line.append(b);
+            print(rest(line, template, next));
+        }
+    }
+
+    // --- Formatting (only reached for enabled lines) ---
+
+    private static StringBuilder start(String label, String template) {
+        return new StringBuilder(template.length() + label.length() + 24).append('[').append(label).append("] ");
+    }
+
+    // Copies template text from 'from' up to the next {} and returns the index after it
+    private static int upToPlaceholder(StringBuilder line, String template, int from) {
+        int at = template.indexOf("{}", from);
+        if (at < 0) {
+            line.append(template, from, template.length()).append(' ');
+            return template.length();
+        }
+        line.append(template, from, at);
+        return at + 2;
+    }
+
+    private static StringBuilder rest(StringBuilder line, String template, int from) {
+        return line.append(template, from, template.length());
+    }
+
+    private static void print(StringBuilder line) {
+        System.err.println(line);
+    }
+}
@@ -0,0 +1,113 @@
+package decisionmatrix;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// ScoringKernel on the incubating Vector API (AVX2 / AVX-512 on x86, NEON on ARM).
+// Only loaded by DecisionEngine when jdk.incubator.vector is in the boot layer, so
+// nothing else in the app links against it.
+//
+// The integer weighted sum is inherited: C2 already compiles Scalar's column loop to
+// full-width SIMD, and explicit vectors measured no faster (VectorKernelBenchmark).
+// What C2 does not vectorize is int-to-double work and min/max reductions, so those
+// are done here. scaledSum runs row-block-outer: a vector of totals stays in a register
+// while up to COLUMN_GROUP columns are converted and FMA'd into it, then is stored once.
+public class VectorScoringKernel extends ScoringKernel.Scalar {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // Ints with the same lane count as DOUBLES, for I2D conversion in one step
+    private static final VectorSpecies<Integer> INTS_FOR_DOUBLES =
+        VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    // Columns read per pass over a row block; more would mean more concurrent memory streams
+    private static final int COLUMN_GROUP = 8;
+
+    @Override
+    public void scaledSum(double[] scales, int[][] columns, int cols, double offset, double[] totals,
+                          int from, int to) {
+        int[][] used = new int[cols][];
+        double[] usedScales = new double[cols];
+        int active = 0;
+        for (int col = 0; col < cols; col++) {
+            if (columns[col] != null && scales[col] != 0) {
+                used[active] = columns[col];
+                usedScales[active++] = scales[col];
+            }
+        }
+
+        int lanes = DOUBLES.length();
+        int bound = from + DOUBLES.loopBound(to - from);
+        int group = 0;
+        do {
+            int groupEnd = Math.min(active, group + COLUMN_GROUP);
+            int row = from;
+            for (; row < bound; row += lanes) {
+                DoubleVector total = group == 0 ? DoubleVector.broadcast(DOUBLES, offset)
+                                                : DoubleVector.fromArray(DOUBLES, totals, row);
+                for (int c = group; c < groupEnd; c++) {
+                    DoubleVector x = (DoubleVector) IntVector.fromArray(INTS_FOR_DOUBLES, used[c], row)
+                                                             .convertShape(VectorOperators.I2D, DOUBLES, 0);
+                    total = x.fma(DoubleVector.broadcast(DOUBLES, usedScales[c]), total);
+                }
+                total.intoArray(totals, row);
+            }
+            for (; row < to; row++) {
+                double total = group == 0 ? offset : totals[row];
+                for (int c = group; c < groupEnd; c++) {
+                    total = Math.fma(used[c][row], usedScales[c], total);
+                }
+                totals[row] = total;
+            }
+            group = groupEnd;
+        } while (group < active);
+    }
+
+    @Override
+    public int[] range(int[] column, int rows) {
+        int row = 0;
+        int min = column[0];
+        int max = column[0];
+        int bound = INTS.loopBound(rows);
+        if (bound > 0) {
+            IntVector mins = IntVector.fromArray(INTS, column, 0);
+            IntVector maxs = mins;
+            for (row = INTS.length(); row < bound; row += INTS.length()) {
+                IntVector v = IntVector.fromArray(INTS, column, row);
+                mins = mins.min(v);
+                maxs = maxs.max(v);
+            }
+            min = mins.reduceLanes(VectorOperators.MIN);
+            max = maxs.reduceLanes(VectorOperators.MAX);
+        }
+        for (; row < rows; row++) {
+            min = Math.min(min, column[row]);
+            max = Math.max(max, column[row]);
+        }
+        return new int[] {min, max};
+    }
+
+    @Override
+    public double sumOfSquares(int[] column, int rows) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int row = 0;
+        int bound = DOUBLES.loopBound(rows);
+        for (; row < bound; row += DOUBLES.length()) {
+            DoubleVector x = (DoubleVector) IntVector.fromArray(INTS_FOR_DOUBLES, column, row)
+                                                     .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            sums = x.fma(x, sums);
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; row < rows; row++) {
+            double x = column[row];
+            sum += x * x;
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + INTS.vectorBitSize() + "-bit)";
+    }
+}
@@ -0,0 +1,116 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AhpWeightsTest {
+
+    // Judgments a[i][j] = w[i] / w[j] for the given names
+    private static AhpWeights consistent(List<String> names, double... w) {
+        AhpWeights ahp = new AhpWeights(0);
+        ahp.match(names);
+        for (int i = 0; i < w.length; i++) {
+            for (int j = i + 1; j < w.length; j++) {
+                ahp.set(i, j, w[i] / w[j]);
+            }
+        }
+        return ahp;
+    }
+
+    @Test
+    void consistentJudgmentsGiveTheirWeightsBack() {
+        AhpWeights ahp = consistent(List.of("A", "B", "C", "D"), 4, 2, 1, 1);
+        assertArrayEquals(new double[] {0.5, 0.25, 0.125, 0.125}, ahp.solve(), 1e-9);
+        assertEquals(4, ahp.getLambdaMax(), 1e-9);
+        assertEquals(0, ahp.getConsistencyRatio(), 1e-9);
+        assertTrue(ahp.isConsistent());
+        assertEquals(1 / 4.0, ahp.get(2, 0), 1e-12); // Reciprocal filled in
+    }
+
+    @Test
+    void contradictionsRaiseTheConsistencyRatio() {
+        AhpWeights ahp = consistent(List.of("A", "B", "C"), 1, 1, 1);
+        ahp.set(0, 1, 9); // A >> B, B >> C, C >> A
+        ahp.set(1, 2, 9);
+        ahp.set(0, 2, 1.0 / 9);
+        ahp.solve();
+        assertTrue(ahp.getConsistencyRatio() > AhpWeights.CONSISTENCY_LIMIT);
+        assertFalse(ahp.isConsistent());
+        assertThrows(IllegalArgumentException.class, () -> ahp.set(0, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> ahp.set(0, 1, 10));
+    }
+
+    @Test
+    void warmStartAfterOneChangeBeatsAColdStart() {
+        int n = 200;
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = "C" + i;
+        }
+        AhpWeights warm = new AhpWeights(0);
+        AhpWeights cold = new AhpWeights(0);
+        warm.match(List.of(names));
+        cold.match(List.of(names));
+        Random random = new Random(5);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double judgment = (1 + i % 7) / (double) (1 + j % 7) * (0.8 + 0.4 * random.nextDouble());
+                judgment = Math.max(AhpWeights.MIN_JUDGMENT, Math.min(AhpWeights.MAX_JUDGMENT, judgment));
+                warm.set(i, j, judgment);
+                cold.set(i, j, judgment);
+            }
+        }
+        warm.solve();
+        warm.set(3, 4, 2);
+        cold.set(3, 4, 2);
+        double[] warmWeights = warm.solve();
+        double[] coldWeights = cold.solve();
+        assertArrayEquals(coldWeights, warmWeights, 1e-8);
+        assertTrue(warm.getIterations() < cold.getIterations(), warm.getIterations() + " vs " + cold.getIterations());
+    }
+
+    @Test
+    void judgmentsFollowTheirCriteriaByName() {
+        AhpWeights ahp = consistent(List.of("Cost", "Speed", "Size"), 6, 2, 1);
+
+        ahp.match(List.of("Size", "Cost")); // Speed removed, the others reordered
+        assertEquals("Size", ahp.getName(0));
+        assertEquals(1 / 6.0, ahp.get(0, 1), 1e-12);
+        assertArrayEquals(new double[] {1 / 7.0, 6 / 7.0}, ahp.solve(), 1e-9);
+
+        ahp.match(List.of("Cost", "Speed", "Size")); // Speed back (e.g. undo): no judgments left for it
+        assertEquals(6, ahp.get(0, 2), 1e-12);
+        assertEquals(1, ahp.get(0, 1), 1e-12);
+        assertEquals(1, ahp.get(1, 2), 1e-12);
+    }
+
+    @Test
+    void repeatedNamesPairUpInOrder() {
+        AhpWeights ahp = consistent(List.of("X", "X", "Y"), 3, 1, 1);
+        ahp.match(List.of("Y", "X", "X"));
+        assertEquals(1 / 3.0, ahp.get(0, 1), 1e-12); // Y vs the first X
+        assertEquals(3, ahp.get(1, 2), 1e-12);
+    }
+
+    @Test
+    void integerWeightsScaleTheLargestToTheMaximum() {
+        AhpWeights ahp = consistent(List.of("A", "B", "C", "D"), 8, 4, 1.4, 1);
+        ahp.solve();
+        // 1.4/8 is 1.75 of 10 and rounds to 2; 1/8 is 1.25 and rounds to the minimum
+        assertArrayEquals(new int[] {10, 5, 2, 1}, ahp.toIntWeights(1, 10));
+    }
+
+    @Test
+    void judgmentText() {
+        assertEquals(1 / 3.0, AhpWeights.parseJudgment(" 1/3 "), 1e-12);
+        assertEquals(0.25, AhpWeights.parseJudgment("0.25"), 1e-12);
+        assertTrue(Double.isNaN(AhpWeights.parseJudgment("10")));
+        assertTrue(Double.isNaN(AhpWeights.parseJudgment("abc")));
+        assertEquals("1/9", AhpWeights.formatJudgment(AhpWeights.parseJudgment("1/9")));
+        assertEquals("5", AhpWeights.formatJudgment(5));
+        assertEquals("2.50", AhpWeights.formatJudgment(2.5));
+    }
+}
@@ -0,0 +1,115 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CompactHistoryTest {
+
+    // Decisions of varying shape, so the pools grow unevenly past their initial sizes
+    private static DecisionResult varied(int n) {
+        int criteria = 1 + n % 4;
+        int options = 1 + n % 7;
+        String[] criterionNames = new String[criteria];
+        int[] weights = new int[criteria];
+        for (int i = 0; i < criteria; i++) {
+            criterionNames[i] = "C" + i;
+            weights[i] = 1 + (n + i) % 10;
+        }
+        String[] optionNames = new String[options];
+        int[] scores = new int[options];
+        for (int i = 0; i < options; i++) {
+            optionNames[i] = "Option " + ((n + i) % 50);
+            scores[i] = (n * 31 + i * 17) % 100 - 20;
+        }
+        return TestData.result("user" + n % 5, TestData.result(n).timestamp, criterionNames, weights,
+                               optionNames, scores);
+    }
+
+    @Test
+    void everyDecisionComesBackIdentical() {
+        CompactHistory history = new CompactHistory();
+        List<DecisionResult> originals = new ArrayList<>();
+        for (int n = 0; n < 3000; n++) {
+            DecisionResult result = varied(n);
+            originals.add(result);
+            history.add(result);
+        }
+
+        assertEquals(3000, history.size());
+        for (int n = 0; n < 3000; n++) {
+            DecisionResult original = originals.get(n);
+            assertEquals(original.toFileFormat(), history.get(n).toDecisionResult().toFileFormat(), "decision " + n);
+            assertEquals(original.getEpochMillis(), history.getEpochMillis(n));
+            assertEquals(original.userName, history.getUserDictionary().name(history.getUserId(n)));
+            assertEquals(original.winner, history.getNameDictionary().name(history.getWinnerId(n)));
+        }
+        // 5 users; criteria C0..C3 and 50 option names share one dictionary
+        assertEquals(5, history.getUserDictionary().size());
+        assertEquals(54, history.getNameDictionary().size());
+    }
+
+    @Test
+    void forEachReusesOneFlyweightOldestFirst() {
+        CompactHistory history = new CompactHistory();
+        for (int n = 0; n < 10; n++) {
+            history.add(TestData.result(n));
+        }
+        List<DecisionRecord> seen = new ArrayList<>();
+        List<String> winners = new ArrayList<>();
+        history.forEach(record -> {
+            seen.add(record);
+            winners.add(record.getWinner());
+        });
+
+        assertEquals(List.of("A0", "B1", "A2", "B3", "A4", "B5", "A6", "B7", "A8", "B9"), winners);
+        assertSame(seen.get(0), seen.get(9));
+        assertEquals(1, history.get(4).getTieCount());
+    }
+
+    @Test
+    void timestampsThatDoNotRoundTripAreKeptAsText() {
+        CompactHistory history = new CompactHistory();
+        String[] timestamps = {"2024-03-01T10:00:00", "2024-03-01T10:00", "2024-03-01T10:00:00.123456789",
+                               "not a date", "1890-01-01T00:00:01"};
+        for (String timestamp : timestamps) {
+            DecisionResult result = TestData.result(0);
+            result.timestamp = timestamp;
+            history.add(result);
+        }
+        for (int d = 0; d < timestamps.length; d++) {
+            assertEquals(timestamps[d], history.get(d).getTimestamp());
+        }
+        // Whole-minute text is stored as a string (LocalDateTime prints it without ":00") but is still dated
+        assertEquals(HistoryIndex.epochMillis("2024-03-01T10:00"), history.getEpochMillis(0));
+        assertEquals(history.getEpochMillis(0), history.getEpochMillis(1));
+        assertEquals(0, history.getEpochMillis(3));
+    }
+
+    @Test
+    void monteCarloResultsAreKept() {
+        CompactHistory history = new CompactHistory();
+        DecisionResult result = TestData.result(1);
+        result.monteCarlo = MonteCarloEngine.simulate(new int[] {1}, new int[][] {{1, 2}}, new int[1][], new int[1][], 2, 1, 100, 7L);
+        history.add(TestData.result(0));
+        history.add(result);
+
+        assertNull(history.get(0).toDecisionResult().monteCarlo);
+        assertSame(result.monteCarlo, history.get(1).toDecisionResult().monteCarlo);
+    }
+
+    @Test
+    void normalizationIsKept() {
+        CompactHistory history = new CompactHistory();
+        DecisionResult result = TestData.result(1);
+        result.normalization = DecisionEngine.Normalization.MIN_MAX;
+        history.add(TestData.result(0));
+        history.add(result);
+
+        assertEquals(DecisionEngine.Normalization.NONE, history.get(0).getNormalization());
+        assertEquals(DecisionEngine.Normalization.MIN_MAX, history.get(1).getNormalization());
+        assertEquals(DecisionEngine.Normalization.MIN_MAX, history.get(1).toDecisionResult().normalization);
+    }
+}
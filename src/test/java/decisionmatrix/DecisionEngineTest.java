@@ -0,0 +1,216 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class DecisionEngineTest {
+
+    @Test
+    void scoresRowMajorMatrixAndPicksWinner() {
+        int[] weights = {5, 3};
+        int[] scores = {7, 4,   // 47
+                        5, 9,   // 52
+                        1, 1};  // 8
+        int[] totals = new int[3];
+
+        int winner = DecisionEngine.score(weights, scores, 3, 2, totals);
+
+        assertArrayEquals(new int[] {47, 52, 8}, totals);
+        assertEquals(1, winner);
+    }
+
+    @Test
+    void firstOptionWinsTies() {
+        int[] totals = new int[3];
+        int winner = DecisionEngine.score(new int[] {1}, new int[] {4, 6, 6}, 3, 1, totals);
+        assertEquals(1, winner);
+    }
+
+    @Test
+    void noRowsMeansNoWinner() {
+        assertEquals(-1, DecisionEngine.score(new int[] {1}, new int[0], 0, 1, new int[0]));
+        assertEquals(-1, DecisionEngine.winner(new int[0], 0));
+    }
+
+    @Test
+    void fractionalScoring() {
+        double[] totals = new double[2];
+        int winner = DecisionEngine.score(new double[] {0.5, 2}, new double[] {1, 1, 3, 0.25}, 2, 2, totals);
+        assertArrayEquals(new double[] {2.5, 2.0}, totals, 1e-12);
+        assertEquals(0, winner);
+    }
+
+    @Test
+    void columnMajorMatchesRowMajorAndTreatsNullColumnsAsZero() {
+        int[] weights = {2, 9, 4};
+        int[][] columns = {{1, 2, 3}, null, {6, 5, 4}};
+        int[] totals = new int[3];
+
+        int winner = DecisionEngine.scoreColumns(weights, columns, 3, 3, totals);
+
+        assertArrayEquals(new int[] {26, 24, 22}, totals);
+        assertEquals(0, winner);
+    }
+
+    @Test
+    void rejectsArraysTooSmallForTheShape() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> DecisionEngine.score(new int[] {1, 1}, new int[3], 2, 2, new int[2]));
+        assertThrows(IllegalArgumentException.class,
+                     () -> DecisionEngine.scoreColumns(new int[] {1}, new int[][] {{1}}, 2, 1, new int[2]));
+    }
+
+    @Test
+    void topKMatchesAFullSortOnTheSequentialPath() {
+        assertRankedLikeFullSort(500, 4, 10, 1);
+    }
+
+    @Test
+    void topKMatchesAFullSortOnTheForkJoinPath() {
+        // 200k x 5 cells is well above the parallel threshold; narrow scores force many ties
+        assertRankedLikeFullSort(200_000, 5, 25, 2);
+    }
+
+    @Test
+    void kLargerThanTheMatrixRanksEveryRow() {
+        int[] totals = new int[3];
+        int[] ranked = DecisionEngine.scoreRanked(new int[] {1}, new int[] {2, 9, 2}, 3, 1, totals, 10);
+        assertArrayEquals(new int[] {1, 0, 2}, ranked);
+        assertEquals(0, DecisionEngine.scoreRanked(new int[] {1}, new int[] {2}, 1, 1, totals, 0).length);
+    }
+
+    @Test
+    void minMaxPutsEachCriterionOnZeroToOne() {
+        int[] weights = {1, 2, 4};
+        int[][] columns = {{0, 5, 10}, {3, 3, 3}, null}; // A tied criterion and a missing one add nothing
+        double[] totals = new double[3];
+
+        assertEquals(2, DecisionEngine.scoreColumnsNormalized(weights, columns, 3, 3,
+                                                              DecisionEngine.Normalization.MIN_MAX, totals));
+        assertArrayEquals(new double[] {0, 0.5, 1}, totals, 1e-12);
+    }
+
+    @Test
+    void vectorNormDividesByTheColumnLength() {
+        int[] weights = {1, 2};
+        int[][] columns = {{3, 4}, {0, 2}};
+        double[] totals = new double[2];
+
+        assertEquals(1, DecisionEngine.scoreColumnsNormalized(weights, columns, 2, 2,
+                                                              DecisionEngine.Normalization.VECTOR_NORM, totals));
+        assertArrayEquals(new double[] {0.6, 0.8 + 2}, totals, 1e-12);
+    }
+
+    @Test
+    void normalizedRankingUsesWholePoints() {
+        // Cost 0-1000 would swamp Speed 1-10 raw; min-max puts them level
+        int[] weights = {1, 1};
+        int[][] columns = {{1000, 0, 500}, {1, 10, 10}};
+        int[] totals = new int[3];
+
+        assertArrayEquals(new int[] {0, 2, 1}, DecisionEngine.scoreColumnsRanked(weights, columns, 3, 2,
+                                                     DecisionEngine.Normalization.NONE, totals, 10));
+        assertArrayEquals(new int[] {1001, 10, 510}, totals);
+
+        assertArrayEquals(new int[] {2, 0, 1}, DecisionEngine.scoreColumnsRanked(weights, columns, 3, 2,
+                                                     DecisionEngine.Normalization.MIN_MAX, totals, 10));
+        assertArrayEquals(new int[] {100, 100, 150}, totals);
+    }
+
+    @Test
+    void rankingOnlyTheFrontKeepsTheWholeMatrixNormalization() {
+        // D = (0, 0) is dominated but sets both minimums; without it P and Q would tie at 100
+        int[] weights = {1, 1};
+        int[][] columns = {{10, 6, 0}, {5, 10, 0}};
+        int[] front = ParetoFilter.front(columns, 3, 2);
+        assertArrayEquals(new int[] {0, 1}, front);
+        int[] totals = new int[3];
+
+        assertArrayEquals(new int[] {1, 0}, DecisionEngine.scoreColumnsRanked(weights, columns, 3, 2,
+                                                DecisionEngine.Normalization.MIN_MAX, front, totals, 10));
+        assertArrayEquals(new int[] {150, 160, 0}, totals); // D keeps its own (real) total
+
+        assertArrayEquals(new int[] {1, 0}, DecisionEngine.scoreColumnsRanked(weights, columns, 3, 2,
+                                                DecisionEngine.Normalization.NONE, front, totals, 10));
+        assertArrayEquals(new int[] {15, 16, 0}, totals);
+    }
+
+    @Test
+    void normalizationNamesParse() {
+        assertEquals(DecisionEngine.Normalization.MIN_MAX, DecisionEngine.Normalization.parse(" min-max"));
+        assertEquals(DecisionEngine.Normalization.VECTOR_NORM, DecisionEngine.Normalization.parse("Vector_Norm"));
+        assertThrows(IllegalArgumentException.class, () -> DecisionEngine.Normalization.parse("z-score"));
+    }
+
+    @Test
+    void vectorKernelMatchesScalar() {
+        ScoringKernel scalar = new ScoringKernel.Scalar();
+        ScoringKernel vector = new VectorScoringKernel();
+        Random random = new Random(3);
+        for (int round = 0; round < 300; round++) {
+            int rows = 1 + random.nextInt(200); // Ragged tails past every vector width
+            int cols = 1 + random.nextInt(6);
+            int[] weights = new int[cols];
+            int[][] columns = new int[cols][];
+            for (int col = 0; col < cols; col++) {
+                weights[col] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(10);
+                if (random.nextInt(5) > 0) {
+                    columns[col] = random.ints(rows, -1000, 1000).toArray();
+                }
+            }
+            int[] scalarTotals = new int[rows];
+            int[] vectorTotals = new int[rows];
+            scalar.sumColumns(weights, columns, cols, scalarTotals, 0, rows);
+            vector.sumColumns(weights, columns, cols, vectorTotals, 0, rows);
+            assertArrayEquals(scalarTotals, vectorTotals);
+
+            for (DecisionEngine.Normalization normalization : DecisionEngine.Normalization.values()) {
+                double[] scalarNormalized = new double[rows];
+                double[] vectorNormalized = new double[rows];
+                DecisionEngine.scoreColumnsNormalized(scalar, weights, columns, rows, cols, normalization,
+                                                      scalarNormalized);
+                DecisionEngine.scoreColumnsNormalized(vector, weights, columns, rows, cols, normalization,
+                                                      vectorNormalized);
+                assertArrayEquals(scalarNormalized, vectorNormalized, 1e-9, normalization + " round " + round);
+            }
+        }
+    }
+
+    private static void assertRankedLikeFullSort(int rows, int cols, int k, long seed) {
+        Random random = new Random(seed);
+        int[] weights = new int[cols];
+        int[] scores = new int[rows * cols];
+        int[][] columns = new int[cols][rows];
+        for (int col = 0; col < cols; col++) {
+            weights[col] = 1 + random.nextInt(10);
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int score = random.nextInt(4);
+                scores[row * cols + col] = score;
+                columns[col][row] = score;
+            }
+        }
+
+        int[] expectedTotals = new int[rows];
+        DecisionEngine.score(weights, scores, rows, cols, expectedTotals);
+        int[] expected = IntStream.range(0, rows).boxed()
+                                  .sorted(Comparator.<Integer>comparingInt(row -> -expectedTotals[row])
+                                                    .thenComparingInt(row -> row))
+                                  .limit(k).mapToInt(Integer::intValue).toArray();
+
+        int[] totals = new int[rows];
+        assertArrayEquals(expected, DecisionEngine.scoreRanked(weights, scores, rows, cols, totals, k));
+        assertArrayEquals(expectedTotals, totals);
+
+        int[] columnTotals = new int[rows];
+        assertArrayEquals(expected, DecisionEngine.scoreColumnsRanked(weights, columns, rows, cols, columnTotals, k));
+        assertArrayEquals(expectedTotals, columnTotals);
+        assertArrayEquals(Arrays.copyOf(expected, 3), DecisionEngine.topK(expectedTotals, 0, rows, 3));
+    }
+}
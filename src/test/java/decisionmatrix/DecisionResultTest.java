@@ -0,0 +1,63 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+class DecisionResultTest {
+
+    @Test
+    void laterCriterionEditsDoNotReachASavedResult() {
+        ArrayList<Criterion> criteria = new ArrayList<>(List.of(new Criterion("Cost", 5), new Criterion("Speed", 3)));
+        ArrayList<OptionScore> scores = new ArrayList<>(List.of(new OptionScore("A", 47), new OptionScore("B", 52)));
+        DecisionResult ranked = new DecisionResult("u", criteria, scores, new ArrayList<>(List.of(scores.get(1))));
+        DecisionResult readBack = new DecisionResult("u", criteria, scores, "B", 52);
+
+        criteria.get(0).weight = 9; // What a weight change or an undo did before the save was written
+        criteria.get(1).name = "Renamed";
+
+        for (DecisionResult result : List.of(ranked, readBack)) {
+            assertEquals(5, result.getCriterionWeight(0));
+            assertEquals("Speed", result.getCriterionName(1));
+            assertTrue(result.toFileFormat().contains("  - Cost (Weight: 5)\n"));
+        }
+    }
+
+    @Test
+    void monteCarloBlockIsTheSameInEveryLocale() throws IOException {
+        DecisionResult result = TestData.result("u", "2024-05-01T09:30:00", new String[] {"Cost"}, new int[] {2},
+                                                new String[] {"A", "B"}, new int[] {14, 10});
+        result.monteCarlo = new MonteCarloEngine.MonteCarloResult(1000, 2);
+        result.monteCarlo.winProbability[0] = 0.125;
+        result.monteCarlo.winProbability[1] = 0.875;
+        result.monteCarlo.p50[0] = 13.25;
+
+        Locale defaultLocale = Locale.getDefault();
+        String text;
+        try {
+            Locale.setDefault(Locale.GERMANY); // Comma decimals
+            text = result.toFileFormat();
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+        assertTrue(text.contains("  A: 12.50% win, p5 0.0, p50 13.3, p95 0.0\n"), text);
+        assertFalse(text.contains("\r"));
+
+        try (HistoryTextParser parser = new HistoryTextParser(Channels.newChannel(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))))) {
+            DecisionResult parsed = parser.next();
+            assertEquals("A", parsed.winner);
+            assertEquals(14, parsed.winnerScore);
+            assertEquals(2, parsed.optionScores.size());
+            assertEquals(10, parsed.optionScores.get(1).totalScore);
+            assertFalse(parser.hasNext());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HeadlessScorerTest {
+    private final HeadlessScorer scorer = new HeadlessScorer("tester", false);
+
+    @Test
+    void scoresAJsonDecision() {
+        String result = scorer.handleJson("{\"user\":\"ci\",\"criteria\":[{\"name\":\"Cost\",\"weight\":5},"
+                                          + "{\"name\":\"Speed\",\"weight\":3}],\"options\":[{\"name\":\"A\","
+                                          + "\"scores\":[7,4]},{\"name\":\"B\",\"scores\":[5.0,9]}]}");
+
+        assertTrue(result.startsWith("{\"user\":\"ci\","), result);
+        assertTrue(result.contains("\"winner\":\"B\",\"winnerScore\":52,\"ties\":1,"
+                                   + "\"ranking\":[{\"name\":\"B\",\"score\":52},{\"name\":\"A\",\"score\":47}]"),
+                   result);
+        assertEquals(1, scorer.getStats().getCount());
+    }
+
+    @Test
+    void requestsPickANormalization() {
+        String decision = "\"criteria\":[{\"name\":\"Cost\",\"weight\":1},{\"name\":\"Speed\",\"weight\":1}],"
+                          + "\"options\":[{\"name\":\"A\",\"scores\":[1000,1]},{\"name\":\"B\",\"scores\":[0,10]},"
+                          + "{\"name\":\"C\",\"scores\":[500,10]}]}";
+        assertTrue(scorer.handleJson("{" + decision).contains("\"winner\":\"A\",\"winnerScore\":1001"));
+        assertTrue(scorer.handleJson("{\"normalization\":\"min_max\"," + decision)
+                         .contains("\"winner\":\"C\",\"winnerScore\":150"));
+        assertTrue(scorer.handleJson("{\"normalization\":\"rank\"," + decision)
+                         .startsWith("{\"error\":\"Unknown normalization 'rank'"));
+
+        HeadlessScorer normalized = new HeadlessScorer("tester", false, DecisionEngine.Normalization.MIN_MAX);
+        assertEquals(150, normalized.parseCsv(List.of("Option,Cost:1,Speed:1", "A,1000,1", "B,0,10",
+                                                        "C,500,10")).winnerScore);
+    }
+
+    @Test
+    void rejectsScoresThatAreNotWholeInts() {
+        for (String score : new String[] {"7.5", "3000000000", "-3000000000", "1e300", "\"7\""}) {
+            String result = scorer.handleJson("{\"criteria\":[{\"name\":\"Cost\",\"weight\":5}],"
+                                              + "\"options\":[{\"name\":\"A\",\"scores\":[" + score + "]}]}");
+            assertTrue(result.startsWith("{\"error\":\"Option A score for Cost"), score + " -> " + result);
+        }
+        String weight = scorer.handleJson("{\"criteria\":[{\"name\":\"Cost\",\"weight\":5.5}],"
+                                          + "\"options\":[{\"name\":\"A\",\"scores\":[1]}]}");
+        assertTrue(weight.contains("Weight must be a whole number"), weight);
+        assertEquals(6, scorer.getErrorCount());
+    }
+
+    @Test
+    void deeplyNestedJsonIsAnErrorLine() {
+        String result = scorer.handleJson("{\"user\":" + "[".repeat(50_000) + "]".repeat(50_000) + "}");
+        assertTrue(result.startsWith("{\"error\":\"Nested deeper"), result);
+    }
+
+    @Test
+    void csvCellsAreParsedLikeAnImport() {
+        DecisionResult result = scorer.parseCsv(List.of("Option,\"Cost, total\":5,Speed:3",
+                                                        "\"Laptop B, refurbished\",3-8-9,4",
+                                                        "\"Say \"\"hi\"\"\",7,"));
+
+        assertEquals("Cost, total", result.criteria.get(0).name);
+        assertEquals("Laptop B, refurbished", result.optionScores.get(0).optionName);
+        assertEquals(52, result.optionScores.get(0).totalScore); // Range scores its likely value 8
+        assertEquals("Say \"hi\"", result.optionScores.get(1).optionName);
+        assertEquals(35, result.optionScores.get(1).totalScore); // Empty cell is 0
+        assertEquals("tester", result.userName);
+    }
+
+    @Test
+    void csvErrorsNameTheLine() {
+        String result = scorer.handleCsv(List.of("Option,Cost:5", "A,1", "B,x"));
+        assertTrue(result.startsWith("{\"error\":\"Line 3 has a bad score 'x'"), result);
+        assertTrue(scorer.handleCsv(List.of("Option,Cost:11")).contains("expected 1-10"));
+        assertTrue(scorer.handleCsv(List.of("Option,Cost:5")).contains("at least one criterion and one option"));
+    }
+
+    @Test
+    void runSplitsCsvBlocksOnBlankLinesOutsideQuotes() throws IOException {
+        String input = "Option,Cost:1\n\"two\n\nlines\",4\nB,2\n\nOption,Cost:1\nC,1\n";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8)) {
+            scorer.run(new BufferedReader(new StringReader(input)), out);
+        }
+
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"winner\":\"two\\n\\nlines\""), lines[0]);
+        assertTrue(lines[1].contains("\"winner\":\"C\""), lines[1]);
+    }
+}
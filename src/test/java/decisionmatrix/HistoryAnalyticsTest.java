@@ -0,0 +1,197 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HistoryAnalyticsTest {
+    @TempDir
+    Path dir;
+
+    private HistoryStore open() throws IOException {
+        return HistoryStore.open(dir.resolve("history.log"), dir.resolve("history.idx"), HistoryLog.FsyncPolicy.NEVER);
+    }
+
+    private static void append(HistoryStore store, int from, int to) throws IOException {
+        List<DecisionResult> results = new ArrayList<>();
+        for (int n = from; n < to; n++) {
+            results.add(TestData.result(n));
+        }
+        store.appendAll(results);
+    }
+
+    // The same statistics folded one entry at a time on this thread
+    private static HistoryAnalytics.Aggregates serialFold(HistoryStore store) throws IOException {
+        HistoryIndex.Snapshot snapshot = store.snapshot();
+        HistoryAnalytics.Aggregates a = new HistoryAnalytics.Aggregates();
+        for (int entry = 0; entry < snapshot.size(); entry++) {
+            a.add(store.read(snapshot, entry), ZoneId.systemDefault());
+        }
+        return a;
+    }
+
+    @Test
+    void parallelRoundsMatchASerialFold() throws IOException {
+        int n = 70_000; // Two rounds, each split across the pool
+        try (HistoryStore store = open()) {
+            append(store, 0, n);
+            List<Integer> progress = new ArrayList<>();
+            HistoryAnalytics.Aggregates a = HistoryAnalytics.update(store, dir.resolve("analytics.dat"),
+                                                                    p -> progress.add(p.processed));
+
+            assertEquals(List.of(0, 65536, n), progress);
+            assertEquals(n, a.processed);
+            assertSameStatistics(serialFold(store), a);
+
+            assertEquals(n, a.decisions);
+            assertEquals(2L * n, a.options);
+            assertEquals(n, a.winsByOption.size());
+            assertArrayEquals(new long[] {n, 5L * n}, a.criteria.get("Cost"));
+            assertEquals(n / 2, a.winnerScores[HistoryAnalytics.bucket(50)]);
+            assertEquals(n / 2, a.winnerScores[HistoryAnalytics.bucket(30)]);
+            assertEquals((n + 2) / 3, a.decisionsOf("user0"));
+            assertEquals(n, a.months.values().stream().mapToLong(m -> m[0]).sum());
+        }
+    }
+
+    @Test
+    void laterRunsOnlyFoldNewEntries() throws IOException {
+        Path cache = dir.resolve("analytics.dat");
+        try (HistoryStore store = open()) {
+            append(store, 0, 3000);
+            HistoryAnalytics.update(store, cache, p -> { });
+            append(store, 3000, 5000);
+
+            List<Integer> progress = new ArrayList<>();
+            HistoryAnalytics.Aggregates a = HistoryAnalytics.update(store, cache, p -> progress.add(p.processed));
+            assertEquals(List.of(3000, 5000), progress); // Starts at the watermark
+            assertSameStatistics(serialFold(store), a);
+
+            // A fresh process reads the materialized file instead of rescanning
+            Path copy = dir.resolve("copy.dat");
+            Files.copy(cache, copy);
+            progress.clear();
+            HistoryAnalytics.Aggregates loaded = HistoryAnalytics.update(store, copy, p -> progress.add(p.processed));
+            assertEquals(List.of(5000), progress);
+            assertSameStatistics(a, loaded);
+        }
+    }
+
+    @Test
+    void stoppingEarlyKeepsTheFinishedRounds() throws IOException {
+        Path cache = dir.resolve("analytics.dat");
+        try (HistoryStore store = open()) {
+            append(store, 0, 70_000);
+            RuntimeException stop = new RuntimeException("stop");
+            assertSame(stop, assertThrows(RuntimeException.class, () -> HistoryAnalytics.update(store, cache, p -> {
+                if (p.processed > 0) {
+                    throw stop;
+                }
+            })));
+            List<Integer> progress = new ArrayList<>();
+            HistoryAnalytics.Aggregates a = HistoryAnalytics.update(store, cache, p -> progress.add(p.processed));
+            assertEquals(List.of(65536, 70_000), progress);
+            assertSameStatistics(serialFold(store), a);
+        }
+    }
+
+    @Test
+    void aRebuiltLogIsRecomputed() throws IOException {
+        Path cache = dir.resolve("analytics.dat");
+        try (HistoryStore store = open()) {
+            append(store, 0, 500);
+            HistoryAnalytics.update(store, cache, p -> { });
+        }
+        Files.delete(dir.resolve("history.log"));
+        Files.delete(dir.resolve("history.idx"));
+        try (HistoryStore store = open()) {
+            append(store, 1000, 1200);
+            List<Integer> progress = new ArrayList<>();
+            HistoryAnalytics.Aggregates a = HistoryAnalytics.update(store, cache, p -> progress.add(p.processed));
+            assertEquals(List.of(0, 200), progress);
+            assertEquals(200, a.decisions);
+            assertSameStatistics(serialFold(store), a);
+        }
+    }
+
+    @Test
+    void normalizedDecisionsAreCountedButLeftOutOfTheScores() throws IOException {
+        Path cache = dir.resolve("analytics.dat");
+        try (HistoryStore store = open()) {
+            List<DecisionResult> results = new ArrayList<>();
+            for (int n = 0; n < 4; n++) {
+                DecisionResult result = TestData.result(n);
+                if (n % 2 == 1) {
+                    result.normalization = DecisionEngine.Normalization.MIN_MAX;
+                }
+                results.add(result);
+            }
+            store.appendAll(results);
+            HistoryAnalytics.Aggregates a = HistoryAnalytics.update(store, cache, p -> { });
+
+            assertEquals(4, a.decisions);
+            assertEquals(2, a.normalized);
+            assertEquals(4, a.winsByOption.size());
+            assertEquals(2, a.winnerScores[HistoryAnalytics.bucket(50)]);
+            assertEquals(0, a.winnerScores[HistoryAnalytics.bucket(30)]); // Only the odd, normalized ones won with 30
+            assertEquals(4, Arrays.stream(a.optionScores).sum());
+            long[] month = a.months.firstEntry().getValue();
+            assertArrayEquals(new long[] {4, 100, 2}, month);
+
+            Path copy = dir.resolve("copy.dat");
+            Files.copy(cache, copy);
+            HistoryAnalytics.Aggregates loaded = HistoryAnalytics.update(store, copy, p -> { });
+            assertEquals(2, loaded.normalized);
+            assertSameStatistics(a, loaded);
+        }
+    }
+
+    @Test
+    void bucketsAndTop() {
+        assertEquals(0, HistoryAnalytics.bucket(-5));
+        assertEquals(1, HistoryAnalytics.bucket(1));
+        assertEquals(3, HistoryAnalytics.bucket(7));
+        assertEquals(31, HistoryAnalytics.bucket(Integer.MAX_VALUE)); // [2^30, 2^31)
+        assertEquals("4-7", HistoryAnalytics.bucketLabel(3));
+        assertEquals("1", HistoryAnalytics.bucketLabel(1));
+
+        HashMap<String, long[]> counts = new HashMap<>();
+        for (int k = 0; k < 50; k++) {
+            counts.put("o" + k, new long[] {k % 17, 0});
+        }
+        List<Map.Entry<String, long[]>> top = HistoryAnalytics.top(counts, 0, 3);
+        assertEquals(List.of(16L, 16L, 15L), top.stream().map(e -> e.getValue()[0]).toList());
+    }
+
+    private static void assertSameStatistics(HistoryAnalytics.Aggregates expected, HistoryAnalytics.Aggregates actual) {
+        assertEquals(expected.decisions, actual.decisions);
+        assertEquals(expected.options, actual.options);
+        assertEquals(expected.normalized, actual.normalized);
+        assertEquals(flatten(expected.winsByOption), flatten(actual.winsByOption));
+        assertEquals(expected.winsByUser.keySet(), actual.winsByUser.keySet());
+        for (String user : expected.winsByUser.keySet()) {
+            assertEquals(flatten(expected.winsByUser.get(user)), flatten(actual.winsByUser.get(user)), user);
+        }
+        assertEquals(flatten(expected.criteria), flatten(actual.criteria));
+        assertArrayEquals(expected.winnerScores, actual.winnerScores);
+        assertArrayEquals(expected.optionScores, actual.optionScores);
+        assertEquals(flatten(expected.months), flatten(actual.months));
+    }
+
+    private static <K> TreeMap<K, List<Long>> flatten(Map<K, long[]> counts) {
+        TreeMap<K, List<Long>> flat = new TreeMap<>();
+        counts.forEach((key, c) -> flat.put(key, Arrays.stream(c).boxed().toList()));
+        return flat;
+    }
+}
@@ -0,0 +1,204 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HistoryLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedRecordsReadBackAndReplayOnOpen() throws IOException {
+        Path path = dir.resolve("log.bin");
+        long[] offsets = new long[5];
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, null)) {
+            for (int n = 0; n < 3; n++) {
+                offsets[n] = log.append(TestData.result(n));
+            }
+            long[] batch = log.appendAll(List.of(TestData.result(3), TestData.result(4)));
+            offsets[3] = batch[0];
+            offsets[4] = batch[1];
+            assertEquals("A4", log.read(offsets[4]).winner);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        List<String> winners = new ArrayList<>();
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, (offset, result) -> {
+            seen.add(offset);
+            winners.add(result.winner);
+        })) {
+            assertEquals(Files.size(path), log.size());
+            assertEquals("user1", log.read(offsets[1]).userName);
+        }
+        assertEquals(List.of(offsets[0], offsets[1], offsets[2], offsets[3], offsets[4]), seen);
+        assertEquals(List.of("A0", "B1", "A2", "B3", "A4"), winners);
+    }
+
+    @Test
+    void tornTailIsCutOffAndEarlierRecordsKept() throws IOException {
+        Path path = dir.resolve("log.bin");
+        long goodEnd;
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, null)) {
+            log.append(TestData.result(0));
+            log.append(TestData.result(1));
+            goodEnd = log.size();
+            log.append(TestData.result(2));
+        }
+        // A crash halfway through the last record
+        long full = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(goodEnd + (full - goodEnd) / 2);
+        }
+
+        List<String> winners = new ArrayList<>();
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, (o, r) -> winners.add(r.winner))) {
+            assertEquals(goodEnd, log.size());
+            long offset = log.append(TestData.result(3));
+            assertEquals(goodEnd, offset);
+        }
+        assertEquals(List.of("A0", "B1"), winners);
+    }
+
+    @Test
+    void checksumFailureEndsTheGoodData() throws IOException {
+        Path path = dir.resolve("log.bin");
+        long second;
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, null)) {
+            log.append(TestData.result(0));
+            second = log.append(TestData.result(1));
+        }
+        flipByte(path, second + HistoryLog.HEADER_BYTES + 5);
+
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, null)) {
+            assertEquals(second, log.size());
+        }
+        assertEquals(second, Files.size(path));
+    }
+
+    @Test
+    void intactButUndecodableRecordFailsTheOpenWithoutTruncating() throws IOException {
+        Path path = dir.resolve("log.bin");
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, null)) {
+            log.append(TestData.result(0));
+        }
+        // A record from a future format version, with a valid checksum
+        byte[] payload = HistoryLog.encode(TestData.result(1));
+        payload[0] = 99;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HistoryLog.HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(record);
+        }
+        long size = Files.size(path);
+
+        IOException e = assertThrows(IOException.class,
+            () -> HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, (o, r) -> { }));
+        assertTrue(e.getMessage().contains("unreadable record"), e.getMessage());
+        assertEquals(size, Files.size(path));
+    }
+
+    @Test
+    void oversizedDecisionIsRejectedBeforeAnythingIsWritten() throws IOException {
+        Path path = dir.resolve("log.bin");
+        // ~1100 options named with the longest string writeUTF allows: just over 64 MB encoded
+        String longName = "x".repeat(65_000);
+        int options = HistoryLog.MAX_RECORD_BYTES / 65_000 + 10;
+        String[] names = Collections.nCopies(options, longName).toArray(new String[0]);
+        DecisionResult huge = TestData.result("u", "2024-01-01T00:00", new String[0], new int[0], names,
+                                              new int[options]);
+        huge.ranking.clear();
+
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, null)) {
+            log.append(TestData.result(0));
+            long size = log.size();
+            assertThrows(IOException.class, () -> log.append(huge));
+            assertThrows(IOException.class, () -> log.appendAll(List.of(TestData.result(1), huge)));
+            assertEquals(size, log.size());
+            assertEquals(size, Files.size(path));
+        }
+    }
+
+    @Test
+    void batchLargerThanOneWriteBufferIsSplitAcrossWrites() throws IOException {
+        Path path = dir.resolve("log.bin");
+        // Three ~30 MB decisions: more than one MAX_WRITE_BYTES buffer together
+        String longName = "y".repeat(65_000);
+        List<DecisionResult> batch = new ArrayList<>();
+        for (int n = 0; n < 3; n++) {
+            String[] names = Collections.nCopies(470, longName).toArray(new String[0]);
+            names[0] = "winner" + n;
+            int[] scores = new int[470];
+            scores[0] = 100 + n;
+            batch.add(TestData.result("u", "2024-01-01T00:00", new String[0], new int[0], names, scores));
+        }
+
+        long[] offsets;
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, null)) {
+            offsets = log.appendAll(batch);
+            assertEquals(Files.size(path), log.size());
+        }
+        try (HistoryLog log = HistoryLog.open(path, HistoryLog.FsyncPolicy.NEVER, (o, r) -> { })) {
+            for (int n = 0; n < 3; n++) {
+                assertEquals("winner" + n, log.read(offsets[n]).winner);
+            }
+        }
+    }
+
+    @Test
+    void monteCarloFiguresRoundTrip() throws IOException {
+        DecisionResult result = TestData.result(0);
+        result.monteCarlo = new MonteCarloEngine.MonteCarloResult(1000, 2);
+        result.monteCarlo.winProbability[0] = 0.75;
+        result.monteCarlo.winProbability[1] = 0.25;
+        result.monteCarlo.p95[1] = 42.5;
+
+        DecisionResult decoded = HistoryLog.decode(HistoryLog.encode(result));
+        assertEquals(1000, decoded.monteCarlo.samples);
+        assertArrayEquals(new double[] {0.75, 0.25}, decoded.monteCarlo.winProbability);
+        assertEquals(42.5, decoded.monteCarlo.p95[1]);
+        assertNull(HistoryLog.decode(HistoryLog.encode(TestData.result(1))).monteCarlo);
+    }
+
+    @Test
+    void normalizationRoundTripsAndOlderRecordsReadAsRaw() throws IOException {
+        DecisionResult result = TestData.result(0);
+        result.normalization = DecisionEngine.Normalization.MIN_MAX;
+        assertEquals(DecisionEngine.Normalization.MIN_MAX, HistoryLog.decode(HistoryLog.encode(result)).normalization);
+
+        // A version 2 record is the same bytes without the trailing normalization
+        byte[] payload = HistoryLog.encode(TestData.result(1));
+        byte[] v2 = Arrays.copyOf(payload, payload.length - 1);
+        v2[0] = 2;
+        DecisionResult decoded = HistoryLog.decode(v2);
+        assertEquals("B1", decoded.winner);
+        assertEquals(DecisionEngine.Normalization.NONE, decoded.normalization);
+
+        payload[payload.length - 1] = 9;
+        assertThrows(IOException.class, () -> HistoryLog.decode(payload));
+    }
+
+    private static void flipByte(Path path, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.flip();
+            byte value = b.get();
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~value}), position);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// HistoryManager is process-wide state, so everything runs in one test against one data dir
+class HistoryManagerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void saveDuringABackgroundRebuildLandsAfterIt() throws Exception {
+        // No log yet but results/ files: the startup load rebuilds the log from them
+        Path results = dir.resolve("results");
+        Files.createDirectories(results);
+        int existing = 2000;
+        for (int n = 0; n < existing; n++) {
+            Files.write(results.resolve("result_" + n + ".txt"),
+                        TestData.result(n).toFileFormat().getBytes(StandardCharsets.UTF_8));
+        }
+        System.setProperty("decision.data.dir", dir.toString());
+        try {
+            CompletableFuture<Void> load = HistoryManager.loadHistoryAsync();
+            DecisionResult late = TestData.result(existing);
+            late.userName = "late";
+            CompletableFuture<Path> saved = HistoryManager.saveResultAsync(late);
+
+            saved.get(60, TimeUnit.SECONDS);
+            assertTrue(load.isDone(), "the save completed before the load it waits for");
+            assertEquals(existing + 1, HistoryManager.getHistorySize());
+            HistoryQuery query = new HistoryQuery();
+            query.userName = "late";
+            assertEquals(1, HistoryManager.queryHistory(query).results.size());
+            assertSame(load, HistoryManager.loadHistoryAsync());
+        } finally {
+            HistoryManager.close();
+            System.clearProperty("decision.data.dir");
+        }
+        assertTrue(Files.size(dir.resolve("decision_history.log")) > 0);
+    }
+}
@@ -0,0 +1,181 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HistoryStoreTest {
+    @TempDir
+    Path dir;
+    private Path logPath;
+    private Path indexPath;
+
+    @BeforeEach
+    void paths() {
+        logPath = dir.resolve("history.log");
+        indexPath = dir.resolve("history.idx");
+    }
+
+    @Test
+    void queriesFilterByUserWinnerCriterionAndDate() throws IOException {
+        try (HistoryStore store = open()) {
+            for (int n = 0; n < 60; n++) {
+                store.append(TestData.result(n));
+            }
+            assertEquals(60, store.size());
+
+            HistoryQuery byUser = new HistoryQuery();
+            byUser.userName = "USER1";
+            byUser.limit = 100;
+            assertEquals(20, store.query(byUser).results.size());
+
+            HistoryQuery byWinner = new HistoryQuery();
+            byWinner.winner = "a10";
+            List<DecisionResult> won = store.query(byWinner).results;
+            assertEquals(1, won.size());
+            assertEquals("A10", won.get(0).winner);
+
+            HistoryQuery byCriterion = new HistoryQuery();
+            byCriterion.criterion = "Price";
+            assertTrue(store.query(byCriterion).results.isEmpty());
+
+            // Decisions with n % 28 == 0 fall on 2024-01-01, n % 28 == 1 on 01-02
+            HistoryQuery byDate = new HistoryQuery();
+            byDate.fromMillis = HistoryIndex.epochMillis("2024-01-01T00:00:00");
+            byDate.toMillis = HistoryIndex.epochMillis("2024-01-03T00:00:00");
+            byDate.limit = 100;
+            assertEquals(List.of("B57", "A56", "B29", "A28", "B1", "A0"), winners(store.query(byDate).results));
+        }
+    }
+
+    @Test
+    void pagesRunNewestFirstWithoutGapsOrRepeats() throws IOException {
+        try (HistoryStore store = open()) {
+            for (int n = 0; n < 25; n++) {
+                store.append(TestData.result(n));
+            }
+            HistoryQuery query = new HistoryQuery();
+            query.limit = 10;
+            List<String> all = new ArrayList<>();
+            HistoryPage page;
+            do {
+                page = store.query(query);
+                all.addAll(winners(page.results));
+                query.cursor = page.nextCursor;
+            } while (page.hasMore());
+
+            assertEquals(25, all.size());
+            assertEquals("A24", all.get(0));
+            assertEquals("A0", all.get(24));
+        }
+    }
+
+    @Test
+    void lostIndexIsRebuiltFromTheLog() throws IOException {
+        try (HistoryStore store = open()) {
+            store.appendAll(List.of(TestData.result(0), TestData.result(1), TestData.result(2)));
+        }
+        Files.delete(indexPath);
+
+        try (HistoryStore store = open()) {
+            assertEquals(3, store.size());
+            HistoryQuery query = new HistoryQuery();
+            query.winner = "B1";
+            assertEquals(1, store.query(query).results.size());
+        }
+    }
+
+    @Test
+    void indexAheadOfATruncatedLogStartsOver() throws IOException {
+        try (HistoryStore store = open()) {
+            for (int n = 0; n < 5; n++) {
+                store.append(TestData.result(n));
+            }
+        }
+        Path saved = dir.resolve("saved.idx");
+        Files.copy(indexPath, saved);
+        // An older, shorter log with the newer index
+        try (HistoryStore store = openFresh()) {
+            store.append(TestData.result(0));
+        }
+        Files.copy(saved, indexPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+
+        try (HistoryStore store = open()) {
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void secondStoreSeesAppendsAfterRefresh() throws IOException {
+        try (HistoryStore writer = open(); HistoryStore reader = open()) {
+            writer.append(TestData.result(0));
+            assertTrue(reader.hasExternalAppends());
+            reader.refresh();
+            assertEquals(1, reader.size());
+            assertFalse(reader.hasExternalAppends());
+
+            reader.append(TestData.result(1));
+            writer.append(TestData.result(2));
+            assertEquals(3, writer.size());
+            HistoryQuery query = new HistoryQuery();
+            assertEquals(List.of("A2", "B1", "A0"), winners(writer.query(query).results));
+        }
+    }
+
+    @Test
+    void queriesSeeConsistentSnapshotsWhileAnotherThreadSaves() throws Exception {
+        try (HistoryStore store = open()) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread saver = new Thread(() -> {
+                try {
+                    for (int n = 0; n < 400; n += 4) {
+                        store.appendAll(List.of(TestData.result(n), TestData.result(n + 1),
+                                                TestData.result(n + 2), TestData.result(n + 3)));
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            saver.start();
+            HistoryQuery query = new HistoryQuery();
+            query.limit = 1000;
+            while (saver.isAlive()) {
+                // A page is always a whole prefix of the saves, newest first, never half a batch
+                List<String> winners = winners(store.query(query).results);
+                assertEquals(0, winners.size() % 4, "batch split: " + winners.size());
+                for (int i = 0; i < winners.size(); i++) {
+                    assertEquals(TestData.result(winners.size() - 1 - i).winner, winners.get(i));
+                }
+            }
+            saver.join();
+            assertNull(failure.get());
+            assertEquals(400, store.size());
+        }
+    }
+
+    private HistoryStore open() throws IOException {
+        return HistoryStore.open(logPath, indexPath, HistoryLog.FsyncPolicy.NEVER);
+    }
+
+    private HistoryStore openFresh() throws IOException {
+        Files.delete(logPath);
+        Files.delete(indexPath);
+        return open();
+    }
+
+    private static List<String> winners(List<DecisionResult> results) {
+        List<String> winners = new ArrayList<>();
+        for (DecisionResult result : results) {
+            winners.add(result.winner);
+        }
+        return winners;
+    }
+}
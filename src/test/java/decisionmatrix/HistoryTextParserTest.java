@@ -0,0 +1,105 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HistoryTextParserTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesBackWhatToFileFormatWrote() throws IOException {
+        DecisionResult original = TestData.result("Zoë", "2024-03-05T14:30:00", new String[] {"Price", "Größe"},
+                                                  new int[] {9, 4}, new String[] {"Flat A", "Flat B", "Flat C"},
+                                                  new int[] {41, 77, 0});
+        try (HistoryTextParser parser = parser(original.toFileFormat())) {
+            assertTrue(parser.hasNext());
+            DecisionResult parsed = parser.next();
+            assertEquals("Zoë", parsed.userName);
+            assertEquals("2024-03-05T14:30:00", parsed.timestamp);
+            assertEquals(2, parsed.criteria.size());
+            assertEquals("Größe", parsed.criteria.get(1).name);
+            assertEquals(4, parsed.criteria.get(1).weight);
+            assertEquals(3, parsed.optionScores.size());
+            assertEquals("Flat A", parsed.optionScores.get(0).optionName);
+            assertEquals(0, parsed.optionScores.get(2).totalScore);
+            assertEquals(List.of("Flat B", "Flat A", "Flat C"), names(parsed.ranking));
+            assertEquals("Flat B", parsed.winner);
+            assertEquals(77, parsed.winnerScore);
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    @Test
+    void normalizationIsReadBackAndRawIsTheDefault() throws IOException {
+        DecisionResult normalized = TestData.result(0);
+        normalized.normalization = DecisionEngine.Normalization.VECTOR_NORM;
+        assertTrue(normalized.toFileFormat().contains("Normalization: vector_norm\n"));
+        try (HistoryTextParser parser = parser(normalized.toFileFormat() + TestData.result(1).toFileFormat())) {
+            assertEquals(DecisionEngine.Normalization.VECTOR_NORM, parser.next().normalization);
+            DecisionResult raw = parser.next();
+            assertEquals(DecisionEngine.Normalization.NONE, raw.normalization);
+            assertEquals(2, raw.optionScores.size()); // The line is not taken for an option
+        }
+    }
+
+    @Test
+    void streamsManyEntriesAcrossChunkBoundaries() throws IOException {
+        // Well over the 1 MB read chunk, so entries straddle chunk ends
+        Path file = dir.resolve("history.txt");
+        int count = 12_000;
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int n = 0; n < count; n++) {
+                out.write(TestData.result(n).toFileFormat());
+                out.write("\n");
+            }
+        }
+        assertTrue(Files.size(file) > 2 << 20);
+
+        int n = 0;
+        try (HistoryTextParser parser = new HistoryTextParser(file)) {
+            while (parser.hasNext()) {
+                DecisionResult parsed = parser.next();
+                DecisionResult expected = TestData.result(n);
+                assertEquals(expected.winner, parsed.winner, "entry " + n);
+                assertEquals(expected.userName, parsed.userName);
+                assertEquals(expected.timestamp, parsed.timestamp);
+                n++;
+            }
+        }
+        assertEquals(count, n);
+    }
+
+    @Test
+    void skipsTextOutsideEntries() throws IOException {
+        String text = "garbage line\n\n" + TestData.result(1).toFileFormat() + "trailing\n";
+        try (HistoryTextParser parser = parser(text)) {
+            assertEquals("B1", parser.next().winner);
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    private static List<String> names(List<OptionScore> options) {
+        List<String> names = new ArrayList<>();
+        for (OptionScore option : options) {
+            names.add(option.optionName);
+        }
+        return names;
+    }
+
+    private static HistoryTextParser parser(String text) {
+        return new HistoryTextParser(Channels.newChannel(
+            new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,109 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class HistoryWriterTest {
+
+    @Test
+    void savesQueuedDuringAWriteGoOutAsOneBatchAndRepeatsCoalesce() throws Exception {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<List<DecisionResult>> batches = new ArrayList<>();
+        HistoryWriter writer = new HistoryWriter(batch -> {
+            synchronized (batches) {
+                batches.add(new ArrayList<>(batch));
+            }
+            firstWriteStarted.countDown();
+            await(releaseFirstWrite);
+            List<Path> paths = new ArrayList<>();
+            for (DecisionResult result : batch) {
+                paths.add(Paths.get(result.winner + "-" + result.timestamp));
+            }
+            return paths;
+        });
+
+        CompletableFuture<Path> first = writer.submit(TestData.result(0));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+
+        // Three Save clicks on the same matrix (new result objects, new timestamps) and one other decision
+        DecisionResult save1 = TestData.result(1);
+        DecisionResult save2 = TestData.result(1);
+        save2.timestamp = "2024-06-01T00:00:00";
+        DecisionResult save3 = TestData.result(1);
+        save3.timestamp = "2024-06-02T00:00:00";
+        CompletableFuture<Path> f1 = writer.submit(save1);
+        CompletableFuture<Path> f2 = writer.submit(save2);
+        CompletableFuture<Path> other = writer.submit(TestData.result(2));
+        CompletableFuture<Path> f3 = writer.submit(save3);
+        releaseFirstWrite.countDown();
+
+        Path path1 = f1.get(5, TimeUnit.SECONDS);
+        assertEquals(path1, f2.get(5, TimeUnit.SECONDS));
+        assertEquals(path1, f3.get(5, TimeUnit.SECONDS));
+        assertNotEquals(path1, other.get(5, TimeUnit.SECONDS));
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        writer.shutdown();
+
+        synchronized (batches) {
+            assertEquals(2, batches.size());
+            assertEquals(2, batches.get(1).size());
+            assertSame(save1, batches.get(1).get(0));
+        }
+        assertEquals(3, writer.getSavesWritten());
+        assertEquals(2, writer.getBatchesWritten());
+    }
+
+    @Test
+    void differentScoresAreNotCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HistoryWriter writer = new HistoryWriter(batch -> {
+            await(release);
+            List<Path> paths = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                paths.add(Paths.get("p" + i));
+            }
+            return paths;
+        });
+        DecisionResult a = TestData.result(1);
+        DecisionResult b = TestData.result(1);
+        b.optionScores.get(1).totalScore = 31;
+        CompletableFuture<Path> blocker = writer.submit(TestData.result(0));
+        CompletableFuture<Path> fa = writer.submit(a);
+        CompletableFuture<Path> fb = writer.submit(b);
+        release.countDown();
+        CompletableFuture.allOf(blocker, fa, fb).get(5, TimeUnit.SECONDS);
+        writer.shutdown();
+
+        assertEquals(3, writer.getSavesWritten());
+    }
+
+    @Test
+    void failedWriteFailsEveryFutureInTheBatch() {
+        HistoryWriter writer = new HistoryWriter(batch -> {
+            throw new IOException("disk full");
+        });
+        CompletableFuture<Path> future = writer.submit(TestData.result(0));
+        Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("disk full", e.getCause().getMessage());
+        writer.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+}
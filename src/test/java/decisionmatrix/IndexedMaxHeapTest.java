@@ -0,0 +1,67 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IndexedMaxHeapTest {
+
+    @Test
+    void emptyHeapHasNoTop() {
+        IndexedMaxHeap heap = new IndexedMaxHeap();
+        assertEquals(-1, heap.peek());
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    void lowerRowWinsTies() {
+        IndexedMaxHeap heap = new IndexedMaxHeap();
+        heap.set(3, 10);
+        heap.set(1, 10);
+        heap.set(2, 10);
+        assertEquals(1, heap.peek());
+    }
+
+    @Test
+    void keyUpdatesTrackABruteForceMaximum() {
+        Random random = new Random(7);
+        int rows = 300;
+        int[] keys = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            keys[row] = random.nextInt(1000);
+        }
+        IndexedMaxHeap heap = new IndexedMaxHeap();
+        heap.rebuild(keys, rows);
+        assertEquals(bruteForceMax(keys), heap.peek());
+
+        for (int step = 0; step < 20_000; step++) {
+            int row = random.nextInt(rows);
+            keys[row] = random.nextInt(1000) - 500;
+            heap.set(row, keys[row]);
+            assertEquals(bruteForceMax(keys), heap.peek(), "after step " + step);
+            assertEquals(keys[row], heap.key(row));
+        }
+        assertEquals(rows, heap.size());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        IndexedMaxHeap heap = new IndexedMaxHeap();
+        for (int row = 0; row < 1000; row++) {
+            heap.set(row, row % 97);
+        }
+        assertEquals(1000, heap.size());
+        assertEquals(96, heap.peek());
+    }
+
+    private static int bruteForceMax(int[] keys) {
+        int best = 0;
+        for (int row = 1; row < keys.length; row++) {
+            if (keys[row] > keys[best]) {
+                best = row;
+            }
+        }
+        return best;
+    }
+}
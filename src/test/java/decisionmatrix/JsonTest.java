@@ -0,0 +1,47 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class JsonTest {
+
+    @Test
+    void parsesNestedValues() {
+        Object parsed = Json.parse(" {\"a\":[1,-2.5,true,false,null],\"b\":{\"c\":\"x\\\"y\\u0041\\n\"}} ");
+
+        Map<?, ?> map = (Map<?, ?>) parsed;
+        assertEquals(Arrays.asList(1L, -2.5, true, false, null), map.get("a"));
+        assertEquals("x\"yA\n", ((Map<?, ?>) map.get("b")).get("c"));
+        assertEquals(List.of("a", "b"), List.copyOf(map.keySet()));
+    }
+
+    @Test
+    void quoteRoundTrips() {
+        String text = "tab\t quote\" slash\\ ctl\u0001 line\r\n";
+        String quoted = Json.quote(new StringBuilder(), text).toString();
+        assertEquals(text, Json.parse(quoted));
+    }
+
+    @Test
+    void malformedInputIsAnIllegalArgument() {
+        for (String bad : new String[] {"", "{", "[1,]", "{\"a\" 1}", "\"open", "tru", "1 2", "\"\\u12\"", "--1"}) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(bad), bad);
+        }
+    }
+
+    @Test
+    void deepNestingIsRejectedInsteadOfOverflowingTheStack() {
+        String ok = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        assertNotNull(Json.parse(ok));
+
+        String deep = "[".repeat(100_000) + "]".repeat(100_000);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Json.parse(deep));
+        assertTrue(e.getMessage().contains("Nested deeper"), e.getMessage());
+        String deepObjects = "{\"a\":".repeat(Json.MAX_DEPTH + 1) + "1" + "}".repeat(Json.MAX_DEPTH + 1);
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(deepObjects));
+    }
+}
@@ -0,0 +1,75 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LatencyStatsTest {
+
+    @Test
+    void percentilesStayWithinOneBucketOfTheExactValue() {
+        LatencyStats stats = new LatencyStats();
+        Random random = new Random(5);
+        long[] values = new long[20_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e10)); // 1 ns to 10 s, log-uniform
+            stats.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] {0.01, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            double reported = stats.getPercentileMicros(q) * 1000;
+            // The upper edge of the bucket, and buckets are at most 1/16 wide
+            assertTrue(reported >= exact && reported <= exact * (1 + 1.0 / 16) + 1,
+                       "q=" + q + " exact " + exact + " reported " + reported);
+        }
+        assertEquals(values.length, stats.getCount());
+        assertEquals(Arrays.stream(values).sum() / 1000.0 / values.length, stats.getMeanMicros(), 1e-6);
+    }
+
+    @Test
+    void octavesCountPowersOfTwo() {
+        LatencyStats stats = new LatencyStats();
+        for (long v : new long[] {0, 1, 2, 3, 31, 32, 1000, 1023, 1024, 1L << 40}) {
+            stats.record(v);
+        }
+        long[] octaves = stats.getOctaveCounts();
+        assertEquals(2, octaves[0]);  // 0 and 1
+        assertEquals(2, octaves[1]);  // 2, 3
+        assertEquals(1, octaves[4]);  // 31
+        assertEquals(1, octaves[5]);  // 32
+        assertEquals(2, octaves[9]);  // 1000, 1023
+        assertEquals(1, octaves[10]); // 1024
+        assertEquals(1, octaves[40]);
+        assertEquals(10, Arrays.stream(octaves).sum());
+    }
+
+    @Test
+    void emptyStatsReportZero() {
+        LatencyStats stats = new LatencyStats();
+        assertEquals(0, stats.getPercentileMicros(0.99));
+        assertEquals(0, stats.getMeanMicros());
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyStats stats = new LatencyStats();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    stats.record(1000 + i % 7);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, stats.getCount());
+        assertEquals(200_000, Arrays.stream(stats.getOctaveCounts()).sum());
+    }
+}
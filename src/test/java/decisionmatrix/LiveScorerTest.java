@@ -0,0 +1,98 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LiveScorerTest {
+
+    @Test
+    void incrementalTotalsMatchAFullRescoreAfterRandomEdits() {
+        MatrixTableModel model = new MatrixTableModel();
+        ArrayList<Criterion> criteria = new ArrayList<>();
+        LiveScorer scorer = new LiveScorer(model, criteria);
+        scorer.attach();
+        Random random = new Random(11);
+
+        for (int step = 0; step < 5000; step++) {
+            int action = random.nextInt(10);
+            if (action == 0 && criteria.size() < 8) {
+                criteria.add(new Criterion("C" + criteria.size(), 1 + random.nextInt(10)));
+                model.addCriterion("C");
+            } else if (action == 1) {
+                model.addRow("Option " + model.getRowCount());
+            } else if (action == 2 && !criteria.isEmpty()) {
+                int i = random.nextInt(criteria.size());
+                criteria.get(i).weight = 1 + random.nextInt(10);
+                scorer.updateWeight(i, criteria.get(i).weight);
+            } else if (model.getRowCount() > 0 && !criteria.isEmpty()) {
+                model.setScore(random.nextInt(model.getRowCount()), random.nextInt(criteria.size()), random.nextInt(11));
+            }
+            assertMatchesFullRescore(model, criteria, scorer);
+        }
+    }
+
+    @Test
+    void editsAfterANormalizedCalculateStillAddUpTheRawScores() {
+        MatrixTableModel model = new MatrixTableModel();
+        ArrayList<Criterion> criteria = new ArrayList<>();
+        criteria.add(new Criterion("Cost", 1));
+        criteria.add(new Criterion("Speed", 1));
+        model.addCriterion("Cost");
+        model.addCriterion("Speed");
+        model.addRow("x");
+        model.addRow("y");
+        model.setScore(0, 0, 1000);
+        model.setScore(0, 1, 1);
+        model.setScore(1, 1, 10);
+        LiveScorer scorer = new LiveScorer(model, criteria);
+        scorer.attach();
+        assertEquals(1001, model.getTotal(0));
+
+        // What Calculate does with Min-max: normalized points into the Total column
+        int[] normalized = new int[2];
+        DecisionEngine.scoreColumnsRanked(new int[] {1, 1}, new int[][] {model.getScoreColumn(0), model.getScoreColumn(1)},
+                                          2, 2, DecisionEngine.Normalization.MIN_MAX, normalized, 2);
+        model.setTotals(normalized);
+        assertEquals(100, model.getTotal(1));
+
+        model.setScore(1, 1, 11);
+        assertMatchesFullRescore(model, criteria, scorer);
+        assertEquals(11, scorer.getTotal(1));
+        assertEquals(1001, model.getTotal(0)); // The whole column shows live totals again
+        assertEquals(11, model.getTotal(1));
+
+        model.setScore(1, 0, 2000);
+        assertMatchesFullRescore(model, criteria, scorer);
+        assertEquals(1, scorer.getWinnerRow());
+        assertEquals(2011, model.getTotal(1));
+    }
+
+    @Test
+    void noOptionsMeansNoWinner() {
+        MatrixTableModel model = new MatrixTableModel();
+        LiveScorer scorer = new LiveScorer(model, new ArrayList<>());
+        scorer.attach();
+        assertEquals(-1, scorer.getWinnerRow());
+    }
+
+    private static void assertMatchesFullRescore(MatrixTableModel model, ArrayList<Criterion> criteria,
+                                                 LiveScorer scorer) {
+        int rows = model.getRowCount();
+        int cols = model.getCriterionCount();
+        int[] weights = new int[cols];
+        int[][] columns = new int[cols][];
+        for (int i = 0; i < cols; i++) {
+            weights[i] = criteria.get(i).weight;
+            columns[i] = model.getScoreColumn(i);
+        }
+        int[] totals = new int[rows];
+        int winner = DecisionEngine.scoreColumns(weights, columns, rows, cols, totals);
+        for (int row = 0; row < rows; row++) {
+            assertEquals(totals[row], scorer.getTotal(row), "total of row " + row);
+        }
+        assertEquals(winner, scorer.getWinnerRow());
+    }
+}
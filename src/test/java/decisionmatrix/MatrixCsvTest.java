@@ -0,0 +1,151 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MatrixCsvTest {
+    @TempDir
+    Path dir;
+
+    // Everything the parser hands over, flattened
+    private static class Collected implements MatrixCsv.Sink {
+        final List<Criterion> criteria = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<int[]> scores = new ArrayList<>(); // per row
+        final List<String> ranges = new ArrayList<>(); // "row,col low-likely-high"
+        int batches;
+
+        @Override
+        public void criteria(List<Criterion> header) {
+            criteria.addAll(header);
+        }
+
+        @Override
+        public void rows(MatrixCsv.Batch batch) {
+            batches++;
+            for (int row = 0; row < batch.size; row++) {
+                int[] cells = new int[batch.scores.length];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = batch.scores[i][row];
+                    if (batch.rangeLows[i] != null && batch.rangeLows[i][row] != batch.rangeHighs[i][row]) {
+                        ranges.add(names.size() + "," + i + " " + batch.rangeLows[i][row] + "-" + cells[i]
+                                   + "-" + batch.rangeHighs[i][row]);
+                    }
+                }
+                names.add(batch.names[row]);
+                scores.add(cells);
+            }
+        }
+    }
+
+    private static Collected parse(String text, int batchRows) throws IOException {
+        Collected collected = new Collected();
+        MatrixCsv.read(text, batchRows, collected);
+        return collected;
+    }
+
+    @Test
+    void quotedCellsKeepCommasQuotesAndLineBreaks() throws IOException {
+        Collected csv = parse("﻿Option,\"Cost, total\":5,Speed:3\r\n"
+                              + "\"Laptop B, refurbished\",3,4\r\n"
+                              + "\"Say \"\"hi\"\"\",\"7\",\n"
+                              + "\n"
+                              + "\"two\nlines\",1 , 2\n"
+                              + "5\"inch,0,0", 10);
+
+        assertEquals("Cost, total", csv.criteria.get(0).name);
+        assertEquals(5, csv.criteria.get(0).weight);
+        assertEquals(List.of("Laptop B, refurbished", "Say \"hi\"", "two\nlines", "5\"inch"), csv.names);
+        assertArrayEquals(new int[] {7, 0}, csv.scores.get(1)); // Quoted number, empty cell is 0
+        assertArrayEquals(new int[] {1, 2}, csv.scores.get(2));
+        assertEquals(1, csv.batches);
+    }
+
+    @Test
+    void rangesAndBatches() throws IOException {
+        Collected csv = parse("Option,A:1,B:2\nx,3-7,1\ny,2-4-9,5~2\nz,1,2\n", 2);
+        assertEquals(2, csv.batches);
+        assertEquals(List.of("0,0 3-5-7", "1,0 2-4-9", "1,1 3-5-7"), csv.ranges);
+        assertArrayEquals(new int[] {1, 2}, csv.scores.get(2));
+    }
+
+    @Test
+    void errorsNameTheLineTheRecordStartsOn() {
+        assertError("Line 5 has 2 cells, expected 3", "Option,A:1,B:1\nx,1,2\n\"multi\nline\",1,2\ny,1\n");
+        assertError("Line 3 has 2 cells, expected 3", "Option,A:1,B:1\nx,1,2\n\"multi\nline\",1\n");
+        assertError("Line 2 has more than 2 cells", "Option,A:1\nx,1,2\n");
+        assertError("Line 3 has a bad score 'abc' for A:1", "Option,A:1\nx,1\ny,abc\n");
+        assertError("Line 1 has weight 11 in 'A:11', expected 1-10", "Option,A:11\n");
+        assertError("Line 1 has criterion 'A', expected Name:weight", "Option,A\n");
+        assertError("Line 1 needs at least one Name:weight criterion", "Option\n");
+        assertError("Line 2 has an unterminated quoted cell", "Option,A:1\n\"x,1\n");
+        assertError("The file is empty", "\n\n");
+    }
+
+    private static void assertError(String expected, String text) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parse(text, 10));
+        assertTrue(e.getMessage().startsWith(expected), "expected '" + expected + "', got '" + e.getMessage() + "'");
+    }
+
+    @Test
+    void fileRoundTripAcrossChunkBoundaries() throws IOException {
+        // Multi-byte names push rows across the 1 MB read chunks at odd offsets
+        int rows = 120_000;
+        String[] names = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            names[row] = switch (row % 4) {
+                case 0 -> "Опция " + row;
+                case 1 -> "quote \" and, comma " + row;
+                case 2 -> "line\nbreak 😀 " + row;
+                default -> "plain" + row;
+            };
+        }
+        MatrixCsv.Rows model = new MatrixCsv.Rows() {
+            @Override
+            public int getRowCount() {
+                return rows;
+            }
+
+            @Override
+            public String getOptionName(int row) {
+                return names[row];
+            }
+
+            @Override
+            public void appendCellText(StringBuilder out, int row, int i) {
+                out.append(i == 0 ? String.valueOf(row % 11) : (row % 5) + "-" + (row % 5 + 3));
+            }
+        };
+        Path file = dir.resolve("matrix.csv");
+        List<Criterion> criteria = List.of(new Criterion("Cost, €", 4), new Criterion("Speed \"max\"", 7));
+        long bytes = MatrixCsv.write(file, model, criteria);
+        assertEquals(Files.size(file), bytes);
+        assertTrue(bytes > 2 << 20, "only " + bytes + " bytes");
+
+        Collected csv = new Collected();
+        assertEquals(rows, MatrixCsv.read(file, 4096, csv));
+        assertEquals("Cost, €", csv.criteria.get(0).name);
+        assertEquals("Speed \"max\"", csv.criteria.get(1).name);
+        assertEquals(7, csv.criteria.get(1).weight);
+        for (int row = 0; row < rows; row++) {
+            assertEquals(names[row].trim(), csv.names.get(row));
+            assertArrayEquals(new int[] {row % 11, row % 5 + 1}, csv.scores.get(row), "row " + row);
+        }
+    }
+
+    @Test
+    void invalidUtf8IsRejected() throws IOException {
+        Path file = dir.resolve("bad.csv");
+        Files.write(file, new byte[] {'O', ',', 'A', ':', '1', '\n', 'x', (byte) 0xC3, (byte) 0x28, ',', '1', '\n'});
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                  () -> MatrixCsv.read(file, 10, new Collected()));
+        assertTrue(e.getMessage().contains("is not valid UTF-8"), e.getMessage());
+    }
+}
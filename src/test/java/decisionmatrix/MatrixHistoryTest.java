@@ -0,0 +1,129 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+
+class MatrixHistoryTest {
+    private final MatrixTableModel model = new MatrixTableModel();
+    private final ArrayList<Criterion> criteria = new ArrayList<>();
+
+    private MatrixHistory attach(MatrixHistory history) {
+        history.attach();
+        criteria.add(new Criterion("Cost", 5));
+        model.addCriterion("Cost");
+        model.addRow("A");
+        return history;
+    }
+
+    @Test
+    void everyEditIsOneStep() {
+        MatrixHistory history = attach(new MatrixHistory(model, criteria));
+        int[] changes = new int[1];
+        history.setOnChange(() -> changes[0]++);
+        model.setScore(0, 0, 3);
+        model.setScoreRange(0, 0, 1, 4, 9);
+        model.setOptionName(0, "Laptop");
+
+        assertEquals(3, changes[0]);
+        assertEquals("Laptop", history.getHead().getOptionName(0));
+        PersistentMatrix ranged = history.undo();
+        assertEquals("A", ranged.getOptionName(0));
+        assertTrue(ranged.hasRange(0, 0));
+        assertEquals(3, history.undo().getScore(0, 0));
+        assertEquals(0, history.undo().getScore(0, 0)); // The added row
+        assertEquals(0, history.undo().getRowCount()); // The added criterion
+        assertEquals(0, history.undo().getCriterionCount());
+        assertFalse(history.canUndo());
+        assertNull(history.undo());
+
+        assertEquals(1, history.redo().getCriterionCount());
+        assertEquals(1, history.redo().getRowCount());
+        assertTrue(history.canRedo());
+        model.setScore(0, 0, 6); // A new edit drops the redo steps
+        assertFalse(history.canRedo());
+        assertEquals(6, history.getHead().getScore(0, 0));
+    }
+
+    @Test
+    void weightChangesAreSteps() {
+        MatrixHistory history = attach(new MatrixHistory(model, criteria));
+        criteria.get(0).weight = 8;
+        model.setCriterionLabel(0, "Cost (Wt:8)");
+
+        assertEquals(8, history.getHead().getWeight(0));
+        assertEquals(5, history.undo().getWeight(0));
+    }
+
+    @Test
+    void compoundChangesUndoTogether() {
+        MatrixHistory history = attach(new MatrixHistory(model, criteria));
+        PersistentMatrix before = history.getHead();
+        history.beginCompound();
+        model.addRows(new String[] {"B", "C"}, 2, new int[][] {{4, 5}}, new int[1][], new int[1][]);
+        history.beginCompound(); // Nested: still one step
+        model.setScore(0, 0, 9);
+        history.endCompound();
+        history.endCompound();
+
+        assertEquals(3, history.getHead().getRowCount());
+        assertEquals(5, history.getHead().getScore(2, 0));
+        assertSame(before, history.undo());
+    }
+
+    @Test
+    void editsAppliedWithRecordingOffAreNotSteps() {
+        MatrixHistory history = attach(new MatrixHistory(model, criteria));
+        PersistentMatrix head = history.getHead();
+        history.setRecording(false);
+        model.setScore(0, 0, 7);
+        history.setRecording(true);
+        assertSame(head, history.getHead());
+    }
+
+    @Test
+    void branchesKeepTheirOwnHeadAndHistory() {
+        MatrixHistory history = attach(new MatrixHistory(model, criteria));
+        model.setScore(0, 0, 1);
+        PersistentMatrix mainHead = history.getHead();
+
+        assertTrue(history.createBranch("what-if"));
+        assertFalse(history.createBranch("what-if"));
+        assertFalse(history.canRedo());
+        model.setScore(0, 0, 9);
+        assertEquals("what-if", history.getCurrentBranch());
+
+        assertSame(mainHead, history.switchTo(MatrixHistory.MAIN_BRANCH));
+        assertEquals(1, history.undo().getRowCount()); // main's own step before setScore
+        assertEquals(9, history.switchTo("what-if").getScore(0, 0));
+        assertEquals(1, history.undo().getScore(0, 0));
+        assertNull(history.switchTo("missing"));
+        assertEquals(java.util.List.of("main", "what-if"), history.getBranchNames());
+    }
+
+    @Test
+    void undoIsUnlimitedByDefault() {
+        MatrixHistory history = attach(new MatrixHistory(model, criteria));
+        for (int step = 1; step <= 3000; step++) {
+            model.setScore(0, 0, step);
+        }
+        int undone = 0;
+        while (history.undo() != null) {
+            undone++;
+        }
+        assertEquals(3000 + 2, undone);
+    }
+
+    @Test
+    void undoLimitDropsTheOldestSteps() {
+        MatrixHistory history = attach(new MatrixHistory(model, criteria, 3));
+        for (int step = 1; step <= 10; step++) {
+            model.setScore(0, 0, step);
+        }
+        assertEquals(9, history.undo().getScore(0, 0));
+        assertEquals(8, history.undo().getScore(0, 0));
+        assertEquals(7, history.undo().getScore(0, 0));
+        assertNull(history.undo());
+    }
+}
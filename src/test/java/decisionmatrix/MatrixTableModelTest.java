@@ -0,0 +1,123 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.TableModelEvent;
+import org.junit.jupiter.api.Test;
+
+class MatrixTableModelTest {
+
+    @Test
+    void addingAndRelabellingCriteriaFiresNoStructureChange() {
+        MatrixTableModel model = new MatrixTableModel();
+        List<TableModelEvent> events = new ArrayList<>();
+        List<String> criteriaCalls = new ArrayList<>();
+        model.addTableModelListener(events::add);
+        model.addCriteriaListener(new MatrixTableModel.CriteriaListener() {
+            @Override
+            public void criterionAdded(int i) {
+                criteriaCalls.add("added " + i);
+            }
+
+            @Override
+            public void criterionRelabelled(int i) {
+                criteriaCalls.add("relabelled " + i);
+            }
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, model.addCriterion("C" + i));
+        }
+        model.setCriterionLabel(42, "Renamed");
+
+        assertTrue(events.isEmpty(), "no TableModelEvent for criteria");
+        assertEquals(101, criteriaCalls.size());
+        assertEquals("added 99", criteriaCalls.get(99));
+        assertEquals("relabelled 42", criteriaCalls.get(100));
+        assertEquals(MatrixTableModel.FIRST_CRITERION_COL + 100, model.getColumnCount());
+        assertEquals("Renamed", model.getColumnName(MatrixTableModel.FIRST_CRITERION_COL + 42));
+    }
+
+    @Test
+    void droppingCriteriaIsAStructureChangeButDroppingRowsIsNot() {
+        MatrixTableModel model = new MatrixTableModel();
+        model.addCriterion("A");
+        model.addCriterion("B");
+        for (int row = 0; row < 5; row++) {
+            model.addRow("O" + row);
+        }
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+
+        model.truncate(3, 2);
+        assertEquals(TableModelEvent.DELETE, events.get(0).getType());
+        assertEquals(3, events.get(0).getFirstRow());
+        assertEquals(4, events.get(0).getLastRow());
+
+        model.truncate(3, 1);
+        assertEquals(TableModelEvent.HEADER_ROW, events.get(1).getFirstRow());
+        assertEquals(1, model.getCriterionCount());
+    }
+
+    @Test
+    void cellEditEventCarriesOldAndNewValue() {
+        MatrixTableModel model = new MatrixTableModel();
+        model.addCriterion("A");
+        model.addRow("X");
+        model.setScore(0, 0, 4);
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+
+        model.setValueAt("9", 0, MatrixTableModel.FIRST_CRITERION_COL);
+
+        MatrixTableModel.CellEditEvent edit = (MatrixTableModel.CellEditEvent) events.get(0);
+        assertEquals(4, edit.oldValue);
+        assertEquals(9, edit.newValue);
+        assertEquals(0, edit.criterion);
+        assertEquals(9, model.getScore(0, 0));
+    }
+
+    @Test
+    void rangesAreParsedStoredAndFormatted() {
+        assertArrayEquals(new int[] {3, 5, 7}, MatrixTableModel.parseRange("3-7"));
+        assertArrayEquals(new int[] {2, 4, 9}, MatrixTableModel.parseRange("2-4-9"));
+        assertArrayEquals(new int[] {3, 5, 7}, MatrixTableModel.parseRange("5~2"));
+        assertArrayEquals(new int[] {3, 5, 7}, MatrixTableModel.parseRange("7-3"));
+        assertNull(MatrixTableModel.parseRange("-4"));
+        assertNull(MatrixTableModel.parseRange("abc"));
+
+        MatrixTableModel model = new MatrixTableModel();
+        model.addCriterion("A");
+        model.addRow("X");
+        model.setValueAt("2-4-9", 0, MatrixTableModel.FIRST_CRITERION_COL);
+        assertTrue(model.hasRange(0, 0));
+        assertEquals(4, model.getScore(0, 0));
+        assertEquals("2-4-9", model.getValueAt(0, MatrixTableModel.FIRST_CRITERION_COL));
+
+        model.setValueAt("6", 0, MatrixTableModel.FIRST_CRITERION_COL);
+        assertFalse(model.hasRange(0, 0));
+        assertEquals(6, model.getValueAt(0, MatrixTableModel.FIRST_CRITERION_COL));
+    }
+
+    @Test
+    void bulkRowsGrowColumnsAndInternNames() {
+        MatrixTableModel model = new MatrixTableModel();
+        model.addCriterion("A");
+        model.addCriterion("B");
+        int count = 1000;
+        String[] names = new String[count];
+        int[] scores = new int[count];
+        for (int row = 0; row < count; row++) {
+            names[row] = "O" + (row % 10);
+            scores[row] = row;
+        }
+        model.addRows(names, count, new int[][] {scores, null}, new int[2][], new int[2][]);
+
+        assertEquals(count, model.getRowCount());
+        assertEquals(999, model.getScore(999, 0));
+        assertEquals(0, model.getScore(999, 1));
+        assertEquals("O7", model.getOptionName(997));
+    }
+}
@@ -0,0 +1,64 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MonteCarloEngineTest {
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void percentilesFollowTheTriangularDistribution() {
+        // One option, one criterion: triangular(0, 2, 10), weight 1.
+        // CDF is x^2 / 20 up to 2, then 1 - (10 - x)^2 / 80.
+        MonteCarloEngine.MonteCarloResult r = MonteCarloEngine.simulate(new int[] {1}, new int[][] {{2}},
+            new int[][] {{0}}, new int[][] {{10}}, 1, 1, SAMPLES, 42);
+
+        assertEquals(1.0, r.p5[0], 0.1);                      // sqrt(0.05 * 20)
+        assertEquals(10 - Math.sqrt(40), r.p50[0], 0.1);      // 3.68
+        assertEquals(10 - Math.sqrt(0.05 * 80), r.p95[0], 0.1); // 8.0
+        assertEquals(1.0, r.winProbability[0]);
+    }
+
+    @Test
+    void weightsScaleTheDistribution() {
+        MonteCarloEngine.MonteCarloResult r = MonteCarloEngine.simulate(new int[] {3}, new int[][] {{5}},
+            new int[][] {{0}}, new int[][] {{10}}, 1, 1, SAMPLES, 1);
+        assertEquals(15.0, r.p50[0], 0.3);
+    }
+
+    @Test
+    void winProbabilitiesMatchTheOverlapAndSumToOne() {
+        // A is exactly 5; B is symmetric triangular(0, 5, 10), so B wins half the time.
+        // C is exactly 4 and never wins.
+        int[][] likely = {{5, 5, 4}};
+        int[][] lows = {{5, 0, 4}};
+        int[][] highs = {{5, 10, 4}};
+        MonteCarloEngine.MonteCarloResult r = MonteCarloEngine.simulate(new int[] {2}, likely, lows, highs,
+                                                                        3, 1, SAMPLES, 7);
+        assertEquals(0.5, r.winProbability[1], 0.01);
+        assertEquals(0.5, r.winProbability[0], 0.01);
+        assertEquals(0.0, r.winProbability[2]);
+        assertEquals(1.0, r.winProbability[0] + r.winProbability[1] + r.winProbability[2], 1e-9);
+        assertEquals(10.0, r.p50[0]); // Exact rows report their fixed total
+    }
+
+    @Test
+    void sameSeedGivesTheSameResult() {
+        int[][] likely = {{3, 6}, {7, 2}};
+        int[][] lows = {{1, 4}, {5, 0}};
+        int[][] highs = {{8, 9}, {9, 6}};
+        MonteCarloEngine.MonteCarloResult a = MonteCarloEngine.simulate(new int[] {4, 2}, likely, lows, highs,
+                                                                        2, 2, 50_000, 99);
+        MonteCarloEngine.MonteCarloResult b = MonteCarloEngine.simulate(new int[] {4, 2}, likely, lows, highs,
+                                                                        2, 2, 50_000, 99);
+        assertArrayEquals(a.winProbability, b.winProbability);
+        assertArrayEquals(a.p50, b.p50);
+    }
+
+    @Test
+    void rejectsNonPositiveSampleCounts() {
+        assertThrows(IllegalArgumentException.class, () -> MonteCarloEngine.simulate(new int[] {1},
+            new int[][] {{1}}, new int[][] {null}, new int[][] {null}, 1, 1, 0, 1));
+    }
+}
@@ -0,0 +1,22 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class NameDictionaryTest {
+
+    @Test
+    void internsEachNameOnceWithDenseIds() {
+        NameDictionary dictionary = new NameDictionary();
+        for (int n = 0; n < 100; n++) {
+            assertEquals(n, dictionary.intern("name" + n));
+        }
+        assertEquals(42, dictionary.intern("name42"));
+        assertEquals(100, dictionary.size());
+        assertEquals("name99", dictionary.name(99));
+        assertEquals(7, dictionary.lookup("name7"));
+        assertEquals(-1, dictionary.lookup("missing"));
+        assertEquals(100, dictionary.size());
+    }
+}
@@ -0,0 +1,110 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ParetoFilterTest {
+
+    private static int[] bruteForce(int[][] columns, int rows, int cols) {
+        return IntStream.range(0, rows).filter(row -> {
+            for (int other = 0; other < rows; other++) {
+                boolean atLeast = true;
+                boolean better = false;
+                for (int i = 0; i < cols; i++) {
+                    int o = columns[i] == null ? 0 : columns[i][other];
+                    int r = columns[i] == null ? 0 : columns[i][row];
+                    atLeast &= o >= r;
+                    better |= o > r;
+                }
+                if (atLeast && better) {
+                    return false;
+                }
+            }
+            return true;
+        }).toArray();
+    }
+
+    @Test
+    void matchesBruteForceForEveryCriterionCount() {
+        Random random = new Random(11);
+        for (int round = 0; round < 600; round++) {
+            int rows = 1 + random.nextInt(60);
+            int cols = 1 + random.nextInt(6);
+            int range = 1 + random.nextInt(6); // Small ranges give many ties and duplicate rows
+            int[][] columns = new int[cols][];
+            for (int i = 0; i < cols; i++) {
+                if (random.nextInt(6) > 0) {
+                    columns[i] = random.ints(rows, -range, range).toArray();
+                }
+            }
+            assertArrayEquals(bruteForce(columns, rows, cols), ParetoFilter.front(columns, rows, cols),
+                              "round " + round + ": " + rows + " x " + cols);
+        }
+    }
+
+    @Test
+    void identicalRowsAreAllOnTheFrontOrAllOff() {
+        int[][] columns = {{5, 5, 5, 6}, {1, 1, 1, 0}, {2, 2, 2, 2}};
+        assertArrayEquals(new int[] {0, 1, 2, 3}, ParetoFilter.front(columns, 4, 3));
+        columns[0][3] = 5;
+        columns[1][3] = 1;
+        columns[2][3] = 3;
+        assertArrayEquals(new int[] {3}, ParetoFilter.front(columns, 4, 3));
+    }
+
+    @Test
+    void threeCriteriaWithEveryRowOnTheFrontStaysFast() {
+        // Points on the plane x + y + z = n: nobody dominates anybody, the worst case for pairwise checks
+        int rows = 300_000;
+        int[][] columns = new int[3][rows];
+        Random random = new Random(2);
+        for (int row = 0; row < rows; row++) {
+            int x = random.nextInt(rows);
+            int y = random.nextInt(rows - x);
+            columns[0][row] = x;
+            columns[1][row] = y;
+            columns[2][row] = rows - x - y;
+        }
+        long start = System.nanoTime();
+        assertEquals(rows, ParetoFilter.front(columns, rows, 3).length);
+        assertTrue(System.nanoTime() - start < 10_000_000_000L, "took " + (System.nanoTime() - start) / 1e6 + " ms");
+    }
+
+    @Test
+    void boundedVariantGivesUpWhenMostRowsAreOnTheFront() {
+        int rows = 20_000;
+        int cols = 5;
+        int[][] columns = new int[cols][rows];
+        for (int row = 0; row < rows; row++) {
+            columns[0][row] = row;
+            columns[1][row] = rows - row; // Anti-correlated, so every row is on the front
+            for (int i = 2; i < cols; i++) {
+                columns[i][row] = row % 3;
+            }
+        }
+        assertNull(ParetoFilter.front(columns, rows, cols, 1_000_000));
+        assertEquals(rows, ParetoFilter.front(columns, rows, cols).length);
+
+        // A dominant row keeps the fronts tiny, so the same budget is plenty
+        for (int i = 0; i < cols; i++) {
+            columns[i][0] = Integer.MAX_VALUE;
+        }
+        assertArrayEquals(new int[] {0}, ParetoFilter.front(columns, rows, cols, 1_000_000));
+    }
+
+    @Test
+    void selectAndMapBackToMatrixRows() {
+        int[][] columns = {{1, 9, 3, 7}, null};
+        int[] front = {1, 3};
+        int[][] selected = ParetoFilter.select(columns, 2, front);
+        assertArrayEquals(new int[] {9, 7}, selected[0]);
+        assertNull(selected[1]);
+
+        int[] ranked = {1, 0, -1};
+        ParetoFilter.toMatrixRows(front, ranked);
+        assertArrayEquals(new int[] {3, 1, -1}, ranked);
+    }
+}
@@ -0,0 +1,149 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PersistentMatrixTest {
+
+    private static PersistentMatrix matrix(int rows, int cols) {
+        MatrixTableModel model = new MatrixTableModel();
+        ArrayList<Criterion> criteria = new ArrayList<>();
+        for (int i = 0; i < cols; i++) {
+            criteria.add(new Criterion("C" + i, i + 1));
+            model.addCriterion("C" + i);
+        }
+        for (int row = 0; row < rows; row++) {
+            model.addRow("O" + row);
+            for (int i = 0; i < cols; i++) {
+                model.setScore(row, i, (row + i) % 10);
+            }
+        }
+        model.setScoreRange(1, 0, 1, 3, 8);
+        return PersistentMatrix.of(model, criteria);
+    }
+
+    // Records every visitor call as text
+    private static List<String> diff(PersistentMatrix from, PersistentMatrix to) {
+        List<String> calls = new ArrayList<>();
+        long changed = from.diff(to, new PersistentMatrix.DiffVisitor() {
+            @Override
+            public void truncate(int rows, int criteria) {
+                calls.add("truncate " + rows + "x" + criteria);
+            }
+
+            @Override
+            public void criterion(int i, String name, int weight) {
+                calls.add("criterion " + i + " " + name + ":" + weight);
+            }
+
+            @Override
+            public void optionName(int row, String name) {
+                calls.add("name " + row + " " + name);
+            }
+
+            @Override
+            public void cell(int row, int i, int low, int likely, int high) {
+                calls.add("cell " + row + "," + i + " " + low + "/" + likely + "/" + high);
+            }
+
+            @Override
+            public void appendRows(PersistentMatrix target, int from, int to) {
+                calls.add("append " + from + "-" + to);
+            }
+        });
+        calls.add("changed " + changed);
+        return calls;
+    }
+
+    @Test
+    void snapshotsMatchTheTable() {
+        PersistentMatrix m = matrix(1200, 3);
+        assertEquals(1200, m.getRowCount());
+        assertEquals(3, m.getCriterionCount());
+        assertEquals("O1100", m.getOptionName(1100));
+        assertEquals((1100 + 2) % 10, m.getScore(1100, 2));
+        assertTrue(m.hasRange(1, 0));
+        assertEquals(1, m.getRangeLow(1, 0));
+        assertEquals(8, m.getRangeHigh(1, 0));
+        StringBuilder text = new StringBuilder();
+        m.appendCellText(text, 1, 0);
+        assertEquals(MatrixTableModel.formatRange(1, 3, 8), text.toString());
+        assertEquals(2, m.getWeight(1));
+    }
+
+    @Test
+    void newVersionsLeaveTheOldOneUnchanged() {
+        PersistentMatrix before = matrix(1200, 3);
+        PersistentMatrix after = before.withScore(700, 1, 42).withOptionName(5, "Renamed").withScore(1, 0, 4)
+                                       .withCriterion(2, "Speed", 9);
+
+        assertEquals((700 + 1) % 10, before.getScore(700, 1));
+        assertEquals("O5", before.getOptionName(5));
+        assertTrue(before.hasRange(1, 0));
+        assertEquals("C2", before.getCriterionName(2));
+
+        assertEquals(42, after.getScore(700, 1));
+        assertEquals("Renamed", after.getOptionName(5));
+        assertFalse(after.hasRange(1, 0)); // A plain score replaces the range
+        assertEquals(9, after.getWeight(2));
+        assertSame(before, before.withScore(3, 0, before.getScore(3, 0)));
+    }
+
+    @Test
+    void diffVisitsOnlyWhatChanged() {
+        PersistentMatrix before = matrix(1200, 3);
+        PersistentMatrix after = before.withScore(700, 1, 42).withOptionName(5, "Renamed")
+                                       .withRange(1000, 2, 0, 5, 9).withCriterion(0, "Cost", 1);
+
+        assertEquals(List.of("criterion 0 Cost:1", "name 5 Renamed", "cell 700,1 42/42/42", "cell 1000,2 0/5/9",
+                             "changed 2"), diff(before, after));
+        assertEquals(List.of("changed 0"), diff(after, after));
+    }
+
+    @Test
+    void diffAcrossShapeChanges() {
+        PersistentMatrix before = matrix(600, 2);
+        PersistentMatrix smaller = before.truncate(520, 1);
+        assertEquals(List.of("truncate 520x1", "changed 0"), diff(before, smaller));
+
+        // Back from the smaller one: the dropped criterion returns, then its cells and the rows
+        List<String> calls = diff(smaller, before);
+        assertEquals("criterion 1 C1:2", calls.get(0));
+        assertEquals("append 520-600", calls.get(calls.size() - 2));
+        assertEquals("changed " + (520 - 52 + 80 * 2), calls.get(calls.size() - 1)); // C1 is 0 on 52 of 520 rows
+    }
+
+    @Test
+    void truncateClearsTheTailOfTheLastChunk() {
+        MatrixTableModel model = new MatrixTableModel();
+        model.addCriterion("C");
+        model.addRow("fresh");
+        PersistentMatrix m = matrix(600, 1).truncate(10, 1).withRowsFrom(model, 0, 1);
+
+        assertEquals(11, m.getRowCount());
+        assertEquals("fresh", m.getOptionName(10));
+        assertEquals(0, m.getScore(10, 0)); // Not row 10's old score
+        assertEquals(9, m.getScore(9, 0));
+        assertArrayEquals(new int[] {8, 9, 0}, m.scoreSlice(0, 8, 11));
+    }
+
+    @Test
+    void scoresLikeTheEngine() {
+        PersistentMatrix m = PersistentMatrix.EMPTY.withCriterion("Cost", 5).withCriterion("Speed", 3);
+        MatrixTableModel model = new MatrixTableModel();
+        model.addCriterion("Cost");
+        model.addCriterion("Speed");
+        model.addRow("A");
+        model.addRow("B");
+        m = m.withRowsFrom(model, 0, 2).withScore(0, 0, 7).withScore(0, 1, 4).withScore(1, 0, 5).withScore(1, 1, 9);
+
+        DecisionResult result = m.toDecisionResult("u");
+        assertEquals("B", result.getWinner());
+        assertEquals(52, result.getWinnerScore());
+        assertEquals("Speed", result.getCriterionName(1));
+        assertEquals(3, result.getCriterionWeight(1));
+    }
+}
@@ -0,0 +1,156 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResultArchiveTest {
+    @TempDir
+    Path dir;
+
+    private ResultArchive open(long maxSegmentBytes, long maxSegmentMillis) throws IOException {
+        return ResultArchive.open(dir, maxSegmentBytes, maxSegmentMillis, HistoryLog.FsyncPolicy.NEVER);
+    }
+
+    private static byte[] text(int n) {
+        return TestData.result(n).toFileFormat().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void rollsCompressesAndReadsEveryResultBack() throws Exception {
+        // About 1.5 MB of results in 1 MB segments: the first segment spans several 256 KB gzip members
+        int count = 8000;
+        try (ResultArchive archive = open(1 << 20, ResultArchive.DEFAULT_SEGMENT_MILLIS)) {
+            for (int start = 0; start < count; start += 1000) {
+                List<DecisionResult> batch = new ArrayList<>();
+                for (int n = start; n < start + 1000; n++) {
+                    batch.add(TestData.result(n));
+                }
+                List<Path> paths = archive.appendAll(batch);
+                assertEquals(1000, paths.size());
+            }
+            archive.awaitCompression();
+
+            assertEquals(count, archive.getResultCount());
+            assertTrue(archive.getSegmentCount() >= 2, "segments: " + archive.getSegmentCount());
+            assertTrue(Files.exists(dir.resolve("segment-000001.txt.gz")));
+            assertTrue(Files.exists(dir.resolve("segment-000001.zidx")));
+            assertFalse(Files.exists(dir.resolve("segment-000001.txt")));
+
+            for (int n = 0; n < count; n += 7) {
+                assertArrayEquals(text(n), archive.read(n), "result " + n);
+            }
+            assertArrayEquals(text(count - 1), archive.read(count - 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> archive.read(count));
+
+            int[] next = {0};
+            archive.scan((text, millis) -> {
+                assertArrayEquals(text(next[0]), text, "scan " + next[0]);
+                assertEquals(HistoryIndex.epochMillis(TestData.result(next[0]).timestamp), millis);
+                next[0]++;
+            });
+            assertEquals(count, next[0]);
+        }
+
+        // zcat-style: the members of a sealed segment inflate to its results back to back
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(dir.resolve("segment-000001.txt.gz")))) {
+            in.transferTo(plain);
+        }
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int n = 0; expected.size() < plain.size(); n++) {
+            expected.write(text(n));
+        }
+        assertArrayEquals(expected.toByteArray(), plain.toByteArray());
+    }
+
+    @Test
+    void reopenCutsATornTailOffTheActiveSegment() throws Exception {
+        try (ResultArchive archive = open(ResultArchive.DEFAULT_SEGMENT_BYTES, ResultArchive.DEFAULT_SEGMENT_MILLIS)) {
+            archive.appendAll(List.of(TestData.result(0), TestData.result(1), TestData.result(2)));
+        }
+        // A crash mid-append: text with no index entry, and half an index entry
+        Files.write(dir.resolve("segment-000001.txt"), "Date: 2024".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+        try (FileChannel index = FileChannel.open(dir.resolve("segment-000001.idx"), StandardOpenOption.WRITE,
+                                                  StandardOpenOption.APPEND)) {
+            index.write(ByteBuffer.allocate(10));
+        }
+
+        try (ResultArchive archive = open(ResultArchive.DEFAULT_SEGMENT_BYTES, ResultArchive.DEFAULT_SEGMENT_MILLIS)) {
+            assertEquals(3, archive.getResultCount());
+            archive.appendAll(List.of(TestData.result(3)));
+            for (int n = 0; n < 4; n++) {
+                assertArrayEquals(text(n), archive.read(n));
+            }
+        }
+        long expectedBytes = 0;
+        for (int n = 0; n < 4; n++) {
+            expectedBytes += text(n).length;
+        }
+        assertEquals(expectedBytes, Files.size(dir.resolve("segment-000001.txt")));
+    }
+
+    @Test
+    void compressedSegmentsSurviveAReopen() throws Exception {
+        try (ResultArchive archive = open(600, ResultArchive.DEFAULT_SEGMENT_MILLIS)) {
+            for (int n = 0; n < 20; n++) {
+                archive.appendAll(List.of(TestData.result(n)));
+            }
+            archive.awaitCompression();
+        }
+        try (ResultArchive archive = open(600, ResultArchive.DEFAULT_SEGMENT_MILLIS)) {
+            assertEquals(20, archive.getResultCount());
+            for (int n = 0; n < 20; n++) {
+                assertArrayEquals(text(n), archive.read(n), "result " + n);
+            }
+        }
+    }
+
+    @Test
+    void rollsByAge() throws Exception {
+        try (ResultArchive archive = open(ResultArchive.DEFAULT_SEGMENT_BYTES, 36L * 3600 * 1000)) {
+            // Results 0..3 are dated Jan 1..4; the segment started Jan 1 is sealed once a result is more than 36h newer
+            archive.appendAll(List.of(TestData.result(0), TestData.result(1)));
+            assertEquals(1, archive.getSegmentCount());
+            archive.appendAll(List.of(TestData.result(2), TestData.result(3)));
+            assertEquals(2, archive.getSegmentCount());
+            assertArrayEquals(text(2), archive.read(2));
+        }
+    }
+
+    @Test
+    void migrateMovesResultFilesInDateOrder() throws Exception {
+        Path results = dir.resolve("results");
+        Files.createDirectories(results);
+        // File names sort the other way round from the dates inside them
+        for (int n = 0; n < 3; n++) {
+            Files.write(results.resolve("z" + (9 - n) + ".txt"), text(2 - n));
+        }
+        Files.writeString(results.resolve("notes.md"), "not a result");
+
+        try (ResultArchive archive = open(ResultArchive.DEFAULT_SEGMENT_BYTES, ResultArchive.DEFAULT_SEGMENT_MILLIS)) {
+            assertEquals(3, archive.migrate(results));
+            for (int n = 0; n < 3; n++) {
+                assertArrayEquals(text(n), archive.read(n));
+            }
+            assertEquals(0, archive.migrate(dir.resolve("missing")));
+        }
+        try (var left = Files.list(results)) {
+            assertEquals(List.of("notes.md"), left.map(p -> p.getFileName().toString()).toList());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SensitivityAnalyzerTest {
+
+    @Test
+    void thresholdsMarkExactlyWhereTheWinnerChanges() {
+        // Price: A 9, B 2. Quality: A 3, B 8. Weights 5 and 4: A 57, B 42.
+        int[] weights = {5, 4};
+        int[][] columns = {{9, 2}, {3, 8}};
+        ArrayList<SensitivityAnalyzer.CriterionSensitivity> result = SensitivityAnalyzer.analyze(weights, columns, 2, 2);
+
+        SensitivityAnalyzer.CriterionSensitivity price = find(result, 0);
+        // B overtakes once 9w + 12 < 2w + 32, i.e. w < 20/7
+        assertEquals(20.0 / 7, price.lowerThreshold, 1e-9);
+        assertEquals(1, price.lowerChallenger);
+        assertEquals(Double.POSITIVE_INFINITY, price.upperThreshold);
+        assertTrue(price.canReverse());
+
+        SensitivityAnalyzer.CriterionSensitivity quality = find(result, 1);
+        // B overtakes once 45 + 3w < 10 + 8w, i.e. w > 7
+        assertEquals(7.0, quality.upperThreshold, 1e-9);
+        assertEquals(1, quality.upperChallenger);
+        assertEquals(Double.NEGATIVE_INFINITY, quality.lowerThreshold);
+    }
+
+    @Test
+    void thresholdsAgreeWithBruteForceRescoring() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 200; trial++) {
+            int rows = 2 + random.nextInt(8);
+            int cols = 1 + random.nextInt(4);
+            int[] weights = new int[cols];
+            int[][] columns = new int[cols][rows];
+            for (int j = 0; j < cols; j++) {
+                weights[j] = 1 + random.nextInt(10);
+                for (int row = 0; row < rows; row++) {
+                    columns[j][row] = random.nextInt(11);
+                }
+            }
+            int[] totals = new int[rows];
+            int winner = DecisionEngine.scoreColumns(weights, columns, rows, cols, totals);
+
+            for (SensitivityAnalyzer.CriterionSensitivity s : SensitivityAnalyzer.analyze(weights, columns, rows, cols)) {
+                int j = s.criterion;
+                // Just inside the thresholds the winner still leads (or ties); just outside someone beats it
+                if (s.upperThreshold != Double.POSITIVE_INFINITY) {
+                    assertFalse(beaten(weights, columns, rows, cols, j, s.upperThreshold - 1e-6, winner));
+                    assertTrue(beaten(weights, columns, rows, cols, j, s.upperThreshold + 1e-6, winner));
+                } else {
+                    assertFalse(beaten(weights, columns, rows, cols, j, weights[j] + 1000, winner));
+                }
+                if (s.lowerThreshold != Double.NEGATIVE_INFINITY) {
+                    assertFalse(beaten(weights, columns, rows, cols, j, s.lowerThreshold + 1e-6, winner));
+                    assertTrue(beaten(weights, columns, rows, cols, j, s.lowerThreshold - 1e-6, winner));
+                } else {
+                    assertFalse(beaten(weights, columns, rows, cols, j, weights[j] - 1000, winner));
+                }
+            }
+        }
+    }
+
+    @Test
+    void resultsAreOrderedByInfluence() {
+        int[] weights = {3, 3, 3};
+        int[][] columns = {{10, 0, 0}, {1, 1, 1}, {5, 6, 5}};
+        ArrayList<SensitivityAnalyzer.CriterionSensitivity> result = SensitivityAnalyzer.analyze(weights, columns, 3, 3);
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).influence >= result.get(i).influence);
+        }
+        assertEquals(0, result.get(0).criterion);
+    }
+
+    @Test
+    void noOptionsMeansNoResults() {
+        assertTrue(SensitivityAnalyzer.analyze(new int[] {1}, new int[][] {null}, 0, 1).isEmpty());
+    }
+
+    // True if some option scores strictly more than winner with criterion j weighted w
+    private static boolean beaten(int[] weights, int[][] columns, int rows, int cols, int j, double w, int winner) {
+        double[] totals = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            for (int c = 0; c < cols; c++) {
+                totals[row] += columns[c][row] * (c == j ? w : weights[c]);
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            if (totals[row] > totals[winner] + 1e-9) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SensitivityAnalyzer.CriterionSensitivity find(
+            ArrayList<SensitivityAnalyzer.CriterionSensitivity> results, int criterion) {
+        for (SensitivityAnalyzer.CriterionSensitivity s : results) {
+            if (s.criterion == criterion) {
+                return s;
+            }
+        }
+        throw new AssertionError("No result for criterion " + criterion);
+    }
+}
@@ -0,0 +1,34 @@
+package decisionmatrix;
+
+import java.util.ArrayList;
+
+// Small builders shared by the tests
+final class TestData {
+    private TestData() {
+    }
+
+    // A decision by user; option i totals scores[i] and the ranking is best first
+    static DecisionResult result(String user, String timestamp, String[] criteria, int[] weights,
+                                 String[] options, int[] scores) {
+        ArrayList<Criterion> criteriaList = new ArrayList<>();
+        for (int i = 0; i < criteria.length; i++) {
+            criteriaList.add(new Criterion(criteria[i], weights[i]));
+        }
+        ArrayList<OptionScore> optionScores = new ArrayList<>();
+        for (int i = 0; i < options.length; i++) {
+            optionScores.add(new OptionScore(options[i], scores[i]));
+        }
+        ArrayList<OptionScore> ranking = new ArrayList<>(optionScores);
+        ranking.sort((a, b) -> Integer.compare(b.totalScore, a.totalScore));
+        DecisionResult result = new DecisionResult(user, criteriaList, optionScores, ranking);
+        result.timestamp = timestamp;
+        return result;
+    }
+
+    // Decision number n: user "user<n % 3>", two options, the winner alternating
+    static DecisionResult result(int n) {
+        return result("user" + (n % 3), String.format("2024-01-%02dT10:00:%02d", 1 + n % 28, n % 60),
+                      new String[] {"Cost", "Speed"}, new int[] {5, 3},
+                      new String[] {"A" + n, "B" + n}, new int[] {n % 2 == 0 ? 50 : 10, 30});
+    }
+}
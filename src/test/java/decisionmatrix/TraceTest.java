@@ -0,0 +1,62 @@
+package decisionmatrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TraceTest {
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    private PrintStream originalErr;
+
+    @BeforeEach
+    void captureStderr() {
+        originalErr = System.err;
+        System.setErr(new PrintStream(captured, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void restore() {
+        System.setErr(originalErr);
+        Trace.setLevel(Trace.parseLevel(System.getProperty("decision.trace", "info")));
+    }
+
+    private String output() {
+        return captured.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    @Test
+    void fillsPlaceholdersInOrder() {
+        Trace.setLevel(Trace.DEBUG);
+        Trace.debug("Processing {} rows against {} criteria.", 12, 3);
+        Trace.debug("Winner: {} ---", "B");
+        Trace.info("Loaded {}", (Object) null);
+        Trace.debug("No placeholder", 7L);
+        assertEquals("[DEBUG] Processing 12 rows against 3 criteria.\n"
+                     + "[DEBUG] Winner: B ---\n"
+                     + "[INFO] Loaded null\n"
+                     + "[DEBUG] No placeholder 7\n", output());
+    }
+
+    @Test
+    void linesBelowTheLevelAreDropped() {
+        Trace.setLevel(Trace.INFO);
+        Trace.debug("hidden {}", "x");
+        Trace.info("shown");
+        Trace.setLevel(Trace.OFF);
+        Trace.info("hidden too");
+        assertEquals("[INFO] shown\n", output());
+        assertFalse(Trace.isEnabled(Trace.INFO));
+    }
+
+    @Test
+    void levelNamesParse() {
+        assertEquals(Trace.OFF, Trace.parseLevel(" OFF"));
+        assertEquals(Trace.DEBUG, Trace.parseLevel("debug"));
+        assertEquals(Trace.INFO, Trace.parseLevel("verbose")); // Unknown names fall back to the default
+    }
+}